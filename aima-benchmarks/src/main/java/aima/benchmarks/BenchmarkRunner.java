@@ -0,0 +1,24 @@
+package aima.benchmarks;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the AIMA benchmarks with JMH and writes the results in JSON format.
+ * Usage: <code>BenchmarkRunner [includeRegExp [resultFile]]</code>. By
+ * default, all benchmarks are run and the results are written to
+ * <code>jmh-result.json</code>.
+ */
+public class BenchmarkRunner {
+
+	public static void main(String[] args) throws Exception {
+		String include = args.length > 0 ? args[0] : ".*";
+		String resultFile = args.length > 1 ? args[1] : "jmh-result.json";
+		Options options = new OptionsBuilder().include(include).forks(1)
+				.resultFormat(ResultFormatType.JSON).result(resultFile)
+				.build();
+		new Runner(options).run();
+	}
+}
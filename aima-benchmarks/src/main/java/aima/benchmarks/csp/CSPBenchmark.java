@@ -0,0 +1,85 @@
+package aima.benchmarks.csp;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import aima.core.search.csp.Assignment;
+import aima.core.search.csp.CSP;
+import aima.core.search.csp.ImprovedBacktrackingStrategy;
+import aima.core.search.csp.NQueensCSP;
+
+/**
+ * Measures {@link ImprovedBacktrackingStrategy} with MRV and degree heuristic
+ * on n-queens problems and random map coloring problems (four colors). The
+ * inference algorithm is a benchmark parameter (without inference, the
+ * larger instances take too long). Since inference may reduce domains
+ * permanently, each run works on a copy of the CSP. Each problem has its own
+ * state class, so that JMH only combines the parameters which are used.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class CSPBenchmark {
+
+	@State(Scope.Benchmark)
+	public static class NQueensProblem {
+		@Param( { "FORWARD_CHECKING", "AC3", "AC2001" })
+		public String inference;
+
+		@Param( { "8", "16" })
+		public int queens;
+
+		CSP csp;
+
+		@Setup
+		public void setup() {
+			csp = new NQueensCSP(queens);
+		}
+	}
+
+	@State(Scope.Benchmark)
+	public static class MapColoringProblem {
+		@Param( { "FORWARD_CHECKING", "AC3", "AC2001" })
+		public String inference;
+
+		@Param( { "30", "60" })
+		public int regions;
+
+		@Param( { "1" })
+		public long seed;
+
+		CSP csp;
+
+		@Setup
+		public void setup() {
+			csp = new RandomMapCSP(regions, 4, seed);
+		}
+	}
+
+	@Benchmark
+	public Assignment nQueens(NQueensProblem problem) {
+		return createStrategy(problem.inference).solve(
+				problem.csp.copyDomains());
+	}
+
+	@Benchmark
+	public Assignment mapColoring(MapColoringProblem problem) {
+		return createStrategy(problem.inference).solve(
+				problem.csp.copyDomains());
+	}
+
+	private static ImprovedBacktrackingStrategy createStrategy(String inference) {
+		ImprovedBacktrackingStrategy result = new ImprovedBacktrackingStrategy(
+				true, true, false, false);
+		result.setInference(ImprovedBacktrackingStrategy.Inference
+				.valueOf(inference));
+		return result;
+	}
+}
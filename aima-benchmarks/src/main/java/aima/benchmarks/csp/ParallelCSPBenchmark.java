@@ -0,0 +1,57 @@
+package aima.benchmarks.csp;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import aima.core.search.csp.Assignment;
+import aima.core.search.csp.NQueensCSP;
+import aima.core.search.csp.ParallelBacktrackingStrategy;
+
+/**
+ * Measures the scaling of {@link ParallelBacktrackingStrategy} with the number
+ * of threads. Counting all n-queens solutions explores the complete search
+ * tree, random map coloring problems are solved in first-solution mode.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ParallelCSPBenchmark {
+
+	@Param( { "1", "2", "4" })
+	public int threads;
+
+	@Param( { "10" })
+	public int queens;
+
+	@Param( { "60" })
+	public int regions;
+
+	@Param( { "1" })
+	public long seed;
+
+	private ParallelBacktrackingStrategy strategy;
+
+	@Setup
+	public void setup() {
+		strategy = new ParallelBacktrackingStrategy();
+		strategy.setThreadCount(threads);
+	}
+
+	@Benchmark
+	public long nQueensCountAll() {
+		return strategy.countSolutions(new NQueensCSP(queens));
+	}
+
+	@Benchmark
+	public Assignment mapColoring() {
+		return strategy.solve(new RandomMapCSP(regions, 4, seed));
+	}
+}
@@ -0,0 +1,106 @@
+package aima.benchmarks.csp;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import aima.core.search.csp.CSP;
+import aima.core.search.csp.Domain;
+import aima.core.search.csp.NotEqualConstraint;
+import aima.core.search.csp.Variable;
+
+/**
+ * Random map coloring problem as proposed in AIMA3e Exercise 6.10: Points are
+ * scattered in the unit square and each point is connected by a straight line
+ * to the nearest point it is not already connected to, such that the line
+ * crosses no other line. This is repeated until no more connections are
+ * possible. The resulting graph is planar, so it can be colored with four
+ * colors. Instances are reproducible for a given seed.
+ */
+public class RandomMapCSP extends CSP {
+
+	public RandomMapCSP(int numRegions, int numColors, long seed) {
+		super(createVariables(numRegions));
+		Object[] colors = new Object[numColors];
+		for (int i = 0; i < numColors; i++)
+			colors[i] = "C" + i;
+		Domain domain = new Domain(colors);
+		for (Variable var : getVariables())
+			setDomain(var, domain);
+		connectRegions(numRegions, seed);
+	}
+
+	//
+	// PRIVATE METHODS
+	//
+
+	private static List<Variable> createVariables(int size) {
+		List<Variable> result = new ArrayList<Variable>(size);
+		for (int i = 0; i < size; i++)
+			result.add(new Variable("R" + i));
+		return result;
+	}
+
+	private void connectRegions(int numRegions, long seed) {
+		Random random = new Random(seed);
+		double[] x = new double[numRegions];
+		double[] y = new double[numRegions];
+		for (int i = 0; i < numRegions; i++) {
+			x[i] = random.nextDouble();
+			y[i] = random.nextDouble();
+		}
+		List<int[]> lines = new ArrayList<int[]>();
+		boolean[][] connected = new boolean[numRegions][numRegions];
+		boolean[] saturated = new boolean[numRegions];
+		int open = numRegions;
+		while (open > 0) {
+			// select a random point which may have further connections
+			int p = random.nextInt(numRegions);
+			while (saturated[p])
+				p = (p + 1) % numRegions;
+			int best = -1;
+			double bestDist = Double.MAX_VALUE;
+			for (int q = 0; q < numRegions; q++) {
+				if (q == p || connected[p][q])
+					continue;
+				double dist = (x[p] - x[q]) * (x[p] - x[q]) + (y[p] - y[q])
+						* (y[p] - y[q]);
+				if (dist < bestDist && !crossesAny(p, q, lines, x, y)) {
+					best = q;
+					bestDist = dist;
+				}
+			}
+			if (best == -1) {
+				saturated[p] = true;
+				open--;
+			} else {
+				connected[p][best] = connected[best][p] = true;
+				lines.add(new int[] { p, best });
+				List<Variable> vars = getVariables();
+				addConstraint(new NotEqualConstraint(vars.get(p), vars
+						.get(best)));
+			}
+		}
+	}
+
+	private static boolean crossesAny(int p, int q, List<int[]> lines,
+			double[] x, double[] y) {
+		for (int[] line : lines) {
+			int r = line[0];
+			int s = line[1];
+			if (r == p || r == q || s == p || s == q)
+				continue; // lines with common end point do not cross
+			if (ccw(x, y, p, q, r) * ccw(x, y, p, q, s) < 0
+					&& ccw(x, y, r, s, p) * ccw(x, y, r, s, q) < 0)
+				return true;
+		}
+		return false;
+	}
+
+	/** Returns the sign of the orientation of the triangle (a, b, c). */
+	private static int ccw(double[] x, double[] y, int a, int b, int c) {
+		double cross = (x[b] - x[a]) * (y[c] - y[a]) - (y[b] - y[a])
+				* (x[c] - x[a]);
+		return cross > 0 ? 1 : (cross < 0 ? -1 : 0);
+	}
+}
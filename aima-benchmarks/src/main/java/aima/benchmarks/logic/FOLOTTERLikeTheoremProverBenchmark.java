@@ -0,0 +1,68 @@
+package aima.benchmarks.logic;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import aima.core.logic.fol.StandardizeApartIndexicalFactory;
+import aima.core.logic.fol.inference.FOLOTTERLikeTheoremProver;
+import aima.core.logic.fol.inference.InferenceResult;
+import aima.core.logic.fol.kb.FOLKnowledgeBase;
+import aima.core.logic.fol.kb.FOLKnowledgeBaseFactory;
+
+/**
+ * Measures resolution theorem proving with {@link FOLOTTERLikeTheoremProver}
+ * on the demo knowledge bases of {@link FOLKnowledgeBaseFactory}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class FOLOTTERLikeTheoremProverBenchmark {
+
+	@Param( { "Kings", "Weapons", "LovesAnimal", "ABCEquality" })
+	public String kbName;
+
+	private FOLKnowledgeBase kb;
+	private String query;
+
+	@Setup
+	public void setup() {
+		if (kbName.equals("Kings")) {
+			kb = FOLKnowledgeBaseFactory
+					.createKingsKnowledgeBase(new FOLOTTERLikeTheoremProver(
+							false));
+			query = "Evil(x)";
+		} else if (kbName.equals("Weapons")) {
+			kb = FOLKnowledgeBaseFactory
+					.createWeaponsKnowledgeBase(new FOLOTTERLikeTheoremProver(
+							false));
+			query = "Criminal(x)";
+		} else if (kbName.equals("LovesAnimal")) {
+			kb = FOLKnowledgeBaseFactory
+					.createLovesAnimalKnowledgeBase(new FOLOTTERLikeTheoremProver(
+							false));
+			query = "Kills(Curiosity, Tuna)";
+		} else if (kbName.equals("ABCEquality")) {
+			kb = FOLKnowledgeBaseFactory.createABCEqualityKnowledgeBase(
+					new FOLOTTERLikeTheoremProver(true), false);
+			query = "A = C";
+		} else {
+			throw new IllegalArgumentException("Unknown knowledge base: "
+					+ kbName);
+		}
+	}
+
+	@Benchmark
+	public InferenceResult ask() {
+		// makes variable names and thus clause ordering reproducible
+		StandardizeApartIndexicalFactory.flush();
+		return kb.ask(query);
+	}
+}
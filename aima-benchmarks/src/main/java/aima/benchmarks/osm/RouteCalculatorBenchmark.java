@@ -0,0 +1,74 @@
+package aima.benchmarks.osm;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import aimax.osm.data.OsmMap;
+import aimax.osm.data.Position;
+import aimax.osm.data.entities.MapNode;
+import aimax.osm.data.impl.DefaultMapBuilder;
+import aimax.osm.reader.OsmReader;
+import aimax.osm.routing.RouteCalculator;
+
+/**
+ * Measures shortest path calculation with {@link RouteCalculator} on a
+ * synthetic map with a 20 x 20 grid of residential streets. Nodes are numbered
+ * row by row, starting with 1 in the south-west corner.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class RouteCalculatorBenchmark {
+
+	public static final String MAP_RESOURCE = "aima/benchmarks/osm/grid.osm";
+
+	/** Way selection index, see {@link RouteCalculator#getWaySelectionOptions()}. */
+	@Param( { "0", "1" })
+	public int waySelection;
+
+	private OsmMap map;
+	private List<MapNode> diagonalRoute;
+	private List<MapNode> viaRoute;
+
+	@Setup
+	public void setup() {
+		InputStream stream = RouteCalculatorBenchmark.class.getClassLoader()
+				.getResourceAsStream(MAP_RESOURCE);
+		if (stream == null)
+			throw new IllegalStateException("Resource " + MAP_RESOURCE
+					+ " not found on classpath.");
+		DefaultMapBuilder builder = new DefaultMapBuilder();
+		new OsmReader().readMap(stream, builder);
+		map = builder.buildMap();
+		diagonalRoute = new ArrayList<MapNode>();
+		diagonalRoute.add(map.getNode(1));
+		diagonalRoute.add(map.getNode(400));
+		viaRoute = new ArrayList<MapNode>();
+		viaRoute.add(map.getNode(20));
+		viaRoute.add(map.getNode(210));
+		viaRoute.add(map.getNode(381));
+	}
+
+	@Benchmark
+	public List<Position> diagonalRoute() {
+		return new RouteCalculator().calculateRoute(diagonalRoute, map,
+				waySelection);
+	}
+
+	@Benchmark
+	public List<Position> viaRoute() {
+		return new RouteCalculator().calculateRoute(viaRoute, map,
+				waySelection);
+	}
+}
@@ -0,0 +1,74 @@
+package aima.benchmarks.probability;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import aima.core.probability.CategoricalDistribution;
+import aima.core.probability.RandomVariable;
+import aima.core.probability.bayes.BayesianNetwork;
+import aima.core.probability.bayes.exact.EliminationAsk;
+import aima.core.probability.example.BayesNetExampleFactory;
+import aima.core.probability.example.ExampleRV;
+import aima.core.probability.proposition.AssignmentProposition;
+
+/**
+ * Measures exact inference by variable elimination on the example networks of
+ * {@link BayesNetExampleFactory}. Each network is queried with the evidence
+ * used in the corresponding AIMA3e examples.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class EliminationAskBenchmark {
+
+	@Param( { "ToothacheCavityCatch", "BurglaryAlarm",
+			"CloudySprinklerRainWetGrass" })
+	public String network;
+
+	private BayesianNetwork bn;
+	private RandomVariable[] query;
+	private AssignmentProposition[] evidence;
+	private EliminationAsk inference = new EliminationAsk();
+
+	@Setup
+	public void setup() {
+		if (network.equals("ToothacheCavityCatch")) {
+			// P(Cavity | toothache, catch)
+			bn = BayesNetExampleFactory.constructToothacheCavityCatchNetwork();
+			query = new RandomVariable[] { ExampleRV.CAVITY_RV };
+			evidence = new AssignmentProposition[] {
+					new AssignmentProposition(ExampleRV.TOOTHACHE_RV, true),
+					new AssignmentProposition(ExampleRV.CATCH_RV, true) };
+		} else if (network.equals("BurglaryAlarm")) {
+			// P(Burglary | johnCalls, maryCalls)
+			bn = BayesNetExampleFactory.constructBurglaryAlarmNetwork();
+			query = new RandomVariable[] { ExampleRV.BURGLARY_RV };
+			evidence = new AssignmentProposition[] {
+					new AssignmentProposition(ExampleRV.JOHN_CALLS_RV, true),
+					new AssignmentProposition(ExampleRV.MARY_CALLS_RV, true) };
+		} else if (network.equals("CloudySprinklerRainWetGrass")) {
+			// P(Rain | sprinkler, wetGrass)
+			bn = BayesNetExampleFactory
+					.constructCloudySprinklerRainWetGrassNetwork();
+			query = new RandomVariable[] { ExampleRV.RAIN_RV };
+			evidence = new AssignmentProposition[] {
+					new AssignmentProposition(ExampleRV.SPRINKLER_RV, true),
+					new AssignmentProposition(ExampleRV.WET_GRASS_RV, true) };
+		} else {
+			throw new IllegalArgumentException("Unknown network: " + network);
+		}
+	}
+
+	@Benchmark
+	public CategoricalDistribution ask() {
+		return inference.ask(query, evidence, bn);
+	}
+}
@@ -0,0 +1,92 @@
+package aima.benchmarks.search;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import aima.core.agent.Action;
+import aima.core.environment.eightpuzzle.EightPuzzleBoard;
+import aima.core.environment.eightpuzzle.EightPuzzleFunctionFactory;
+import aima.core.environment.eightpuzzle.EightPuzzleGoalTest;
+import aima.core.environment.eightpuzzle.ManhattanHeuristicFunction;
+import aima.core.search.framework.GraphSearch;
+import aima.core.search.framework.Problem;
+import aima.core.search.informed.AStarSearch;
+
+/**
+ * Measures A* graph search on random 8-puzzle and 15-puzzle instances. The
+ * instances are generated by random walks from the goal state, so the walk
+ * length is an upper bound of the solution length.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class AStarSearchBenchmark {
+
+	@Param( { "20", "40" })
+	public int walkLength;
+
+	@Param( { "1", "2", "3" })
+	public long seed;
+
+	private Problem eightPuzzle;
+	private Problem fifteenPuzzle;
+	private SlidingTilePuzzle fifteenPuzzleDef;
+
+	@Setup
+	public void setup() {
+		eightPuzzle = createEightPuzzleProblem(walkLength, seed);
+		fifteenPuzzleDef = new SlidingTilePuzzle(4);
+		fifteenPuzzle = fifteenPuzzleDef.createProblem(walkLength, seed);
+	}
+
+	@Benchmark
+	public List<Action> eightPuzzle() throws Exception {
+		AStarSearch search = new AStarSearch(new GraphSearch(),
+				new ManhattanHeuristicFunction());
+		return search.search(eightPuzzle);
+	}
+
+	@Benchmark
+	public List<Action> fifteenPuzzle() throws Exception {
+		AStarSearch search = new AStarSearch(new GraphSearch(),
+				fifteenPuzzleDef.getManhattanHeuristicFunction());
+		return search.search(fifteenPuzzle);
+	}
+
+	/**
+	 * Creates a solvable 8-puzzle by applying a reproducible random walk of
+	 * the specified length to the goal state. Like in
+	 * {@link SlidingTilePuzzle}, the walk never takes back its previous move.
+	 */
+	public static Problem createEightPuzzleProblem(int walkLength, long seed) {
+		Random random = new Random(seed);
+		EightPuzzleBoard board = new EightPuzzleBoard(new int[] { 0, 1, 2, 3,
+				4, 5, 6, 7, 8 });
+		Action last = null;
+		for (int i = 0; i < walkLength; i++) {
+			Action[] candidates = EightPuzzleFunctionFactory
+					.getActionsFunction().actions(board).toArray(new Action[0]);
+			Action action;
+			do {
+				action = candidates[random.nextInt(candidates.length)];
+			} while (last != null
+					&& action == SlidingTilePuzzle.inverseOf(last));
+			board = (EightPuzzleBoard) EightPuzzleFunctionFactory
+					.getResultFunction().result(board, action);
+			last = action;
+		}
+		return new Problem(board, EightPuzzleFunctionFactory
+				.getActionsFunction(), EightPuzzleFunctionFactory
+				.getResultFunction(), new EightPuzzleGoalTest());
+	}
+}
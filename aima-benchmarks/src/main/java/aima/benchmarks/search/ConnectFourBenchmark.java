@@ -0,0 +1,68 @@
+package aima.benchmarks.search;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import aima.core.environment.connectfour.BitboardConnectFourGame;
+import aima.core.environment.connectfour.BitboardConnectFourState;
+import aima.core.environment.connectfour.ConnectFourAIPlayer;
+import aima.core.environment.connectfour.ConnectFourGame;
+import aima.core.environment.connectfour.ConnectFourPosition;
+import aima.core.environment.connectfour.ConnectFourState;
+import aima.core.search.adversarial.Game;
+
+/**
+ * Compares the byte array and the bitboard representation of Connect Four
+ * states. Both benchmarks compute the first move with
+ * {@link ConnectFourAIPlayer} at the same fixed depth, which results in
+ * (nearly) the same search trees.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ConnectFourBenchmark {
+
+	@Param( { "8", "10" })
+	public int depth;
+
+	private ConnectFourGame game = new ConnectFourGame();
+	private BitboardConnectFourGame bitboardGame = new BitboardConnectFourGame();
+
+	@Benchmark
+	public Integer byteArray() {
+		return new FixedDepthPlayer<ConnectFourState>(game, depth)
+				.makeDecision(game.getInitialState());
+	}
+
+	@Benchmark
+	public Integer bitboard() {
+		return new FixedDepthPlayer<BitboardConnectFourState>(bitboardGame,
+				depth).makeDecision(bitboardGame.getInitialState());
+	}
+
+	/**
+	 * Searches with the specified depth limit only. A time limit of zero makes
+	 * the search stop after the first iteration.
+	 */
+	private static class FixedDepthPlayer<STATE extends ConnectFourPosition>
+			extends ConnectFourAIPlayer<STATE> {
+		private int depth;
+
+		FixedDepthPlayer(Game<STATE, Integer, String> game, int depth) {
+			super(game, 0);
+			this.depth = depth;
+		}
+
+		@Override
+		protected void incrementDepthLimit() {
+			currDepthLimit = depth;
+		}
+	}
+}
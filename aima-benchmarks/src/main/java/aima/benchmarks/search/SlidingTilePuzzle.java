@@ -0,0 +1,176 @@
+package aima.benchmarks.search;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Random;
+import java.util.Set;
+
+import aima.core.agent.Action;
+import aima.core.environment.eightpuzzle.EightPuzzleBoard;
+import aima.core.search.framework.ActionsFunction;
+import aima.core.search.framework.GoalTest;
+import aima.core.search.framework.HeuristicFunction;
+import aima.core.search.framework.Problem;
+import aima.core.search.framework.ResultFunction;
+
+/**
+ * Sliding tile puzzle with n x n positions, e.g. the 15-puzzle for n=4.
+ * States are immutable int arrays wrapped in {@link Board} objects, the gap is
+ * represented by 0. The actions of {@link EightPuzzleBoard} are reused, so
+ * solutions can be compared with the 8-puzzle implementation of aima-core.
+ */
+public class SlidingTilePuzzle {
+
+	private final int n;
+
+	public SlidingTilePuzzle(int n) {
+		this.n = n;
+	}
+
+	/** Returns the goal state: gap at position 0, tiles in ascending order. */
+	public Board getGoalBoard() {
+		int[] tiles = new int[n * n];
+		for (int i = 0; i < tiles.length; i++)
+			tiles[i] = i;
+		return new Board(tiles, 0);
+	}
+
+	/**
+	 * Creates a solvable problem by applying a reproducible random walk of the
+	 * specified length to the goal state. Moves which undo the previous move
+	 * are avoided.
+	 */
+	public Problem createProblem(int walkLength, long seed) {
+		Random random = new Random(seed);
+		Board board = getGoalBoard();
+		Action last = null;
+		for (int i = 0; i < walkLength; i++) {
+			Action[] candidates = board.getActions().toArray(new Action[0]);
+			Action action;
+			do {
+				action = candidates[random.nextInt(candidates.length)];
+			} while (last != null && action == inverseOf(last));
+			board = board.move(action);
+			last = action;
+		}
+		return new Problem(board, getActionsFunction(), getResultFunction(),
+				getGoalTest());
+	}
+
+	public ActionsFunction getActionsFunction() {
+		return new ActionsFunction() {
+			public Set<Action> actions(Object state) {
+				return ((Board) state).getActions();
+			}
+		};
+	}
+
+	public ResultFunction getResultFunction() {
+		return new ResultFunction() {
+			public Object result(Object s, Action a) {
+				return ((Board) s).move(a);
+			}
+		};
+	}
+
+	public GoalTest getGoalTest() {
+		final Board goal = getGoalBoard();
+		return new GoalTest() {
+			public boolean isGoalState(Object state) {
+				return goal.equals(state);
+			}
+		};
+	}
+
+	/** Sum of the Manhattan distances of all tiles to their goal positions. */
+	public HeuristicFunction getManhattanHeuristicFunction() {
+		return new HeuristicFunction() {
+			public double h(Object state) {
+				int[] tiles = ((Board) state).tiles;
+				int result = 0;
+				for (int pos = 0; pos < tiles.length; pos++) {
+					int tile = tiles[pos];
+					if (tile != 0)
+						result += Math.abs(pos / n - tile / n)
+								+ Math.abs(pos % n - tile % n);
+				}
+				return result;
+			}
+		};
+	}
+
+	/**
+	 * Returns the action which takes back the specified move of the gap.
+	 * Random walks use it to avoid immediate reversals.
+	 */
+	static Action inverseOf(Action action) {
+		if (action == EightPuzzleBoard.UP)
+			return EightPuzzleBoard.DOWN;
+		else if (action == EightPuzzleBoard.DOWN)
+			return EightPuzzleBoard.UP;
+		else if (action == EightPuzzleBoard.LEFT)
+			return EightPuzzleBoard.RIGHT;
+		else if (action == EightPuzzleBoard.RIGHT)
+			return EightPuzzleBoard.LEFT;
+		return null;
+	}
+
+	/** Immutable puzzle state. */
+	public class Board {
+		private final int[] tiles;
+		private final int gapPos;
+		private final int hashCode;
+
+		private Board(int[] tiles, int gapPos) {
+			this.tiles = tiles;
+			this.gapPos = gapPos;
+			this.hashCode = Arrays.hashCode(tiles);
+		}
+
+		public Set<Action> getActions() {
+			Set<Action> actions = new LinkedHashSet<Action>();
+			if (gapPos / n > 0)
+				actions.add(EightPuzzleBoard.UP);
+			if (gapPos / n < n - 1)
+				actions.add(EightPuzzleBoard.DOWN);
+			if (gapPos % n > 0)
+				actions.add(EightPuzzleBoard.LEFT);
+			if (gapPos % n < n - 1)
+				actions.add(EightPuzzleBoard.RIGHT);
+			return actions;
+		}
+
+		/** Returns the board which results from moving the gap. */
+		public Board move(Action action) {
+			int newGapPos;
+			if (action == EightPuzzleBoard.UP)
+				newGapPos = gapPos - n;
+			else if (action == EightPuzzleBoard.DOWN)
+				newGapPos = gapPos + n;
+			else if (action == EightPuzzleBoard.LEFT)
+				newGapPos = gapPos - 1;
+			else
+				newGapPos = gapPos + 1;
+			int[] newTiles = tiles.clone();
+			newTiles[gapPos] = newTiles[newGapPos];
+			newTiles[newGapPos] = 0;
+			return new Board(newTiles, newGapPos);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			return obj instanceof Board
+					&& Arrays.equals(tiles, ((Board) obj).tiles);
+		}
+
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+
+		@Override
+		public String toString() {
+			return Arrays.toString(tiles);
+		}
+	}
+}
@@ -0,0 +1,120 @@
+package aima.core.environment.connectfour;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import aima.core.search.adversarial.HashableGame;
+import aima.core.search.adversarial.MutableGame;
+
+/**
+ * Provides an implementation of the ConnectFour game which is based on
+ * {@link BitboardConnectFourState}s. It behaves like {@link ConnectFourGame}
+ * but is much faster, especially in combination with search algorithms which
+ * make and take back moves.
+ */
+public class BitboardConnectFourGame implements
+		HashableGame<BitboardConnectFourState, Integer, String>,
+		MutableGame<BitboardConnectFourState, Integer, String> {
+
+	String[] players = new String[] { "red", "yellow" };
+	BitboardConnectFourState initialState = new BitboardConnectFourState(6, 7);
+	/**
+	 * Contains for each set of columns which are not full (bit i set for
+	 * column i) the corresponding list of actions.
+	 */
+	List<List<Integer>> actionLists;
+
+	public BitboardConnectFourGame() {
+		int cols = initialState.getCols();
+		actionLists = new ArrayList<List<Integer>>(1 << cols);
+		for (int i = 0; i < 1 << cols; i++) {
+			List<Integer> actions = new ArrayList<Integer>();
+			for (int col = 0; col < cols; col++)
+				if ((i & 1 << col) != 0)
+					actions.add(col);
+			actionLists.add(Collections.unmodifiableList(actions));
+		}
+	}
+
+	@Override
+	public BitboardConnectFourState getInitialState() {
+		return initialState;
+	}
+
+	@Override
+	public String[] getPlayers() {
+		return players;
+	}
+
+	@Override
+	public String getPlayer(BitboardConnectFourState state) {
+		return getPlayer(state.getPlayerToMove());
+	}
+
+	/**
+	 * Returns the player corresponding to the specified player number.
+	 */
+	public String getPlayer(int playerNum) {
+		switch (playerNum) {
+		case 1:
+			return players[0];
+		case 2:
+			return players[1];
+		}
+		return null;
+	}
+
+	/**
+	 * Returns an unmodifiable list which is shared by all states with the
+	 * same columns being full. This avoids object creation during search.
+	 */
+	@Override
+	public List<Integer> getActions(BitboardConnectFourState state) {
+		int freeCols = 0;
+		for (int i = 0; i < state.getCols(); i++)
+			if (state.getPlayerNum(0, i) == 0)
+				freeCols |= 1 << i;
+		return actionLists.get(freeCols);
+	}
+
+	@Override
+	public BitboardConnectFourState getResult(BitboardConnectFourState state,
+			Integer action) {
+		BitboardConnectFourState result = state.clone();
+		result.dropDisk(action);
+		return result;
+	}
+
+	@Override
+	public void applyMove(BitboardConnectFourState state, Integer action) {
+		state.dropDisk(action);
+	}
+
+	@Override
+	public void undoMove(BitboardConnectFourState state, Integer action) {
+		state.undoDropDisk(action);
+	}
+
+	@Override
+	public boolean isTerminal(BitboardConnectFourState state) {
+		return state.getUtility() != -1;
+	}
+
+	@Override
+	public double getUtility(BitboardConnectFourState state, String player) {
+		double result = state.getUtility();
+		if (result != -1) {
+			if (player == players[1])
+				result = 1 - result;
+		} else {
+			throw new IllegalArgumentException("State is not terminal.");
+		}
+		return result;
+	}
+
+	@Override
+	public long getHashKey(BitboardConnectFourState state) {
+		return state.getHashKey();
+	}
+}
@@ -0,0 +1,240 @@
+package aima.core.environment.connectfour;
+
+/**
+ * A Connect Four state which represents the disks of each player by a 64-bit
+ * mask. Bits are assigned column by column from bottom to top, and each column
+ * gets one additional (always empty) bit on top. This separator bit prevents
+ * lines from wrapping around, so that all lines of four in a direction can be
+ * detected by two shift and and-operations. Dropping a disk, taking it back,
+ * checking for a win, and cloning take constant time. Boards with
+ * <code>(rows + 1) * cols &gt; 64</code> are not supported.
+ */
+public class BitboardConnectFourState implements ConnectFourPosition,
+		Cloneable {
+
+	/** Odd multiplier (golden ratio) which spreads the bits of hash keys. */
+	private static final long HASH_MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+	private int rows;
+	private int cols;
+	/** Number of bits per column: rows plus separator bit. */
+	private int height;
+	/** Shift distances of the four directions, shared by all clones. */
+	private int[] directions;
+	/** Contains the spaces of each column, shared by all clones. */
+	private long[] columnMasks;
+	/** Contains the lowest space of each column. */
+	private long bottomMask;
+	/** Contains all spaces of the board (no separator bits). */
+	private long boardMask;
+
+	private long disks1;
+	private long disks2;
+	private int moveCount;
+	/**
+	 * Indicates the utility of the state. 1: win for player 1, 0: win for
+	 * player 2, 0.5: draw, -1 for all non-terminal states.
+	 */
+	private double utility;
+
+	public BitboardConnectFourState(int rows, int cols) {
+		if (rows < 1 || cols < 1 || (rows + 1) * cols > 64)
+			throw new IllegalArgumentException("Board size " + rows + "x"
+					+ cols + " is not supported.");
+		this.rows = rows;
+		this.cols = cols;
+		height = rows + 1;
+		// without four columns, only vertical lines are possible (and longer
+		// shift distances would exceed 63)
+		directions = cols >= 4 ? new int[] { 1, height, height - 1,
+				height + 1 } : new int[] { 1 };
+		columnMasks = new long[cols];
+		for (int col = 0; col < cols; col++) {
+			columnMasks[col] = ((1L << rows) - 1) << col * height;
+			bottomMask |= 1L << col * height;
+			boardMask |= columnMasks[col];
+		}
+		utility = -1;
+	}
+
+	public int getRows() {
+		return rows;
+	}
+
+	public int getCols() {
+		return cols;
+	}
+
+	public double getUtility() {
+		return utility;
+	}
+
+	public int getPlayerNum(int row, int col) {
+		long space = getSpace(row, col);
+		if ((disks1 & space) != 0)
+			return 1;
+		else if ((disks2 & space) != 0)
+			return 2;
+		return 0;
+	}
+
+	public int getPlayerToMove() {
+		return moveCount % 2 + 1;
+	}
+
+	public int getMoves() {
+		return moveCount;
+	}
+
+	/**
+	 * Returns a key which is unique for each position of the board. It is
+	 * computed from the disks of player 1 and the occupied spaces with one
+	 * additional bit on top of each column, which marks the column height.
+	 * The result is multiplied by an odd constant. This keeps it unique and
+	 * distributes the positions well over the slots of a transposition table.
+	 */
+	public long getHashKey() {
+		return (disks1 + (disks1 | disks2) + bottomMask) * HASH_MULTIPLIER;
+	}
+
+	/**
+	 * Drops a disk of the player to move into the specified column, if the
+	 * column is not full. The move can be taken back by
+	 * {@link #undoDropDisk(int)}.
+	 */
+	public void dropDisk(int col) {
+		long space = getFreeSpace(col);
+		if ((space & boardMask) != 0) {
+			moveCount++;
+			if (moveCount % 2 == 1) {
+				disks1 |= space;
+				if (hasFour(disks1))
+					utility = 1.0;
+			} else {
+				disks2 |= space;
+				if (hasFour(disks2))
+					utility = 0.0;
+			}
+			if (utility == -1 && moveCount == rows * cols)
+				utility = 0.5;
+		}
+	}
+
+	/**
+	 * Takes back the last move, which must have used the specified column.
+	 */
+	public void undoDropDisk(int col) {
+		// the topmost disk is just below the free space
+		long space = getFreeSpace(col) >>> 1;
+		disks1 &= ~space;
+		disks2 &= ~space;
+		moveCount--;
+		utility = -1;
+	}
+
+	public boolean isWinMoveFor(int col, int playerNum) {
+		long disks = playerNum == 1 ? disks1 : disks2;
+		return hasFour(disks | getFreeSpace(col));
+	}
+
+	public boolean isWinPositionFor(int row, int col, int playerNum) {
+		long disks = playerNum == 1 ? disks1 : disks2;
+		return (getWinPositions(disks) & getSpace(row, col)) != 0;
+	}
+
+	/**
+	 * Counts for each direction the spaces (at most three on each side) which
+	 * are not blocked by the opponent, starting at the free space of the
+	 * specified column. Directions with at least three spaces contribute
+	 * their count.
+	 */
+	public int analyzePotentialWinPositions(Integer action) {
+		long start = getFreeSpace(action);
+		long free = boardMask
+				& ~(getPlayerToMove() == 1 ? disks2 : disks1);
+		int result = 0;
+		for (int shift : directions) {
+			int count = 0;
+			long space = start << shift;
+			for (int i = 0; i < 3 && (space & free) != 0; i++) {
+				count++;
+				space <<= shift;
+			}
+			space = start >>> shift;
+			for (int i = 0; i < 3 && (space & free) != 0; i++) {
+				count++;
+				space >>>= shift;
+			}
+			if (count >= 3)
+				result += count;
+		}
+		return result;
+	}
+
+	public BitboardConnectFourState clone() {
+		BitboardConnectFourState result = null;
+		try {
+			result = (BitboardConnectFourState) super.clone();
+		} catch (CloneNotSupportedException e) {
+			e.printStackTrace();
+		}
+		return result;
+	}
+
+	@Override
+	public int hashCode() {
+		long key = getHashKey();
+		return (int) (key ^ (key >>> 32));
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (obj instanceof BitboardConnectFourState) {
+			BitboardConnectFourState s = (BitboardConnectFourState) obj;
+			return rows == s.rows && cols == s.cols && disks1 == s.disks1
+					&& disks2 == s.disks2;
+		}
+		return false;
+	}
+
+	//
+	// PRIVATE METHODS
+	//
+
+	private long getSpace(int row, int col) {
+		return 1L << col * height + rows - 1 - row;
+	}
+
+	/**
+	 * Returns the lowest empty space of the specified column, or its
+	 * separator bit if the column is full.
+	 */
+	private long getFreeSpace(int col) {
+		return ((disks1 | disks2) & columnMasks[col]) + (1L << col * height);
+	}
+
+	/** Checks whether the disks contain a line of four. */
+	private boolean hasFour(long disks) {
+		for (int shift : directions) {
+			long pairs = disks & (disks >>> shift);
+			if ((pairs & (pairs >>> 2 * shift)) != 0)
+				return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Returns the empty spaces which complete a line of four together with
+	 * the specified disks.
+	 */
+	private long getWinPositions(long disks) {
+		long result = 0;
+		for (int shift : directions) {
+			long pairs = (disks << shift) & (disks << 2 * shift);
+			result |= pairs & ((disks << 3 * shift) | (disks >>> shift));
+			pairs = (disks >>> shift) & (disks >>> 2 * shift);
+			result |= pairs & ((disks >>> 3 * shift) | (disks << shift));
+		}
+		return result & boardMask & ~(disks1 | disks2);
+	}
+}
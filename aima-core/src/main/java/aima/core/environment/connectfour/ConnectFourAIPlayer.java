@@ -3,21 +3,27 @@ package aima.core.environment.connectfour;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+
 import aima.core.search.adversarial.Game;
+import aima.core.search.adversarial.HashableGame;
 import aima.core.search.adversarial.IterativeDeepeningAlphaBetaSearch;
+import aima.core.search.adversarial.TranspositionTable;
 
 /**
  * Implements an iterative deepening Minimax search with alpha-beta pruning and
- * a special action ordering optimized for the Connect Four game.
+ * a special action ordering optimized for the Connect Four game. If the game
+ * provides hash keys, a transposition table is used. The player works with all
+ * state representations which provide a {@link ConnectFourPosition}.
  * 
  * @author Ruediger Lunde
  */
-public class ConnectFourAIPlayer extends
-		IterativeDeepeningAlphaBetaSearch<ConnectFourState, Integer, String> {
+public class ConnectFourAIPlayer<STATE extends ConnectFourPosition> extends
+		IterativeDeepeningAlphaBetaSearch<STATE, Integer, String> {
 
-	public ConnectFourAIPlayer(Game<ConnectFourState, Integer, String> game,
-			int time) {
+	public ConnectFourAIPlayer(Game<STATE, Integer, String> game, int time) {
 		super(game, 0.0, 1.0, time);
+		if (game instanceof HashableGame)
+			setTranspositionTable(new TranspositionTable<Integer>(1 << 18));
 	}
 
 	@Override
@@ -36,7 +42,7 @@ public class ConnectFourAIPlayer extends
 	 * attractive if depth is small.
 	 */
 	@Override
-	protected double eval(ConnectFourState state, String player) {
+	protected double eval(STATE state, String player) {
 		double value = super.eval(state, player);
 		if (hasSafeWinner(value)) {
 			if (value > (utilMin + utilMax) / 2)
@@ -52,8 +58,8 @@ public class ConnectFourAIPlayer extends
 	 * which profit from the action.
 	 */
 	@Override
-	public List<Integer> orderActions(ConnectFourState state,
-			List<Integer> actions, String player, int depth) {
+	public List<Integer> orderActions(STATE state, List<Integer> actions,
+			String player, int depth) {
 		List<Integer> result = actions;
 		if (depth == 0) {
 			List<ActionValuePair<Integer>> actionEstimates = new ArrayList<ActionValuePair<Integer>>(
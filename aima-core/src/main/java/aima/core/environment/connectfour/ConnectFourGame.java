@@ -3,7 +3,8 @@ package aima.core.environment.connectfour;
 import java.util.ArrayList;
 import java.util.List;
 
-import aima.core.search.adversarial.Game;
+import aima.core.search.adversarial.HashableGame;
+import aima.core.search.adversarial.MutableGame;
 
 /**
  * Provides an implementation of the ConnectFour game which can be used for
@@ -12,7 +13,9 @@ import aima.core.search.adversarial.Game;
  * @author Ruediger Lunde
  * 
  */
-public class ConnectFourGame implements Game<ConnectFourState, Integer, String> {
+public class ConnectFourGame implements
+		HashableGame<ConnectFourState, Integer, String>,
+		MutableGame<ConnectFourState, Integer, String> {
 
 	String[] players = new String[] { "red", "yellow" };
 	ConnectFourState initialState = new ConnectFourState(6, 7);
@@ -63,6 +66,16 @@ public class ConnectFourGame implements Game<ConnectFourState, Integer, String>
 		return result;
 	}
 
+	@Override
+	public void applyMove(ConnectFourState state, Integer action) {
+		state.dropDiskReversibly(action);
+	}
+
+	@Override
+	public void undoMove(ConnectFourState state, Integer action) {
+		state.undoDropDisk(action);
+	}
+
 	@Override
 	public boolean isTerminal(ConnectFourState state) {
 		return state.getUtility() != -1;
@@ -79,4 +92,9 @@ public class ConnectFourGame implements Game<ConnectFourState, Integer, String>
 		}
 		return result;
 	}
+
+	@Override
+	public long getHashKey(ConnectFourState state) {
+		return state.getHashKey();
+	}
 }
@@ -0,0 +1,51 @@
+package aima.core.environment.connectfour;
+
+/**
+ * Read access to a Connect Four position, which is shared by the different
+ * state representations. Rows are counted from top to bottom, players are
+ * identified by the numbers 1 and 2 (0 stands for an empty space).
+ */
+public interface ConnectFourPosition {
+
+	int getRows();
+
+	int getCols();
+
+	/**
+	 * Returns the number of the player whose disk occupies the specified
+	 * space, or 0 if the space is empty.
+	 */
+	int getPlayerNum(int row, int col);
+
+	int getPlayerToMove();
+
+	/** Returns the number of disks on the board. */
+	int getMoves();
+
+	/**
+	 * Returns 1 for a win of player 1, 0 for a win of player 2, 0.5 for a
+	 * draw, and -1 for all non-terminal positions.
+	 */
+	double getUtility();
+
+	/**
+	 * Checks whether the specified space is empty and a disk of the given
+	 * player placed there would complete a line of four.
+	 */
+	boolean isWinPositionFor(int row, int col, int playerNum);
+
+	/**
+	 * Checks whether dropping a disk of the given player into the specified
+	 * column wins the game. The column must not be full.
+	 */
+	boolean isWinMoveFor(int col, int playerNum);
+
+	/**
+	 * Estimates the impact of dropping a disk of the player to move into the
+	 * specified column. Used for action ordering.
+	 */
+	int analyzePotentialWinPositions(Integer action);
+
+	/** Returns a 64-bit key which identifies the position. */
+	long getHashKey();
+}
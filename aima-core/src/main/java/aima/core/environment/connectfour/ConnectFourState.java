@@ -1,15 +1,21 @@
 package aima.core.environment.connectfour;
 
+import java.util.Arrays;
+import java.util.Random;
+
 /**
  * A state of the Connect Four game is characterized by a board containing a
  * grid of spaces for disks, the next player to move, and some utility
  * informations. A win position for a player x is an empty space which turns a
  * situation into a win situation for x if he is able to place a disk there.
+ * Additionally, a Zobrist hash key is maintained incrementally, which
+ * identifies the position in transposition tables. Moves can be made
+ * reversibly, which allows searching without cloning states.
  * 
  * @author Ruediger Lunde
  * 
  */
-public class ConnectFourState implements Cloneable {
+public class ConnectFourState implements ConnectFourPosition, Cloneable {
 	private int cols;
 	/**
 	 * Uses special bit coding. First bit: disk of player 1, second bit: disk of
@@ -26,11 +32,28 @@ public class ConnectFourState implements Cloneable {
 	private double utility;
 	public int winPositions1;
 	public int winPositions2;
+	/** One random number per space and player, shared by all clones. */
+	private long[] zobristKeys;
+	private long hashKey;
+	/**
+	 * Undo information for reversible moves. Contains for each move the old
+	 * contents of all changed spaces (index * 256 + code), followed by the old
+	 * win position counters, the old utility times two, and the number of
+	 * changed spaces.
+	 */
+	private int[] trail;
+	private int trailSize;
+	private boolean isRecording;
 
 	public ConnectFourState(int rows, int cols) {
 		utility = -1;
 		this.cols = cols;
 		board = new byte[rows * cols];
+		// fixed seed: equal positions get equal keys in all states of this size
+		Random random = new Random(board.length);
+		zobristKeys = new long[board.length * 2];
+		for (int i = 0; i < zobristKeys.length; i++)
+			zobristKeys[i] = random.nextLong();
 	}
 
 	public int getRows() {
@@ -57,6 +80,19 @@ public class ConnectFourState implements Cloneable {
 		return moveCount;
 	}
 
+	/**
+	 * Returns the Zobrist hash key of the position, which is the XOR of the
+	 * random numbers of all disks on the board. The player to move is given by
+	 * the number of disks.
+	 */
+	public long getHashKey() {
+		return hashKey;
+	}
+
+	/**
+	 * Drops a disk of the player to move into the specified column, if the
+	 * column is not full.
+	 */
 	public void dropDisk(int col) {
 		int playerNum = getPlayerToMove();
 		int row = getFreeRow(col);
@@ -74,12 +110,53 @@ public class ConnectFourState implements Cloneable {
 				if (playerNum == 2)
 					utility = 0.0;
 			}
-			board[row * cols + col] = (byte) playerNum;
+			setSpace(row * cols + col, (byte) playerNum);
+			hashKey ^= zobristKeys[(row * cols + col) * 2 + playerNum - 1];
 			if (utility == -1)
 				analyzeWinPositions(row, col);
 		}
 	}
 
+	/**
+	 * Drops a disk like {@link #dropDisk(int)} and records the information
+	 * needed to take the move back by {@link #undoDropDisk(int)}. The column
+	 * must not be full.
+	 */
+	public void dropDiskReversibly(int col) {
+		int oldWinPositions1 = winPositions1;
+		int oldWinPositions2 = winPositions2;
+		double oldUtility = utility;
+		int start = trailSize;
+		isRecording = true;
+		dropDisk(col);
+		isRecording = false;
+		int count = trailSize - start;
+		ensureTrailCapacity(4);
+		trail[trailSize++] = oldWinPositions1;
+		trail[trailSize++] = oldWinPositions2;
+		trail[trailSize++] = (int) (oldUtility * 2);
+		trail[trailSize++] = count;
+	}
+
+	/**
+	 * Takes back the last move made by {@link #dropDiskReversibly(int)},
+	 * which must have used the specified column.
+	 */
+	public void undoDropDisk(int col) {
+		int row = getFreeRow(col) + 1;
+		int index = row * cols + col;
+		hashKey ^= zobristKeys[index * 2 + getPlayerNum(row, col) - 1];
+		int count = trail[--trailSize];
+		utility = trail[--trailSize] / 2.0;
+		winPositions2 = trail[--trailSize];
+		winPositions1 = trail[--trailSize];
+		for (int i = 0; i < count; i++) {
+			int entry = trail[--trailSize];
+			board[entry >> 8] = (byte) entry;
+		}
+		moveCount--;
+	}
+
 	/**
 	 * Returns the row of the first empty space in the specified column and -1
 	 * if the column is full.
@@ -109,7 +186,24 @@ public class ConnectFourState implements Cloneable {
 		} else {
 			throw new IllegalArgumentException("Wrong player number.");
 		}
-		board[row * cols + col] |= playerNum * 4;
+		int index = row * cols + col;
+		setSpace(index, (byte) (board[index] | playerNum * 4));
+	}
+
+	/** Changes the code of a space and records the old one if required. */
+	private void setSpace(int index, byte code) {
+		if (isRecording) {
+			ensureTrailCapacity(1);
+			trail[trailSize++] = index << 8 | board[index] & 0xFF;
+		}
+		board[index] = code;
+	}
+
+	private void ensureTrailCapacity(int count) {
+		if (trail == null)
+			trail = new int[64];
+		else if (trailSize + count > trail.length)
+			trail = Arrays.copyOf(trail, trail.length * 2);
 	}
 
 	/**
@@ -213,6 +307,8 @@ public class ConnectFourState implements Cloneable {
 			e.printStackTrace();
 		}
 		result.board = board.clone();
+		if (trail != null)
+			result.trail = trail.clone();
 		return result;
 	}
 
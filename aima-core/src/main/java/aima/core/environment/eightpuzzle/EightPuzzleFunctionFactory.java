@@ -6,6 +6,7 @@ import java.util.Set;
 import aima.core.agent.Action;
 import aima.core.search.framework.ActionsFunction;
 import aima.core.search.framework.ResultFunction;
+import aima.core.search.framework.StateEncoder;
 
 /**
  * @author Ravi Mohan
@@ -14,6 +15,7 @@ import aima.core.search.framework.ResultFunction;
 public class EightPuzzleFunctionFactory {
 	private static ActionsFunction _actionsFunction = null;
 	private static ResultFunction _resultFunction = null;
+	private static StateEncoder _stateEncoder = null;
 
 	public static ActionsFunction getActionsFunction() {
 		if (null == _actionsFunction) {
@@ -29,6 +31,13 @@ public class EightPuzzleFunctionFactory {
 		return _resultFunction;
 	}
 
+	public static StateEncoder getStateEncoder() {
+		if (null == _stateEncoder) {
+			_stateEncoder = new EPStateEncoder();
+		}
+		return _stateEncoder;
+	}
+
 	private static class EPActionsFunction implements ActionsFunction {
 		public Set<Action> actions(Object state) {
 			EightPuzzleBoard board = (EightPuzzleBoard) state;
@@ -83,4 +92,26 @@ public class EightPuzzleFunctionFactory {
 			return s;
 		}
 	}
+
+	/**
+	 * Encodes boards with 4 bits per square, so that 36 bits are needed per
+	 * board.
+	 */
+	private static class EPStateEncoder implements StateEncoder {
+		public long encode(Object state) {
+			long result = 0;
+			for (int value : ((EightPuzzleBoard) state).getState())
+				result = (result << 4) | value;
+			return result;
+		}
+
+		public Object decode(long code) {
+			int[] state = new int[9];
+			for (int i = state.length - 1; i >= 0; i--) {
+				state[i] = (int) (code & 0xF);
+				code >>>= 4;
+			}
+			return new EightPuzzleBoard(state);
+		}
+	}
 }
\ No newline at end of file
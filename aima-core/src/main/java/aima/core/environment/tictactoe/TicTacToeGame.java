@@ -2,7 +2,8 @@ package aima.core.environment.tictactoe;
 
 import java.util.List;
 
-import aima.core.search.adversarial.Game;
+import aima.core.search.adversarial.HashableGame;
+import aima.core.search.adversarial.MutableGame;
 import aima.core.util.datastructure.XYLocation;
 
 /**
@@ -12,7 +13,9 @@ import aima.core.util.datastructure.XYLocation;
  * @author Ruediger Lunde
  * 
  */
-public class TicTacToeGame implements Game<TicTacToeState, XYLocation, String> {
+public class TicTacToeGame implements
+		HashableGame<TicTacToeState, XYLocation, String>,
+		MutableGame<TicTacToeState, XYLocation, String> {
 
 	TicTacToeState initialState = new TicTacToeState();
 
@@ -43,6 +46,16 @@ public class TicTacToeGame implements Game<TicTacToeState, XYLocation, String> {
 		return result;
 	}
 
+	@Override
+	public void applyMove(TicTacToeState state, XYLocation action) {
+		state.mark(action);
+	}
+
+	@Override
+	public void undoMove(TicTacToeState state, XYLocation action) {
+		state.unmark(action);
+	}
+
 	@Override
 	public boolean isTerminal(TicTacToeState state) {
 		return state.getUtility() != -1;
@@ -59,4 +72,9 @@ public class TicTacToeGame implements Game<TicTacToeState, XYLocation, String> {
 		}
 		return result;
 	}
+
+	@Override
+	public long getHashKey(TicTacToeState state) {
+		return state.getHashKey();
+	}
 }
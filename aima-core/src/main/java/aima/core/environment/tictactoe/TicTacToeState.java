@@ -3,12 +3,15 @@ package aima.core.environment.tictactoe;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Random;
 
 import aima.core.util.datastructure.XYLocation;
 
 /**
  * A state of the Tic-tac-toe game is characterized by a board containing
  * symbols X and O, the next player to move, and an utility information.
+ * Additionally, a Zobrist hash key is maintained incrementally, which
+ * identifies the position in transposition tables.
  * 
  * @author Ruediger Lunde
  * 
@@ -17,12 +20,15 @@ public class TicTacToeState implements Cloneable {
 	public static final String O = "O";
 	public static final String X = "X";
 	public static final String EMPTY = "-";
+	/** One random number per position and symbol (X first). */
+	private static final long[] ZOBRIST_KEYS = createZobristKeys();
 
 	private String[] board = new String[] { EMPTY, EMPTY, EMPTY, EMPTY, EMPTY,
 			EMPTY, EMPTY, EMPTY, EMPTY };
 
 	private String playerToMove = X;
 	private double utility = -1; // 1: win for X, 0: win for O, 0.5: draw
+	private long hashKey;
 
 	public String getPlayerToMove() {
 		return playerToMove;
@@ -40,6 +46,15 @@ public class TicTacToeState implements Cloneable {
 		return utility;
 	}
 
+	/**
+	 * Returns the Zobrist hash key of the position, which is the XOR of the
+	 * random numbers of all marks on the board. The player to move is given
+	 * by the number of marks.
+	 */
+	public long getHashKey() {
+		return hashKey;
+	}
+
 	public void mark(XYLocation action) {
 		mark(action.getXCoOrdinate(), action.getYCoOrdinate());
 	}
@@ -47,11 +62,34 @@ public class TicTacToeState implements Cloneable {
 	public void mark(int col, int row) {
 		if (utility == -1 && getValue(col, row) == EMPTY) {
 			board[getAbsPosition(col, row)] = playerToMove;
+			hashKey ^= ZOBRIST_KEYS[getAbsPosition(col, row) * 2
+					+ (playerToMove == X ? 0 : 1)];
 			analyzeUtility();
 			playerToMove = (playerToMove == X ? O : X);
 		}
 	}
 
+	/**
+	 * Takes back the last mark, which must have been placed at the specified
+	 * position.
+	 */
+	public void unmark(XYLocation action) {
+		unmark(action.getXCoOrdinate(), action.getYCoOrdinate());
+	}
+
+	/**
+	 * Takes back the last mark, which must have been placed at the specified
+	 * position. Since marks are only placed in non-terminal states, the
+	 * utility can simply be reset.
+	 */
+	public void unmark(int col, int row) {
+		playerToMove = (playerToMove == X ? O : X);
+		board[getAbsPosition(col, row)] = EMPTY;
+		hashKey ^= ZOBRIST_KEYS[getAbsPosition(col, row) * 2
+				+ (playerToMove == X ? 0 : 1)];
+		utility = -1;
+	}
+
 	private void analyzeUtility() {
 		if (lineThroughBoard())
 			utility = (playerToMove == X ? 1 : 0);
@@ -158,4 +196,12 @@ public class TicTacToeState implements Cloneable {
 	private int getAbsPosition(int col, int row) {
 		return row * 3 + col;
 	}
+
+	private static long[] createZobristKeys() {
+		Random random = new Random(9);
+		long[] result = new long[18];
+		for (int i = 0; i < result.length; i++)
+			result[i] = random.nextLong();
+		return result;
+	}
 }
@@ -1,5 +1,7 @@
 package aima.core.search.adversarial;
 
+import java.util.List;
+
 import aima.core.search.framework.Metrics;
 
 /**
@@ -34,7 +36,14 @@ import aima.core.search.framework.Metrics;
  * Figure 5.7 The alpha-beta search algorithm. Notice that these routines are
  * the same as the MINIMAX functions in Figure 5.3, except for the two lines in
  * each of MIN-VALUE and MAX-VALUE that maintain alpha and beta (and the
- * bookkeeping to pass these parameters along).
+ * bookkeeping to pass these parameters along).<br>
+ * <br>
+ * Optionally, a {@link TranspositionTable} can be used for games which provide
+ * hash keys for their states. Then, positions which are reached by different
+ * move sequences are searched only once (if the window permits) and the best
+ * action found before is tried first. Like {@link MinimaxSearch}, the search
+ * applies and takes back actions instead of creating successor states if the
+ * game implements {@link MutableGame}.
  * 
  * @author Ruediger Lunde
  * 
@@ -49,7 +58,9 @@ public class AlphaBetaSearch<STATE, ACTION, PLAYER> implements
 		AdversarialSearch<STATE, ACTION> {
 
 	Game<STATE, ACTION, PLAYER> game;
+	private TranspositionTable<ACTION> transpositionTable;
 	private int expandedNodes;
+	private int tableCutoffs;
 
 	/** Creates a new search object for a given game. */
 	public static <STATE, ACTION, PLAYER> AlphaBetaSearch<STATE, ACTION, PLAYER> createFor(
@@ -61,12 +72,29 @@ public class AlphaBetaSearch<STATE, ACTION, PLAYER> implements
 		this.game = game;
 	}
 
+	/**
+	 * Enables the transposition table (or disables it if null is specified).
+	 * The table can be shared by successive decisions.
+	 * 
+	 * @throws IllegalArgumentException
+	 *             if the game does not implement {@link HashableGame}.
+	 */
+	public void setTranspositionTable(TranspositionTable<ACTION> table) {
+		if (table != null && !(game instanceof HashableGame))
+			throw new IllegalArgumentException(
+					"Game does not provide hash keys.");
+		transpositionTable = table;
+	}
+
 	@Override
 	public ACTION makeDecision(STATE state) {
 		expandedNodes = 0;
+		tableCutoffs = 0;
 		ACTION result = null;
 		double resultValue = Double.NEGATIVE_INFINITY;
 		PLAYER player = game.getPlayer(state);
+		if (transpositionTable != null)
+			transpositionTable.startSearch(player);
 		for (ACTION action : game.getActions(state)) {
 			double value = minValue(game.getResult(state, action), player,
 					Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY);
@@ -82,10 +110,14 @@ public class AlphaBetaSearch<STATE, ACTION, PLAYER> implements
 		expandedNodes++;
 		if (game.isTerminal(state))
 			return game.getUtility(state, player);
+		if (transpositionTable != null)
+			return maxValueWithTable(state, player, alpha, beta);
 		double value = Double.NEGATIVE_INFINITY;
 		for (ACTION action : game.getActions(state)) {
 			value = Math.max(value, minValue( //
-					game.getResult(state, action), player, alpha, beta));
+					MoveUtils.makeMove(game, state, action), player, alpha,
+					beta));
+			MoveUtils.unmakeMove(game, state, action);
 			if (value >= beta)
 				return value;
 			alpha = Math.max(alpha, value);
@@ -97,10 +129,14 @@ public class AlphaBetaSearch<STATE, ACTION, PLAYER> implements
 		expandedNodes++;
 		if (game.isTerminal(state))
 			return game.getUtility(state, player);
+		if (transpositionTable != null)
+			return minValueWithTable(state, player, alpha, beta);
 		double value = Double.POSITIVE_INFINITY;
 		for (ACTION action : game.getActions(state)) {
 			value = Math.min(value, maxValue( //
-					game.getResult(state, action), player, alpha, beta));
+					MoveUtils.makeMove(game, state, action), player, alpha,
+					beta));
+			MoveUtils.unmakeMove(game, state, action);
 			if (value <= alpha)
 				return value;
 			beta = Math.min(beta, value);
@@ -112,6 +148,96 @@ public class AlphaBetaSearch<STATE, ACTION, PLAYER> implements
 	public Metrics getMetrics() {
 		Metrics result = new Metrics();
 		result.set("expandedNodes", expandedNodes);
+		if (transpositionTable != null)
+			result.set("tableCutoffs", tableCutoffs);
 		return result;
 	}
+
+	//
+	// PRIVATE METHODS
+	//
+
+	/**
+	 * Variant of maxValue for non-terminal states, which consults the
+	 * transposition table. Searches are not depth-limited here, so all
+	 * entries have unlimited draft.
+	 */
+	private double maxValueWithTable(STATE state, PLAYER player, double alpha,
+			double beta) {
+		long key = getHashKey(state);
+		List<ACTION> actions = game.getActions(state);
+		int slot = transpositionTable.find(key);
+		if (slot != -1) {
+			if (transpositionTable.isSufficient(slot,
+					TranspositionTable.UNLIMITED_DRAFT, alpha, beta)) {
+				tableCutoffs++;
+				return transpositionTable.getValue(slot);
+			}
+			actions = TranspositionTable.moveToFront(actions,
+					transpositionTable.getAction(slot));
+		}
+		double alphaOrig = alpha;
+		double value = Double.NEGATIVE_INFINITY;
+		ACTION bestAction = null;
+		for (ACTION action : actions) {
+			double v = minValue(MoveUtils.makeMove(game, state, action),
+					player, alpha, beta);
+			MoveUtils.unmakeMove(game, state, action);
+			if (v > value) {
+				value = v;
+				bestAction = action;
+			}
+			if (value >= beta)
+				break;
+			alpha = Math.max(alpha, value);
+		}
+		transpositionTable.store(key, value, TranspositionTable.getBoundFor(
+				value, alphaOrig, beta), TranspositionTable.UNLIMITED_DRAFT,
+				bestAction);
+		return value;
+	}
+
+	/**
+	 * Variant of minValue for non-terminal states, which consults the
+	 * transposition table.
+	 */
+	private double minValueWithTable(STATE state, PLAYER player, double alpha,
+			double beta) {
+		long key = getHashKey(state);
+		List<ACTION> actions = game.getActions(state);
+		int slot = transpositionTable.find(key);
+		if (slot != -1) {
+			if (transpositionTable.isSufficient(slot,
+					TranspositionTable.UNLIMITED_DRAFT, alpha, beta)) {
+				tableCutoffs++;
+				return transpositionTable.getValue(slot);
+			}
+			actions = TranspositionTable.moveToFront(actions,
+					transpositionTable.getAction(slot));
+		}
+		double betaOrig = beta;
+		double value = Double.POSITIVE_INFINITY;
+		ACTION bestAction = null;
+		for (ACTION action : actions) {
+			double v = maxValue(MoveUtils.makeMove(game, state, action),
+					player, alpha, beta);
+			MoveUtils.unmakeMove(game, state, action);
+			if (v < value) {
+				value = v;
+				bestAction = action;
+			}
+			if (value <= alpha)
+				break;
+			beta = Math.min(beta, value);
+		}
+		transpositionTable.store(key, value, TranspositionTable.getBoundFor(
+				value, alpha, betaOrig), TranspositionTable.UNLIMITED_DRAFT,
+				bestAction);
+		return value;
+	}
+
+	@SuppressWarnings("unchecked")
+	private long getHashKey(STATE state) {
+		return ((HashableGame<STATE, ACTION, PLAYER>) game).getHashKey(state);
+	}
 }
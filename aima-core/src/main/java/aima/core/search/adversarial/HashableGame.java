@@ -0,0 +1,24 @@
+package aima.core.search.adversarial;
+
+/**
+ * Extension of the game interface for games which can compute a 64-bit hash
+ * key for their states. Keys are used to address entries in a
+ * {@link TranspositionTable}. Equal positions, possibly reached by different
+ * move sequences, must have equal keys, and the key must also identify the
+ * player to move. Different positions should have different keys with very
+ * high probability. Zobrist hashing, which combines one random number per
+ * (position, piece) pair by XOR, satisfies these requirements and can be
+ * updated incrementally when a move is made.
+ * 
+ * @param <STATE>
+ *            Type which is used for states in the game.
+ * @param <ACTION>
+ *            Type which is used for actions in the game.
+ * @param <PLAYER>
+ *            Type which is used for players in the game.
+ */
+public interface HashableGame<STATE, ACTION, PLAYER> extends
+		Game<STATE, ACTION, PLAYER> {
+
+	long getHashKey(STATE state);
+}
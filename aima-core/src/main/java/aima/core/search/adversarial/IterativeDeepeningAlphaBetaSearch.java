@@ -9,7 +9,17 @@ import aima.core.search.framework.Metrics;
  * Implements an iterative deepening Minimax search with alpha-beta pruning and
  * action ordering. Maximal computation time is specified in seconds. The
  * algorithm is implemented as template method and can be configured and tuned
- * by subclassing.
+ * by subclassing.<br>
+ * <br>
+ * Optionally, a {@link TranspositionTable} can be used for games which provide
+ * hash keys for their states. Entries are stored with the remaining depth
+ * (draft) of the search which computed them. They replace searches of
+ * transposed positions whenever draft and bound type permit. Otherwise, the
+ * stored best action is tried first. Since the table is kept across
+ * iterations (and decisions), each iteration profits from the move ordering
+ * of the previous one. For games which implement {@link MutableGame}, the
+ * search applies and takes back actions instead of creating successor
+ * states.
  * 
  * @author Ruediger Lunde
  * 
@@ -30,9 +40,11 @@ public class IterativeDeepeningAlphaBetaSearch<STATE, ACTION, PLAYER>
 	private boolean maxDepthReached;
 	private long maxTime;
 	private boolean logEnabled;
+	private TranspositionTable<ACTION> transpositionTable;
 
 	private int expandedNodes;
 	private int maxDepth;
+	private int tableCutoffs;
 
 	/** Creates a new search object for a given game. */
 	public static <STATE, ACTION, PLAYER> IterativeDeepeningAlphaBetaSearch<STATE, ACTION, PLAYER> createFor(
@@ -54,6 +66,30 @@ public class IterativeDeepeningAlphaBetaSearch<STATE, ACTION, PLAYER>
 		logEnabled = b;
 	}
 
+	/** Returns the maximal computation time in milliseconds. */
+	long getMaxTime() {
+		return maxTime;
+	}
+
+	/** Returns the transposition table, possibly null. */
+	TranspositionTable<ACTION> getTranspositionTable() {
+		return transpositionTable;
+	}
+
+	/**
+	 * Enables the transposition table (or disables it if null is specified).
+	 * The table can be shared by successive decisions.
+	 * 
+	 * @throws IllegalArgumentException
+	 *             if the game does not implement {@link HashableGame}.
+	 */
+	public void setTranspositionTable(TranspositionTable<ACTION> table) {
+		if (table != null && !(game instanceof HashableGame))
+			throw new IllegalArgumentException(
+					"Game does not provide hash keys.");
+		transpositionTable = table;
+	}
+
 	/**
 	 * Template method controlling the search.
 	 */
@@ -65,7 +101,13 @@ public class IterativeDeepeningAlphaBetaSearch<STATE, ACTION, PLAYER>
 		StringBuffer logText = null;
 		expandedNodes = 0;
 		maxDepth = 0;
+		tableCutoffs = 0;
 		currDepthLimit = 0;
+		long rootKey = 0;
+		if (transpositionTable != null) {
+			transpositionTable.startSearch(player);
+			rootKey = getHashKey(state);
+		}
 		long startTime = System.currentTimeMillis();
 		boolean exit = false;
 		do {
@@ -76,8 +118,15 @@ public class IterativeDeepeningAlphaBetaSearch<STATE, ACTION, PLAYER>
 			double secondBestValue = Double.NEGATIVE_INFINITY;
 			if (logEnabled)
 				logText = new StringBuffer("depth " + currDepthLimit + ": ");
-			for (ACTION action : orderActions(state, game.getActions(state),
-					player, 0)) {
+			List<ACTION> actions = orderActions(state, game.getActions(state),
+					player, 0);
+			if (transpositionTable != null) {
+				int slot = transpositionTable.find(rootKey);
+				if (slot != -1)
+					actions = TranspositionTable.moveToFront(actions,
+							transpositionTable.getAction(slot));
+			}
+			for (ACTION action : actions) {
 				if (results != null
 						&& System.currentTimeMillis() > startTime + maxTime) {
 					exit = true;
@@ -104,6 +153,10 @@ public class IterativeDeepeningAlphaBetaSearch<STATE, ACTION, PLAYER>
 				results = newResults;
 				resultValue = newResultValue;
 			}
+			if (!exit && transpositionTable != null)
+				transpositionTable.store(rootKey, resultValue,
+						TranspositionTable.Bound.EXACT, getDraft(0), results
+								.get(0));
 			if (!exit && results.size() == 1
 					&& this.isSignificantlyBetter(resultValue, secondBestValue))
 				break;
@@ -115,14 +168,20 @@ public class IterativeDeepeningAlphaBetaSearch<STATE, ACTION, PLAYER>
 			double beta, int depth) { // returns an utility value
 		expandedNodes++;
 		maxDepth = Math.max(maxDepth, depth);
-		if (game.isTerminal(state) || depth >= currDepthLimit) {
+		if (game.isTerminal(state)) {
 			return eval(state, player);
+		} else if (depth >= currDepthLimit) {
+			maxDepthReached = true;
+			return eval(state, player);
+		} else if (transpositionTable != null) {
+			return maxValueWithTable(state, player, alpha, beta, depth);
 		} else {
 			double value = Double.NEGATIVE_INFINITY;
 			for (ACTION action : orderActions(state, game.getActions(state),
 					player, depth)) {
-				value = Math.max(value, minValue(game.getResult(state, action), //
-						player, alpha, beta, depth + 1));
+				value = Math.max(value, minValue(MoveUtils.makeMove(game,
+						state, action), player, alpha, beta, depth + 1));
+				MoveUtils.unmakeMove(game, state, action);
 				if (value >= beta)
 					return value;
 				alpha = Math.max(alpha, value);
@@ -135,14 +194,20 @@ public class IterativeDeepeningAlphaBetaSearch<STATE, ACTION, PLAYER>
 			double beta, int depth) { // returns an utility
 		expandedNodes++;
 		maxDepth = Math.max(maxDepth, depth);
-		if (game.isTerminal(state) || depth >= currDepthLimit) {
+		if (game.isTerminal(state)) {
+			return eval(state, player);
+		} else if (depth >= currDepthLimit) {
+			maxDepthReached = true;
 			return eval(state, player);
+		} else if (transpositionTable != null) {
+			return minValueWithTable(state, player, alpha, beta, depth);
 		} else {
 			double value = Double.POSITIVE_INFINITY;
 			for (ACTION action : orderActions(state, game.getActions(state),
 					player, depth)) {
-				value = Math.min(value, maxValue(game.getResult(state, action), //
-						player, alpha, beta, depth + 1));
+				value = Math.min(value, maxValue(MoveUtils.makeMove(game,
+						state, action), player, alpha, beta, depth + 1));
+				MoveUtils.unmakeMove(game, state, action);
 				if (value <= alpha)
 					return value;
 				beta = Math.min(beta, value);
@@ -157,6 +222,8 @@ public class IterativeDeepeningAlphaBetaSearch<STATE, ACTION, PLAYER>
 		Metrics result = new Metrics();
 		result.set("expandedNodes", expandedNodes);
 		result.set("maxDepth", maxDepth);
+		if (transpositionTable != null)
+			result.set("tableCutoffs", tableCutoffs);
 		return result;
 	}
 
@@ -192,15 +259,13 @@ public class IterativeDeepeningAlphaBetaSearch<STATE, ACTION, PLAYER>
 	 * Primitive operation, which estimates the value for (not necessarily
 	 * terminal) states. This implementation returns the utility value for
 	 * terminal states and <code>(utilMin + utilMax) / 2</code> for non-terminal
-	 * states.
+	 * states. Whether the depth limit was reached is recorded by the caller.
 	 */
 	protected double eval(STATE state, PLAYER player) {
-		if (game.isTerminal(state)) {
+		if (game.isTerminal(state))
 			return game.getUtility(state, player);
-		} else {
-			maxDepthReached = true;
+		else
 			return (utilMin + utilMax) / 2;
-		}
 	}
 
 	/**
@@ -211,4 +276,114 @@ public class IterativeDeepeningAlphaBetaSearch<STATE, ACTION, PLAYER>
 			PLAYER player, int depth) {
 		return actions;
 	}
+
+	//
+	// PRIVATE METHODS
+	//
+
+	/**
+	 * Variant of maxValue for non-terminal states within the depth limit,
+	 * which consults the transposition table.
+	 */
+	private double maxValueWithTable(STATE state, PLAYER player, double alpha,
+			double beta, int depth) {
+		long key = getHashKey(state);
+		ACTION hashAction = null;
+		int slot = transpositionTable.find(key);
+		if (slot != -1) {
+			if (transpositionTable.isSufficient(slot, currDepthLimit - depth,
+					alpha, beta))
+				return useTableValue(slot);
+			hashAction = transpositionTable.getAction(slot);
+		}
+		List<ACTION> actions = TranspositionTable.moveToFront(orderActions(
+				state, game.getActions(state), player, depth), hashAction);
+		boolean outerMaxDepthReached = maxDepthReached;
+		maxDepthReached = false;
+		double alphaOrig = alpha;
+		double value = Double.NEGATIVE_INFINITY;
+		ACTION bestAction = null;
+		for (ACTION action : actions) {
+			double v = minValue(MoveUtils.makeMove(game, state, action),
+					player, alpha, beta, depth + 1);
+			MoveUtils.unmakeMove(game, state, action);
+			if (v > value) {
+				value = v;
+				bestAction = action;
+			}
+			if (value >= beta)
+				break;
+			alpha = Math.max(alpha, value);
+		}
+		transpositionTable.store(key, value, TranspositionTable.getBoundFor(
+				value, alphaOrig, beta), getDraft(depth), bestAction);
+		maxDepthReached = maxDepthReached || outerMaxDepthReached;
+		return value;
+	}
+
+	/**
+	 * Variant of minValue for non-terminal states within the depth limit,
+	 * which consults the transposition table.
+	 */
+	private double minValueWithTable(STATE state, PLAYER player, double alpha,
+			double beta, int depth) {
+		long key = getHashKey(state);
+		ACTION hashAction = null;
+		int slot = transpositionTable.find(key);
+		if (slot != -1) {
+			if (transpositionTable.isSufficient(slot, currDepthLimit - depth,
+					alpha, beta))
+				return useTableValue(slot);
+			hashAction = transpositionTable.getAction(slot);
+		}
+		List<ACTION> actions = TranspositionTable.moveToFront(orderActions(
+				state, game.getActions(state), player, depth), hashAction);
+		boolean outerMaxDepthReached = maxDepthReached;
+		maxDepthReached = false;
+		double betaOrig = beta;
+		double value = Double.POSITIVE_INFINITY;
+		ACTION bestAction = null;
+		for (ACTION action : actions) {
+			double v = maxValue(MoveUtils.makeMove(game, state, action),
+					player, alpha, beta, depth + 1);
+			MoveUtils.unmakeMove(game, state, action);
+			if (v < value) {
+				value = v;
+				bestAction = action;
+			}
+			if (value <= alpha)
+				break;
+			beta = Math.min(beta, value);
+		}
+		transpositionTable.store(key, value, TranspositionTable.getBoundFor(
+				value, alpha, betaOrig), getDraft(depth), bestAction);
+		maxDepthReached = maxDepthReached || outerMaxDepthReached;
+		return value;
+	}
+
+	/**
+	 * Returns the stored value and takes care that iterative deepening
+	 * continues if the value depends on the depth limit.
+	 */
+	private double useTableValue(int slot) {
+		tableCutoffs++;
+		if (transpositionTable.getDraft(slot) != TranspositionTable.UNLIMITED_DRAFT)
+			maxDepthReached = true;
+		return transpositionTable.getValue(slot);
+	}
+
+	/**
+	 * Returns the draft of a value which was just computed at the specified
+	 * depth. Values which do not depend on the depth limit (because the depth
+	 * limit has not been reached below) get unlimited draft.
+	 */
+	private int getDraft(int depth) {
+		return maxDepthReached ? currDepthLimit - depth
+				: TranspositionTable.UNLIMITED_DRAFT;
+	}
+
+	@SuppressWarnings("unchecked")
+	private long getHashKey(STATE state) {
+		return ((HashableGame<STATE, ACTION, PLAYER>) game).getHashKey(state);
+	}
 }
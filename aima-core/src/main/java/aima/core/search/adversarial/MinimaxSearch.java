@@ -32,8 +32,10 @@ import aima.core.search.framework.Metrics;
  * plays to minimize utility. The functions MAX-VALUE and MIN-VALUE go through
  * the whole game tree, all the way to the leaves, to determine the backed-up
  * value of a state. The notation argmax_[a in S] f(a) computes the element a of
- * set S that has the maximum value of f(a).
- * 
+ * set S that has the maximum value of f(a).<br>
+ * <br>
+ * For games which implement {@link MutableGame}, successor states below the
+ * root are not created but obtained by applying and taking back actions.
  * 
  * @author Ruediger Lunde
  * 
@@ -82,9 +84,11 @@ public class MinimaxSearch<STATE, ACTION, PLAYER> implements
 		if (game.isTerminal(state))
 			return game.getUtility(state, player);
 		double value = Double.NEGATIVE_INFINITY;
-		for (ACTION action : game.getActions(state))
-			value = Math.max(value,
-					minValue(game.getResult(state, action), player));
+		for (ACTION action : game.getActions(state)) {
+			value = Math.max(value, minValue(MoveUtils.makeMove(game, state,
+					action), player));
+			MoveUtils.unmakeMove(game, state, action);
+		}
 		return value;
 	}
 
@@ -94,9 +98,11 @@ public class MinimaxSearch<STATE, ACTION, PLAYER> implements
 		if (game.isTerminal(state))
 			return game.getUtility(state, player);
 		double value = Double.POSITIVE_INFINITY;
-		for (ACTION action : game.getActions(state))
-			value = Math.min(value,
-					maxValue(game.getResult(state, action), player));
+		for (ACTION action : game.getActions(state)) {
+			value = Math.min(value, maxValue(MoveUtils.makeMove(game, state,
+					action), player));
+			MoveUtils.unmakeMove(game, state, action);
+		}
 		return value;
 	}
 
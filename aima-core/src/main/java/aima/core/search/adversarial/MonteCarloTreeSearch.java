@@ -0,0 +1,419 @@
+package aima.core.search.adversarial;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import aima.core.search.framework.Metrics;
+import aima.core.util.CancelableThreadFactory;
+
+/**
+ * Artificial Intelligence A Modern Approach (4th Ed.): Monte Carlo tree
+ * search with the UCT selection policy (upper confidence bounds applied to
+ * trees).<br>
+ * <br>
+ * Each iteration consists of four steps: Selection descends from the root
+ * to a node with untried actions (or a terminal node), always choosing the
+ * child which maximizes <code>w/n + C * sqrt(ln(N) / n)</code>, where w is
+ * the accumulated reward of the child for the player who moves there, n the
+ * number of visits of the child and N the number of visits of the node.
+ * Expansion adds one child for an untried action. Simulation plays random
+ * moves until a terminal state is reached (playout). Back-propagation adds
+ * the normalized utility of the terminal state to all nodes on the path. The
+ * action leading to the most visited child of the root is returned. In
+ * contrast to Minimax based search, no evaluation function is needed.<br>
+ * <br>
+ * The search stops when the time limit or the iteration limit is reached.
+ * Between decisions, the subtree of the state which was reached after the
+ * own move and the move of the opponent is kept and reused. For this, the
+ * same search object must be used for all decisions. States are recognized
+ * by <code>equals</code>, so state classes which do not override it
+ * prevent reuse.<br>
+ * <br>
+ * Several threads can work on one tree (tree parallelization). Each node
+ * is guarded by its own lock, so that threads block each other only if they
+ * touch the same node at the same time. A visit is counted during selection
+ * already but the reward is only added after the playout. This virtual loss
+ * makes the nodes currently under investigation less attractive for the
+ * other threads, which therefore explore different parts of the tree. For
+ * mutable games, playouts apply actions to a copy of the leaf state instead
+ * of creating new states.
+ *
+ * @param <STATE>
+ *            Type which is used for states in the game.
+ * @param <ACTION>
+ *            Type which is used for actions in the game.
+ * @param <PLAYER>
+ *            Type which is used for players in the game.
+ */
+public class MonteCarloTreeSearch<STATE, ACTION, PLAYER> implements
+		AdversarialSearch<STATE, ACTION> {
+
+	private Game<STATE, ACTION, PLAYER> game;
+	private double utilMin;
+	private double utilMax;
+	private long maxTime;
+	private int iterationLimit;
+	private double explorationConstant = Math.sqrt(2);
+	private int threadCount = 1;
+	private long seed = new Random().nextLong();
+
+	/** Subtree which will be reused by the next decision. */
+	private Node<STATE, ACTION, PLAYER> reusableTree;
+
+	private int iterations;
+	private int reusedVisits;
+	private int expandedNodes;
+	private long playoutTime;
+
+	/** Creates a new search object for a given game. */
+	public static <STATE, ACTION, PLAYER> MonteCarloTreeSearch<STATE, ACTION, PLAYER> createFor(
+			Game<STATE, ACTION, PLAYER> game, double utilMin, double utilMax,
+			int time) {
+		return new MonteCarloTreeSearch<STATE, ACTION, PLAYER>(game, utilMin,
+				utilMax, time);
+	}
+
+	/**
+	 * Creates a search which uses the specified time (in seconds) per
+	 * decision. Zero means no time limit, which requires an iteration limit.
+	 * Utilities are normalized to [0, 1] by the given bounds.
+	 */
+	public MonteCarloTreeSearch(Game<STATE, ACTION, PLAYER> game,
+			double utilMin, double utilMax, int time) {
+		this.game = game;
+		this.utilMin = utilMin;
+		this.utilMax = utilMax;
+		this.maxTime = time * 1000; // internal: ms instead of s
+	}
+
+	/**
+	 * Limits the number of iterations (playouts) per decision. Zero (the
+	 * default) means no limit.
+	 */
+	public void setIterationLimit(int iterationLimit) {
+		this.iterationLimit = iterationLimit;
+	}
+
+	/**
+	 * Sets the constant C, which controls the balance between exploitation
+	 * and exploration (default: sqrt(2)).
+	 */
+	public void setExplorationConstant(double c) {
+		explorationConstant = c;
+	}
+
+	/**
+	 * Sets the number of threads which work on the tree (default: 1). The
+	 * game must support concurrent calls of all its methods.
+	 */
+	public void setThreadCount(int threadCount) {
+		if (threadCount < 1)
+			throw new IllegalArgumentException("At least one thread needed.");
+		this.threadCount = threadCount;
+	}
+
+	/**
+	 * Makes the playouts reproducible. With more than one thread, results
+	 * still depend on thread timing.
+	 */
+	public void setRandomSeed(long seed) {
+		this.seed = seed;
+	}
+
+	@Override
+	public ACTION makeDecision(STATE state) {
+		if (maxTime <= 0 && iterationLimit <= 0)
+			throw new IllegalStateException("No time or iteration limit set.");
+		long startTime = System.currentTimeMillis();
+		Node<STATE, ACTION, PLAYER> root = findReusableTree(state);
+		if (root == null) {
+			root = new Node<STATE, ACTION, PLAYER>(null, null, null, state,
+					game);
+			reusedVisits = 0;
+		} else {
+			root.parent = null;
+			reusedVisits = root.visits;
+		}
+		iterations = 0;
+		expandedNodes = 0;
+		if (!root.isTerminal) {
+			Budget budget = new Budget(maxTime > 0 ? startTime + maxTime
+					: Long.MAX_VALUE);
+			if (threadCount == 1)
+				new Worker(root, budget, new Random(seed)).call();
+			else
+				runWorkers(root, budget);
+			iterations = budget.iterations.get();
+		}
+		playoutTime = System.currentTimeMillis() - startTime;
+		Node<STATE, ACTION, PLAYER> best = null;
+		for (Node<STATE, ACTION, PLAYER> child : root.children)
+			if (best == null || child.visits > best.visits)
+				best = child;
+		if (best != null) {
+			// the rest of the tree can be garbage collected
+			best.parent = null;
+			reusableTree = best;
+		}
+		return best != null ? best.action : null;
+	}
+
+	/**
+	 * Returns some statistic data from the last search: The number of
+	 * iterations (playouts), the playout throughput per second, the number
+	 * of nodes added to the tree, and the number of root visits inherited
+	 * from the previous decision.
+	 */
+	@Override
+	public Metrics getMetrics() {
+		Metrics result = new Metrics();
+		result.set("iterations", iterations);
+		result.set("playoutsPerSecond", playoutTime > 0 ? iterations * 1000.0
+				/ playoutTime : 0.0);
+		result.set("expandedNodes", expandedNodes);
+		result.set("reusedVisits", reusedVisits);
+		return result;
+	}
+
+	//
+	// PRIVATE METHODS
+	//
+
+	/**
+	 * Returns the node for the specified state if it is the root of the
+	 * remembered subtree or one of its children.
+	 */
+	private Node<STATE, ACTION, PLAYER> findReusableTree(STATE state) {
+		Node<STATE, ACTION, PLAYER> tree = reusableTree;
+		reusableTree = null;
+		if (tree != null) {
+			if (tree.state.equals(state))
+				return tree;
+			for (Node<STATE, ACTION, PLAYER> child : tree.children)
+				if (child.state.equals(state))
+					return child;
+		}
+		return null;
+	}
+
+	private void runWorkers(Node<STATE, ACTION, PLAYER> root, Budget budget) {
+		CancelableThreadFactory threads = new CancelableThreadFactory();
+		ExecutorService executor = Executors.newFixedThreadPool(threadCount,
+				threads);
+		try {
+			List<Worker> workers = new ArrayList<Worker>();
+			for (int i = 0; i < threadCount; i++)
+				workers.add(new Worker(root, budget, new Random(seed + i)));
+			for (Future<Object> future : executor.invokeAll(workers))
+				future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("Playout failed.", e.getCause());
+		} finally {
+			threads.cancelAll();
+			executor.shutdownNow();
+		}
+	}
+
+	/** Returns the utility normalized to [0, 1]. */
+	private double getReward(STATE terminal, PLAYER player) {
+		return (game.getUtility(terminal, player) - utilMin)
+				/ (utilMax - utilMin);
+	}
+
+	@SuppressWarnings("unchecked")
+	private STATE playout(STATE state, Random random) {
+		List<ACTION> actions;
+		if (game instanceof MutableGame && !game.isTerminal(state)) {
+			MutableGame<STATE, ACTION, PLAYER> mGame = (MutableGame<STATE, ACTION, PLAYER>) game;
+			actions = game.getActions(state);
+			state = game.getResult(state, actions.get(random.nextInt(actions
+					.size())));
+			while (!game.isTerminal(state)) {
+				actions = game.getActions(state);
+				mGame.applyMove(state, actions.get(random.nextInt(actions
+						.size())));
+			}
+		} else {
+			while (!game.isTerminal(state)) {
+				actions = game.getActions(state);
+				state = game.getResult(state, actions.get(random
+						.nextInt(actions.size())));
+			}
+		}
+		return state;
+	}
+
+	//
+	// PRIVATE CLASSES
+	//
+
+	/** Iteration counter and deadline, shared by all workers. */
+	private class Budget {
+		final AtomicInteger iterations = new AtomicInteger();
+		final long deadline;
+
+		Budget(long deadline) {
+			this.deadline = deadline;
+		}
+
+		/** Reserves the next iteration if the budget permits. */
+		boolean next() {
+			if (System.currentTimeMillis() >= deadline)
+				return false;
+			if (iterationLimit == 0) {
+				iterations.incrementAndGet();
+				return true;
+			}
+			while (true) {
+				int current = iterations.get();
+				if (current >= iterationLimit)
+					return false;
+				if (iterations.compareAndSet(current, current + 1))
+					return true;
+			}
+		}
+	}
+
+	/** Runs iterations until the budget is exhausted. */
+	private class Worker implements Callable<Object> {
+		final Node<STATE, ACTION, PLAYER> root;
+		final Budget budget;
+		final Random random;
+
+		Worker(Node<STATE, ACTION, PLAYER> root, Budget budget, Random random) {
+			this.root = root;
+			this.budget = budget;
+			this.random = random;
+		}
+
+		public Object call() {
+			int newNodes = 0;
+			while (budget.next()) {
+				// selection and expansion, visits are counted in advance
+				Node<STATE, ACTION, PLAYER> node = root;
+				node.addVisit();
+				boolean expanded = false;
+				while (!node.isTerminal && !expanded) {
+					Node<STATE, ACTION, PLAYER> next;
+					synchronized (node) {
+						next = node.expand(game, random);
+						if (next != null) {
+							expanded = true;
+							newNodes++;
+						} else {
+							next = node.selectChild(explorationConstant);
+						}
+						next.addVisit();
+					}
+					node = next;
+				}
+				// simulation
+				STATE terminal = playout(node.state, random);
+				// back-propagation
+				for (; node.parent != null; node = node.parent)
+					node.addReward(getReward(terminal, node.player));
+			}
+			synchronized (MonteCarloTreeSearch.this) {
+				expandedNodes += newNodes;
+			}
+			return null;
+		}
+	}
+
+	/**
+	 * Node of the search tree. The list of children and of untried actions
+	 * is guarded by the lock of the node, visits and rewards by the lock of
+	 * the parent (or the root itself). Thus, the statistics of all children
+	 * are consistent during selection. Visits are volatile, because the
+	 * number of visits of the node itself is also needed.
+	 */
+	private static class Node<STATE, ACTION, PLAYER> {
+		Node<STATE, ACTION, PLAYER> parent;
+		final ACTION action;
+		/** The player who moved from the parent to this node. */
+		final PLAYER player;
+		final STATE state;
+		final boolean isTerminal;
+		final List<Node<STATE, ACTION, PLAYER>> children = new ArrayList<Node<STATE, ACTION, PLAYER>>();
+		List<ACTION> untriedActions;
+		volatile int visits;
+		double reward;
+
+		Node(Node<STATE, ACTION, PLAYER> parent, ACTION action, PLAYER player,
+				STATE state, Game<STATE, ACTION, PLAYER> game) {
+			this.parent = parent;
+			this.action = action;
+			this.player = player;
+			this.state = state;
+			isTerminal = game.isTerminal(state);
+		}
+
+		/**
+		 * Adds a child for a randomly chosen untried action and returns it, or
+		 * returns null if all actions have been tried. The caller holds the
+		 * lock.
+		 */
+		Node<STATE, ACTION, PLAYER> expand(Game<STATE, ACTION, PLAYER> game,
+				Random random) {
+			if (untriedActions == null)
+				untriedActions = new ArrayList<ACTION>(game.getActions(state));
+			int size = untriedActions.size();
+			if (size == 0)
+				return null;
+			// swap with last for constant time removal
+			int pos = random.nextInt(size);
+			ACTION a = untriedActions.get(pos);
+			untriedActions.set(pos, untriedActions.get(size - 1));
+			untriedActions.remove(size - 1);
+			Node<STATE, ACTION, PLAYER> child = new Node<STATE, ACTION, PLAYER>(
+					this, a, game.getPlayer(state), game.getResult(state, a),
+					game);
+			children.add(child);
+			return child;
+		}
+
+		/**
+		 * Returns the child with the highest upper confidence bound. The
+		 * caller holds the lock.
+		 */
+		Node<STATE, ACTION, PLAYER> selectChild(double c) {
+			Node<STATE, ACTION, PLAYER> result = null;
+			double resultValue = Double.NEGATIVE_INFINITY;
+			double logVisits = Math.log(visits);
+			for (Node<STATE, ACTION, PLAYER> child : children) {
+				double value = child.reward / child.visits + c
+						* Math.sqrt(logVisits / child.visits);
+				if (value > resultValue) {
+					result = child;
+					resultValue = value;
+				}
+			}
+			return result;
+		}
+
+		void addVisit() {
+			synchronized (lock()) {
+				visits++;
+			}
+		}
+
+		void addReward(double r) {
+			synchronized (lock()) {
+				reward += r;
+			}
+		}
+
+		private Object lock() {
+			return parent != null ? parent : this;
+		}
+	}
+}
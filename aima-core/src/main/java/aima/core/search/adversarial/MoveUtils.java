@@ -0,0 +1,40 @@
+package aima.core.search.adversarial;
+
+/**
+ * Implements the make/unmake move protocol for all kinds of games. Searches
+ * call {@link #makeMove(Game, Object, Object)} before searching the subtree
+ * below an action and {@link #unmakeMove(Game, Object, Object)} afterwards.
+ * For games which implement {@link MutableGame}, the state is modified in
+ * place, otherwise a successor state is created.
+ *
+ * @see MutableGame
+ */
+final class MoveUtils {
+
+	private MoveUtils() {
+	}
+
+	/**
+	 * Returns the result of the action. For mutable games, this is the
+	 * modified state itself.
+	 */
+	@SuppressWarnings("unchecked")
+	static <STATE, ACTION, PLAYER> STATE makeMove(
+			Game<STATE, ACTION, PLAYER> game, STATE state, ACTION action) {
+		if (game instanceof MutableGame) {
+			((MutableGame<STATE, ACTION, PLAYER>) game).applyMove(state,
+					action);
+			return state;
+		}
+		return game.getResult(state, action);
+	}
+
+	/** Restores the state after a call of makeMove if necessary. */
+	@SuppressWarnings("unchecked")
+	static <STATE, ACTION, PLAYER> void unmakeMove(
+			Game<STATE, ACTION, PLAYER> game, STATE state, ACTION action) {
+		if (game instanceof MutableGame)
+			((MutableGame<STATE, ACTION, PLAYER>) game).undoMove(state,
+					action);
+	}
+}
@@ -0,0 +1,36 @@
+package aima.core.search.adversarial;
+
+/**
+ * Extension of the game interface for games whose states can be modified in
+ * place. Instead of creating a new state for every successor by
+ * {@link #getResult(Object, Object)}, search algorithms apply an action to
+ * the state, search the subtree, and take the action back afterwards
+ * (make/unmake move protocol). Thus, the number of states (and the amount of
+ * copying) does not grow with the number of expanded nodes.<br>
+ * <br>
+ * Search algorithms which support this interface never modify states passed
+ * to <code>makeDecision</code>. States passed to other public methods are
+ * modified during the call but are restored before the method returns.
+ * 
+ * @param <STATE>
+ *            Type which is used for states in the game.
+ * @param <ACTION>
+ *            Type which is used for actions in the game.
+ * @param <PLAYER>
+ *            Type which is used for players in the game.
+ */
+public interface MutableGame<STATE, ACTION, PLAYER> extends
+		Game<STATE, ACTION, PLAYER> {
+
+	/**
+	 * Modifies the state so that it becomes the result of the action. The
+	 * state must not be terminal and the action must be one of its actions.
+	 */
+	void applyMove(STATE state, ACTION action);
+
+	/**
+	 * Takes back the action, which must be the last action applied to the
+	 * state and not yet taken back.
+	 */
+	void undoMove(STATE state, ACTION action);
+}
@@ -0,0 +1,335 @@
+package aima.core.search.adversarial;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import aima.core.search.framework.Metrics;
+import aima.core.util.CancelableThreadFactory;
+
+/**
+ * Iterative deepening Minimax search with alpha-beta pruning, which explores
+ * the actions of the root state with several threads (root splitting). Work
+ * is distributed according to the Young Brothers Wait concept: In each
+ * iteration, the first action (the best action of the previous iteration,
+ * or the first one proposed by action ordering) is searched alone. Its value
+ * becomes the alpha bound of the root. Then, all remaining actions are
+ * searched in parallel, each by one task of a thread pool. The alpha bound is
+ * shared by all tasks: Whenever a task finds a better action, the bound is
+ * raised, and all other tasks read the new bound at every node and prune
+ * accordingly. This corresponds to principal variation search with the
+ * principal variation searched first and null windows replaced by the shared
+ * bound.<br>
+ * <br>
+ * Game specific knowledge (evaluation function, action ordering, stop
+ * criteria, depth increments and the time limit) is taken from a sequential
+ * {@link IterativeDeepeningAlphaBetaSearch}, which serves as template. Only
+ * its primitive operations are used, and each task keeps its own node and
+ * depth statistics. The default primitives do not modify fields. Overriding
+ * implementations must be thread-safe as well, e.g. by not modifying fields
+ * either. Templates with a transposition table are rejected because the
+ * table does not support concurrent access. Among actions of equal value, the
+ * decision can depend on thread timing. The game must support concurrent
+ * calls of all its methods. Mutable games are supported: Each task works on
+ * its own copy of the state.
+ * 
+ * @param <STATE>
+ *            Type which is used for states in the game.
+ * @param <ACTION>
+ *            Type which is used for actions in the game.
+ * @param <PLAYER>
+ *            Type which is used for players in the game.
+ */
+public class ParallelAlphaBetaSearch<STATE, ACTION, PLAYER> implements
+		AdversarialSearch<STATE, ACTION> {
+
+	private IterativeDeepeningAlphaBetaSearch<STATE, ACTION, PLAYER> template;
+	private Game<STATE, ACTION, PLAYER> game;
+	private int threadCount = Runtime.getRuntime().availableProcessors();
+
+	private int expandedNodes;
+	private int maxDepth;
+	private int depthLimit;
+
+	/** Creates a new search object for a given game. */
+	public static <STATE, ACTION, PLAYER> ParallelAlphaBetaSearch<STATE, ACTION, PLAYER> createFor(
+			Game<STATE, ACTION, PLAYER> game, double utilMin, double utilMax,
+			int time) {
+		return new ParallelAlphaBetaSearch<STATE, ACTION, PLAYER>(
+				IterativeDeepeningAlphaBetaSearch.createFor(game, utilMin,
+						utilMax, time));
+	}
+
+	/**
+	 * Creates a parallel search which uses the primitive operations and the
+	 * time limit of the specified sequential search.
+	 * 
+	 * @throws IllegalArgumentException
+	 *             if the template uses a transposition table.
+	 */
+	public ParallelAlphaBetaSearch(
+			IterativeDeepeningAlphaBetaSearch<STATE, ACTION, PLAYER> template) {
+		if (template.getTranspositionTable() != null)
+			throw new IllegalArgumentException(
+					"Transposition tables are not supported.");
+		this.template = template;
+		game = template.game;
+	}
+
+	/**
+	 * Sets the number of threads used for search (one per available
+	 * processor by default).
+	 */
+	public void setThreadCount(int threadCount) {
+		if (threadCount < 1)
+			throw new IllegalArgumentException("At least one thread needed.");
+		this.threadCount = threadCount;
+	}
+
+	/**
+	 * @throws IllegalStateException
+	 *             if a transposition table was set on the template after
+	 *             construction.
+	 */
+	@Override
+	public ACTION makeDecision(STATE state) {
+		if (template.getTranspositionTable() != null)
+			throw new IllegalStateException(
+					"Transposition tables are not supported.");
+		PLAYER player = game.getPlayer(state);
+		List<ACTION> actions = template.orderActions(state, game
+				.getActions(state), player, 0);
+		if (actions.isEmpty())
+			return null;
+		expandedNodes = 0;
+		maxDepth = 0;
+		template.currDepthLimit = 0;
+		long deadline = System.currentTimeMillis() + template.getMaxTime();
+		ACTION result = null;
+		double resultValue = Double.NEGATIVE_INFINITY;
+		CancelableThreadFactory threads = new CancelableThreadFactory();
+		ExecutorService executor = Executors.newFixedThreadPool(Math.min(
+				threadCount, Math.max(1, actions.size() - 1)), threads);
+		try {
+			while (true) {
+				template.incrementDepthLimit();
+				depthLimit = template.currDepthLimit;
+				Iteration iteration = new Iteration(state, player,
+						TranspositionTable.moveToFront(actions, result));
+				boolean complete = iteration.run(executor,
+						result != null ? deadline : Long.MAX_VALUE);
+				if (iteration.bestAction != null
+						&& (complete || template.isSignificantlyBetter(
+								iteration.bestValue, resultValue))) {
+					result = iteration.bestAction;
+					resultValue = iteration.bestValue;
+				}
+				if (!complete
+						|| !iteration.depthLimitReached
+						|| template.hasSafeWinner(resultValue)
+						|| template.isSignificantlyBetter(resultValue,
+								iteration.secondBestValue))
+					break;
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("Parallel search failed.", e
+					.getCause());
+		} finally {
+			threads.cancelAll();
+			executor.shutdownNow();
+		}
+		return result;
+	}
+
+	/**
+	 * Returns some statistic data from the last search: The number of
+	 * expanded nodes summed up over all threads, the maximal depth, and the
+	 * depth limit of the last iteration.
+	 */
+	@Override
+	public Metrics getMetrics() {
+		Metrics result = new Metrics();
+		result.set("expandedNodes", expandedNodes);
+		result.set("maxDepth", maxDepth);
+		result.set("depthLimit", depthLimit);
+		return result;
+	}
+
+	//
+	// PRIVATE CLASSES
+	//
+
+	/** One depth-limited search step of iterative deepening. */
+	private class Iteration {
+		final STATE state;
+		final PLAYER player;
+		final List<ACTION> actions;
+		/** Alpha bound of the root, shared by all tasks. */
+		final AtomicLong alphaBits = new AtomicLong(Double
+				.doubleToLongBits(Double.NEGATIVE_INFINITY));
+		volatile boolean isAborted;
+
+		ACTION bestAction;
+		double bestValue = Double.NEGATIVE_INFINITY;
+		double secondBestValue = Double.NEGATIVE_INFINITY;
+		boolean depthLimitReached;
+
+		Iteration(STATE state, PLAYER player, List<ACTION> actions) {
+			this.state = state;
+			this.player = player;
+			this.actions = actions;
+		}
+
+		/**
+		 * Searches the eldest brother first and then all other actions in
+		 * parallel. Returns false if the deadline was reached before all
+		 * actions were searched. In this case, the best action and its value
+		 * are based on the completed tasks only.
+		 */
+		boolean run(ExecutorService executor, long deadline)
+				throws InterruptedException, ExecutionException {
+			CompletionService<Task> service = new ExecutorCompletionService<Task>(
+					executor);
+			service.submit(new Task(this, 0));
+			int pending = 1;
+			int submitted = 1;
+			while (pending > 0) {
+				long waitTime = Math.min(50, deadline
+						- System.currentTimeMillis());
+				Future<Task> future = waitTime > 0 ? service.poll(waitTime,
+						TimeUnit.MILLISECONDS) : null;
+				if (future != null) {
+					pending--;
+					addResult(future.get());
+					if (submitted == 1) {
+						// young brothers wait for the eldest one
+						for (; submitted < actions.size(); submitted++)
+							service.submit(new Task(this, submitted));
+						pending += actions.size() - 1;
+					}
+				} else if (System.currentTimeMillis() >= deadline) {
+					isAborted = true;
+					return false;
+				}
+			}
+			return true;
+		}
+
+		double getAlpha() {
+			return Double.longBitsToDouble(alphaBits.get());
+		}
+
+		/** Raises the shared alpha bound if the value is better. */
+		void raiseAlpha(double value) {
+			while (true) {
+				long bits = alphaBits.get();
+				if (value <= Double.longBitsToDouble(bits)
+						|| alphaBits.compareAndSet(bits, Double
+								.doubleToLongBits(value)))
+					return;
+			}
+		}
+
+		/**
+		 * Values above the alpha bound used for the search are exact, the
+		 * others are upper bounds. Only the best value is used to decide,
+		 * the second best is only used in a conservative way.
+		 */
+		private void addResult(Task task) {
+			expandedNodes += task.expandedNodes;
+			maxDepth = Math.max(maxDepth, task.maxDepth);
+			depthLimitReached = depthLimitReached || task.depthLimitReached;
+			ACTION action = actions.get(task.actionIndex);
+			if (task.value > bestValue || bestAction == null) {
+				secondBestValue = bestValue;
+				bestValue = task.value;
+				bestAction = action;
+			} else if (task.value > secondBestValue) {
+				secondBestValue = task.value;
+			}
+		}
+	}
+
+	/** Searches the subtree below one action of the root. */
+	private class Task implements Callable<Task> {
+		final Iteration iteration;
+		final int actionIndex;
+		final PLAYER player;
+		double value;
+		int expandedNodes;
+		int maxDepth;
+		boolean depthLimitReached;
+
+		Task(Iteration iteration, int actionIndex) {
+			this.iteration = iteration;
+			this.actionIndex = actionIndex;
+			player = iteration.player;
+		}
+
+		public Task call() {
+			STATE child = game.getResult(iteration.state, iteration.actions
+					.get(actionIndex));
+			value = minValue(child, iteration.getAlpha(),
+					Double.POSITIVE_INFINITY, 1);
+			iteration.raiseAlpha(value);
+			return this;
+		}
+
+		double maxValue(STATE state, double alpha, double beta, int depth) {
+			expandedNodes++;
+			maxDepth = Math.max(maxDepth, depth);
+			if (game.isTerminal(state) || depth >= depthLimit)
+				return eval(state);
+			double value = Double.NEGATIVE_INFINITY;
+			for (ACTION action : template.orderActions(state, game
+					.getActions(state), player, depth)) {
+				if (iteration.isAborted)
+					break;
+				alpha = Math.max(alpha, iteration.getAlpha());
+				value = Math.max(value, minValue(MoveUtils.makeMove(game,
+						state, action), alpha, beta, depth + 1));
+				MoveUtils.unmakeMove(game, state, action);
+				if (value >= beta)
+					return value;
+				alpha = Math.max(alpha, value);
+			}
+			return value;
+		}
+
+		double minValue(STATE state, double alpha, double beta, int depth) {
+			expandedNodes++;
+			maxDepth = Math.max(maxDepth, depth);
+			if (game.isTerminal(state) || depth >= depthLimit)
+				return eval(state);
+			double value = Double.POSITIVE_INFINITY;
+			for (ACTION action : template.orderActions(state, game
+					.getActions(state), player, depth)) {
+				if (iteration.isAborted)
+					break;
+				alpha = Math.max(alpha, iteration.getAlpha());
+				value = Math.min(value, maxValue(MoveUtils.makeMove(game,
+						state, action), alpha, beta, depth + 1));
+				MoveUtils.unmakeMove(game, state, action);
+				if (value <= alpha)
+					return value;
+				beta = Math.min(beta, value);
+			}
+			return value;
+		}
+
+		double eval(STATE state) {
+			if (!game.isTerminal(state))
+				depthLimitReached = true;
+			return template.eval(state, player);
+		}
+	}
+}
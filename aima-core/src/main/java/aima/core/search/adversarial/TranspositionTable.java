@@ -0,0 +1,247 @@
+package aima.core.search.adversarial;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Fixed-size hash table which stores search results for game positions,
+ * addressed by the 64-bit hash keys of a {@link HashableGame}. Each entry
+ * contains the value of a position, the bound type of the value, the draft
+ * (remaining search depth) for which it was computed and the best action
+ * found. Alpha-beta searches use entries in two ways: Values with sufficient
+ * draft make a re-search of transposed positions unnecessary, and best
+ * actions from shallower searches are tried first, which improves pruning in
+ * iterative deepening.<br>
+ * <br>
+ * The table is organized as an array of slots with one entry per slot and no
+ * chaining. The complete key is stored, so that collisions of slot indices are
+ * detected. If a slot is occupied by another position, the new entry replaces
+ * the old one only if the old one was stored during an earlier search or if
+ * the new draft is at least as large as the old one (depth-preferred
+ * replacement with aging). Values are always stored from the perspective of
+ * the player who moves at the root of the search. Therefore, the table is
+ * cleared automatically when a search for another player starts. The table
+ * is not thread-safe.
+ * 
+ * @param <ACTION>
+ *            Type which is used for actions in the game.
+ */
+public class TranspositionTable<ACTION> {
+
+	/** Type of the value stored for a position. */
+	public enum Bound {
+		/** The value is exact. */
+		EXACT,
+		/** The value is a lower bound (the search failed high). */
+		LOWER,
+		/** The value is an upper bound (the search failed low). */
+		UPPER
+	}
+
+	/**
+	 * Draft for values which do not depend on a depth limit, e.g. because the
+	 * search below the position reached terminal states only.
+	 */
+	public static final int UNLIMITED_DRAFT = Integer.MAX_VALUE;
+
+	private static final Bound[] BOUNDS = Bound.values();
+
+	private final int mask;
+	private final long[] keys;
+	private final double[] values;
+	private final int[] drafts;
+	private final byte[] bounds;
+	private final Object[] actions;
+	/** Search generation in which an entry was stored, 0 for empty slots. */
+	private final int[] generations;
+	private int generation = 1;
+	private int size;
+	private Object rootPlayer;
+
+	private long probes;
+	private long hits;
+
+	/**
+	 * Constructs a table which can hold at least <code>capacity</code>
+	 * entries. The capacity is rounded up to the next power of two.
+	 */
+	public TranspositionTable(int capacity) {
+		if (capacity < 1 || capacity > 1 << 30)
+			throw new IllegalArgumentException("Capacity out of range.");
+		int slots = Integer.highestOneBit(capacity);
+		if (slots < capacity)
+			slots <<= 1;
+		mask = slots - 1;
+		keys = new long[slots];
+		values = new double[slots];
+		drafts = new int[slots];
+		bounds = new byte[slots];
+		actions = new Object[slots];
+		generations = new int[slots];
+	}
+
+	/** Returns the number of slots. */
+	public int getCapacity() {
+		return keys.length;
+	}
+
+	/** Returns the number of occupied slots. */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Marks the beginning of a new search for the specified player. Entries of
+	 * earlier searches for the same player remain valid but are replaced with
+	 * preference.
+	 */
+	public void startSearch(Object player) {
+		if (rootPlayer != null && !rootPlayer.equals(player))
+			clear();
+		rootPlayer = player;
+		generation++;
+		if (generation == Integer.MAX_VALUE) {
+			// keep the relative age of the entries roughly correct
+			for (int i = 0; i < generations.length; i++)
+				if (generations[i] != 0)
+					generations[i] = 1;
+			generation = 2;
+		}
+	}
+
+	/** Removes all entries. */
+	public void clear() {
+		Arrays.fill(generations, 0);
+		Arrays.fill(actions, null);
+		generation = 1;
+		size = 0;
+		rootPlayer = null;
+	}
+
+	/**
+	 * Returns the slot which contains the entry for the specified key, or -1
+	 * if the table does not contain such an entry.
+	 */
+	public int find(long key) {
+		probes++;
+		int slot = indexOf(key);
+		if (generations[slot] != 0 && keys[slot] == key) {
+			hits++;
+			return slot;
+		}
+		return -1;
+	}
+
+	/** Returns the value of the entry in the specified slot. */
+	public double getValue(int slot) {
+		return values[slot];
+	}
+
+	/** Returns the bound type of the entry in the specified slot. */
+	public Bound getBound(int slot) {
+		return BOUNDS[bounds[slot]];
+	}
+
+	/** Returns the draft of the entry in the specified slot. */
+	public int getDraft(int slot) {
+		return drafts[slot];
+	}
+
+	/**
+	 * Returns true if the value of the entry in the specified slot makes a
+	 * search with the given draft and window unnecessary.
+	 */
+	public boolean isSufficient(int slot, int draft, double alpha, double beta) {
+		if (drafts[slot] < draft)
+			return false;
+		switch (getBound(slot)) {
+		case LOWER:
+			return values[slot] >= beta;
+		case UPPER:
+			return values[slot] <= alpha;
+		default:
+			return true;
+		}
+	}
+
+	/**
+	 * Returns the best action of the entry in the specified slot (possibly
+	 * null).
+	 */
+	@SuppressWarnings("unchecked")
+	public ACTION getAction(int slot) {
+		return (ACTION) actions[slot];
+	}
+
+	/**
+	 * Stores a search result, if the replacement policy admits it. Returns
+	 * true if the entry was stored.
+	 */
+	public boolean store(long key, double value, Bound bound, int draft,
+			ACTION action) {
+		int slot = indexOf(key);
+		if (generations[slot] == 0) {
+			size++;
+		} else if (keys[slot] != key && generations[slot] == generation
+				&& drafts[slot] > draft) {
+			return false;
+		}
+		keys[slot] = key;
+		values[slot] = value;
+		bounds[slot] = (byte) bound.ordinal();
+		drafts[slot] = draft;
+		actions[slot] = action;
+		generations[slot] = generation;
+		return true;
+	}
+
+	/** Returns the number of calls of {@link #find(long)}. */
+	public long getProbes() {
+		return probes;
+	}
+
+	/** Returns the number of successful calls of {@link #find(long)}. */
+	public long getHits() {
+		return hits;
+	}
+
+	/**
+	 * Returns the bound type of a (fail-soft) search result which was computed
+	 * with the window <code>alpha</code>, <code>beta</code>. This works for
+	 * max and min nodes alike.
+	 */
+	public static Bound getBoundFor(double value, double alpha, double beta) {
+		if (value <= alpha)
+			return Bound.UPPER;
+		else if (value >= beta)
+			return Bound.LOWER;
+		else
+			return Bound.EXACT;
+	}
+
+	/**
+	 * Returns the actions with the specified action moved to the front. The
+	 * original list is not modified.
+	 */
+	static <ACTION> List<ACTION> moveToFront(List<ACTION> actions,
+			ACTION action) {
+		int pos = action != null ? actions.indexOf(action) : -1;
+		if (pos <= 0)
+			return actions;
+		List<ACTION> result = new ArrayList<ACTION>(actions.size());
+		result.add(action);
+		for (int i = 0; i < actions.size(); i++)
+			if (i != pos)
+				result.add(actions.get(i));
+		return result;
+	}
+
+	//
+	// PRIVATE METHODS
+	//
+
+	private int indexOf(long key) {
+		return (int) (key ^ (key >>> 32)) & mask;
+	}
+}
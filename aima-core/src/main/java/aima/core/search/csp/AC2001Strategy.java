@@ -0,0 +1,334 @@
+package aima.core.search.csp;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Arc consistency algorithm in the style of AC-2001/AC-3.1 (Bessiere, Regin,
+ * Yap, Zhang: An optimal coarse-grained arc consistency algorithm, Artificial
+ * Intelligence 165, 2005) for binary constraints. In contrast to
+ * {@link AC3Strategy}, the queue contains arcs instead of variables. An arc is
+ * a binary constraint together with a direction, which tells whose domain is
+ * revised. For each arc and value, the last support found in the domain of
+ * the other variable is cached. A revision first checks whether the cached
+ * support is still valid and otherwise continues the search behind it
+ * (wrapping around at the end of the domain). Supports are kept as residues
+ * during backtracking, so nothing needs to be restored (see Lecoutre,
+ * Hemery: A study of residual supports in arc consistency, IJCAI 2007).<br>
+ * <br>
+ * The algorithm works on CSPs in trailing mode and records removals on the
+ * trail. Other CSPs are switched into trailing mode temporarily, and old
+ * domains are stored in the returned restore info. Data structures are
+ * created for one CSP and reused as long as the strategy is applied to the
+ * same CSP. {@link GlobalConstraint}s are queued like arcs and propagated
+ * by their own algorithm when the domain of a scope variable has changed.
+ * Other non-binary constraints are ignored. Supports for compiled
+ * constraints (see {@link CSP#getConstraintTable(Constraint)}) are searched by
+ * bit set operations.
+ */
+public class AC2001Strategy {
+
+	private CSP csp;
+	private IndexedAssignment assignment;
+	/** Binary constraint of each arc (two arcs per constraint). */
+	private Constraint[] arcConstraints;
+	/** Index of the variable whose domain is revised, for each arc. */
+	private int[] arcVarI;
+	/** Index of the variable which provides supports, for each arc. */
+	private int[] arcVarJ;
+	/**
+	 * Global constraints, which are represented in the queue by the indices
+	 * following the arcs.
+	 */
+	private GlobalConstraint[] globalConstraints;
+	/**
+	 * Indices of the arcs and global constraints which depend on the domain
+	 * of a variable.
+	 */
+	private int[][] dependentArcs;
+	/** Last support per arc and value index of the revised variable. */
+	private int[][] residues;
+	/**
+	 * Bit set domain of the supporting variable, for which the residues of an
+	 * arc were computed. Value indices are only meaningful with respect to
+	 * the universe of this domain.
+	 */
+	private BitSetDomain[] residueDomains;
+	/** Compiled constraint of each arc, null if not available. */
+	private ConstraintTable[] arcTables;
+	// arc queue (ring buffer)
+	private int[] queue;
+	private int queueHead;
+	private int queueSize;
+	private boolean[] inQueue;
+
+	/**
+	 * Makes a CSP consisting of binary constraints arc-consistent.
+	 * 
+	 * @return An object which indicates success/failure and contains data to
+	 *         undo the operation.
+	 */
+	public DomainRestoreInfo reduceDomains(CSP csp) {
+		DomainRestoreInfo result = new DomainRestoreInfo();
+		List<Domain> oldDomains = beginReduction(csp);
+		int mark = csp.getTrailMark();
+		for (int arc = 0; arc < inQueue.length; arc++)
+			enqueue(arc);
+		propagate(result);
+		endReduction(mark, oldDomains, result);
+		return result.compactify();
+	}
+
+	/**
+	 * Reduces the domain of the specified variable to the specified value and
+	 * reestablishes arc-consistency. It is assumed that the provided CSP is
+	 * arc-consistent before the call.
+	 * 
+	 * @return An object which indicates success/failure and contains data to
+	 *         undo the operation.
+	 */
+	public DomainRestoreInfo reduceDomains(Variable var, Object value, CSP csp) {
+		DomainRestoreInfo result = new DomainRestoreInfo();
+		List<Domain> oldDomains = beginReduction(csp);
+		int mark = csp.getTrailMark();
+		int varIndex = csp.indexOf(var);
+		BitSetDomain domain = csp.getBitSetDomain(varIndex);
+		int valueIndex = domain.indexOf(value);
+		if (valueIndex != -1 && domain.contains(valueIndex)) {
+			if (domain.size() > 1) {
+				for (int i = domain.nextIndex(0); i >= 0; i = domain
+						.nextIndex(i + 1))
+					if (i != valueIndex)
+						csp.removeValueFromDomain(varIndex, i);
+				for (int arc : dependentArcs[varIndex])
+					enqueue(arc);
+				propagate(result);
+			}
+		} else {
+			result.setEmptyDomainFound(true);
+		}
+		endReduction(mark, oldDomains, result);
+		return result.compactify();
+	}
+
+	//
+	// PRIVATE METHODS
+	//
+
+	/**
+	 * Prepares the data structures for the CSP and switches it into trailing
+	 * mode if necessary. In that case, the current domains are returned.
+	 */
+	private List<Domain> beginReduction(CSP csp) {
+		if (this.csp != csp)
+			init(csp);
+		List<Domain> result = null;
+		if (!csp.isTrailing()) {
+			result = new ArrayList<Domain>();
+			for (Variable var : csp.getVariables())
+				result.add(csp.getDomain(var));
+			csp.startTrailing();
+		}
+		return result;
+	}
+
+	/** Records the changes and leaves a temporary trailing mode. */
+	private void endReduction(int mark, List<Domain> oldDomains,
+			DomainRestoreInfo info) {
+		if (oldDomains == null) {
+			info.setTrailSegment(mark, csp.getTrailMark());
+		} else {
+			List<Variable> vars = csp.getVariables();
+			for (int i = 0; i < vars.size(); i++)
+				if (csp.getBitSetDomain(i).size() != oldDomains.get(i).size())
+					info.storeDomainFor(vars.get(i), oldDomains.get(i));
+			csp.stopTrailing();
+		}
+	}
+
+	/** Builds the arc structures for the binary constraints of the CSP. */
+	private void init(CSP csp) {
+		this.csp = csp;
+		assignment = new IndexedAssignment(csp);
+		List<Constraint> constraints = new ArrayList<Constraint>();
+		List<GlobalConstraint> globals = new ArrayList<GlobalConstraint>();
+		for (Constraint constraint : csp.getConstraints()) {
+			if (constraint.getScope().size() == 2)
+				constraints.add(constraint);
+			else if (constraint instanceof GlobalConstraint)
+				globals.add((GlobalConstraint) constraint);
+		}
+		int arcs = 2 * constraints.size();
+		globalConstraints = globals.toArray(new GlobalConstraint[globals
+				.size()]);
+		arcConstraints = new Constraint[arcs];
+		arcVarI = new int[arcs];
+		arcVarJ = new int[arcs];
+		residues = new int[arcs][];
+		residueDomains = new BitSetDomain[arcs];
+		arcTables = new ConstraintTable[arcs];
+		int varCount = csp.getVariables().size();
+		int[] dependentCount = new int[varCount];
+		for (int c = 0; c < constraints.size(); c++) {
+			Constraint constraint = constraints.get(c);
+			int var0 = csp.indexOf(constraint.getScope().get(0));
+			int var1 = csp.indexOf(constraint.getScope().get(1));
+			for (int dir = 0; dir < 2; dir++) {
+				int arc = 2 * c + dir;
+				arcConstraints[arc] = constraint;
+				arcVarI[arc] = (dir == 0) ? var0 : var1;
+				arcVarJ[arc] = (dir == 0) ? var1 : var0;
+				dependentCount[arcVarJ[arc]]++;
+			}
+		}
+		for (GlobalConstraint constraint : globalConstraints)
+			for (Variable var : constraint.getScope())
+				dependentCount[csp.indexOf(var)]++;
+		dependentArcs = new int[varCount][];
+		for (int v = 0; v < varCount; v++)
+			dependentArcs[v] = new int[dependentCount[v]];
+		for (int arc = 0; arc < arcs; arc++) {
+			int v = arcVarJ[arc];
+			dependentArcs[v][--dependentCount[v]] = arc;
+		}
+		for (int g = 0; g < globalConstraints.length; g++) {
+			for (Variable var : globalConstraints[g].getScope()) {
+				int v = csp.indexOf(var);
+				dependentArcs[v][--dependentCount[v]] = arcs + g;
+			}
+		}
+		int items = arcs + globalConstraints.length;
+		queue = new int[Math.max(items, 1)];
+		inQueue = new boolean[items];
+		queueHead = 0;
+		queueSize = 0;
+	}
+
+	private void enqueue(int arc) {
+		if (!inQueue[arc]) {
+			queue[(queueHead + queueSize) % queue.length] = arc;
+			queueSize++;
+			inQueue[arc] = true;
+		}
+	}
+
+	private int dequeue() {
+		int arc = queue[queueHead];
+		queueHead = (queueHead + 1) % queue.length;
+		queueSize--;
+		inQueue[arc] = false;
+		return arc;
+	}
+
+	private void propagate(DomainRestoreInfo info) {
+		while (queueSize > 0) {
+			int arc = dequeue();
+			if (arc >= arcConstraints.length) {
+				if (!propagateGlobal(arc, info)) {
+					info.setEmptyDomainFound(true);
+					while (queueSize > 0)
+						dequeue();
+					return;
+				}
+			} else if (revise(arc)) {
+				int varI = arcVarI[arc];
+				if (csp.getBitSetDomain(varI).isEmpty()) {
+					info.setEmptyDomainFound(true);
+					while (queueSize > 0)
+						dequeue();
+					return;
+				}
+				int reverseArc = arc ^ 1;
+				for (int dependent : dependentArcs[varI])
+					if (dependent != reverseArc)
+						enqueue(dependent);
+			}
+		}
+	}
+
+	/**
+	 * Applies the propagator of a global constraint and enqueues the arcs and
+	 * other global constraints which depend on reduced domains.
+	 * 
+	 * @return false if an inconsistency was detected.
+	 */
+	private boolean propagateGlobal(int item, DomainRestoreInfo info) {
+		GlobalConstraint constraint = globalConstraints[item
+				- arcConstraints.length];
+		List<Variable> scope = constraint.getScope();
+		int[] sizes = new int[scope.size()];
+		for (int i = 0; i < sizes.length; i++)
+			sizes[i] = csp.getBitSetDomain(csp.indexOf(scope.get(i))).size();
+		if (!constraint.propagate(csp, info))
+			return false;
+		for (int i = 0; i < sizes.length; i++) {
+			int v = csp.indexOf(scope.get(i));
+			int size = csp.getBitSetDomain(v).size();
+			if (size == 0)
+				return false;
+			if (size != sizes[i])
+				for (int dependent : dependentArcs[v])
+					if (dependent != item)
+						enqueue(dependent);
+		}
+		return true;
+	}
+
+	/**
+	 * Removes all values from the domain of the first variable of the arc,
+	 * which have no support in the domain of the second variable.
+	 */
+	private boolean revise(int arc) {
+		int varI = arcVarI[arc];
+		BitSetDomain domainI = csp.getBitSetDomain(varI);
+		BitSetDomain domainJ = csp.getBitSetDomain(arcVarJ[arc]);
+		int[] residue = residues[arc];
+		if (residueDomains[arc] != domainJ) {
+			// new trailing session, universes and tables may have changed
+			residue = new int[domainI.getUniverseSize()];
+			Arrays.fill(residue, -1);
+			residues[arc] = residue;
+			residueDomains[arc] = domainJ;
+			arcTables[arc] = csp.getConstraintTable(arcConstraints[arc]);
+		}
+		boolean revised = false;
+		for (int a = domainI.nextIndex(0); a >= 0; a = domainI.nextIndex(a + 1)) {
+			int last = residue[a];
+			if (last >= 0 && domainJ.contains(last))
+				continue; // cached support still valid
+			int support = findSupport(arc, a, domainI, domainJ, last + 1);
+			if (support == -1 && last > 0)
+				support = findSupport(arc, a, domainI, domainJ, 0);
+			if (support != -1) {
+				residue[a] = support;
+			} else {
+				csp.removeValueFromDomain(varI, a);
+				revised = true;
+			}
+		}
+		return revised;
+	}
+
+	/**
+	 * Returns the index of the first value in the domain of the second
+	 * variable starting at <code>from</code>, which supports the specified
+	 * value of the first variable, or -1.
+	 */
+	private int findSupport(int arc, int a, BitSetDomain domainI,
+			BitSetDomain domainJ, int from) {
+		ConstraintTable table = arcTables[arc];
+		if (table != null)
+			return domainJ.nextIndex(from, table.getSupports(
+					csp.getVariables().get(arcVarI[arc]), a));
+		Constraint constraint = arcConstraints[arc];
+		assignment.setAssignment(arcVarI[arc], domainI.getValue(a));
+		for (int b = domainJ.nextIndex(from); b >= 0; b = domainJ
+				.nextIndex(b + 1)) {
+			assignment.setAssignment(arcVarJ[arc], domainJ.getValue(b));
+			if (constraint.isSatisfiedWith(assignment))
+				return b;
+		}
+		return -1;
+	}
+}
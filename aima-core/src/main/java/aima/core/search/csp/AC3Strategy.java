@@ -1,5 +1,7 @@
 package aima.core.search.csp;
 
+import java.util.List;
+
 import aima.core.util.datastructure.FIFOQueue;
 
 /**
@@ -34,7 +36,13 @@ import aima.core.util.datastructure.FIFOQueue;
  * every arc is arc-consistent, or some variable has an empty domain, indicating
  * that the CSP cannot be solved. The name "AC-3" was used by the algorithm's
  * inventor (Mackworth, 1977) because it's the third version developed in the
- * paper.
+ * paper.<br>
+ * <br>
+ * This implementation revises binary constraints as shown above. For
+ * {@link GlobalConstraint}s, the propagator of the constraint is applied
+ * whenever a variable of its scope is taken from the queue, and all scope
+ * variables with reduced domains are added to the queue. Other non-binary
+ * constraints are ignored.
  * 
  * @author Ruediger Lunde
  */
@@ -48,10 +56,13 @@ public class AC3Strategy {
 	 */
 	public DomainRestoreInfo reduceDomains(CSP csp) {
 		DomainRestoreInfo result = new DomainRestoreInfo();
+		int mark = csp.isTrailing() ? csp.getTrailMark() : -1;
 		FIFOQueue<Variable> queue = new FIFOQueue<Variable>();
 		for (Variable var : csp.getVariables())
 			queue.add(var);
 		reduceDomains(queue, csp, result);
+		if (mark != -1)
+			result.setTrailSegment(mark, csp.getTrailMark());
 		return result.compactify();
 	}
 
@@ -65,6 +76,27 @@ public class AC3Strategy {
 	 */
 	public DomainRestoreInfo reduceDomains(Variable var, Object value, CSP csp) {
 		DomainRestoreInfo result = new DomainRestoreInfo();
+		if (csp.isTrailing()) {
+			int mark = csp.getTrailMark();
+			int varIndex = csp.indexOf(var);
+			BitSetDomain domain = csp.getBitSetDomain(varIndex);
+			int valueIndex = domain.indexOf(value);
+			if (valueIndex != -1 && domain.contains(valueIndex)) {
+				if (domain.size() > 1) {
+					for (int i = domain.nextIndex(0); i >= 0; i = domain
+							.nextIndex(i + 1))
+						if (i != valueIndex)
+							csp.removeValueFromDomain(varIndex, i);
+					FIFOQueue<Variable> queue = new FIFOQueue<Variable>();
+					queue.add(var);
+					reduceDomains(queue, csp, result);
+				}
+			} else {
+				result.setEmptyDomainFound(true);
+			}
+			result.setTrailSegment(mark, csp.getTrailMark());
+			return result.compactify();
+		}
 		Domain domain = csp.getDomain(var);
 		if (domain.contains(value)) {
 			if (domain.size() > 1) {
@@ -82,27 +114,64 @@ public class AC3Strategy {
 
 	private void reduceDomains(FIFOQueue<Variable> queue, CSP csp,
 			DomainRestoreInfo info) {
+		Assignment assignment = new Assignment();
 		while (!queue.isEmpty()) {
 			Variable var = queue.pop();
 			for (Constraint constraint : csp.getConstraints(var)) {
 				if (constraint.getScope().size() == 2) {
 					Variable neighbor = csp.getNeighbor(var, constraint);
-					if (revise(neighbor, var, constraint, csp, info)) {
-						if (csp.getDomain(neighbor).isEmpty()) {
+					boolean revised = csp.isTrailing() ? reviseTrailing(
+							neighbor, var, constraint, csp, assignment)
+							: revise(neighbor, var, constraint, csp,
+									assignment, info);
+					if (revised) {
+						boolean empty = csp.isTrailing() ? csp.getBitSetDomain(
+								csp.indexOf(neighbor)).isEmpty() : csp
+								.getDomain(neighbor).isEmpty();
+						if (empty) {
 							info.setEmptyDomainFound(true);
 							return;
 						}
 						queue.push(neighbor);
 					}
+				} else if (constraint instanceof GlobalConstraint) {
+					if (!propagate((GlobalConstraint) constraint, queue, csp,
+							info)) {
+						info.setEmptyDomainFound(true);
+						return;
+					}
 				}
 			}
 		}
 	}
 
+	/**
+	 * Applies the propagator of a global constraint and adds the variables
+	 * whose domains have been reduced to the queue.
+	 * 
+	 * @return false if an inconsistency was detected.
+	 */
+	private boolean propagate(GlobalConstraint constraint,
+			FIFOQueue<Variable> queue, CSP csp, DomainRestoreInfo info) {
+		List<Variable> scope = constraint.getScope();
+		int[] sizes = new int[scope.size()];
+		for (int i = 0; i < sizes.length; i++)
+			sizes[i] = csp.getDomainSize(csp.indexOf(scope.get(i)));
+		if (!constraint.propagate(csp, info))
+			return false;
+		for (int i = 0; i < sizes.length; i++) {
+			int size = csp.getDomainSize(csp.indexOf(scope.get(i)));
+			if (size == 0)
+				return false;
+			if (size != sizes[i])
+				queue.push(scope.get(i));
+		}
+		return true;
+	}
+
 	private boolean revise(Variable xi, Variable xj, Constraint constraint,
-			CSP csp, DomainRestoreInfo info) {
+			CSP csp, Assignment assignment, DomainRestoreInfo info) {
 		boolean revised = false;
-		Assignment assignment = new Assignment();
 		for (Object iValue : csp.getDomain(xi)) {
 			assignment.setAssignment(xi, iValue);
 			boolean consistentExtensionFound = false;
@@ -121,4 +190,45 @@ public class AC3Strategy {
 		}
 		return revised;
 	}
-}
+
+	/**
+	 * Revise for CSPs in trailing mode, which works directly on the bit set
+	 * domains. Removals are recorded on the trail. Compiled constraints are
+	 * checked by bit set operations.
+	 */
+	private boolean reviseTrailing(Variable xi, Variable xj,
+			Constraint constraint, CSP csp, Assignment assignment) {
+		boolean revised = false;
+		int iIndex = csp.indexOf(xi);
+		BitSetDomain iDomain = csp.getBitSetDomain(iIndex);
+		BitSetDomain jDomain = csp.getBitSetDomain(csp.indexOf(xj));
+		ConstraintTable table = csp.getConstraintTable(constraint);
+		if (table != null) {
+			for (int i = iDomain.nextIndex(0); i >= 0; i = iDomain
+					.nextIndex(i + 1)) {
+				if (!table.hasSupport(xi, i, jDomain)) {
+					csp.removeValueFromDomain(iIndex, i);
+					revised = true;
+				}
+			}
+			return revised;
+		}
+		for (int i = iDomain.nextIndex(0); i >= 0; i = iDomain.nextIndex(i + 1)) {
+			assignment.setAssignment(xi, iDomain.getValue(i));
+			boolean consistentExtensionFound = false;
+			for (int j = jDomain.nextIndex(0); j >= 0; j = jDomain
+					.nextIndex(j + 1)) {
+				assignment.setAssignment(xj, jDomain.getValue(j));
+				if (constraint.isSatisfiedWith(assignment)) {
+					consistentExtensionFound = true;
+					break;
+				}
+			}
+			if (!consistentExtensionFound) {
+				csp.removeValueFromDomain(iIndex, i);
+				revised = true;
+			}
+		}
+		return revised;
+	}
+}
\ No newline at end of file
@@ -0,0 +1,258 @@
+package aima.core.search.csp;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Represents a constraint which requires all variables of the scope to have
+ * pairwise different values. Propagation achieves generalized arc
+ * consistency by matching theory (Regin: A filtering algorithm for
+ * constraints of difference in CSPs, AAAI 1994): A maximum matching between
+ * variables and values is computed. If it does not cover all variables, the
+ * constraint cannot be satisfied. Otherwise, a value can be removed from the
+ * domain of a variable if the edge belongs to no maximum matching. This is the
+ * case if it is neither matched, nor part of an alternating cycle (both ends
+ * in the same strongly connected component of the residual graph), nor
+ * reachable by an alternating path starting at a free value. Compared with
+ * pairwise {@link NotEqualConstraint}s, this also detects Hall sets, e.g.
+ * three variables sharing the same two values.
+ */
+public class AllDifferentConstraint extends GlobalConstraint {
+
+	private List<Variable> scope;
+
+	public AllDifferentConstraint(List<Variable> vars) {
+		scope = new ArrayList<Variable>(vars);
+	}
+
+	@Override
+	public List<Variable> getScope() {
+		return scope;
+	}
+
+	@Override
+	public boolean isSatisfiedWith(Assignment assignment) {
+		Set<Object> values = new HashSet<Object>();
+		for (Variable var : scope) {
+			Object value = assignment.getAssignment(var);
+			if (value != null && !values.add(value))
+				return false;
+		}
+		return true;
+	}
+
+	@Override
+	public boolean propagate(CSP csp, DomainRestoreInfo info) {
+		int n = scope.size();
+		// value graph: variables 0..n-1, values numbered in order of appearance
+		Map<Object, Integer> valueIds = new HashMap<Object, Integer>();
+		int[][] varEdges = new int[n][];
+		for (int x = 0; x < n; x++) {
+			Domain domain = csp.getDomain(scope.get(x));
+			if (domain.isEmpty())
+				return false;
+			varEdges[x] = new int[domain.size()];
+			for (int i = 0; i < domain.size(); i++) {
+				Integer id = valueIds.get(domain.get(i));
+				if (id == null) {
+					id = valueIds.size();
+					valueIds.put(domain.get(i), id);
+				}
+				varEdges[x][i] = id;
+			}
+		}
+		int m = valueIds.size();
+		if (m < n)
+			return false;
+		int[] varMatch = new int[n];
+		int[] valueMatch = new int[m];
+		if (!computeMaximumMatching(varEdges, varMatch, valueMatch))
+			return false;
+
+		// residual graph: matched edges from variable to value, other edges
+		// from value to variable
+		int[][] valueEdges = collectValueEdges(varEdges, varMatch, m);
+		boolean[] reachable = new boolean[m];
+		int[] queue = new int[m];
+		int queueSize = 0;
+		for (int v = 0; v < m; v++) {
+			if (valueMatch[v] == -1) {
+				reachable[v] = true;
+				queue[queueSize++] = v;
+			}
+		}
+		for (int head = 0; head < queueSize; head++) {
+			for (int x : valueEdges[queue[head]]) {
+				int next = varMatch[x];
+				if (!reachable[next]) {
+					reachable[next] = true;
+					queue[queueSize++] = next;
+				}
+			}
+		}
+		int[] components = computeComponents(varMatch, valueEdges);
+
+		for (int x = 0; x < n; x++) {
+			boolean[] keep = new boolean[varEdges[x].length];
+			for (int i = 0; i < keep.length; i++) {
+				int v = varEdges[x][i];
+				keep[i] = v == varMatch[x] || reachable[v]
+						|| components[x] == components[n + v];
+			}
+			retainValues(csp, scope.get(x), keep, info);
+		}
+		return true;
+	}
+
+	//
+	// PRIVATE METHODS
+	//
+
+	/**
+	 * Computes a maximum matching by augmenting paths, which are searched
+	 * breadth-first. Returns true if all variables are matched.
+	 */
+	private boolean computeMaximumMatching(int[][] varEdges, int[] varMatch,
+			int[] valueMatch) {
+		int n = varEdges.length;
+		Arrays.fill(varMatch, -1);
+		Arrays.fill(valueMatch, -1);
+		// greedy initialization
+		for (int x = 0; x < n; x++) {
+			for (int v : varEdges[x]) {
+				if (valueMatch[v] == -1) {
+					varMatch[x] = v;
+					valueMatch[v] = x;
+					break;
+				}
+			}
+		}
+		int[] predecessors = new int[valueMatch.length];
+		int[] visited = new int[valueMatch.length];
+		int[] queue = new int[n];
+		for (int x = 0; x < n; x++) {
+			if (varMatch[x] != -1)
+				continue;
+			// stamp x + 1 marks the values visited in this search
+			int queueSize = 0;
+			queue[queueSize++] = x;
+			int freeValue = -1;
+			for (int head = 0; head < queueSize && freeValue == -1; head++) {
+				int y = queue[head];
+				for (int v : varEdges[y]) {
+					if (visited[v] != x + 1) {
+						visited[v] = x + 1;
+						predecessors[v] = y;
+						if (valueMatch[v] == -1) {
+							freeValue = v;
+							break;
+						}
+						queue[queueSize++] = valueMatch[v];
+					}
+				}
+			}
+			if (freeValue == -1)
+				return false;
+			for (int v = freeValue; v != -1;) {
+				int y = predecessors[v];
+				int previous = varMatch[y];
+				varMatch[y] = v;
+				valueMatch[v] = y;
+				v = previous;
+			}
+		}
+		return true;
+	}
+
+	/** Returns for each value the variables with an unmatched edge to it. */
+	private int[][] collectValueEdges(int[][] varEdges, int[] varMatch, int m) {
+		int[] counts = new int[m];
+		for (int x = 0; x < varEdges.length; x++)
+			for (int v : varEdges[x])
+				if (v != varMatch[x])
+					counts[v]++;
+		int[][] result = new int[m][];
+		for (int v = 0; v < m; v++)
+			result[v] = new int[counts[v]];
+		for (int x = 0; x < varEdges.length; x++)
+			for (int v : varEdges[x])
+				if (v != varMatch[x])
+					result[v][--counts[v]] = x;
+		return result;
+	}
+
+	/**
+	 * Computes the strongly connected components of the residual graph with
+	 * an iterative version of Tarjan's algorithm. Nodes 0..n-1 represent
+	 * variables, the following nodes represent values.
+	 */
+	private int[] computeComponents(int[] varMatch, int[][] valueEdges) {
+		int n = varMatch.length;
+		int nodes = n + valueEdges.length;
+		int[] index = new int[nodes];
+		int[] lowLink = new int[nodes];
+		int[] components = new int[nodes];
+		boolean[] onStack = new boolean[nodes];
+		int[] stack = new int[nodes];
+		int stackSize = 0;
+		int[] callStack = new int[nodes];
+		int[] edgePositions = new int[nodes];
+		Arrays.fill(index, -1);
+		int nextIndex = 0;
+		int nextComponent = 0;
+		for (int root = 0; root < nodes; root++) {
+			if (index[root] != -1)
+				continue;
+			int depth = 0;
+			callStack[depth] = root;
+			edgePositions[root] = 0;
+			index[root] = lowLink[root] = nextIndex++;
+			stack[stackSize++] = root;
+			onStack[root] = true;
+			while (depth >= 0) {
+				int node = callStack[depth];
+				int successor = -1;
+				int pos = edgePositions[node]++;
+				if (node < n) {
+					if (pos == 0)
+						successor = n + varMatch[node];
+				} else if (pos < valueEdges[node - n].length) {
+					successor = valueEdges[node - n][pos];
+				}
+				if (successor != -1) {
+					if (index[successor] == -1) {
+						index[successor] = lowLink[successor] = nextIndex++;
+						stack[stackSize++] = successor;
+						onStack[successor] = true;
+						edgePositions[successor] = 0;
+						callStack[++depth] = successor;
+					} else if (onStack[successor]) {
+						lowLink[node] = Math.min(lowLink[node],
+								index[successor]);
+					}
+				} else {
+					if (lowLink[node] == index[node]) {
+						int member;
+						do {
+							member = stack[--stackSize];
+							onStack[member] = false;
+							components[member] = nextComponent;
+						} while (member != node);
+						nextComponent++;
+					}
+					if (--depth >= 0) {
+						int parent = callStack[depth];
+						lowLink[parent] = Math.min(lowLink[parent],
+								lowLink[node]);
+					}
+				}
+			}
+		}
+		return components;
+	}
+}
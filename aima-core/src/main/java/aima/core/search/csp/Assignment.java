@@ -6,7 +6,11 @@ import java.util.Hashtable;
 import java.util.List;
 
 /**
- * An assignment assigns values to some or all variables of a CSP.
+ * An assignment assigns values to some or all variables of a CSP. This
+ * implementation is based on a hash table and works for arbitrary variables.
+ * The solvers use {@link IndexedAssignment}, which stores values by variable
+ * index. Constraints and listeners should rely on the methods of this class
+ * only.
  * 
  * @author Ruediger Lunde
  */
@@ -24,6 +28,13 @@ public class Assignment {
 		variableToValue = new Hashtable<Variable, Object>();
 	}
 
+	/** Constructor for subclasses which use their own representation. */
+	Assignment(List<Variable> variables,
+			Hashtable<Variable, Object> variableToValue) {
+		this.variables = variables;
+		this.variableToValue = variableToValue;
+	}
+
 	public List<Variable> getVariables() {
 		return Collections.unmodifiableList(variables);
 	}
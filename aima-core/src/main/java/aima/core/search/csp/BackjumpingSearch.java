@@ -0,0 +1,256 @@
+package aima.core.search.csp;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+import aima.core.util.CancelableThread;
+
+/**
+ * Conflict-directed backjumping (CBJ, see Prosser: Hybrid algorithms for the
+ * constraint satisfaction problem, Computational Intelligence 9, 1993) for
+ * {@link ImprovedBacktrackingStrategy}. Variable selection, value ordering
+ * and inference are delegated to the strategy, the CSP must be in trailing
+ * mode.<br>
+ * <br>
+ * Variables are numbered by the level (search depth) at which they are
+ * assigned. For each failed value, a conflict set of levels explains the
+ * failure: the levels of the other variables of a violated constraint or
+ * nogood, the levels which removed the values of a wiped out domain, or the
+ * conflict set returned by the subtree. Removals are attributed to levels by
+ * reading the trail. Forward checking removals only depend on the variable
+ * assigned at that level, removals by arc consistency conservatively depend
+ * on all levels up to that level. If all values of a variable fail, the
+ * union of the conflict sets (plus the explanations for values removed from
+ * its domain) is returned, and the search jumps back to the deepest level in
+ * that set.<br>
+ * <br>
+ * Optionally, the conflict sets of dead ends are stored as nogoods, and the
+ * search is restarted whenever the number of dead ends reaches a limit which
+ * grows geometrically. Nogoods are kept across restarts.
+ */
+class BackjumpingSearch {
+
+	/** Returned instead of a conflict set if the search is restarted. */
+	private static final BitSet RESTART = new BitSet();
+
+	private final ImprovedBacktrackingStrategy strategy;
+	private final CSP csp;
+	private final List<Variable> vars;
+	/** Whether removals depend on all levels up to the removing level. */
+	private final boolean isPrefixExplanation;
+	private final IndexedAssignment assignment;
+	/** Level of each assigned variable, 0 if unassigned. */
+	private final int[] levels;
+	/** Value index of each assigned variable, -1 if unassigned. */
+	private final int[] assignedValues;
+	/** Variable index assigned at each level. */
+	private final int[] varAtLevel;
+	/** Level which removed a value, per variable and value index. */
+	private final int[][] removalLevels;
+	private final NogoodStore nogoods;
+	private final int initialFailureLimit;
+	private final double failureLimitGrowth;
+	private long failureLimit;
+	private long failures;
+
+	BackjumpingSearch(ImprovedBacktrackingStrategy strategy, CSP csp,
+			boolean isPrefixExplanation, int maxNogoods,
+			int initialFailureLimit, double failureLimitGrowth) {
+		this.strategy = strategy;
+		this.csp = csp;
+		assignment = new IndexedAssignment(csp);
+		this.isPrefixExplanation = isPrefixExplanation;
+		vars = csp.getVariables();
+		int n = vars.size();
+		levels = new int[n];
+		assignedValues = new int[n];
+		Arrays.fill(assignedValues, -1);
+		varAtLevel = new int[n + 1];
+		removalLevels = new int[n][];
+		for (int i = 0; i < n; i++)
+			removalLevels[i] = new int[csp.getBitSetDomain(i)
+					.getUniverseSize()];
+		nogoods = (maxNogoods > 0) ? new NogoodStore(csp, maxNogoods,
+				assignedValues) : null;
+		this.initialFailureLimit = initialFailureLimit;
+		this.failureLimitGrowth = failureLimitGrowth;
+	}
+
+	/**
+	 * Searches for a solution, restarting if enabled. Values which have
+	 * been removed before (e.g. by initial propagation) are explained by
+	 * level 0, which is never part of a conflict set.
+	 */
+	Assignment search() {
+		failureLimit = (initialFailureLimit > 0) ? initialFailureLimit
+				: Long.MAX_VALUE;
+		while (true) {
+			failures = 0;
+			BitSet conflict = search(1);
+			if (conflict == null)
+				return assignment;
+			if (conflict != RESTART || CancelableThread.currIsCanceled())
+				return null;
+			failureLimit = Math.max(failureLimit + 1,
+					(long) (failureLimit * failureLimitGrowth));
+		}
+	}
+
+	/**
+	 * Assigns a variable at the specified level and searches below.
+	 * 
+	 * @return null if a solution was found, otherwise a set of levels which
+	 *         explains the failure or RESTART.
+	 */
+	private BitSet search(int level) {
+		if (level > vars.size()) {
+			if (strategy.acceptSolution(assignment, csp))
+				return null;
+			return prefix(level - 1);
+		}
+		Variable var = strategy.selectUnassignedVariable(assignment, csp);
+		int varIndex = csp.indexOf(var);
+		BitSetDomain domain = csp.getBitSetDomain(varIndex);
+		BitSet conflict = new BitSet();
+		for (Object value : strategy.orderDomainValues(var, assignment, csp)) {
+			if (CancelableThread.currIsCanceled())
+				return RESTART;
+			assignment.setAssignment(varIndex, value);
+			levels[varIndex] = level;
+			assignedValues[varIndex] = domain.indexOf(value);
+			varAtLevel[level] = varIndex;
+			strategy.fireStateChanged(assignment, csp);
+			BitSet valueConflict = checkConstraints(var);
+			if (valueConflict == null && nogoods != null) {
+				int[] nogood = nogoods.check(varIndex);
+				if (nogood != null)
+					valueConflict = toLevels(nogood);
+			}
+			if (valueConflict == null) {
+				int mark = csp.getTrailMark();
+				DomainRestoreInfo info = strategy.inference(var, assignment,
+						csp);
+				if (!info.isEmpty())
+					strategy.fireStateChanged(csp);
+				for (int pos = mark; pos < csp.getTrailMark(); pos++)
+					removalLevels[csp.getTrailVariableIndex(pos)][csp
+							.getTrailValueIndex(pos)] = level;
+				if (info.isEmptyDomainFound()) {
+					valueConflict = explainWipeout(level);
+				} else {
+					valueConflict = search(level + 1);
+					if (valueConflict == null)
+						return null;
+					if (valueConflict == RESTART
+							|| !valueConflict.get(level)) {
+						// the failure does not depend on this variable
+						info.restoreDomains(csp);
+						unassign(varIndex);
+						return valueConflict;
+					}
+				}
+				info.restoreDomains(csp);
+			}
+			unassign(varIndex);
+			valueConflict.clear(level);
+			conflict.or(valueConflict);
+		}
+		// explain why the other values were not tried
+		for (int i = 0; i < domain.getUniverseSize(); i++)
+			if (!domain.contains(i))
+				conflict.or(explainRemoval(varIndex, i));
+		if (nogoods != null)
+			learn(conflict);
+		if (++failures >= failureLimit)
+			return RESTART;
+		return conflict;
+	}
+
+	private void unassign(int varIndex) {
+		assignment.removeAssignment(varIndex);
+		levels[varIndex] = 0;
+		assignedValues[varIndex] = -1;
+	}
+
+	/**
+	 * Returns the levels of the other variables of a constraint of the
+	 * specified variable which is violated, or null.
+	 */
+	private BitSet checkConstraints(Variable var) {
+		for (Constraint constraint : csp.getConstraints(var)) {
+			if (!constraint.isSatisfiedWith(assignment)) {
+				BitSet result = new BitSet();
+				for (Variable other : constraint.getScope())
+					if (other != var)
+						result.set(levels[csp.indexOf(other)]);
+				result.clear(0);
+				return result;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Explains the empty domain found by inference. Global constraints can
+	 * detect inconsistencies without emptying a domain. Then, all levels up
+	 * to the current level are blamed.
+	 */
+	private BitSet explainWipeout(int level) {
+		for (int varIndex = 0; varIndex < vars.size(); varIndex++) {
+			BitSetDomain domain = csp.getBitSetDomain(varIndex);
+			if (domain.isEmpty()) {
+				BitSet result = new BitSet();
+				for (int i = 0; i < domain.getUniverseSize(); i++)
+					result.or(explainRemoval(varIndex, i));
+				return result;
+			}
+		}
+		return prefix(level);
+	}
+
+	/** Returns the levels on which the removal of the value depends. */
+	private BitSet explainRemoval(int varIndex, int valueIndex) {
+		int level = removalLevels[varIndex][valueIndex];
+		if (isPrefixExplanation)
+			return prefix(level);
+		BitSet result = new BitSet();
+		if (level > 0)
+			result.set(level);
+		return result;
+	}
+
+	/** Returns the set of levels from 1 to the specified level. */
+	private BitSet prefix(int level) {
+		BitSet result = new BitSet();
+		if (level > 0)
+			result.set(1, level + 1);
+		return result;
+	}
+
+	private BitSet toLevels(int[] varIndices) {
+		BitSet result = new BitSet();
+		for (int varIndex : varIndices)
+			result.set(levels[varIndex]);
+		result.clear(0);
+		return result;
+	}
+
+	/**
+	 * Stores the current values of the variables at the specified levels as
+	 * nogood.
+	 */
+	private void learn(BitSet conflict) {
+		int size = conflict.cardinality();
+		int[] nogoodVars = new int[size];
+		int[] nogoodValues = new int[size];
+		int i = 0;
+		for (int l = conflict.nextSetBit(0); l >= 0; l = conflict
+				.nextSetBit(l + 1)) {
+			nogoodVars[i] = varAtLevel[l];
+			nogoodValues[i] = assignedValues[varAtLevel[l]];
+			i++;
+		}
+		nogoods.add(nogoodVars, nogoodValues, levels);
+	}
+}
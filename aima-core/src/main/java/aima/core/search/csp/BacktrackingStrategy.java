@@ -1,5 +1,7 @@
 package aima.core.search.csp;
 
+import aima.core.util.CancelableThread;
+
 /**
  * Artificial Intelligence A Modern Approach (3rd Ed.): Figure 6.5, Page 215.<br>
  * <br>
@@ -34,14 +36,17 @@ package aima.core.search.csp;
  * path-, or k-consistency, as desired. If a value choice leads to failure
  * (noticed wither by INFERENCE or by BACKTRACK), then value assignments
  * (including those made by INFERENCE) are removed from the current assignment
- * and a new value is tried.
+ * and a new value is tried.<br>
+ * <br>
+ * If the search runs in a {@link CancelableThread} which is canceled, it stops
+ * and reports failure.
  * 
  * @author Ruediger Lunde
  */
 public class BacktrackingStrategy extends SolutionStrategy {
 
 	public Assignment solve(CSP csp) {
-		return recursiveBackTrackingSearch(csp, new Assignment());
+		return recursiveBackTrackingSearch(csp, new IndexedAssignment(csp));
 	}
 
 	/**
@@ -52,10 +57,13 @@ public class BacktrackingStrategy extends SolutionStrategy {
 			Assignment assignment) {
 		Assignment result = null;
 		if (assignment.isComplete(csp.getVariables())) {
-			result = assignment;
+			if (acceptSolution(assignment, csp))
+				result = assignment;
 		} else {
 			Variable var = selectUnassignedVariable(assignment, csp);
 			for (Object value : orderDomainValues(var, assignment, csp)) {
+				if (CancelableThread.currIsCanceled())
+					break;
 				assignment.setAssignment(var, value);
 				fireStateChanged(assignment, csp);
 				if (assignment.isConsistent(csp.getConstraints(var))) {
@@ -75,6 +83,17 @@ public class BacktrackingStrategy extends SolutionStrategy {
 		return result;
 	}
 
+	/**
+	 * Hook which is called for each solution found. This default
+	 * implementation accepts the first solution, which terminates the search.
+	 * Strategies which enumerate solutions can return false to continue with
+	 * the next one. The assignment is modified afterwards and must be copied
+	 * if it is needed later on.
+	 */
+	protected boolean acceptSolution(Assignment assignment, CSP csp) {
+		return true;
+	}
+
 	/**
 	 * Primitive operation, selecting a not yet assigned variable. This default
 	 * implementation just selects the first in the ordered list of variables
@@ -0,0 +1,183 @@
+package aima.core.search.csp;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Mutable domain representation for finite value sets. The values of the
+ * domain at creation time form the universe, which is never changed. The
+ * current values are represented by a bit set over the indices of the
+ * universe, so removing, restoring and testing a value index costs O(1) and
+ * does not allocate memory. Iteration follows the order of the universe:
+ * 
+ * <pre>
+ * for (int i = d.nextIndex(0); i &gt;= 0; i = d.nextIndex(i + 1))
+ * 	process(d.getValue(i));
+ * </pre>
+ * 
+ * Bit set domains are used by trailing CSPs (see {@link CSP#startTrailing()}).
+ * In contrast to {@link Domain}, they must not be shared.
+ */
+public class BitSetDomain {
+
+	private final Object[] values;
+	private final long[] words;
+	private int size;
+	/** Maps values to indices, created on demand for larger universes. */
+	private Map<Object, Integer> valueIndexHash;
+
+	/** Creates a bit set domain containing all values of the given domain. */
+	public BitSetDomain(Domain domain) {
+		values = new Object[domain.size()];
+		for (int i = 0; i < values.length; i++)
+			values[i] = domain.get(i);
+		words = new long[(values.length + 63) >>> 6];
+		for (int i = 0; i < values.length; i++)
+			words[i >>> 6] |= 1L << i;
+		size = values.length;
+	}
+
+	/** Creates a copy which shares the universe with the original. */
+	public BitSetDomain(BitSetDomain domain) {
+		values = domain.values;
+		words = domain.words.clone();
+		size = domain.size;
+		valueIndexHash = domain.valueIndexHash;
+	}
+
+	/** Returns the number of values currently contained. */
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/** Returns the number of values in the universe. */
+	public int getUniverseSize() {
+		return values.length;
+	}
+
+	/** Returns the value of the universe with the specified index. */
+	public Object getValue(int index) {
+		return values[index];
+	}
+
+	/**
+	 * Returns the index of the specified value in the universe or -1 if the
+	 * universe does not contain the value.
+	 */
+	public int indexOf(Object value) {
+		if (values.length <= 8) {
+			for (int i = 0; i < values.length; i++)
+				if (values[i].equals(value))
+					return i;
+			return -1;
+		}
+		if (valueIndexHash == null) {
+			Map<Object, Integer> hash = new HashMap<Object, Integer>();
+			for (int i = 0; i < values.length; i++)
+				hash.put(values[i], i);
+			valueIndexHash = hash;
+		}
+		Integer result = valueIndexHash.get(value);
+		return result != null ? result : -1;
+	}
+
+	/** Tests whether the value with the specified index is contained. */
+	public boolean contains(int index) {
+		return (words[index >>> 6] & (1L << index)) != 0;
+	}
+
+	/**
+	 * Returns the smallest index greater or equal to <code>from</code> whose
+	 * value is contained, or -1 if there is no such index.
+	 */
+	public int nextIndex(int from) {
+		int w = from >>> 6;
+		if (w >= words.length)
+			return -1;
+		long word = words[w] & (-1L << from);
+		while (true) {
+			if (word != 0)
+				return (w << 6) + Long.numberOfTrailingZeros(word);
+			if (++w == words.length)
+				return -1;
+			word = words[w];
+		}
+	}
+
+	/**
+	 * Returns the smallest index greater or equal to <code>from</code> whose
+	 * value is contained and whose bit is set in the specified mask, or -1 if
+	 * there is no such index. The mask must be a bit set over the same
+	 * universe (see {@link ConstraintTable#getSupports(Variable, int)}).
+	 */
+	public int nextIndex(int from, long[] mask) {
+		int w = from >>> 6;
+		if (w >= words.length)
+			return -1;
+		long word = words[w] & mask[w] & (-1L << from);
+		while (true) {
+			if (word != 0)
+				return (w << 6) + Long.numberOfTrailingZeros(word);
+			if (++w == words.length)
+				return -1;
+			word = words[w] & mask[w];
+		}
+	}
+
+	/**
+	 * Tests whether one of the contained values has its bit set in the
+	 * specified mask over the same universe.
+	 */
+	public boolean intersects(long[] mask) {
+		for (int w = 0; w < words.length; w++)
+			if ((words[w] & mask[w]) != 0)
+				return true;
+		return false;
+	}
+
+	/**
+	 * Removes the value with the specified index. Returns true if the value
+	 * was contained before.
+	 */
+	public boolean remove(int index) {
+		long mask = 1L << index;
+		int w = index >>> 6;
+		if ((words[w] & mask) == 0)
+			return false;
+		words[w] &= ~mask;
+		size--;
+		return true;
+	}
+
+	/**
+	 * Adds the value with the specified index again. Returns true if the
+	 * value was missing before.
+	 */
+	public boolean restore(int index) {
+		long mask = 1L << index;
+		int w = index >>> 6;
+		if ((words[w] & mask) != 0)
+			return false;
+		words[w] |= mask;
+		size++;
+		return true;
+	}
+
+	/** Returns an immutable domain with the currently contained values. */
+	public Domain toDomain() {
+		Object[] result = new Object[size];
+		int j = 0;
+		for (int i = nextIndex(0); i >= 0; i = nextIndex(i + 1))
+			result[j++] = values[i];
+		return new Domain(result);
+	}
+
+	@Override
+	public String toString() {
+		return toDomain().toString();
+	}
+}
@@ -2,8 +2,9 @@ package aima.core.search.csp;
 
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.Hashtable;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Artificial Intelligence A Modern Approach (3rd Ed.): Section 6.1, Page 202.<br>
@@ -15,6 +16,16 @@ import java.util.List;
  * <li>D is a set of domains, {D1, ... ,Dn}, one for each variable.</li>
  * <li>C is a set of constraints that specify allowable combinations of values.</li>
  * </ul>
+ * Domains are represented by immutable {@link Domain} objects. Domain
+ * reduction replaces domains, which is simple but allocates a new domain for
+ * each removed value. For search, a CSP can be switched into trailing mode.
+ * Then, the current domains are represented by {@link BitSetDomain}s and all
+ * removals are recorded on a {@link DomainTrail}, so that solvers can prune
+ * and restore values in O(1) per value. Domain objects are still available in
+ * trailing mode, but they are created on demand. Additionally, binary
+ * constraints are compiled into {@link ConstraintTable}s over the universes of
+ * the bit set domains on first request, so that consistency checks work on
+ * value indices.
  * 
  * @author Ruediger Lunde
  */
@@ -24,13 +35,31 @@ public class CSP {
 	private List<Domain> domains;
 	private List<Constraint> constraints;
 
-	/** Lookup, which maps a variable to its index in the list of variables. */
-	private Hashtable<Variable, Integer> varIndexHash;
+	/**
+	 * Lookup, which maps a variable to its index in the list of variables.
+	 * Like the constraint network, it is not modified after construction and
+	 * shared by copies, so no synchronization is needed.
+	 */
+	private HashMap<Variable, Integer> varIndexHash;
 	/**
 	 * Constraint network. Maps variables to those constraints in which they
 	 * participate.
 	 */
-	private Hashtable<Variable, List<Constraint>> cnet;
+	private HashMap<Variable, List<Constraint>> cnet;
+
+	/** Current domains in trailing mode, otherwise null. */
+	private BitSetDomain[] bitSetDomains;
+	/** Records removals in trailing mode, otherwise null. */
+	private DomainTrail trail;
+	/**
+	 * Compiled constraints in trailing mode (null values for constraints which
+	 * cannot be compiled), otherwise null.
+	 */
+	private Map<Constraint, ConstraintTable> constraintTables;
+	/** Number of value pairs in the compiled tables. */
+	private long compiledPairs;
+	/** Is notified about domain changes while a solver is attached. */
+	private VariableOrdering variableOrdering;
 
 	private CSP() {
 	}
@@ -40,8 +69,8 @@ public class CSP {
 		variables = new ArrayList<Variable>(vars.size());
 		domains = new ArrayList<Domain>(vars.size());
 		constraints = new ArrayList<Constraint>();
-		varIndexHash = new Hashtable<Variable, Integer>();
-		cnet = new Hashtable<Variable, List<Constraint>>();
+		varIndexHash = new HashMap<Variable, Integer>();
+		cnet = new HashMap<Variable, List<Constraint>>();
 		Domain emptyDomain = new Domain(new ArrayList<Object>(0));
 		int index = 0;
 		for (Variable var : vars) {
@@ -60,25 +89,232 @@ public class CSP {
 		return varIndexHash.get(var);
 	}
 
+	/** Returns the index of the variable or -1 if it is not part of the CSP. */
+	int lookUpIndex(Variable var) {
+		Integer index = varIndexHash.get(var);
+		return index != null ? index : -1;
+	}
+
 	public Domain getDomain(Variable var) {
-		return domains.get(varIndexHash.get(var));
+		int index = varIndexHash.get(var);
+		Domain result = domains.get(index);
+		if (result == null) {
+			// trailing mode, domain has changed since last request
+			result = bitSetDomains[index].toDomain();
+			domains.set(index, result);
+		}
+		return result;
 	}
 
+	/**
+	 * Sets the domain of the specified variable. In trailing mode, the new
+	 * domain must be a subset of the domain the variable had when trailing
+	 * was started. Missing values are removed (and recorded on the trail),
+	 * the others are restored. The values will be returned in the original
+	 * order.
+	 */
 	public void setDomain(Variable var, Domain domain) {
-		domains.set(indexOf(var), domain);
+		int index = indexOf(var);
+		if (trail == null) {
+			domains.set(index, domain);
+			if (variableOrdering != null)
+				variableOrdering.domainChanged(index);
+		} else {
+			BitSetDomain bsDomain = bitSetDomains[index];
+			boolean[] keep = new boolean[bsDomain.getUniverseSize()];
+			for (Object value : domain) {
+				int valueIndex = bsDomain.indexOf(value);
+				if (valueIndex == -1)
+					throw new IllegalArgumentException("Value " + value
+							+ " is not contained in the original domain of "
+							+ var + ".");
+				keep[valueIndex] = true;
+				bsDomain.restore(valueIndex);
+			}
+			for (int i = 0; i < keep.length; i++)
+				if (!keep[i])
+					removeValueFromDomain(index, i);
+			domains.set(index, null);
+			if (variableOrdering != null)
+				variableOrdering.domainChanged(index);
+		}
 	}
 
 	/**
 	 * Replaces the domain of the specified variable by new domain, which
-	 * contains all values of the old domain except the specified value.
+	 * contains all values of the old domain except the specified value. In
+	 * trailing mode, the value is removed from the bit set domain instead.
 	 */
 	public void removeValueFromDomain(Variable var, Object value) {
-		Domain currDomain = getDomain(var);
-		List<Object> values = new ArrayList<Object>(currDomain.size());
-		for (Object v : currDomain)
-			if (!v.equals(value))
-				values.add(v);
-		setDomain(var, new Domain(values));
+		if (trail == null) {
+			Domain currDomain = getDomain(var);
+			List<Object> values = new ArrayList<Object>(currDomain.size());
+			for (Object v : currDomain)
+				if (!v.equals(value))
+					values.add(v);
+			setDomain(var, new Domain(values));
+		} else {
+			int index = indexOf(var);
+			int valueIndex = bitSetDomains[index].indexOf(value);
+			if (valueIndex != -1)
+				removeValueFromDomain(index, valueIndex);
+		}
+	}
+
+	// //////////////////////////////////////////////////////////////
+	// trailing mode
+
+	/**
+	 * Switches to trailing mode. The current domains become the universes of
+	 * bit set domains, which are used to represent domain reductions from now
+	 * on. Nothing happens if the CSP is already in trailing mode.
+	 */
+	public void startTrailing() {
+		if (trail == null) {
+			bitSetDomains = new BitSetDomain[variables.size()];
+			for (int i = 0; i < bitSetDomains.length; i++)
+				bitSetDomains[i] = new BitSetDomain(domains.get(i));
+			trail = new DomainTrail();
+			constraintTables = new HashMap<Constraint, ConstraintTable>();
+			compiledPairs = 0;
+		}
+	}
+
+	/**
+	 * Leaves trailing mode. The current bit set domains are converted into
+	 * domain objects and the trail is dropped.
+	 */
+	public void stopTrailing() {
+		if (trail != null) {
+			for (int i = 0; i < bitSetDomains.length; i++)
+				if (domains.get(i) == null)
+					domains.set(i, bitSetDomains[i].toDomain());
+			bitSetDomains = null;
+			trail = null;
+			constraintTables = null;
+		}
+	}
+
+	public boolean isTrailing() {
+		return trail != null;
+	}
+
+	/**
+	 * Returns the current domain size of the variable with the specified
+	 * index without creating domain objects in trailing mode.
+	 */
+	int getDomainSize(int varIndex) {
+		if (trail != null)
+			return bitSetDomains[varIndex].size();
+		return getDomain(variables.get(varIndex)).size();
+	}
+
+	/**
+	 * Attaches an ordering which is notified about all domain changes (null
+	 * detaches the current ordering).
+	 */
+	void setVariableOrdering(VariableOrdering ordering) {
+		variableOrdering = ordering;
+	}
+
+	/**
+	 * Returns the current domain of the variable with the specified index in
+	 * trailing mode. The domain must not be modified directly.
+	 */
+	public BitSetDomain getBitSetDomain(int varIndex) {
+		return bitSetDomains[varIndex];
+	}
+
+	/**
+	 * Removes a value from the domain of a variable in trailing mode and
+	 * records the removal on the trail.
+	 * 
+	 * @param varIndex
+	 *            the index of the variable.
+	 * @param valueIndex
+	 *            the index of the value within the universe of the variable's
+	 *            bit set domain.
+	 * @return true if the value was contained in the domain before.
+	 */
+	public boolean removeValueFromDomain(int varIndex, int valueIndex) {
+		if (bitSetDomains[varIndex].remove(valueIndex)) {
+			trail.push(varIndex, valueIndex);
+			domains.set(varIndex, null);
+			if (variableOrdering != null)
+				variableOrdering.domainChanged(varIndex);
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Returns the current size of the trail. Domain reductions performed
+	 * after this call can be undone by passing the result to
+	 * {@link #undoTrail(int)}.
+	 */
+	public int getTrailMark() {
+		return trail.size();
+	}
+
+	/**
+	 * Returns the variable index of the trail entry at the specified position
+	 * (between 0 inclusive and the current mark exclusive).
+	 */
+	public int getTrailVariableIndex(int pos) {
+		return trail.getVariableIndex(pos);
+	}
+
+	/**
+	 * Returns the value index of the trail entry at the specified position
+	 * (between 0 inclusive and the current mark exclusive).
+	 */
+	public int getTrailValueIndex(int pos) {
+		return trail.getValueIndex(pos);
+	}
+
+	/**
+	 * Restores all values which have been removed since the trail had the
+	 * specified size.
+	 */
+	public void undoTrail(int mark) {
+		while (trail.size() > mark) {
+			int varIndex = trail.topVariableIndex();
+			bitSetDomains[varIndex].restore(trail.topValueIndex());
+			domains.set(varIndex, null);
+			trail.pop();
+			if (variableOrdering != null)
+				variableOrdering.domainChanged(varIndex);
+		}
+	}
+
+	/**
+	 * Returns an extensional representation of the specified constraint in
+	 * trailing mode. The table is compiled on first request over the universes
+	 * of the current bit set domains and is kept until trailing is stopped.
+	 * The total size of the tables is limited by
+	 * {@link ConstraintTable#MAX_TOTAL_PAIRS}.
+	 * 
+	 * @return a table or null if the constraint cannot be compiled.
+	 */
+	public ConstraintTable getConstraintTable(Constraint constraint) {
+		ConstraintTable result = constraintTables.get(constraint);
+		if (result == null && !constraintTables.containsKey(constraint)) {
+			List<Variable> scope = constraint.getScope();
+			if (scope.size() == 2) {
+				BitSetDomain domain0 = bitSetDomains[indexOf(scope.get(0))];
+				BitSetDomain domain1 = bitSetDomains[indexOf(scope.get(1))];
+				long pairs = (long) domain0.getUniverseSize()
+						* domain1.getUniverseSize();
+				if (compiledPairs + pairs <= ConstraintTable.MAX_TOTAL_PAIRS) {
+					result = ConstraintTable.compile(constraint, domain0,
+							domain1);
+					if (result != null)
+						compiledPairs += pairs;
+				}
+			}
+			constraintTables.put(constraint, result);
+		}
+		return result;
 	}
 
 	public List<Constraint> getConstraints() {
@@ -116,13 +352,14 @@ public class CSP {
 
 	/**
 	 * Returns a copy which contains a copy of the domains list and is in all
-	 * other aspects a flat copy of this.
+	 * other aspects a flat copy of this. The copy is not in trailing mode.
 	 */
 	public CSP copyDomains() {
 		CSP result = new CSP();
 		result.variables = variables;
 		result.domains = new ArrayList<Domain>(domains.size());
-		result.domains.addAll(domains);
+		for (Variable var : variables)
+			result.domains.add(getDomain(var));
 		result.constraints = constraints;
 		result.varIndexHash = varIndexHash;
 		result.cnet = cnet;
@@ -0,0 +1,109 @@
+package aima.core.search.csp;
+
+import java.util.List;
+
+/**
+ * Extensional representation of a binary constraint over two finite
+ * universes. For each value of one variable, the compatible values of the
+ * other variable are stored as bit set over the value indices of its universe
+ * (the universe of a {@link BitSetDomain}). Checking a pair of values costs
+ * one bit test, and the question whether a value has a support in the current
+ * domain of the other variable is answered by a few word operations.<br>
+ * <br>
+ * Tables are compiled by evaluating the constraint for all pairs of values
+ * once. This requires that the constraint defines a fixed relation, which
+ * only depends on the values of the variables in its scope. Constraints with
+ * more or less than two variables and pairs of very large universes are not
+ * compiled. Solvers fall back to
+ * {@link Constraint#isSatisfiedWith(Assignment)} for them.
+ */
+public class ConstraintTable {
+
+	/** Maximal number of value pairs for which a table is compiled. */
+	public static final long MAX_PAIRS = 1L << 22;
+	/**
+	 * Maximal number of value pairs of all tables which are compiled for one
+	 * CSP (or one solver run). For larger problems, only some of the
+	 * constraints are compiled.
+	 */
+	public static final long MAX_TOTAL_PAIRS = 1L << 26;
+
+	private final Constraint constraint;
+	private final Variable var0;
+	/** For each value index of the first variable, the supports in the second. */
+	private final long[][] supports0;
+	/** For each value index of the second variable, the supports in the first. */
+	private final long[][] supports1;
+
+	private ConstraintTable(Constraint constraint, int size0, int size1) {
+		this.constraint = constraint;
+		var0 = constraint.getScope().get(0);
+		supports0 = new long[size0][(size1 + 63) >>> 6];
+		supports1 = new long[size1][(size0 + 63) >>> 6];
+	}
+
+	/**
+	 * Compiles a binary constraint into a table.
+	 * 
+	 * @param constraint
+	 *            the constraint to be compiled.
+	 * @param domain0
+	 *            provides the universe of the first variable of the scope.
+	 * @param domain1
+	 *            provides the universe of the second variable of the scope.
+	 * @return a table or null if the constraint is not binary or the
+	 *         universes are too large.
+	 */
+	public static ConstraintTable compile(Constraint constraint,
+			BitSetDomain domain0, BitSetDomain domain1) {
+		List<Variable> scope = constraint.getScope();
+		int size0 = domain0.getUniverseSize();
+		int size1 = domain1.getUniverseSize();
+		if (scope.size() != 2 || (long) size0 * size1 > MAX_PAIRS)
+			return null;
+		ConstraintTable result = new ConstraintTable(constraint, size0, size1);
+		Assignment assignment = new Assignment();
+		for (int i = 0; i < size0; i++) {
+			assignment.setAssignment(scope.get(0), domain0.getValue(i));
+			for (int j = 0; j < size1; j++) {
+				assignment.setAssignment(scope.get(1), domain1.getValue(j));
+				if (constraint.isSatisfiedWith(assignment)) {
+					result.supports0[i][j >>> 6] |= 1L << j;
+					result.supports1[j][i >>> 6] |= 1L << i;
+				}
+			}
+		}
+		return result;
+	}
+
+	public Constraint getConstraint() {
+		return constraint;
+	}
+
+	/**
+	 * Tests whether the constraint is satisfied by the values with the
+	 * specified indices. Indices are given in scope order.
+	 */
+	public boolean isAllowed(int valueIndex0, int valueIndex1) {
+		return (supports0[valueIndex0][valueIndex1 >>> 6] & (1L << valueIndex1)) != 0;
+	}
+
+	/**
+	 * Returns the indices of all values of the other variable which are
+	 * compatible with the specified value of the specified variable. The
+	 * result is a bit set over the universe of the other variable and must not
+	 * be modified.
+	 */
+	public long[] getSupports(Variable var, int valueIndex) {
+		return (var == var0) ? supports0[valueIndex] : supports1[valueIndex];
+	}
+
+	/**
+	 * Tests whether the specified value of the specified variable has a
+	 * support in the current domain of the other variable.
+	 */
+	public boolean hasSupport(Variable var, int valueIndex,
+			BitSetDomain otherDomain) {
+		return otherDomain.intersects(getSupports(var, valueIndex));
+	}
+}
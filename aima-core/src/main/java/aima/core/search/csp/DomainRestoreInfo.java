@@ -11,7 +11,9 @@ import aima.core.util.datastructure.Pair;
  * propagation algorithm. It maintains old domains for variables and provides
  * means to restore the initial state of the CSP (before domain reduction
  * started). Additionally, a flag indicates whether an empty domain has been
- * found during propagation.
+ * found during propagation. For CSPs in trailing mode, old domains need not
+ * be stored. Instead, the segment of the domain trail which contains the
+ * removals is recorded.
  * 
  * @author Ruediger Lunde
  * 
@@ -20,6 +22,8 @@ public class DomainRestoreInfo {
 	private List<Pair<Variable, Domain>> savedDomains;
 	private HashSet<Variable> affectedVariables;
 	private boolean emptyDomainObserved;
+	private int trailStart = -1;
+	private int trailEnd = -1;
 
 	public DomainRestoreInfo() {
 		savedDomains = new ArrayList<Pair<Variable, Domain>>();
@@ -29,10 +33,22 @@ public class DomainRestoreInfo {
 	public void clear() {
 		savedDomains.clear();
 		affectedVariables.clear();
+		trailStart = -1;
+		trailEnd = -1;
 	}
 
 	public boolean isEmpty() {
-		return savedDomains.isEmpty();
+		return savedDomains.isEmpty() && trailStart == trailEnd;
+	}
+
+	/**
+	 * Records that the domain reductions are given by the trail entries of a
+	 * trailing CSP from <code>start</code> (inclusive) to <code>end</code>
+	 * (exclusive).
+	 */
+	public void setTrailSegment(int start, int end) {
+		trailStart = start;
+		trailEnd = end;
 	}
 
 	/**
@@ -72,12 +88,16 @@ public class DomainRestoreInfo {
 	public void restoreDomains(CSP csp) {
 		for (Pair<Variable, Domain> pair : getSavedDomains())
 			csp.setDomain(pair.getFirst(), pair.getSecond());
+		if (trailStart != -1)
+			csp.undoTrail(trailStart);
 	}
 
 	public String toString() {
 		StringBuffer result = new StringBuffer();
 		for (Pair<Variable, Domain> pair : savedDomains)
 			result.append(pair.getFirst() + "=" + pair.getSecond() + " ");
+		if (trailStart != trailEnd)
+			result.append("trail[" + trailStart + ", " + trailEnd + ") ");
 		if (emptyDomainObserved)
 			result.append("!");
 		return result.toString();
@@ -0,0 +1,62 @@
+package aima.core.search.csp;
+
+/**
+ * Undo stack for domain reductions of a trailing CSP. Each entry records the
+ * removal of one value, given by the index of the variable and the index of
+ * the value within the universe of the variable's {@link BitSetDomain}.
+ * Solvers remember the current size as mark before a reduction step and undo
+ * all removals recorded since then by {@link CSP#undoTrail(int)}. Entries are
+ * stored in primitive arrays which are reused, so recording costs O(1)
+ * amortized without allocation.
+ */
+public class DomainTrail {
+
+	private int[] variableIndices = new int[256];
+	private int[] valueIndices = new int[256];
+	private int size;
+
+	/** Returns the number of recorded removals, usable as mark. */
+	public int size() {
+		return size;
+	}
+
+	/** Records the removal of a value. */
+	public void push(int variableIndex, int valueIndex) {
+		if (size == variableIndices.length) {
+			int[] newVars = new int[2 * size];
+			int[] newValues = new int[2 * size];
+			System.arraycopy(variableIndices, 0, newVars, 0, size);
+			System.arraycopy(valueIndices, 0, newValues, 0, size);
+			variableIndices = newVars;
+			valueIndices = newValues;
+		}
+		variableIndices[size] = variableIndex;
+		valueIndices[size] = valueIndex;
+		size++;
+	}
+
+	/** Returns the variable index of the entry at the specified position. */
+	public int getVariableIndex(int pos) {
+		return variableIndices[pos];
+	}
+
+	/** Returns the value index of the entry at the specified position. */
+	public int getValueIndex(int pos) {
+		return valueIndices[pos];
+	}
+
+	/** Returns the variable index of the most recent entry. */
+	public int topVariableIndex() {
+		return variableIndices[size - 1];
+	}
+
+	/** Returns the value index of the most recent entry. */
+	public int topValueIndex() {
+		return valueIndices[size - 1];
+	}
+
+	/** Removes the most recent entry. */
+	public void pop() {
+		size--;
+	}
+}
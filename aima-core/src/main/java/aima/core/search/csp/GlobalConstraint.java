@@ -0,0 +1,63 @@
+package aima.core.search.csp;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Base class for constraints with arbitrary scope which provide their own
+ * propagation algorithm. The inference procedures of this package (see
+ * {@link AC3Strategy}, {@link AC2001Strategy}, and forward checking in
+ * {@link ImprovedBacktrackingStrategy}) only revise binary constraints
+ * themselves. For global constraints, they call {@link #propagate(CSP,
+ * DomainRestoreInfo)} whenever the domain of a scope variable has changed.
+ * Global constraints with two variables are revised like all other binary
+ * constraints, which establishes arc consistency.
+ * Implementations must be stateless, because constraints are shared by CSP
+ * copies which may be solved concurrently.
+ */
+public abstract class GlobalConstraint implements Constraint {
+
+	/**
+	 * Removes values from the domains of the scope variables which cannot be
+	 * part of any assignment satisfying this constraint, given the current
+	 * domains. In trailing mode, removals are recorded on the trail. Otherwise,
+	 * old domains are stored in <code>info</code> before they are replaced.
+	 * 
+	 * @return false if an inconsistency was detected. Domains may then be
+	 *         partially reduced.
+	 */
+	public abstract boolean propagate(CSP csp, DomainRestoreInfo info);
+
+	/**
+	 * Removes all values from the domain of the variable whose flag is false.
+	 * Flags correspond to the positions of the values in the current domain.
+	 * 
+	 * @return true if the domain was changed.
+	 */
+	protected boolean retainValues(CSP csp, Variable var, boolean[] keep,
+			DomainRestoreInfo info) {
+		Domain domain = csp.getDomain(var);
+		int count = 0;
+		for (int i = 0; i < keep.length; i++)
+			if (keep[i])
+				count++;
+		if (count == domain.size())
+			return false;
+		if (csp.isTrailing()) {
+			int varIndex = csp.indexOf(var);
+			BitSetDomain bsDomain = csp.getBitSetDomain(varIndex);
+			for (int i = 0; i < keep.length; i++)
+				if (!keep[i])
+					csp.removeValueFromDomain(varIndex, bsDomain
+							.indexOf(domain.get(i)));
+		} else {
+			List<Object> values = new ArrayList<Object>(count);
+			for (int i = 0; i < keep.length; i++)
+				if (keep[i])
+					values.add(domain.get(i));
+			info.storeDomainFor(var, domain);
+			csp.setDomain(var, new Domain(values));
+		}
+		return true;
+	}
+}
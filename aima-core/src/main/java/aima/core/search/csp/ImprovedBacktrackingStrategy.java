@@ -4,6 +4,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Random;
 
 import aima.core.util.datastructure.Pair;
 
@@ -11,6 +12,16 @@ public class ImprovedBacktrackingStrategy extends BacktrackingStrategy {
 	protected Selection selectionStrategy = Selection.DEFAULT_ORDER;
 	protected Inference inferenceStrategy = Inference.NONE;
 	protected boolean isLCVHeuristicEnabled;
+	protected boolean isTrailingEnabled = true;
+	protected boolean isBackjumpingEnabled;
+	protected int maxNogoods;
+	protected int initialFailureLimit;
+	protected double failureLimitGrowth;
+	protected Random random = new Random();
+	/** Arc consistency engine for the CSP which is currently solved. */
+	private AC2001Strategy ac2001Strategy;
+	/** MRV ordering for the CSP which is currently solved. */
+	private VariableOrdering variableOrdering;
 
 	/** Creates a strategy which is by default equivalent to plain backtracking. */
 	public ImprovedBacktrackingStrategy() {
@@ -45,26 +56,113 @@ public class ImprovedBacktrackingStrategy extends BacktrackingStrategy {
 	}
 
 	/**
-	 * Starts with a constraint propagation if AC-3 is enabled and then calls
-	 * the super class implementation.
+	 * Enables or disables trailing mode during search (enabled by default). If
+	 * enabled and inference is used, the CSP is switched into trailing mode
+	 * while solving, so that domain reduction and restoration work on bit
+	 * sets without allocating new domains (see {@link CSP#startTrailing()}).
+	 */
+	public void enableTrailing(boolean state) {
+		isTrailingEnabled = state;
+	}
+
+	/**
+	 * Enables or disables conflict-directed backjumping. If enabled, the
+	 * search jumps back to the most recent variable which is responsible for
+	 * a dead end instead of the previous variable (see
+	 * {@link BackjumpingSearch}). Backjumping requires trailing mode, which is
+	 * used independently of {@link #enableTrailing(boolean)}.
+	 */
+	public void enableBackjumping(boolean state) {
+		isBackjumpingEnabled = state;
+	}
+
+	/**
+	 * Sets the maximal number of nogoods which are learned from dead ends
+	 * during backjumping (0 disables learning).
+	 */
+	public void setMaxNogoods(int maxNogoods) {
+		this.maxNogoods = maxNogoods;
+	}
+
+	/**
+	 * Enables restarts for backjumping search: After the specified number of
+	 * dead ends, the search starts from scratch with a limit which is
+	 * multiplied by the growth factor. Value ordering is randomized, and
+	 * learned nogoods are kept. Restarts should not be combined with
+	 * strategies which enumerate solutions. An initial limit of 0 disables
+	 * restarts.
+	 */
+	public void enableRestarts(int initialFailureLimit, double growthFactor) {
+		this.initialFailureLimit = initialFailureLimit;
+		this.failureLimitGrowth = growthFactor;
+	}
+
+	/** Sets the random number generator for randomized value ordering. */
+	public void setRandom(Random random) {
+		this.random = random;
+	}
+
+	/**
+	 * Starts with a constraint propagation if AC-3 or AC-2001 is enabled and
+	 * then calls the super class implementation.
 	 */
 	public Assignment solve(CSP csp) {
-		if (inferenceStrategy == Inference.AC3) {
-			DomainRestoreInfo info = new AC3Strategy().reduceDomains(csp);
-			if (!info.isEmpty()) {
-				fireStateChanged(csp);
-				if (info.isEmptyDomainFound())
-					return null;
+		boolean startTrailing = (isTrailingEnabled
+				&& inferenceStrategy != Inference.NONE || isBackjumpingEnabled)
+				&& !csp.isTrailing();
+		if (startTrailing)
+			csp.startTrailing();
+		try {
+			DomainRestoreInfo info = null;
+			if (inferenceStrategy == Inference.AC3) {
+				info = new AC3Strategy().reduceDomains(csp);
+			} else if (inferenceStrategy == Inference.AC2001) {
+				ac2001Strategy = new AC2001Strategy();
+				info = ac2001Strategy.reduceDomains(csp);
 			}
+			if (info != null) {
+				if (!info.isEmpty()) {
+					fireStateChanged(csp);
+					if (info.isEmptyDomainFound())
+						return null;
+				}
+			}
+			if (selectionStrategy != Selection.DEFAULT_ORDER) {
+				variableOrdering = new VariableOrdering(csp,
+						selectionStrategy == Selection.MRV_DEG);
+				csp.setVariableOrdering(variableOrdering);
+			}
+			if (isBackjumpingEnabled) {
+				// removals by global constraints depend on all domains
+				boolean isPrefixExplanation = inferenceStrategy == Inference.AC3
+						|| inferenceStrategy == Inference.AC2001
+						|| hasGlobalConstraints(csp);
+				return new BackjumpingSearch(this, csp, isPrefixExplanation,
+						maxNogoods, initialFailureLimit, failureLimitGrowth)
+						.search();
+			}
+			return super.solve(csp);
+		} finally {
+			ac2001Strategy = null;
+			if (variableOrdering != null) {
+				csp.setVariableOrdering(null);
+				variableOrdering = null;
+			}
+			if (startTrailing)
+				csp.stopTrailing();
 		}
-		return super.solve(csp);
 	}
 
 	/**
-	 * Primitive operation, selecting a not yet assigned variable.
+	 * Primitive operation, selecting a not yet assigned variable. During
+	 * {@link #solve(CSP)}, MRV and degree heuristic are evaluated by an
+	 * incrementally maintained {@link VariableOrdering}.
 	 */
 	@Override
 	protected Variable selectUnassignedVariable(Assignment assignment, CSP csp) {
+		if (variableOrdering != null && variableOrdering.getCSP() == csp
+				&& assignment instanceof IndexedAssignment)
+			return variableOrdering.select((IndexedAssignment) assignment);
 		switch (selectionStrategy) {
 		case MRV:
 			return applyMRVHeuristic(csp, assignment).get(0);
@@ -72,9 +170,10 @@ public class ImprovedBacktrackingStrategy extends BacktrackingStrategy {
 			List<Variable> vars = applyMRVHeuristic(csp, assignment);
 			return applyDegreeHeuristic(vars, assignment, csp).get(0);
 		default:
-			for (Variable var : csp.getVariables()) {
-				if (!(assignment.hasAssignmentFor(var)))
-					return var;
+			List<Variable> cspVars = csp.getVariables();
+			for (int i = 0; i < cspVars.size(); i++) {
+				if (!isAssigned(i, cspVars.get(i), assignment))
+					return cspVars.get(i);
 			}
 		}
 		return null;
@@ -87,10 +186,19 @@ public class ImprovedBacktrackingStrategy extends BacktrackingStrategy {
 	@Override
 	protected Iterable<?> orderDomainValues(Variable var,
 			Assignment assignment, CSP csp) {
-		if (!isLCVHeuristicEnabled) {
+		if (isBackjumpingEnabled && initialFailureLimit > 0) {
+			// randomized order for restarts, LCV breaks ties randomly
+			List<Object> values = new ArrayList<Object>(csp.getDomain(var)
+					.asList());
+			Collections.shuffle(values, random);
+			if (isLCVHeuristicEnabled)
+				values = applyLeastConstrainingValueHeuristic(var, values, csp);
+			return values;
+		} else if (!isLCVHeuristicEnabled) {
 			return csp.getDomain(var);
 		} else {
-			return applyLeastConstrainingValueHeuristic(var, csp);
+			return applyLeastConstrainingValueHeuristic(var, csp.getDomain(var),
+					csp);
 		}
 	}
 
@@ -112,6 +220,9 @@ public class ImprovedBacktrackingStrategy extends BacktrackingStrategy {
 		case AC3:
 			return new AC3Strategy().reduceDomains(var,
 					assignment.getAssignment(var), csp);
+		case AC2001:
+			return ac2001Strategy.reduceDomains(var,
+					assignment.getAssignment(var), csp);
 		default:
 			return new DomainRestoreInfo().compactify();
 		}
@@ -124,9 +235,12 @@ public class ImprovedBacktrackingStrategy extends BacktrackingStrategy {
 	private List<Variable> applyMRVHeuristic(CSP csp, Assignment assignment) {
 		List<Variable> result = new ArrayList<Variable>();
 		int mrv = Integer.MAX_VALUE;
-		for (Variable var : csp.getVariables()) {
-			if (!assignment.hasAssignmentFor(var)) {
-				int num = csp.getDomain(var).size();
+		List<Variable> vars = csp.getVariables();
+		for (int i = 0; i < vars.size(); i++) {
+			Variable var = vars.get(i);
+			if (!isAssigned(i, var, assignment)) {
+				int num = csp.isTrailing() ? csp.getBitSetDomain(i).size()
+						: csp.getDomain(var).size();
 				if (num <= mrv) {
 					if (num < mrv) {
 						result.clear();
@@ -139,7 +253,10 @@ public class ImprovedBacktrackingStrategy extends BacktrackingStrategy {
 		return result;
 	}
 
-	/** Implements the degree heuristic. */
+	/**
+	 * Implements the degree heuristic. Like {@link VariableOrdering}, only
+	 * binary constraints are counted.
+	 */
 	private List<Variable> applyDegreeHeuristic(List<Variable> vars,
 			Assignment assignment, CSP csp) {
 		List<Variable> result = new ArrayList<Variable>();
@@ -148,8 +265,8 @@ public class ImprovedBacktrackingStrategy extends BacktrackingStrategy {
 			int degree = 0;
 			for (Constraint constraint : csp.getConstraints(var)) {
 				Variable neighbor = csp.getNeighbor(var, constraint);
-				if (!assignment.hasAssignmentFor(neighbor)
-						&& csp.getDomain(neighbor).size() > 1)
+				if (neighbor != null && !assignment.hasAssignmentFor(neighbor)
+						&& getDomainSize(neighbor, csp) > 1)
 					++degree;
 			}
 			if (degree >= maxDegree) {
@@ -163,11 +280,39 @@ public class ImprovedBacktrackingStrategy extends BacktrackingStrategy {
 		return result;
 	}
 
+	private boolean hasGlobalConstraints(CSP csp) {
+		for (Constraint constraint : csp.getConstraints())
+			if (constraint instanceof GlobalConstraint)
+				return true;
+		return false;
+	}
+
+	/**
+	 * Tests whether the variable with the given index is assigned. Indexed
+	 * assignments are accessed by index, others by variable.
+	 */
+	private boolean isAssigned(int varIndex, Variable var,
+			Assignment assignment) {
+		if (assignment instanceof IndexedAssignment)
+			return ((IndexedAssignment) assignment).hasAssignmentFor(varIndex);
+		return assignment.hasAssignmentFor(var);
+	}
+
+	/**
+	 * Returns the size of the current domain without creating domain objects
+	 * in trailing mode.
+	 */
+	private int getDomainSize(Variable var, CSP csp) {
+		if (csp.isTrailing())
+			return csp.getBitSetDomain(csp.indexOf(var)).size();
+		return csp.getDomain(var).size();
+	}
+
 	/** Implements the least constraining value heuristic. */
 	private List<Object> applyLeastConstrainingValueHeuristic(Variable var,
-			CSP csp) {
+			Iterable<?> values, CSP csp) {
 		List<Pair<Object, Integer>> pairs = new ArrayList<Pair<Object, Integer>>();
-		for (Object value : csp.getDomain(var)) {
+		for (Object value : values) {
 			int num = countLostValues(var, value, csp);
 			pairs.add(new Pair<Object, Integer>(value, num));
 		}
@@ -185,17 +330,31 @@ public class ImprovedBacktrackingStrategy extends BacktrackingStrategy {
 		return result;
 	}
 
+	/**
+	 * Counts the values of other variables which are ruled out by assigning
+	 * the value to the variable. Each value of each other variable in the
+	 * scope is checked with an assignment of just the two variables. Thus,
+	 * only constraints which can be decided pairwise (binary constraints and
+	 * global constraints like {@link AllDifferentConstraint}) contribute.
+	 * Constraints like {@link SumConstraint} and {@link TableConstraint}
+	 * with more than two variables are satisfied by partial assignments and
+	 * do not count.
+	 */
 	private int countLostValues(Variable var, Object value, CSP csp) {
 		int result = 0;
 		Assignment assignment = new Assignment();
 		assignment.setAssignment(var, value);
 		for (Constraint constraint : csp.getConstraints(var)) {
-			Variable neighbor = csp.getNeighbor(var, constraint);
-			for (Object nValue : csp.getDomain(neighbor)) {
-				assignment.setAssignment(neighbor, nValue);
-				if (!constraint.isSatisfiedWith(assignment)) {
-					++result;
+			for (Variable neighbor : constraint.getScope()) {
+				if (neighbor == var)
+					continue;
+				for (Object nValue : csp.getDomain(neighbor)) {
+					assignment.setAssignment(neighbor, nValue);
+					if (!constraint.isSatisfiedWith(assignment)) {
+						++result;
+					}
 				}
+				assignment.removeAssignment(neighbor);
 			}
 		}
 		return result;
@@ -204,29 +363,82 @@ public class ImprovedBacktrackingStrategy extends BacktrackingStrategy {
 	// //////////////////////////////////////////////////////////////
 	// inference algorithms
 
-	/** Implements forward checking. */
+	/**
+	 * Implements forward checking. Binary constraints are revised with
+	 * respect to the assigned value, global constraints of the variable are
+	 * propagated once. Propagators only see domains, so the domain of the
+	 * variable is reduced to the assigned value first.
+	 */
 	private DomainRestoreInfo doForwardChecking(Variable var,
 			Assignment assignment, CSP csp) {
 		DomainRestoreInfo result = new DomainRestoreInfo();
+		int mark = csp.isTrailing() ? csp.getTrailMark() : -1;
+		boolean isDomainReduced = false;
 		for (Constraint constraint : csp.getConstraints(var)) {
 			List<Variable> scope = constraint.getScope();
 			if (scope.size() == 2) {
 				for (Variable neighbor : constraint.getScope()) {
 					if (!assignment.hasAssignmentFor(neighbor)) {
-						if (revise(neighbor, constraint, assignment, csp,
-								result)) {
-							if (csp.getDomain(neighbor).isEmpty()) {
-								result.setEmptyDomainFound(true);
-								return result;
-							}
+						boolean revised = (mark != -1) ? reviseTrailing(
+								neighbor, constraint, assignment, csp)
+								: revise(neighbor, constraint, assignment,
+										csp, result);
+						if (revised && getDomainSize(neighbor, csp) == 0) {
+							result.setEmptyDomainFound(true);
+							break;
 						}
 					}
 				}
+				if (result.isEmptyDomainFound())
+					break;
+			} else if (constraint instanceof GlobalConstraint) {
+				if (!isDomainReduced) {
+					reduceToValue(var, assignment.getAssignment(var), csp,
+							result);
+					isDomainReduced = true;
+				}
+				if (!((GlobalConstraint) constraint).propagate(csp, result)) {
+					result.setEmptyDomainFound(true);
+					break;
+				}
+				for (Variable other : scope) {
+					if (getDomainSize(other, csp) == 0) {
+						result.setEmptyDomainFound(true);
+						break;
+					}
+				}
+				if (result.isEmptyDomainFound())
+					break;
 			}
 		}
+		if (mark != -1)
+			result.setTrailSegment(mark, csp.getTrailMark());
 		return result;
 	}
 
+	/**
+	 * Removes all values but the specified one from the domain of the
+	 * variable. Removals are recorded on the trail or in the restore info.
+	 */
+	private void reduceToValue(Variable var, Object value, CSP csp,
+			DomainRestoreInfo info) {
+		if (csp.isTrailing()) {
+			int varIndex = csp.indexOf(var);
+			BitSetDomain domain = csp.getBitSetDomain(varIndex);
+			int valueIndex = domain.indexOf(value);
+			for (int i = domain.nextIndex(0); i >= 0; i = domain
+					.nextIndex(i + 1))
+				if (i != valueIndex)
+					csp.removeValueFromDomain(varIndex, i);
+		} else {
+			Domain domain = csp.getDomain(var);
+			if (domain.size() > 1) {
+				info.storeDomainFor(var, domain);
+				csp.setDomain(var, new Domain(new Object[] { value }));
+			}
+		}
+	}
+
 	private boolean revise(Variable var, Constraint constraint,
 			Assignment assignment, CSP csp, DomainRestoreInfo info) {
 
@@ -243,6 +455,46 @@ public class ImprovedBacktrackingStrategy extends BacktrackingStrategy {
 		return revised;
 	}
 
+	/**
+	 * Revise for CSPs in trailing mode, which works directly on the bit set
+	 * domain of the variable. Removals are recorded on the trail. For compiled
+	 * constraints, the supports of the assigned neighbor value are looked up
+	 * in the constraint table.
+	 */
+	private boolean reviseTrailing(Variable var, Constraint constraint,
+			Assignment assignment, CSP csp) {
+		boolean revised = false;
+		int varIndex = csp.indexOf(var);
+		BitSetDomain domain = csp.getBitSetDomain(varIndex);
+		ConstraintTable table = csp.getConstraintTable(constraint);
+		if (table != null) {
+			Variable neighbor = csp.getNeighbor(var, constraint);
+			BitSetDomain nDomain = csp.getBitSetDomain(csp.indexOf(neighbor));
+			int nValueIndex = nDomain.indexOf(assignment
+					.getAssignment(neighbor));
+			if (nValueIndex != -1) {
+				long[] supports = table.getSupports(neighbor, nValueIndex);
+				for (int i = domain.nextIndex(0); i >= 0; i = domain
+						.nextIndex(i + 1)) {
+					if ((supports[i >>> 6] & (1L << i)) == 0) {
+						csp.removeValueFromDomain(varIndex, i);
+						revised = true;
+					}
+				}
+				return revised;
+			}
+		}
+		for (int i = domain.nextIndex(0); i >= 0; i = domain.nextIndex(i + 1)) {
+			assignment.setAssignment(var, domain.getValue(i));
+			if (!constraint.isSatisfiedWith(assignment)) {
+				csp.removeValueFromDomain(varIndex, i);
+				revised = true;
+			}
+			assignment.removeAssignment(var);
+		}
+		return revised;
+	}
+
 	// //////////////////////////////////////////////////////////////
 	// two enumerations
 
@@ -250,7 +502,13 @@ public class ImprovedBacktrackingStrategy extends BacktrackingStrategy {
 		DEFAULT_ORDER, MRV, MRV_DEG
 	}
 
+	/**
+	 * Inference algorithms. AC2001 establishes the same consistency as AC3,
+	 * but with an arc queue and cached supports (see {@link AC2001Strategy}).
+	 * All algorithms except NONE apply the propagators of
+	 * {@link GlobalConstraint}s.
+	 */
 	public enum Inference {
-		NONE, FORWARD_CHECKING, AC3
+		NONE, FORWARD_CHECKING, AC3, AC2001
 	}
 }
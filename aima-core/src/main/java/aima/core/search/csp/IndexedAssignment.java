@@ -0,0 +1,200 @@
+package aima.core.search.csp;
+
+import java.util.AbstractList;
+import java.util.List;
+
+/**
+ * Assignment for the variables of a specific CSP which stores values in an
+ * array indexed by {@link CSP#indexOf(Variable)}. Setting, removing, and
+ * testing values by index needs constant time and no synchronization.
+ * Additionally, the positions of the assigned variables in assignment order
+ * are maintained, so removing the most recently assigned variable (the
+ * common case in backtracking) is O(1) as well. The methods inherited from
+ * {@link Assignment} provide the same view as before, so constraints and
+ * listeners work without change. Instances are not thread-safe.
+ */
+public class IndexedAssignment extends Assignment {
+
+	private final CSP csp;
+	private final Object[] values;
+	/** Indices of the assigned variables in assignment order. */
+	private final int[] order;
+	/** Position of each variable in <code>order</code>, -1 if unassigned. */
+	private final int[] positions;
+	/**
+	 * Number of the set operation which added the variable at the
+	 * corresponding position of <code>order</code>. Allows observers to
+	 * detect whether a prefix of the order has changed.
+	 */
+	private final long[] serials;
+	private long serialCounter;
+	private int size;
+	private List<Variable> variablesView;
+
+	/** Creates an empty assignment for the variables of the given CSP. */
+	public IndexedAssignment(CSP csp) {
+		super(null, null);
+		this.csp = csp;
+		int n = csp.getVariables().size();
+		values = new Object[n];
+		order = new int[n];
+		positions = new int[n];
+		serials = new long[n];
+		for (int i = 0; i < n; i++)
+			positions[i] = -1;
+	}
+
+	private IndexedAssignment(IndexedAssignment other) {
+		super(null, null);
+		csp = other.csp;
+		values = other.values.clone();
+		order = other.order.clone();
+		positions = other.positions.clone();
+		serials = other.serials.clone();
+		serialCounter = other.serialCounter;
+		size = other.size;
+	}
+
+	/** Returns the number of assigned variables. */
+	public int size() {
+		return size;
+	}
+
+	/** Returns the value of the variable with the given index or null. */
+	public Object getAssignment(int varIndex) {
+		return values[varIndex];
+	}
+
+	/** Assigns a (non-null) value to the variable with the given index. */
+	public void setAssignment(int varIndex, Object value) {
+		if (value == null)
+			throw new IllegalArgumentException("Value must not be null.");
+		if (positions[varIndex] == -1) {
+			positions[varIndex] = size;
+			serials[size] = ++serialCounter;
+			order[size++] = varIndex;
+		}
+		values[varIndex] = value;
+	}
+
+	/** Removes the value of the variable with the given index if present. */
+	public void removeAssignment(int varIndex) {
+		int pos = positions[varIndex];
+		if (pos != -1) {
+			size--;
+			for (int i = pos; i < size; i++) {
+				order[i] = order[i + 1];
+				serials[i] = serials[i + 1];
+				positions[order[i]] = i;
+			}
+			positions[varIndex] = -1;
+			values[varIndex] = null;
+		}
+	}
+
+	public boolean hasAssignmentFor(int varIndex) {
+		return values[varIndex] != null;
+	}
+
+	/** Returns the index of the variable at a position in assignment order. */
+	int getVariableIndexAt(int position) {
+		return order[position];
+	}
+
+	/**
+	 * Returns a number which identifies the set operation which added the
+	 * variable at the specified position. Variables which are removed and
+	 * assigned again get new numbers.
+	 */
+	long getSerialAt(int position) {
+		return serials[position];
+	}
+
+	@Override
+	public List<Variable> getVariables() {
+		if (variablesView == null) {
+			final List<Variable> vars = csp.getVariables();
+			variablesView = new AbstractList<Variable>() {
+				@Override
+				public Variable get(int index) {
+					if (index >= size)
+						throw new IndexOutOfBoundsException("Index: " + index
+								+ ", Size: " + size);
+					return vars.get(order[index]);
+				}
+
+				@Override
+				public int size() {
+					return size;
+				}
+			};
+		}
+		return variablesView;
+	}
+
+	@Override
+	public Object getAssignment(Variable var) {
+		int index = csp.lookUpIndex(var);
+		return index != -1 ? values[index] : null;
+	}
+
+	@Override
+	public void setAssignment(Variable var, Object value) {
+		int index = csp.lookUpIndex(var);
+		if (index == -1)
+			throw new IllegalArgumentException("Variable " + var
+					+ " is not part of the CSP.");
+		setAssignment(index, value);
+	}
+
+	@Override
+	public void removeAssignment(Variable var) {
+		int index = csp.lookUpIndex(var);
+		if (index != -1)
+			removeAssignment(index);
+	}
+
+	@Override
+	public boolean hasAssignmentFor(Variable var) {
+		int index = csp.lookUpIndex(var);
+		return index != -1 && values[index] != null;
+	}
+
+	/**
+	 * Returns true if this assignment assigns values to every variable of
+	 * <code>vars</code>. The list is expected to contain each variable at
+	 * most once.
+	 */
+	@Override
+	public boolean isComplete(List<Variable> vars) {
+		return vars.size() <= size && super.isComplete(vars);
+	}
+
+	/**
+	 * Returns true if this assignment assigns values to every variable of
+	 * <code>vars</code>. The array is expected to contain each variable at
+	 * most once.
+	 */
+	@Override
+	public boolean isComplete(Variable[] vars) {
+		return vars.length <= size && super.isComplete(vars);
+	}
+
+	@Override
+	public Assignment copy() {
+		return new IndexedAssignment(this);
+	}
+
+	@Override
+	public String toString() {
+		List<Variable> vars = csp.getVariables();
+		StringBuffer result = new StringBuffer("{");
+		for (int i = 0; i < size; i++) {
+			if (i > 0)
+				result.append(", ");
+			result.append(vars.get(order[i]) + "=" + values[order[i]]);
+		}
+		result.append("}");
+		return result.toString();
+	}
+}
@@ -1,9 +1,12 @@
 package aima.core.search.csp;
 
-import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Random;
 
-import aima.core.util.Util;
+import aima.core.util.CancelableThread;
 
 /**
  * Artificial Intelligence A Modern Approach (3rd Ed.): Figure 6.8, Page 221.<br>
@@ -28,13 +31,57 @@ import aima.core.util.Util;
  * initial state may be chosen randomly or by a greedy assignment process that
  * chooses a minimal-conflict value for each variable in turn. The CONFLICTS
  * function counts the number of constraints violated by a particular value,
- * given the rest of the current assignment.
+ * given the rest of the current assignment.<br>
+ * <br>
+ * This implementation maintains the number of violated constraints for each
+ * variable and the set of conflicted variables incrementally. Reassigning a
+ * variable only re-evaluates the constraints of that variable, so a step costs
+ * O(degree * domain size) independently of the total number of variables and
+ * constraints. Binary constraints are compiled into {@link ConstraintTable}s
+ * over the domains of their variables when solving starts (within a total
+ * size limit), so that they are checked by table lookups on value indices.
+ * <br>
+ * <br>
+ * Two optional extensions help to escape from plateaus and local minima: With
+ * a tabu tenure t, a variable is not set back to its previous value during the
+ * next t steps. With random walk probability p, the new value of the selected
+ * variable is chosen randomly in a fraction p of the steps.
  * 
  * @author Ruediger Lunde
  * @author Mike Stampone
  */
 public class MinConflictsStrategy extends SolutionStrategy {
 	private int maxSteps;
+	private int tabuTenure;
+	private double randomWalkProbability;
+	private Random random = new Random();
+
+	// search state, valid during one call of solve
+	private IndexedAssignment assignment;
+	private List<Variable> vars;
+	/** Universes of the variables, which define the value indices. */
+	private BitSetDomain[] universes;
+	/** Indices of the currently assigned values. */
+	private int[] valueIndices;
+	private Constraint[] constraints;
+	/** Compiled constraints, null for constraints which are not compiled. */
+	private ConstraintTable[] tables;
+	/** Variable indices of the scope of each constraint. */
+	private int[][] scopes;
+	/** Indices of the constraints of each variable. */
+	private int[][] varConstraints;
+	private boolean[] isViolated;
+	/** Number of violated constraints per variable. */
+	private int[] conflictCounts;
+	/** Conflicted variables (first conflictedSize entries) and positions. */
+	private int[] conflicted;
+	private int[] conflictedPos;
+	private int conflictedSize;
+	/** Value index which is tabu for a variable until the specified step. */
+	private int[] tabuValueIndices;
+	private int[] tabuUntil;
+	/** Buffer for the best values of the current step. */
+	private int[] candidates;
 
 	/**
 	 * Constructs a min-conflicts strategy with a given number of steps allowed
@@ -47,73 +94,228 @@ public class MinConflictsStrategy extends SolutionStrategy {
 		this.maxSteps = maxSteps;
 	}
 
+	/**
+	 * Forbids to set a variable back to its previous value within the
+	 * specified number of steps (0 disables tabu search).
+	 */
+	public void setTabuTenure(int tabuTenure) {
+		this.tabuTenure = tabuTenure;
+	}
+
+	/**
+	 * Sets the probability for a random walk step, which assigns a random
+	 * value to the selected variable instead of the min-conflict value.
+	 */
+	public void setRandomWalkProbability(double randomWalkProbability) {
+		this.randomWalkProbability = randomWalkProbability;
+	}
+
+	/** Sets the random number generator, e.g. for reproducible runs. */
+	public void setRandom(Random random) {
+		this.random = random;
+	}
+
 	public Assignment solve(CSP csp) {
-		Assignment assignment = generateRandomAssignment(csp);
-		fireStateChanged(assignment, csp);
-		for (int i = 0; i < maxSteps; i++) {
-			if (assignment.isSolution(csp)) {
-				return assignment;
-			} else {
-				List<Variable> vars = getConflictedVariables(assignment, csp);
-				Variable var = Util.selectRandomlyFromList(vars);
-				Object value = getMinConflictValueFor(var, assignment, csp);
-				assignment.setAssignment(var, value);
-				fireStateChanged(assignment, csp);
+		init(csp);
+		try {
+			fireStateChanged(assignment, csp);
+			for (int i = 0; i < maxSteps
+					&& !CancelableThread.currIsCanceled(); i++) {
+				if (conflictedSize == 0) {
+					return assignment;
+				} else {
+					int var = conflicted[random.nextInt(conflictedSize)];
+					int valueIndex;
+					if (randomWalkProbability > 0
+							&& random.nextDouble() < randomWalkProbability)
+						valueIndex = random.nextInt(universes[var]
+								.getUniverseSize());
+					else
+						valueIndex = getMinConflictValueIndexFor(var, i);
+					if (tabuTenure > 0 && valueIndex != valueIndices[var]) {
+						tabuValueIndices[var] = valueIndices[var];
+						tabuUntil[var] = i + tabuTenure;
+					}
+					setAssignment(var, valueIndex);
+					fireStateChanged(assignment, csp);
+				}
 			}
+			return null;
+		} finally {
+			clear();
 		}
-		return null;
 	}
 
-	private Assignment generateRandomAssignment(CSP csp) {
-		Assignment assignment = new Assignment();
-		for (Variable var : csp.getVariables()) {
-			Object randomValue = Util.selectRandomlyFromList(csp.getDomain(var)
-					.asList());
-			assignment.setAssignment(var, randomValue);
+	//
+	// PRIVATE METHODS
+	//
+
+	/**
+	 * Creates the index structures, compiles the constraints and generates a
+	 * random initial assignment.
+	 */
+	private void init(CSP csp) {
+		vars = csp.getVariables();
+		int n = vars.size();
+		universes = new BitSetDomain[n];
+		Map<Domain, BitSetDomain> sharedUniverses = new IdentityHashMap<Domain, BitSetDomain>();
+		int maxUniverseSize = 0;
+		for (int i = 0; i < n; i++) {
+			Domain domain = csp.getDomain(vars.get(i));
+			universes[i] = sharedUniverses.get(domain);
+			if (universes[i] == null) {
+				universes[i] = new BitSetDomain(domain);
+				sharedUniverses.put(domain, universes[i]);
+			}
+			maxUniverseSize = Math.max(maxUniverseSize, domain.size());
+		}
+		List<Constraint> cList = csp.getConstraints();
+		constraints = cList.toArray(new Constraint[cList.size()]);
+		tables = new ConstraintTable[constraints.length];
+		scopes = new int[constraints.length][];
+		int[] degrees = new int[n];
+		long compiledPairs = 0;
+		for (int c = 0; c < constraints.length; c++) {
+			List<Variable> scope = constraints[c].getScope();
+			scopes[c] = new int[scope.size()];
+			for (int j = 0; j < scopes[c].length; j++) {
+				scopes[c][j] = csp.indexOf(scope.get(j));
+				degrees[scopes[c][j]]++;
+			}
+			if (scope.size() == 2) {
+				long pairs = (long) universes[scopes[c][0]].getUniverseSize()
+						* universes[scopes[c][1]].getUniverseSize();
+				if (compiledPairs + pairs <= ConstraintTable.MAX_TOTAL_PAIRS) {
+					tables[c] = ConstraintTable.compile(constraints[c],
+							universes[scopes[c][0]], universes[scopes[c][1]]);
+					if (tables[c] != null)
+						compiledPairs += pairs;
+				}
+			}
+		}
+		varConstraints = new int[n][];
+		for (int i = 0; i < n; i++)
+			varConstraints[i] = new int[degrees[i]];
+		for (int c = 0; c < constraints.length; c++)
+			for (int var : scopes[c])
+				varConstraints[var][--degrees[var]] = c;
+
+		isViolated = new boolean[constraints.length];
+		conflictCounts = new int[n];
+		conflicted = new int[n];
+		conflictedPos = new int[n];
+		Arrays.fill(conflictedPos, -1);
+		conflictedSize = 0;
+		tabuValueIndices = new int[n];
+		tabuUntil = new int[n];
+		candidates = new int[maxUniverseSize];
+
+		assignment = new IndexedAssignment(csp);
+		valueIndices = new int[n];
+		for (int i = 0; i < n; i++) {
+			int valueIndex = random.nextInt(universes[i].getUniverseSize());
+			assignment.setAssignment(i, universes[i].getValue(valueIndex));
+			valueIndices[i] = valueIndex;
+		}
+		for (int c = 0; c < constraints.length; c++)
+			if (!isSatisfied(c))
+				setViolated(c, true);
+	}
+
+	private void clear() {
+		assignment = null;
+		vars = null;
+		universes = null;
+		valueIndices = null;
+		constraints = null;
+		tables = null;
+		scopes = null;
+		varConstraints = null;
+		isViolated = null;
+		conflictCounts = null;
+		conflicted = null;
+		conflictedPos = null;
+		tabuValueIndices = null;
+		tabuUntil = null;
+		candidates = null;
+	}
+
+	/**
+	 * Assigns a new value to a variable and updates the conflict counters of
+	 * the variables which share a constraint with it.
+	 */
+	private void setAssignment(int var, int valueIndex) {
+		assignment.setAssignment(var, universes[var].getValue(valueIndex));
+		valueIndices[var] = valueIndex;
+		for (int c : varConstraints[var]) {
+			boolean violated = !isSatisfied(c);
+			if (violated != isViolated[c])
+				setViolated(c, violated);
 		}
-		return assignment;
 	}
 
-	private List<Variable> getConflictedVariables(Assignment assignment, CSP csp) {
-		List<Variable> result = new ArrayList<Variable>();
-		for (Constraint constraint : csp.getConstraints()) {
-			if (!constraint.isSatisfiedWith(assignment))
-				for (Variable var : constraint.getScope())
-					if (!result.contains(var))
-						result.add(var);
+	private void setViolated(int c, boolean violated) {
+		isViolated[c] = violated;
+		for (int var : scopes[c]) {
+			if (violated) {
+				if (conflictCounts[var]++ == 0) {
+					conflictedPos[var] = conflictedSize;
+					conflicted[conflictedSize++] = var;
+				}
+			} else if (--conflictCounts[var] == 0) {
+				// move the last entry into the gap
+				int last = conflicted[--conflictedSize];
+				int pos = conflictedPos[var];
+				conflicted[pos] = last;
+				conflictedPos[last] = pos;
+				conflictedPos[var] = -1;
+			}
 		}
-		return result;
 	}
 
-	private Object getMinConflictValueFor(Variable var, Assignment assignment,
-			CSP csp) {
-		List<Constraint> constraints = csp.getConstraints(var);
-		Assignment duplicate = assignment.copy();
+	/**
+	 * Returns the index of a value which minimizes the number of violated
+	 * constraints of the variable. Ties are broken randomly, tabu values are
+	 * skipped.
+	 */
+	private int getMinConflictValueIndexFor(int var, int step) {
+		int oldValueIndex = valueIndices[var];
+		int tabuValueIndex = (tabuUntil[var] > step) ? tabuValueIndices[var]
+				: -1;
 		int minConflict = Integer.MAX_VALUE;
-		List<Object> resultCandidates = new ArrayList<Object>();
-		for (Object value : csp.getDomain(var)) {
-			duplicate.setAssignment(var, value);
-			int currConflict = countConflicts(duplicate, constraints);
+		int candidateCount = 0;
+		BitSetDomain domain = universes[var];
+		for (int i = 0; i < domain.getUniverseSize(); i++) {
+			if (i == tabuValueIndex && domain.getUniverseSize() > 1)
+				continue;
+			assignment.setAssignment(var, domain.getValue(i));
+			valueIndices[var] = i;
+			int currConflict = 0;
+			for (int c : varConstraints[var])
+				if (!isSatisfied(c))
+					currConflict++;
 			if (currConflict <= minConflict) {
 				if (currConflict < minConflict) {
-					resultCandidates.clear();
+					candidateCount = 0;
 					minConflict = currConflict;
 				}
-				resultCandidates.add(value);
+				candidates[candidateCount++] = i;
 			}
 		}
-		if (!resultCandidates.isEmpty())
-			return Util.selectRandomlyFromList(resultCandidates);
-		else
-			return null;
+		assignment.setAssignment(var, domain.getValue(oldValueIndex));
+		valueIndices[var] = oldValueIndex;
+		return candidates[random.nextInt(candidateCount)];
 	}
 
-	private int countConflicts(Assignment assignment,
-			List<Constraint> constraints) {
-		int result = 0;
-		for (Constraint constraint : constraints)
-			if (!constraint.isSatisfiedWith(assignment))
-				result++;
-		return result;
+	/**
+	 * Checks a constraint by table lookup if it has been compiled and
+	 * otherwise by the constraint itself.
+	 */
+	private boolean isSatisfied(int c) {
+		ConstraintTable table = tables[c];
+		if (table != null)
+			return table.isAllowed(valueIndices[scopes[c][0]],
+					valueIndices[scopes[c][1]]);
+		return constraints[c].isSatisfiedWith(assignment);
 	}
 }
@@ -0,0 +1,69 @@
+package aima.core.search.csp;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The n-queens problem as CSP. Variable <code>Qi</code> represents the queen
+ * in column i, its value is the row of the queen. Each pair of queens is
+ * connected by a binary constraint which forbids attacks along rows and
+ * diagonals.
+ */
+public class NQueensCSP extends CSP {
+
+	public NQueensCSP(int size) {
+		super(createVariables(size));
+		List<Object> rows = new ArrayList<Object>(size);
+		for (int row = 0; row < size; row++)
+			rows.add(row);
+		Domain domain = new Domain(rows);
+		List<Variable> vars = getVariables();
+		for (Variable var : vars)
+			setDomain(var, domain);
+		for (int i = 0; i < size; i++)
+			for (int j = i + 1; j < size; j++)
+				addConstraint(new NoAttackConstraint(vars.get(i), vars.get(j),
+						j - i));
+	}
+
+	private static List<Variable> createVariables(int size) {
+		List<Variable> result = new ArrayList<Variable>(size);
+		for (int i = 0; i < size; i++)
+			result.add(new Variable("Q" + i));
+		return result;
+	}
+
+	/**
+	 * Forbids that two queens share a row or a diagonal. The column distance
+	 * of the queens is fixed by the variables.
+	 */
+	public static class NoAttackConstraint implements Constraint {
+		private Variable var1;
+		private Variable var2;
+		private int colDistance;
+		private List<Variable> scope;
+
+		public NoAttackConstraint(Variable var1, Variable var2,
+				int colDistance) {
+			this.var1 = var1;
+			this.var2 = var2;
+			this.colDistance = colDistance;
+			scope = new ArrayList<Variable>(2);
+			scope.add(var1);
+			scope.add(var2);
+		}
+
+		public List<Variable> getScope() {
+			return scope;
+		}
+
+		public boolean isSatisfiedWith(Assignment assignment) {
+			Object value1 = assignment.getAssignment(var1);
+			Object value2 = assignment.getAssignment(var2);
+			if (value1 == null || value2 == null)
+				return true;
+			int rowDistance = Math.abs((Integer) value1 - (Integer) value2);
+			return rowDistance != 0 && rowDistance != colDistance;
+		}
+	}
+}
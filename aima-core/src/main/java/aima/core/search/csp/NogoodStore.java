@@ -0,0 +1,126 @@
+package aima.core.search.csp;
+
+import java.util.ArrayList;
+
+/**
+ * Stores nogoods, i.e. partial assignments which cannot be extended to a
+ * solution, for {@link BackjumpingSearch}. A nogood is a set of literals
+ * (variable index, value index), and it is violated if all its literals hold
+ * in the current assignment. Violations are detected with two watched
+ * literals per nogood: A nogood is only inspected when one of its watched
+ * literals becomes true, and then the watch is moved to a literal which does
+ * not hold if possible. Watches need not be updated on backtracking.
+ */
+class NogoodStore {
+
+	private final int maxNogoods;
+	/** Value index assigned to each variable, -1 if unassigned. */
+	private final int[] assignedValues;
+	/** Nogoods per variable and value index which watch that literal. */
+	private final WatchList[][] watchLists;
+	private int size;
+
+	NogoodStore(CSP csp, int maxNogoods, int[] assignedValues) {
+		this.maxNogoods = maxNogoods;
+		this.assignedValues = assignedValues;
+		watchLists = new WatchList[csp.getVariables().size()][];
+		for (int i = 0; i < watchLists.length; i++)
+			watchLists[i] = new WatchList[csp.getBitSetDomain(i)
+					.getUniverseSize()];
+	}
+
+	/** Returns the number of stored nogoods. */
+	int size() {
+		return size;
+	}
+
+	/**
+	 * Adds a nogood if the store is not full. The two literals which have
+	 * been assigned last (according to the provided levels) are watched.
+	 */
+	void add(int[] vars, int[] values, int[] levels) {
+		if (size == maxNogoods || vars.length == 0)
+			return;
+		Nogood nogood = new Nogood(vars, values);
+		for (int i = 0; i < vars.length; i++) {
+			if (levels[vars[i]] > levels[vars[nogood.watch0]]) {
+				nogood.watch1 = nogood.watch0;
+				nogood.watch0 = i;
+			} else if (nogood.watch1 == nogood.watch0
+					|| levels[vars[i]] > levels[vars[nogood.watch1]]) {
+				nogood.watch1 = i;
+			}
+		}
+		watch(nogood, nogood.watch0);
+		if (nogood.watch1 != nogood.watch0)
+			watch(nogood, nogood.watch1);
+		size++;
+	}
+
+	/**
+	 * Must be called after the specified variable has been assigned. Returns
+	 * the indices of the variables of a violated nogood or null.
+	 */
+	int[] check(int var) {
+		WatchList list = watchLists[var][assignedValues[var]];
+		if (list == null)
+			return null;
+		for (int i = 0; i < list.size();) {
+			Nogood nogood = list.get(i);
+			boolean isWatch0 = nogood.vars[nogood.watch0] == var;
+			int other = isWatch0 ? nogood.watch1 : nogood.watch0;
+			int replacement = -1;
+			for (int j = 0; j < nogood.vars.length; j++) {
+				if (j != nogood.watch0 && j != nogood.watch1
+						&& !holds(nogood, j)) {
+					replacement = j;
+					break;
+				}
+			}
+			if (replacement != -1) {
+				// move the watch, the list entry is replaced by the last one
+				if (isWatch0)
+					nogood.watch0 = replacement;
+				else
+					nogood.watch1 = replacement;
+				Nogood last = list.remove(list.size() - 1);
+				if (i < list.size())
+					list.set(i, last);
+				watch(nogood, replacement);
+			} else {
+				if (holds(nogood, other))
+					return nogood.vars;
+				i++;
+			}
+		}
+		return null;
+	}
+
+	private boolean holds(Nogood nogood, int literal) {
+		return assignedValues[nogood.vars[literal]] == nogood.values[literal];
+	}
+
+	private void watch(Nogood nogood, int literal) {
+		WatchList[] lists = watchLists[nogood.vars[literal]];
+		int value = nogood.values[literal];
+		if (lists[value] == null)
+			lists[value] = new WatchList();
+		lists[value].add(nogood);
+	}
+
+	private static class Nogood {
+		final int[] vars;
+		final int[] values;
+		int watch0;
+		int watch1;
+
+		Nogood(int[] vars, int[] values) {
+			this.vars = vars;
+			this.values = values;
+		}
+	}
+
+	private static class WatchList extends ArrayList<Nogood> {
+		private static final long serialVersionUID = 1L;
+	}
+}
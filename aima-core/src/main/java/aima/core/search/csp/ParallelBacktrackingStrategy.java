@@ -0,0 +1,276 @@
+package aima.core.search.csp;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import aima.core.search.csp.ImprovedBacktrackingStrategy.Inference;
+import aima.core.search.csp.ImprovedBacktrackingStrategy.Selection;
+import aima.core.util.CancelableThread;
+import aima.core.util.CancelableThreadFactory;
+
+/**
+ * Backtracking search which explores the search tree with several threads.
+ * The tree is split at shallow levels into subproblems: Starting with the
+ * original CSP, the variable with the smallest domain is fixed to each of its
+ * values, and the resulting domains are reduced by AC-3 (if inference is
+ * enabled). This is repeated level by level until there are enough
+ * subproblems to keep all threads busy. Each subproblem is a copy of the CSP
+ * whose domains encode the assignment prefix (singleton domains) and the
+ * domain reductions, so the subproblems partition the solution space.<br>
+ * <br>
+ * The subproblems are solved by {@link ImprovedBacktrackingStrategy}
+ * instances in a thread pool. Since there are many more subproblems than
+ * threads, threads which finish early just take the next subproblem from
+ * the queue of the pool, which balances the load dynamically. Two modes are
+ * supported: {@link #solve(CSP)} returns the first solution found and
+ * cancels the remaining work, {@link #countSolutions(CSP)} explores all
+ * subproblems. Constraints are shared between the threads and must be
+ * stateless. Intermediate states are not reported to listeners, only the
+ * solution found by {@link #solve(CSP)}.
+ */
+public class ParallelBacktrackingStrategy extends SolutionStrategy {
+
+	private Selection selectionStrategy = Selection.MRV_DEG;
+	private Inference inferenceStrategy = Inference.FORWARD_CHECKING;
+	private boolean isLCVHeuristicEnabled;
+	private int threadCount = Runtime.getRuntime().availableProcessors();
+	private int subproblemsPerThread = 8;
+
+	/**
+	 * Creates a strategy which uses MRV with degree heuristic and forward
+	 * checking, and one thread per available processor.
+	 */
+	public ParallelBacktrackingStrategy() {
+	}
+
+	/** Selects the algorithm for SELECT-UNASSIGNED-VARIABLE. */
+	public void setVariableSelection(Selection sStrategy) {
+		selectionStrategy = sStrategy;
+	}
+
+	/** Selects the algorithm for INFERENCE. */
+	public void setInference(Inference iStrategy) {
+		inferenceStrategy = iStrategy;
+	}
+
+	/**
+	 * Selects the least constraining value heuristic as implementation for
+	 * ORDER-DOMAIN-VALUES.
+	 */
+	public void enableLCV(boolean state) {
+		isLCVHeuristicEnabled = state;
+	}
+
+	/** Sets the number of threads used for search. */
+	public void setThreadCount(int threadCount) {
+		if (threadCount < 1)
+			throw new IllegalArgumentException("At least one thread needed.");
+		this.threadCount = threadCount;
+	}
+
+	/**
+	 * Sets the number of subproblems per thread, which should at least be
+	 * created by splitting (8 by default). More subproblems improve load
+	 * balancing but increase the splitting overhead.
+	 */
+	public void setSubproblemsPerThread(int subproblemsPerThread) {
+		this.subproblemsPerThread = subproblemsPerThread;
+	}
+
+	/** Returns the first solution found by one of the threads. */
+	public Assignment solve(CSP csp) {
+		Result result = run(csp, false);
+		if (result.solution != null)
+			fireStateChanged(result.solution, result.csp);
+		return result.solution;
+	}
+
+	/** Returns the number of solutions of the specified CSP. */
+	public long countSolutions(CSP csp) {
+		return run(csp, true).count;
+	}
+
+	//
+	// PRIVATE METHODS
+	//
+
+	private Result run(CSP csp, boolean countAll) {
+		Result result = new Result(null, null, 0);
+		List<CSP> subproblems = split(csp);
+		if (subproblems.isEmpty())
+			return result;
+		CancelableThreadFactory threads = new CancelableThreadFactory();
+		ExecutorService executor = Executors.newFixedThreadPool(Math.min(
+				threadCount, subproblems.size()), threads);
+		CompletionService<Result> service = new ExecutorCompletionService<Result>(
+				executor);
+		try {
+			for (CSP subproblem : subproblems)
+				service.submit(new Task(subproblem, countAll));
+			for (int pending = subproblems.size(); pending > 0;) {
+				Future<Result> future = service.poll(50, TimeUnit.MILLISECONDS);
+				if (future != null) {
+					pending--;
+					Result r = future.get();
+					result.count += r.count;
+					if (r.solution != null && !countAll) {
+						result = r;
+						break;
+					}
+				} else if (CancelableThread.currIsCanceled()) {
+					break;
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("Subproblem search failed.", e
+					.getCause());
+		} finally {
+			threads.cancelAll();
+			executor.shutdownNow();
+		}
+		return result;
+	}
+
+	/**
+	 * Splits the CSP level by level until the number of subproblems reaches
+	 * the target or no subproblem can be split anymore. The order of the
+	 * subproblems corresponds to the order in which sequential backtracking
+	 * would explore them.
+	 */
+	private List<CSP> split(CSP csp) {
+		int target = threadCount * subproblemsPerThread;
+		List<CSP> result = new ArrayList<CSP>();
+		CSP root = csp.copyDomains();
+		if (inferenceStrategy == Inference.AC3
+				|| inferenceStrategy == Inference.AC2001) {
+			if (new AC3Strategy().reduceDomains(root).isEmptyDomainFound())
+				return result;
+		}
+		result.add(root);
+		boolean split = true;
+		while (split && result.size() < target) {
+			split = false;
+			List<CSP> nextLevel = new ArrayList<CSP>();
+			for (CSP subproblem : result) {
+				Variable var = selectSplitVariable(subproblem);
+				if (var != null) {
+					for (Object value : subproblem.getDomain(var)) {
+						CSP child = fix(subproblem, var, value);
+						if (child != null)
+							nextLevel.add(child);
+					}
+					split = true;
+				} else {
+					nextLevel.add(subproblem);
+				}
+			}
+			result = nextLevel;
+		}
+		return result;
+	}
+
+	/** Returns the variable with the smallest domain of size > 1, or null. */
+	private Variable selectSplitVariable(CSP csp) {
+		Variable result = null;
+		int minSize = Integer.MAX_VALUE;
+		for (Variable var : csp.getVariables()) {
+			int size = csp.getDomain(var).size();
+			if (size > 1 && size < minSize) {
+				result = var;
+				minSize = size;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Returns a copy of the CSP in which the variable has a singleton domain,
+	 * or null if the value is inconsistent with the values of the other
+	 * variables with singleton domains.
+	 */
+	private CSP fix(CSP csp, Variable var, Object value) {
+		CSP result = csp.copyDomains();
+		if (inferenceStrategy == Inference.NONE) {
+			result.setDomain(var, new Domain(new Object[] { value }));
+			Assignment prefix = new IndexedAssignment(result);
+			for (Constraint constraint : result.getConstraints(var)) {
+				for (Variable other : constraint.getScope()) {
+					Domain domain = result.getDomain(other);
+					if (domain.size() == 1)
+						prefix.setAssignment(other, domain.get(0));
+				}
+			}
+			if (!prefix.isConsistent(result.getConstraints(var)))
+				return null;
+		} else {
+			// forward checking and arc consistency are both subsumed by AC-3
+			DomainRestoreInfo info = new AC3Strategy().reduceDomains(var,
+					value, result);
+			if (info.isEmptyDomainFound())
+				return null;
+		}
+		return result;
+	}
+
+	/** Solves one subproblem. */
+	private class Task implements Callable<Result> {
+		final CSP csp;
+		final boolean countAll;
+
+		Task(CSP csp, boolean countAll) {
+			this.csp = csp;
+			this.countAll = countAll;
+		}
+
+		public Result call() {
+			if (CancelableThread.currIsCanceled())
+				return new Result(null, csp, 0);
+			WorkerStrategy strategy = new WorkerStrategy(countAll);
+			strategy.setVariableSelection(selectionStrategy);
+			strategy.setInference(inferenceStrategy);
+			strategy.enableLCV(isLCVHeuristicEnabled);
+			Assignment solution = strategy.solve(csp);
+			if (CancelableThread.currIsCanceled())
+				return new Result(null, csp, 0);
+			return new Result(solution, csp, strategy.count);
+		}
+	}
+
+	/** Backtracking strategy which optionally counts all solutions. */
+	private static class WorkerStrategy extends ImprovedBacktrackingStrategy {
+		final boolean countAll;
+		long count;
+
+		WorkerStrategy(boolean countAll) {
+			this.countAll = countAll;
+		}
+
+		@Override
+		protected boolean acceptSolution(Assignment assignment, CSP csp) {
+			count++;
+			return !countAll;
+		}
+	}
+
+	private static class Result {
+		final Assignment solution;
+		final CSP csp;
+		long count;
+
+		Result(Assignment solution, CSP csp, long count) {
+			this.solution = solution;
+			this.csp = csp;
+			this.count = count;
+		}
+	}
+}
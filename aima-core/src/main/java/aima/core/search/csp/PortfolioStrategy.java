@@ -0,0 +1,166 @@
+package aima.core.search.csp;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import aima.core.util.CancelableThread;
+import aima.core.util.CancelableThreadFactory;
+
+/**
+ * Solution strategy which runs a portfolio of strategies concurrently and
+ * returns the first solution found. Which strategy performs best often
+ * depends on the problem instance, e.g. min-conflicts solves large n-queens
+ * problems quickly but cannot prove that a problem has no solution.<br>
+ * <br>
+ * Each strategy works on its own copy of the CSP (see
+ * {@link CSP#copyDomains()}) in a thread pool. As soon as a solution is
+ * found, the other strategies are canceled. Cancellation is cooperative: the
+ * pool threads are {@link CancelableThread}s and the strategies of this
+ * package check the cancel flag regularly. The CSP passed to
+ * {@link #solve(CSP)} is not modified. Constraints are shared between the
+ * copies and must therefore be stateless.<br>
+ * <br>
+ * Intermediate states of the strategies are not forwarded. When a solution
+ * has been found, registered listeners are informed once about the solution
+ * and the domains of the winning copy. Listeners which implement
+ * {@link Listener} are additionally informed about the winning strategy.
+ */
+public class PortfolioStrategy extends SolutionStrategy {
+
+	private final List<SolutionStrategy> strategies = new ArrayList<SolutionStrategy>();
+	private int threadCount;
+	private SolutionStrategy winner;
+
+	/** Creates a portfolio containing the specified strategies. */
+	public PortfolioStrategy(SolutionStrategy... strategies) {
+		for (SolutionStrategy strategy : strategies)
+			addStrategy(strategy);
+	}
+
+	/**
+	 * Adds a strategy to the portfolio. Strategies must not be shared with
+	 * other portfolios which are used concurrently.
+	 */
+	public void addStrategy(SolutionStrategy strategy) {
+		strategies.add(strategy);
+	}
+
+	public List<SolutionStrategy> getStrategies() {
+		return Collections.unmodifiableList(strategies);
+	}
+
+	/**
+	 * Limits the number of threads. By default (0), all strategies run
+	 * concurrently. With less threads, strategies are started when others
+	 * have failed.
+	 */
+	public void setThreadCount(int threadCount) {
+		this.threadCount = threadCount;
+	}
+
+	/**
+	 * Returns the strategy which found the solution in the last call of
+	 * {@link #solve(CSP)}, or null.
+	 */
+	public SolutionStrategy getWinner() {
+		return winner;
+	}
+
+	public Assignment solve(CSP csp) {
+		winner = null;
+		if (strategies.isEmpty())
+			return null;
+		int poolSize = (threadCount > 0) ? Math.min(threadCount, strategies
+				.size()) : strategies.size();
+		CancelableThreadFactory threads = new CancelableThreadFactory();
+		ExecutorService executor = Executors.newFixedThreadPool(poolSize,
+				threads);
+		CompletionService<Result> service = new ExecutorCompletionService<Result>(
+				executor);
+		try {
+			for (SolutionStrategy strategy : strategies)
+				service.submit(new Task(strategy, csp.copyDomains()));
+			for (int pending = strategies.size(); pending > 0;) {
+				Future<Result> future = service.poll(50, TimeUnit.MILLISECONDS);
+				if (future != null) {
+					pending--;
+					Result result = future.get();
+					if (result.solution != null) {
+						winner = result.strategy;
+						threads.cancelAll();
+						fireSolutionFound(result);
+						return result.solution;
+					}
+				} else if (CancelableThread.currIsCanceled()) {
+					break;
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("Strategy failed.", e.getCause());
+		} finally {
+			threads.cancelAll();
+			executor.shutdownNow();
+		}
+		return null;
+	}
+
+	//
+	// PRIVATE METHODS
+	//
+
+	private void fireSolutionFound(Result result) {
+		fireStateChanged(result.solution, result.csp);
+		for (CSPStateListener listener : listeners)
+			if (listener instanceof Listener)
+				((Listener) listener).strategyWon(result.strategy,
+						result.solution.copy());
+	}
+
+	/** Listener which is additionally informed about the winning strategy. */
+	public interface Listener extends CSPStateListener {
+		void strategyWon(SolutionStrategy strategy, Assignment solution);
+	}
+
+	/** Solves a copy of the CSP with one strategy of the portfolio. */
+	private static class Task implements Callable<Result> {
+		final SolutionStrategy strategy;
+		final CSP csp;
+
+		Task(SolutionStrategy strategy, CSP csp) {
+			this.strategy = strategy;
+			this.csp = csp;
+		}
+
+		public Result call() {
+			Assignment solution = null;
+			if (!CancelableThread.currIsCanceled())
+				solution = strategy.solve(csp);
+			if (solution != null && !solution.isSolution(csp))
+				solution = null; // only accept verified solutions
+			return new Result(strategy, csp, solution);
+		}
+	}
+
+	private static class Result {
+		final SolutionStrategy strategy;
+		final CSP csp;
+		final Assignment solution;
+
+		Result(SolutionStrategy strategy, CSP csp, Assignment solution) {
+			this.strategy = strategy;
+			this.csp = csp;
+			this.solution = solution;
+		}
+	}
+}
@@ -0,0 +1,121 @@
+package aima.core.search.csp;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Represents a linear constraint min &lt;= c1*X1 + ... + cn*Xn &lt;= max over
+ * variables with integer values (instances of {@link Number}). Propagation
+ * establishes bounds consistency: From the smallest and largest possible
+ * contribution of each term, it computes the range which is left for every
+ * single term and removes all values outside this range. This is repeated
+ * until no more values are removed.
+ */
+public class SumConstraint extends GlobalConstraint {
+
+	private List<Variable> scope;
+	private int[] coefficients;
+	private long min;
+	private long max;
+
+	/**
+	 * Constructs a constraint which requires the weighted sum of the values to
+	 * be between <code>min</code> and <code>max</code> (both inclusive).
+	 */
+	public SumConstraint(List<Variable> vars, int[] coefficients, long min,
+			long max) {
+		if (vars.size() != coefficients.length)
+			throw new IllegalArgumentException(
+					"Number of variables and coefficients differ.");
+		scope = new ArrayList<Variable>(vars);
+		this.coefficients = coefficients.clone();
+		this.min = min;
+		this.max = max;
+	}
+
+	/**
+	 * Constructs a constraint which requires the values to sum up to
+	 * <code>sum</code>.
+	 */
+	public SumConstraint(List<Variable> vars, long sum) {
+		this(vars, ones(vars.size()), sum, sum);
+	}
+
+	@Override
+	public List<Variable> getScope() {
+		return scope;
+	}
+
+	/** Checks the sum as soon as all variables are assigned. */
+	@Override
+	public boolean isSatisfiedWith(Assignment assignment) {
+		long sum = 0;
+		for (int i = 0; i < scope.size(); i++) {
+			Object value = assignment.getAssignment(scope.get(i));
+			if (value == null)
+				return true;
+			sum += coefficients[i] * ((Number) value).longValue();
+		}
+		return sum >= min && sum <= max;
+	}
+
+	@Override
+	public boolean propagate(CSP csp, DomainRestoreInfo info) {
+		int n = scope.size();
+		long[] lows = new long[n];
+		long[] highs = new long[n];
+		boolean changed = true;
+		while (changed) {
+			changed = false;
+			long sumLow = 0;
+			long sumHigh = 0;
+			for (int i = 0; i < n; i++) {
+				Domain domain = csp.getDomain(scope.get(i));
+				if (domain.isEmpty())
+					return false;
+				lows[i] = Long.MAX_VALUE;
+				highs[i] = Long.MIN_VALUE;
+				for (Object value : domain) {
+					long term = term(i, value);
+					lows[i] = Math.min(lows[i], term);
+					highs[i] = Math.max(highs[i], term);
+				}
+				sumLow += lows[i];
+				sumHigh += highs[i];
+			}
+			if (sumLow > max || sumHigh < min)
+				return false;
+			for (int i = 0; i < n; i++) {
+				// range which is left for term i by the other terms
+				long low = min - (sumHigh - highs[i]);
+				long high = max - (sumLow - lows[i]);
+				if (lows[i] < low || highs[i] > high) {
+					Domain domain = csp.getDomain(scope.get(i));
+					boolean[] keep = new boolean[domain.size()];
+					for (int j = 0; j < keep.length; j++) {
+						long term = term(i, domain.get(j));
+						keep[j] = term >= low && term <= high;
+					}
+					if (retainValues(csp, scope.get(i), keep, info))
+						changed = true;
+				}
+			}
+		}
+		return true;
+	}
+
+	//
+	// PRIVATE METHODS
+	//
+
+	private long term(int i, Object value) {
+		return coefficients[i] * ((Number) value).longValue();
+	}
+
+	private static int[] ones(int n) {
+		int[] result = new int[n];
+		for (int i = 0; i < n; i++)
+			result[i] = 1;
+		return result;
+	}
+}
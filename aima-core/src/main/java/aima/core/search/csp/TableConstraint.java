@@ -0,0 +1,93 @@
+package aima.core.search.csp;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Represents a constraint which is given extensionally by the list of
+ * allowed tuples. Propagation achieves generalized arc consistency: A tuple
+ * is valid if all of its values are contained in the current domains, and a
+ * value is removed if no valid tuple supports it. Each propagation is linear
+ * in the number of tuples times the arity.
+ */
+public class TableConstraint extends GlobalConstraint {
+
+	private List<Variable> scope;
+	private List<Object[]> tuples;
+	private Set<List<Object>> tupleSet;
+
+	/**
+	 * Constructs a table constraint.
+	 *
+	 * @param vars
+	 *            the scope.
+	 * @param tuples
+	 *            the allowed combinations of values, one entry per variable
+	 *            in scope order.
+	 */
+	public TableConstraint(List<Variable> vars, List<Object[]> tuples) {
+		scope = new ArrayList<Variable>(vars);
+		this.tuples = new ArrayList<Object[]>(tuples.size());
+		tupleSet = new HashSet<List<Object>>();
+		for (Object[] tuple : tuples) {
+			if (tuple.length != vars.size())
+				throw new IllegalArgumentException("Tuple "
+						+ Arrays.toString(tuple) + " does not match the scope.");
+			Object[] copy = tuple.clone();
+			this.tuples.add(copy);
+			tupleSet.add(Arrays.asList(copy));
+		}
+	}
+
+	@Override
+	public List<Variable> getScope() {
+		return scope;
+	}
+
+	/** Checks the tuple as soon as all variables are assigned. */
+	@Override
+	public boolean isSatisfiedWith(Assignment assignment) {
+		Object[] values = new Object[scope.size()];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = assignment.getAssignment(scope.get(i));
+			if (values[i] == null)
+				return true;
+		}
+		return tupleSet.contains(Arrays.asList(values));
+	}
+
+	@Override
+	public boolean propagate(CSP csp, DomainRestoreInfo info) {
+		int n = scope.size();
+		List<Set<Object>> domains = new ArrayList<Set<Object>>(n);
+		List<Set<Object>> supported = new ArrayList<Set<Object>>(n);
+		for (Variable var : scope) {
+			domains.add(new HashSet<Object>(csp.getDomain(var).asList()));
+			supported.add(new HashSet<Object>());
+		}
+		boolean valid = false;
+		for (Object[] tuple : tuples) {
+			int i = 0;
+			while (i < n && domains.get(i).contains(tuple[i]))
+				i++;
+			if (i == n) {
+				valid = true;
+				for (i = 0; i < n; i++)
+					supported.get(i).add(tuple[i]);
+			}
+		}
+		if (!valid)
+			return false;
+		for (int i = 0; i < n; i++) {
+			Domain domain = csp.getDomain(scope.get(i));
+			boolean[] keep = new boolean[domain.size()];
+			for (int j = 0; j < keep.length; j++)
+				keep[j] = supported.get(i).contains(domain.get(j));
+			retainValues(csp, scope.get(i), keep, info);
+		}
+		return true;
+	}
+}
@@ -0,0 +1,284 @@
+package aima.core.search.csp;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Maintains the unassigned variables of a CSP in the order of the
+ * minimum-remaining-values heuristic, optionally combined with the degree
+ * heuristic as tie-breaker. Remaining ties are broken in favor of the
+ * variable which comes first in the variable list, so the selection is the
+ * same as with the scanning implementations in
+ * {@link ImprovedBacktrackingStrategy}.<br>
+ * <br>
+ * Variables are kept in buckets, one for each domain size. Each bucket is a
+ * binary heap ordered by degree and variable index. The CSP notifies the
+ * ordering about every domain change, so that variables can be moved between
+ * buckets. Assignment changes are not reported. Instead, the ordering
+ * compares its own view with the assignment order of the
+ * {@link IndexedAssignment} before each selection. As backtracking assigns
+ * and removes variables in stack order, this costs amortized O(1) per
+ * decision. The degree of a variable is the number of binary constraints
+ * which connect it with unassigned variables having more than one value
+ * left. It is updated whenever a neighbor is assigned or its domain size
+ * crosses one. Selection itself looks at the first non-empty bucket only.
+ */
+class VariableOrdering {
+
+	private final CSP csp;
+	private final List<Variable> vars;
+	private final boolean useDegree;
+	/** Domain sizes as seen by the ordering. */
+	private final int[] sizes;
+	/** Current degrees, only maintained if the degree heuristic is used. */
+	private final int[] degrees;
+	/** Neighbor indices, one entry per binary constraint. */
+	private final int[][] neighbors;
+	private final boolean[] assigned;
+
+	/** Heaps of unassigned variables, indexed by domain size. */
+	private int[][] buckets;
+	private int[] bucketSizes;
+	/** Position of each unassigned variable within its heap. */
+	private final int[] heapPositions;
+	/** No bucket below this index contains variables. */
+	private int minBucket;
+
+	/** Assignment which has been synchronized last. */
+	private IndexedAssignment assignment;
+	/** Assigned variables in assignment order, as seen by the ordering. */
+	private final int[] stack;
+	private final long[] stackSerials;
+	private int stackSize;
+
+	/**
+	 * Creates an ordering for the current domains of the CSP. All variables
+	 * are considered unassigned.
+	 */
+	VariableOrdering(CSP csp, boolean useDegree) {
+		this.csp = csp;
+		this.useDegree = useDegree;
+		vars = new ArrayList<Variable>(csp.getVariables());
+		int n = vars.size();
+		sizes = new int[n];
+		assigned = new boolean[n];
+		heapPositions = new int[n];
+		stack = new int[n];
+		stackSerials = new long[n];
+		int maxSize = 0;
+		for (int i = 0; i < n; i++) {
+			sizes[i] = csp.getDomainSize(i);
+			maxSize = Math.max(maxSize, sizes[i]);
+		}
+		buckets = new int[maxSize + 1][];
+		bucketSizes = new int[maxSize + 1];
+		if (useDegree) {
+			degrees = new int[n];
+			neighbors = new int[n][];
+			List<Integer> indices = new ArrayList<Integer>();
+			for (int i = 0; i < n; i++) {
+				indices.clear();
+				Variable var = vars.get(i);
+				for (Constraint constraint : csp.getConstraints(var)) {
+					Variable neighbor = csp.getNeighbor(var, constraint);
+					if (neighbor != null)
+						indices.add(csp.indexOf(neighbor));
+				}
+				neighbors[i] = new int[indices.size()];
+				for (int j = 0; j < neighbors[i].length; j++) {
+					neighbors[i][j] = indices.get(j);
+					if (sizes[neighbors[i][j]] > 1)
+						degrees[i]++;
+				}
+			}
+		} else {
+			degrees = null;
+			neighbors = null;
+		}
+		for (int i = 0; i < n; i++)
+			insert(i);
+	}
+
+	CSP getCSP() {
+		return csp;
+	}
+
+	/**
+	 * Returns the best unassigned variable with respect to the given
+	 * assignment or null if all variables are assigned.
+	 */
+	Variable select(IndexedAssignment assignment) {
+		synchronize(assignment);
+		while (minBucket < buckets.length && bucketSizes[minBucket] == 0)
+			minBucket++;
+		if (minBucket == buckets.length)
+			return null;
+		return vars.get(buckets[minBucket][0]);
+	}
+
+	/** Is called by the CSP whenever the domain of a variable has changed. */
+	void domainChanged(int varIndex) {
+		int newSize = csp.getDomainSize(varIndex);
+		if (newSize != sizes[varIndex]) {
+			boolean counted = isCounted(varIndex);
+			if (!assigned[varIndex])
+				remove(varIndex);
+			sizes[varIndex] = newSize;
+			if (!assigned[varIndex])
+				insert(varIndex);
+			if (useDegree && counted != isCounted(varIndex))
+				updateNeighborDegrees(varIndex, counted ? -1 : 1);
+		}
+	}
+
+	// //////////////////////////////////////////////////////////////
+	// assignment tracking
+
+	/**
+	 * Updates the assigned flags. Entries on top of the stack are invalid if
+	 * the variable at the same position of the assignment order has changed
+	 * or has been added by another set operation. Below a valid entry, all
+	 * entries are valid because removals shift all subsequent positions.
+	 */
+	private void synchronize(IndexedAssignment assignment) {
+		if (assignment != this.assignment) {
+			while (stackSize > 0)
+				setAssigned(stack[--stackSize], false);
+			this.assignment = assignment;
+		}
+		int size = assignment.size();
+		while (stackSize > 0) {
+			int pos = stackSize - 1;
+			if (pos < size
+					&& assignment.getVariableIndexAt(pos) == stack[pos]
+					&& assignment.getSerialAt(pos) == stackSerials[pos])
+				break;
+			setAssigned(stack[pos], false);
+			stackSize--;
+		}
+		while (stackSize < size) {
+			int varIndex = assignment.getVariableIndexAt(stackSize);
+			stack[stackSize] = varIndex;
+			stackSerials[stackSize] = assignment.getSerialAt(stackSize);
+			stackSize++;
+			setAssigned(varIndex, true);
+		}
+	}
+
+	private void setAssigned(int varIndex, boolean state) {
+		boolean counted = isCounted(varIndex);
+		if (state)
+			remove(varIndex);
+		assigned[varIndex] = state;
+		if (!state)
+			insert(varIndex);
+		if (useDegree && counted != isCounted(varIndex))
+			updateNeighborDegrees(varIndex, counted ? -1 : 1);
+	}
+
+	/** Tests whether the variable contributes to the degree of neighbors. */
+	private boolean isCounted(int varIndex) {
+		return !assigned[varIndex] && sizes[varIndex] > 1;
+	}
+
+	private void updateNeighborDegrees(int varIndex, int delta) {
+		for (int neighbor : neighbors[varIndex]) {
+			degrees[neighbor] += delta;
+			if (!assigned[neighbor]) {
+				int pos = heapPositions[neighbor];
+				int[] heap = buckets[sizes[neighbor]];
+				if (delta > 0)
+					siftUp(heap, pos);
+				else
+					siftDown(heap, bucketSizes[sizes[neighbor]], pos);
+			}
+		}
+	}
+
+	// //////////////////////////////////////////////////////////////
+	// bucket heaps
+
+	private void insert(int varIndex) {
+		int bucket = sizes[varIndex];
+		if (bucket >= buckets.length) {
+			int newLength = Math.max(bucket + 1, 2 * buckets.length);
+			int[][] newBuckets = new int[newLength][];
+			int[] newSizes = new int[newLength];
+			System.arraycopy(buckets, 0, newBuckets, 0, buckets.length);
+			System.arraycopy(bucketSizes, 0, newSizes, 0, buckets.length);
+			buckets = newBuckets;
+			bucketSizes = newSizes;
+		}
+		int[] heap = buckets[bucket];
+		if (heap == null) {
+			heap = new int[4];
+			buckets[bucket] = heap;
+		} else if (bucketSizes[bucket] == heap.length) {
+			int[] newHeap = new int[2 * heap.length];
+			System.arraycopy(heap, 0, newHeap, 0, heap.length);
+			heap = newHeap;
+			buckets[bucket] = heap;
+		}
+		int pos = bucketSizes[bucket]++;
+		heap[pos] = varIndex;
+		heapPositions[varIndex] = pos;
+		siftUp(heap, pos);
+		if (bucket < minBucket)
+			minBucket = bucket;
+	}
+
+	private void remove(int varIndex) {
+		int bucket = sizes[varIndex];
+		int[] heap = buckets[bucket];
+		int pos = heapPositions[varIndex];
+		int last = heap[--bucketSizes[bucket]];
+		if (last != varIndex) {
+			heap[pos] = last;
+			heapPositions[last] = pos;
+			siftUp(heap, pos);
+			siftDown(heap, bucketSizes[bucket], heapPositions[last]);
+		}
+	}
+
+	private void siftUp(int[] heap, int pos) {
+		int varIndex = heap[pos];
+		while (pos > 0) {
+			int parentPos = (pos - 1) / 2;
+			int parent = heap[parentPos];
+			if (!isBetter(varIndex, parent))
+				break;
+			heap[pos] = parent;
+			heapPositions[parent] = pos;
+			pos = parentPos;
+		}
+		heap[pos] = varIndex;
+		heapPositions[varIndex] = pos;
+	}
+
+	private void siftDown(int[] heap, int size, int pos) {
+		int varIndex = heap[pos];
+		while (true) {
+			int childPos = 2 * pos + 1;
+			if (childPos >= size)
+				break;
+			if (childPos + 1 < size
+					&& isBetter(heap[childPos + 1], heap[childPos]))
+				childPos++;
+			int child = heap[childPos];
+			if (!isBetter(child, varIndex))
+				break;
+			heap[pos] = child;
+			heapPositions[child] = pos;
+			pos = childPos;
+		}
+		heap[pos] = varIndex;
+		heapPositions[varIndex] = pos;
+	}
+
+	/** Compares two variables with the same domain size. */
+	private boolean isBetter(int varIndex1, int varIndex2) {
+		if (useDegree && degrees[varIndex1] != degrees[varIndex2])
+			return degrees[varIndex1] > degrees[varIndex2];
+		return varIndex1 < varIndex2;
+	}
+}
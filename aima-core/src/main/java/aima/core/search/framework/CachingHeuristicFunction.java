@@ -0,0 +1,102 @@
+package aima.core.search.framework;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Decorator which caches the results of an expensive heuristic function, so
+ * that h is computed only once per state. In graph search, a state can be
+ * reached on many paths and the evaluation functions cache h per node only.
+ * <br>
+ * <br>
+ * Two modes are supported: An unbounded cache is meant to be used for one
+ * search (or should be cleared between searches). A bounded cache keeps the
+ * most recently used entries only (LRU) and is suitable for heuristics which
+ * are shared across many searches, e.g. repeated route calculations with the
+ * same goal on the same map. States must provide consistent implementations
+ * of <code>equals</code> and <code>hashCode</code>. The cache is not
+ * thread-safe.
+ */
+public class CachingHeuristicFunction implements HeuristicFunction {
+
+	private final HeuristicFunction hf;
+	private final Map<Object, Double> cache;
+	private long hits;
+	private long misses;
+
+	/**
+	 * Constructs an unbounded cache for the specified heuristic function.
+	 */
+	public CachingHeuristicFunction(HeuristicFunction hf) {
+		this.hf = hf;
+		cache = new HashMap<Object, Double>();
+	}
+
+	/**
+	 * Constructs a cache for the specified heuristic function which holds at
+	 * most <code>maxSize</code> entries. If the cache is full, the least
+	 * recently used entry is removed.
+	 */
+	public CachingHeuristicFunction(HeuristicFunction hf, int maxSize) {
+		if (maxSize < 1)
+			throw new IllegalArgumentException("Cache size must be positive.");
+		this.hf = hf;
+		cache = new LRUMap(maxSize);
+	}
+
+	public double h(Object state) {
+		Double result = cache.get(state);
+		if (result == null) {
+			misses++;
+			result = hf.h(state);
+			cache.put(state, result);
+		} else {
+			hits++;
+		}
+		return result;
+	}
+
+	/** Returns the heuristic function whose results are cached. */
+	public HeuristicFunction getDecoratedFunction() {
+		return hf;
+	}
+
+	/** Returns the number of currently cached entries. */
+	public int size() {
+		return cache.size();
+	}
+
+	/** Returns the number of evaluations which were answered by the cache. */
+	public long getHits() {
+		return hits;
+	}
+
+	/** Returns the number of evaluations of the decorated function. */
+	public long getMisses() {
+		return misses;
+	}
+
+	/** Removes all cached entries and resets the statistics. */
+	public void clear() {
+		cache.clear();
+		hits = 0;
+		misses = 0;
+	}
+
+	/** Map in access order which drops the eldest entry when full. */
+	private static class LRUMap extends LinkedHashMap<Object, Double> {
+		private static final long serialVersionUID = 1L;
+		private final int maxSize;
+
+		LRUMap(int maxSize) {
+			super(16, 0.75f, true);
+			this.maxSize = maxSize;
+		}
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Object, Double> eldest) {
+			return size() > maxSize;
+		}
+	}
+}
@@ -0,0 +1,239 @@
+package aima.core.search.framework;
+
+import java.util.Collections;
+import java.util.List;
+
+import aima.core.agent.Action;
+import aima.core.util.CancelableThread;
+import aima.core.util.datastructure.LongHashSet;
+
+/**
+ * Memory efficient variant of graph search for problems with very large
+ * state spaces. States are represented by primitive long codes which are
+ * supplied by a problem specific {@link StateEncoder}. Nodes are kept in a
+ * {@link CompactNodeStore} and the explored set is a {@link LongHashSet}, so
+ * no objects are retained per generated node. States are decoded on demand
+ * only, when the corresponding node is expanded.<br>
+ * <br>
+ * Two strategies are supported:
+ * <ul>
+ * <li>Breadth-first search (no heuristic function). Here, the node store
+ * itself serves as FIFO frontier. The goal test is applied when nodes are
+ * generated, as in {@link aima.core.search.uninformed.BreadthFirstSearch}.</li>
+ * <li>Best-first search ordered by f(n) = g(n) + h(n), which is A* search for
+ * a given heuristic and uniform-cost search if h is zero. Instead of replacing
+ * frontier nodes, duplicates are discarded when they are popped from the
+ * frontier. As for {@link GraphSearch}, optimality requires a consistent
+ * heuristic.</li>
+ * </ul>
+ */
+public class CompactGraphSearch implements Search {
+
+	private final StateEncoder encoder;
+	private final HeuristicFunction hf;
+	private final CompactNodeStore nodes = new CompactNodeStore();
+	private final LongHashSet explored = new LongHashSet();
+	private final Metrics metrics = new Metrics();
+	private Metrics.Counter nodesExpanded;
+	private Metrics.Gauge queueSize;
+	private Metrics.Gauge maxQueueSize;
+
+	/**
+	 * Constructs a breadth-first graph search.
+	 *
+	 * @param encoder
+	 *            an encoder for the states of the problems to be solved.
+	 */
+	public CompactGraphSearch(StateEncoder encoder) {
+		this(encoder, null);
+	}
+
+	/**
+	 * Constructs a best-first graph search which expands nodes in order of
+	 * f(n) = g(n) + h(n).
+	 *
+	 * @param encoder
+	 *            an encoder for the states of the problems to be solved.
+	 * @param hf
+	 *            a heuristic function, or null for breadth-first search.
+	 */
+	public CompactGraphSearch(StateEncoder encoder, HeuristicFunction hf) {
+		this.encoder = encoder;
+		this.hf = hf;
+	}
+
+	public List<Action> search(Problem p) throws Exception {
+		clearInstrumentation();
+		nodes.clear();
+		explored.clear();
+		long rootState = encoder.encode(p.getInitialState());
+		int root = nodes.addRoot(rootState);
+		int goal = (hf == null) ? breadthFirstSearch(p, root)
+				: bestFirstSearch(p, root);
+		if (goal == -1)
+			return Collections.emptyList();
+		metrics.set(QueueSearch.METRIC_PATH_COST, nodes.getPathCost(goal));
+		return nodes.getActionsFromRoot(goal);
+	}
+
+	public Metrics getMetrics() {
+		return metrics;
+	}
+
+	/** Returns the node store of the last search, e.g. for analysis. */
+	public CompactNodeStore getNodeStore() {
+		return nodes;
+	}
+
+	public void clearInstrumentation() {
+		nodesExpanded = metrics.counter(NodeExpander.METRIC_NODES_EXPANDED);
+		nodesExpanded.reset();
+		queueSize = metrics.gauge(QueueSearch.METRIC_QUEUE_SIZE);
+		queueSize.set(0);
+		maxQueueSize = metrics.gauge(QueueSearch.METRIC_MAX_QUEUE_SIZE);
+		maxQueueSize.set(0);
+		metrics.set(QueueSearch.METRIC_PATH_COST, 0);
+	}
+
+	//
+	// PRIVATE METHODS
+	//
+
+	private int breadthFirstSearch(Problem p, int root) {
+		if (isGoal(p, p.getInitialState(), root))
+			return root;
+		explored.add(nodes.getState(root));
+		ActionsFunction af = p.getActionsFunction();
+		ResultFunction rf = p.getResultFunction();
+		StepCostFunction sf = p.getStepCostFunction();
+		// nodes with index >= head form the frontier
+		int head = 0;
+		while (head < nodes.size() && !CancelableThread.currIsCanceled()) {
+			int node = head++;
+			Object state = encoder.decode(nodes.getState(node));
+			for (Action action : af.actions(state)) {
+				Object succ = rf.result(state, action);
+				long succCode = encoder.encode(succ);
+				if (explored.add(succCode)) {
+					int child = nodes.addNode(succCode, node, action,
+							sf.c(state, action, succ));
+					if (isGoal(p, succ, child))
+						return child;
+				}
+			}
+			nodesExpanded.increment();
+			updateQueueSize(nodes.size() - head);
+		}
+		return -1;
+	}
+
+	private int bestFirstSearch(Problem p, int root) {
+		ActionsFunction af = p.getActionsFunction();
+		ResultFunction rf = p.getResultFunction();
+		StepCostFunction sf = p.getStepCostFunction();
+		NodeHeap frontier = new NodeHeap();
+		frontier.push(root, hf.h(p.getInitialState()));
+		updateQueueSize(frontier.size());
+		while (frontier.size() > 0 && !CancelableThread.currIsCanceled()) {
+			int node = frontier.pop();
+			updateQueueSize(frontier.size());
+			// skip nodes whose state has been reached on a cheaper path
+			if (!explored.add(nodes.getState(node)))
+				continue;
+			Object state = encoder.decode(nodes.getState(node));
+			if (isGoal(p, state, node))
+				return node;
+			for (Action action : af.actions(state)) {
+				Object succ = rf.result(state, action);
+				long succCode = encoder.encode(succ);
+				if (!explored.contains(succCode)) {
+					int child = nodes.addNode(succCode, node, action,
+							sf.c(state, action, succ));
+					frontier.push(child, nodes.getPathCost(child) + hf.h(succ));
+				}
+			}
+			nodesExpanded.increment();
+			updateQueueSize(frontier.size());
+		}
+		return -1;
+	}
+
+	private boolean isGoal(Problem p, Object state, int node) {
+		GoalTest gt = p.getGoalTest();
+		if (!gt.isGoalState(state))
+			return false;
+		if (gt instanceof SolutionChecker)
+			return ((SolutionChecker) gt).isAcceptableSolution(
+					nodes.getActionsFromRoot(node), state);
+		return true;
+	}
+
+	private void updateQueueSize(int size) {
+		queueSize.set(size);
+		maxQueueSize.setMax(size);
+	}
+
+	/**
+	 * Binary min-heap of node indices with primitive priorities. Nodes with
+	 * equal priority are popped in order of creation.
+	 */
+	private static class NodeHeap {
+		private int[] heap = new int[1024];
+		private double[] keys = new double[1024];
+		private int size;
+
+		int size() {
+			return size;
+		}
+
+		void push(int node, double key) {
+			if (size == heap.length) {
+				int[] newHeap = new int[2 * size];
+				double[] newKeys = new double[2 * size];
+				System.arraycopy(heap, 0, newHeap, 0, size);
+				System.arraycopy(keys, 0, newKeys, 0, size);
+				heap = newHeap;
+				keys = newKeys;
+			}
+			int k = size++;
+			while (k > 0) {
+				int parent = (k - 1) >>> 1;
+				if (!less(node, key, heap[parent], keys[parent]))
+					break;
+				heap[k] = heap[parent];
+				keys[k] = keys[parent];
+				k = parent;
+			}
+			heap[k] = node;
+			keys[k] = key;
+		}
+
+		int pop() {
+			int result = heap[0];
+			int node = heap[--size];
+			double key = keys[size];
+			int k = 0;
+			int half = size >>> 1;
+			while (k < half) {
+				int child = 2 * k + 1;
+				int right = child + 1;
+				if (right < size
+						&& less(heap[right], keys[right], heap[child],
+								keys[child]))
+					child = right;
+				if (!less(heap[child], keys[child], node, key))
+					break;
+				heap[k] = heap[child];
+				keys[k] = keys[child];
+				k = child;
+			}
+			heap[k] = node;
+			keys[k] = key;
+			return result;
+		}
+
+		private static boolean less(int n1, double k1, int n2, double k2) {
+			return k1 < k2 || (k1 == k2 && n1 < n2);
+		}
+	}
+}
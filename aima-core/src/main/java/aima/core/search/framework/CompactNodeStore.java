@@ -0,0 +1,145 @@
+package aima.core.search.framework;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import aima.core.agent.Action;
+import aima.core.agent.impl.NoOpAction;
+
+/**
+ * Stores search tree nodes in struct-of-arrays form. Nodes are identified by
+ * their index (in order of creation) and consist of a state code (see
+ * {@link StateEncoder}), the index of the parent node, the index of the action
+ * which was applied to the parent, and the path cost. A node occupies 24
+ * bytes, no objects are allocated per node. Actions are interned in a table,
+ * so they should implement <code>equals</code> and <code>hashCode</code>
+ * appropriately.
+ */
+public class CompactNodeStore {
+	private static final int NO_PARENT = -1;
+
+	private long[] states;
+	private int[] parents;
+	private int[] actions;
+	private double[] pathCosts;
+	private int size;
+
+	private List<Action> actionTable = new ArrayList<Action>();
+	private Map<Action, Integer> actionIndices = new HashMap<Action, Integer>();
+
+	public CompactNodeStore() {
+		this(1024);
+	}
+
+	public CompactNodeStore(int initialCapacity) {
+		states = new long[initialCapacity];
+		parents = new int[initialCapacity];
+		actions = new int[initialCapacity];
+		pathCosts = new double[initialCapacity];
+	}
+
+	/**
+	 * Adds a root node with the specified state code and returns its index.
+	 */
+	public int addRoot(long state) {
+		return add(state, NO_PARENT, -1, 0.0);
+	}
+
+	/**
+	 * Adds a node which was generated by applying the specified action to the
+	 * parent node and returns the index of the new node.
+	 */
+	public int addNode(long state, int parent, Action action, double stepCost) {
+		Integer actionIdx = actionIndices.get(action);
+		if (actionIdx == null) {
+			actionIdx = actionTable.size();
+			actionTable.add(action);
+			actionIndices.put(action, actionIdx);
+		}
+		return add(state, parent, actionIdx, pathCosts[parent] + stepCost);
+	}
+
+	public long getState(int node) {
+		return states[node];
+	}
+
+	/** Returns the index of the parent node or -1 for root nodes. */
+	public int getParent(int node) {
+		return parents[node];
+	}
+
+	public Action getAction(int node) {
+		return parents[node] != NO_PARENT ? actionTable.get(actions[node])
+				: null;
+	}
+
+	public double getPathCost(int node) {
+		return pathCosts[node];
+	}
+
+	public boolean isRootNode(int node) {
+		return parents[node] == NO_PARENT;
+	}
+
+	/**
+	 * Returns the actions which lead from the root to the specified node, or
+	 * a list containing a single NoOp action if the node is a root node (see
+	 * {@link SearchUtils#actionsFromNodes(List)}).
+	 */
+	public List<Action> getActionsFromRoot(int node) {
+		List<Action> result = new ArrayList<Action>();
+		if (isRootNode(node)) {
+			result.add(NoOpAction.NO_OP);
+		} else {
+			while (!isRootNode(node)) {
+				result.add(0, getAction(node));
+				node = parents[node];
+			}
+		}
+		return result;
+	}
+
+	/** Returns the number of stored nodes. */
+	public int size() {
+		return size;
+	}
+
+	/** Removes all nodes. The allocated memory is kept for reuse. */
+	public void clear() {
+		size = 0;
+		actionTable.clear();
+		actionIndices.clear();
+	}
+
+	//
+	// PRIVATE METHODS
+	//
+
+	private int add(long state, int parent, int action, double pathCost) {
+		if (size == states.length)
+			grow();
+		states[size] = state;
+		parents[size] = parent;
+		actions[size] = action;
+		pathCosts[size] = pathCost;
+		return size++;
+	}
+
+	private void grow() {
+		int newCapacity = states.length + (states.length >> 1) + 1;
+		long[] newStates = new long[newCapacity];
+		int[] newParents = new int[newCapacity];
+		int[] newActions = new int[newCapacity];
+		double[] newPathCosts = new double[newCapacity];
+		System.arraycopy(states, 0, newStates, 0, size);
+		System.arraycopy(parents, 0, newParents, 0, size);
+		System.arraycopy(actions, 0, newActions, 0, size);
+		System.arraycopy(pathCosts, 0, newPathCosts, 0, size);
+		states = newStates;
+		parents = newParents;
+		actions = newActions;
+		pathCosts = newPathCosts;
+	}
+}
@@ -39,6 +39,7 @@ public class GraphSearch extends QueueSearch {
 	private Map<Object, Node> frontierState = new HashMap<Object, Node>();
 	private Comparator<Node> replaceFrontierNodeAtStateCostFunction = null;
 	private List<Node> addToFrontier = new ArrayList<Node>();
+	private final FrontierFilter frontierFilter = new FrontierFilter();
 
 	public Comparator<Node> getReplaceFrontierNodeAtStateCostFunction() {
 		return replaceFrontierNodeAtStateCostFunction;
@@ -98,7 +99,8 @@ public class GraphSearch extends QueueSearch {
 				yesAddToFrontier = true;
 				// Want to replace the current frontier node with the child
 				// node therefore mark the child to be added and remove the
-				// current fontierNode
+				// current fontierNode (PrioritySearch provides an indexed
+				// frontier for this, so that removal costs O(log n) only)
 				removeNodeFromFrontier(frontierNode);
 				// Ensure removed from add to frontier as well
 				// as 1 or more may reach the same state at the same time
@@ -113,4 +115,65 @@ public class GraphSearch extends QueueSearch {
 
 		return addToFrontier;
 	}
+
+	/**
+	 * Streams the children of the expanded node through the explored set and
+	 * frontier check. Without replacement of frontier nodes, children are
+	 * passed directly to the frontier inserter. Otherwise, they are collected
+	 * in a reused list first, so that all replaced nodes are removed before
+	 * the new nodes are inserted (which keeps the order of nodes with equal
+	 * priority independent from the successor generation).
+	 */
+	@Override
+	protected void addResultingNodesToFrontier(Node nodeToExpand,
+			Problem problem, NodeVisitor frontierInserter) {
+		addToFrontier.clear();
+		// add the node to the explored set
+		explored.add(nodeToExpand.getState());
+		// expand the chosen node, adding the resulting nodes to the frontier
+		if (null == replaceFrontierNodeAtStateCostFunction)
+			frontierFilter.frontierInserter = frontierInserter;
+		expandNode(nodeToExpand, problem, frontierFilter);
+		frontierFilter.frontierInserter = null;
+		for (int i = 0; i < addToFrontier.size(); i++)
+			if (!frontierInserter.visit(addToFrontier.get(i)))
+				break;
+		addToFrontier.clear();
+	}
+
+	//
+	// PRIVATE CLASSES
+	//
+
+	/**
+	 * Passes only those children to the frontier inserter (or adds them to
+	 * the list of nodes to be inserted if no inserter is given), whose states
+	 * are neither explored nor in the frontier with lower cost.
+	 */
+	private class FrontierFilter implements NodeVisitor {
+		NodeVisitor frontierInserter;
+
+		public boolean visit(Node cfn) {
+			Node frontierNode = frontierState.get(cfn.getState());
+			// only if not in the frontier or explored set
+			if (null == frontierNode) {
+				if (explored.contains(cfn.getState()))
+					return true;
+			} else if (null != replaceFrontierNodeAtStateCostFunction
+					&& replaceFrontierNodeAtStateCostFunction.compare(cfn,
+							frontierNode) < 0) {
+				// child.STATE is in frontier with higher cost
+				// replace that frontier node with child
+				removeNodeFromFrontier(frontierNode);
+				addToFrontier.remove(frontierNode);
+			} else {
+				return true;
+			}
+			frontierState.put(cfn.getState(), cfn);
+			if (frontierInserter != null)
+				return frontierInserter.visit(cfn);
+			addToFrontier.add(cfn);
+			return true;
+		}
+	}
 }
\ No newline at end of file
@@ -4,42 +4,245 @@ import java.util.HashMap;
 import java.util.Set;
 
 /**
- * Stores key-value pairs for efficiency analysis.
+ * Stores key-value pairs for efficiency analysis. Values are kept in primitive
+ * form. Besides the generic name based access, typed handles (counters,
+ * gauges, and timers) can be obtained for metrics which are updated in tight
+ * search loops. Once obtained, those handles can be updated without map
+ * lookups and without allocating objects.
+ *
  * @author Ravi Mohan
  * @author Ruediger Lunde
  */
 public class Metrics {
-	private HashMap<String, String> hash;
+	private HashMap<String, Metric> hash;
 
 	public Metrics() {
-		this.hash = new HashMap<String, String>();
+		this.hash = new HashMap<String, Metric>();
 	}
 
 	public void set(String name, int i) {
-		hash.put(name, Integer.toString(i));
+		set(name, (long) i);
+	}
+
+	public void set(String name, long l) {
+		Metric m = hash.get(name);
+		if (m == null) {
+			m = new Gauge();
+			hash.put(name, m);
+		}
+		m.setValue(l);
 	}
 
 	public void set(String name, double d) {
-		hash.put(name, Double.toString(d));
+		Metric m = hash.get(name);
+		if (m == null) {
+			m = new Gauge();
+			hash.put(name, m);
+		}
+		m.setValue(d);
 	}
 
+	/**
+	 * Returns the value of the specified metric as int or 0 if the metric is
+	 * unknown.
+	 */
 	public int getInt(String name) {
-		return new Integer(hash.get(name)).intValue();
+		return (int) getLong(name);
 	}
 
+	/**
+	 * Returns the value of the specified metric as long or 0 if the metric is
+	 * unknown.
+	 */
+	public long getLong(String name) {
+		Metric m = hash.get(name);
+		return m != null ? m.longValue() : 0;
+	}
+
+	/**
+	 * Returns the value of the specified metric as double or 0 if the metric
+	 * is unknown.
+	 */
 	public double getDouble(String name) {
-		return new Double(hash.get(name)).doubleValue();
+		Metric m = hash.get(name);
+		return m != null ? m.doubleValue() : 0;
 	}
 
+	/**
+	 * Returns a string representation of the value of the specified metric or
+	 * null if the metric is unknown.
+	 */
 	public String get(String name) {
-		return hash.get(name);
+		Metric m = hash.get(name);
+		return m != null ? m.toString() : null;
+	}
+
+	/**
+	 * Returns the counter with the specified name. A counter is created (and
+	 * initialized with the current value) if the metric is unknown or of
+	 * different type.
+	 */
+	public Counter counter(String name) {
+		Metric m = hash.get(name);
+		if (m instanceof Counter)
+			return (Counter) m;
+		Counter result = new Counter();
+		register(name, result, m);
+		return result;
+	}
+
+	/**
+	 * Returns the gauge with the specified name. A gauge is created (and
+	 * initialized with the current value) if the metric is unknown or of
+	 * different type.
+	 */
+	public Gauge gauge(String name) {
+		Metric m = hash.get(name);
+		if (m instanceof Gauge)
+			return (Gauge) m;
+		Gauge result = new Gauge();
+		register(name, result, m);
+		return result;
+	}
+
+	/**
+	 * Returns the timer with the specified name. A timer is created (and
+	 * initialized with the current value, interpreted as nanoseconds) if the
+	 * metric is unknown or of different type.
+	 */
+	public Timer timer(String name) {
+		Metric m = hash.get(name);
+		if (m instanceof Timer)
+			return (Timer) m;
+		Timer result = new Timer();
+		register(name, result, m);
+		return result;
 	}
 
 	public Set<String> keySet() {
 		return hash.keySet();
 	}
-	
+
 	public String toString() {
 		return hash.toString();
 	}
+
+	//
+	// PRIVATE METHODS
+	//
+
+	private void register(String name, Metric m, Metric oldMetric) {
+		if (oldMetric != null) {
+			if (oldMetric.isDouble)
+				m.setValue(oldMetric.doubleValue);
+			else
+				m.setValue(oldMetric.longValue);
+		}
+		hash.put(name, m);
+	}
+
+	//
+	// NESTED CLASSES
+	//
+
+	/**
+	 * Base class of all metrics. A metric holds either an integral or a
+	 * floating point value, depending on which kind of value was set last.
+	 */
+	public static abstract class Metric {
+		private long longValue;
+		private double doubleValue;
+		private boolean isDouble;
+
+		public long longValue() {
+			return isDouble ? (long) doubleValue : longValue;
+		}
+
+		public double doubleValue() {
+			return isDouble ? doubleValue : longValue;
+		}
+
+		protected void setValue(long value) {
+			longValue = value;
+			isDouble = false;
+		}
+
+		protected void setValue(double value) {
+			doubleValue = value;
+			isDouble = true;
+		}
+
+		@Override
+		public String toString() {
+			return isDouble ? Double.toString(doubleValue) : Long
+					.toString(longValue);
+		}
+	}
+
+	/** A monotonically increasing integral metric, e.g. nodes expanded. */
+	public static class Counter extends Metric {
+		public void increment() {
+			setValue(longValue() + 1);
+		}
+
+		public void add(long delta) {
+			setValue(longValue() + delta);
+		}
+
+		public void reset() {
+			setValue(0L);
+		}
+	}
+
+	/** A metric which reflects a current value, e.g. the queue size. */
+	public static class Gauge extends Metric {
+		public void set(long value) {
+			setValue(value);
+		}
+
+		public void set(double value) {
+			setValue(value);
+		}
+
+		/**
+		 * Sets the gauge to the specified value if it exceeds the current
+		 * value. Useful for maximum metrics like the maximum queue size.
+		 */
+		public void setMax(long value) {
+			if (value > longValue())
+				setValue(value);
+		}
+	}
+
+	/**
+	 * A metric which accumulates elapsed time in nanoseconds. Timers are
+	 * driven by calls of {@link #start()} and {@link #stop()}.
+	 */
+	public static class Timer extends Metric {
+		private long startTime = -1;
+
+		public void start() {
+			startTime = System.nanoTime();
+		}
+
+		/**
+		 * Adds the time elapsed since the last start to the timer value.
+		 * Calls without a preceding start have no effect.
+		 */
+		public void stop() {
+			if (startTime != -1) {
+				setValue(longValue() + System.nanoTime() - startTime);
+				startTime = -1;
+			}
+		}
+
+		public void reset() {
+			startTime = -1;
+			setValue(0L);
+		}
+
+		public long getNanos() {
+			return longValue();
+		}
+	}
 }
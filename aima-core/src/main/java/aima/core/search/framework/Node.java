@@ -44,6 +44,9 @@ public class Node {
 	// the initial state to the node, as indicated by the parent pointers.
 	private double pathCost;
 
+	// cache for h(n), NaN as long as the heuristic has not been evaluated.
+	private double heuristicValue = Double.NaN;
+
 	/**
 	 * Constructs a node with the specified state.
 	 * 
@@ -116,6 +119,25 @@ public class Node {
 		return pathCost;
 	}
 
+	/**
+	 * Returns the cached heuristic estimate h(n) of this node or NaN if no
+	 * value has been cached yet. Evaluation functions use this cache to
+	 * compute the heuristic only once per node, although nodes are compared
+	 * many times in a priority queue.
+	 */
+	public double getHeuristicValue() {
+		return heuristicValue;
+	}
+
+	/**
+	 * Caches the heuristic estimate h(n) of this node. As the cache holds a
+	 * single value, all evaluations of a node should be based on the same
+	 * heuristic function.
+	 */
+	public void setHeuristicValue(double h) {
+		heuristicValue = h;
+	}
+
 	/**
 	 * Returns <code>true</code> if the node has no parent.
 	 * 
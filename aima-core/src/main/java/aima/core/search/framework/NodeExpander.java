@@ -13,6 +13,7 @@ public class NodeExpander {
 	public static final String METRIC_NODES_EXPANDED = "nodesExpanded";
 
 	protected Metrics metrics;
+	private Metrics.Counter nodesExpanded;
 
 	public NodeExpander() {
 		metrics = new Metrics();
@@ -22,7 +23,8 @@ public class NodeExpander {
 	 * Sets the nodes expanded metric to zero.
 	 */
 	public void clearInstrumentation() {
-		metrics.set(METRIC_NODES_EXPANDED, 0);
+		nodesExpanded = metrics.counter(METRIC_NODES_EXPANDED);
+		nodesExpanded.reset();
 	}
 
 	/**
@@ -56,23 +58,79 @@ public class NodeExpander {
 	 *         specified problem.
 	 */
 	public List<Node> expandNode(Node node, Problem problem) {
-		List<Node> childNodes = new ArrayList<Node>();
+		final List<Node> childNodes = new ArrayList<Node>();
+		expandNode(node, problem, new NodeVisitor() {
+			public boolean visit(Node child) {
+				childNodes.add(child);
+				return true;
+			}
+		});
+		return childNodes;
+	}
 
-		ActionsFunction actionsFunction = problem.getActionsFunction();
-		ResultFunction resultFunction = problem.getResultFunction();
-		StepCostFunction stepCostFunction = problem.getStepCostFunction();
+	/**
+	 * Expands the specified node and passes the children one by one to the
+	 * visitor, until the visitor returns false. The children are generated by
+	 * the successor function of the problem, so no collections are created if
+	 * the problem provides an own successor function.
+	 * 
+	 * @param node
+	 *            the node to expand
+	 * @param problem
+	 *            the problem the specified node is within.
+	 * @param visitor
+	 *            the receiver of the children.
+	 */
+	public void expandNode(Node node, Problem problem, NodeVisitor visitor) {
+		if (nodesExpanded == null)
+			nodesExpanded = metrics.counter(METRIC_NODES_EXPANDED);
+		nodesExpanded.increment();
+		problem.getSuccessorFunction().generateSuccessors(node.getState(),
+				new ChildNodeGenerator(node, problem.getStepCostFunction(),
+						visitor));
+	}
+
+	/**
+	 * Receives the children of an expanded node.
+	 */
+	public interface NodeVisitor {
+		/**
+		 * Is called for each child of the expanded node.
+		 * 
+		 * @param child
+		 *            a child node.
+		 * @return true if more children are requested, false if the
+		 *         expansion should stop.
+		 */
+		boolean visit(Node child);
+	}
+
+	//
+	// PRIVATE CLASSES
+	//
 
-		for (Action action : actionsFunction.actions(node.getState())) {
-			Object successorState = resultFunction.result(node.getState(),
-					action);
+	/** Creates child nodes from successors and passes them to a visitor. */
+	private static class ChildNodeGenerator implements SuccessorVisitor {
+		private final Node parent;
+		private final StepCostFunction stepCostFunction;
+		private final NodeVisitor visitor;
+		private boolean stopped;
 
-			double stepCost = stepCostFunction.c(node.getState(), action,
-					successorState);
-			childNodes.add(new Node(successorState, node, action, stepCost));
+		ChildNodeGenerator(Node parent, StepCostFunction stepCostFunction,
+				NodeVisitor visitor) {
+			this.parent = parent;
+			this.stepCostFunction = stepCostFunction;
+			this.visitor = visitor;
 		}
-		metrics.set(METRIC_NODES_EXPANDED,
-				metrics.getInt(METRIC_NODES_EXPANDED) + 1);
 
-		return childNodes;
+		public boolean visit(Action action, Object successor) {
+			if (stopped)
+				return false;
+			double stepCost = stepCostFunction.c(parent.getState(), action,
+					successor);
+			stopped = !visitor.visit(new Node(successor, parent, action,
+					stepCost));
+			return !stopped;
+		}
 	}
 }
\ No newline at end of file
@@ -4,7 +4,9 @@ import java.util.Comparator;
 import java.util.List;
 
 import aima.core.agent.Action;
+import aima.core.util.datastructure.IndexedPriorityQueue;
 import aima.core.util.datastructure.PriorityQueue;
+import aima.core.util.datastructure.Queue;
 
 /**
  * @author Ravi Mohan
@@ -14,7 +16,7 @@ public abstract class PrioritySearch implements Search {
 	protected QueueSearch search;
 
 	public List<Action> search(Problem p) throws Exception {
-		return search.search(p, new PriorityQueue<Node>(5, getComparator()));
+		return search.search(p, createFrontier(getComparator()));
 	}
 
 	public Metrics getMetrics() {
@@ -25,4 +27,18 @@ public abstract class PrioritySearch implements Search {
 	// PROTECTED METHODS
 	//
 	protected abstract Comparator<Node> getComparator();
+
+	/**
+	 * Creates the priority queue which is used as frontier. Graph searches
+	 * which replace frontier nodes by cheaper nodes for the same state need to
+	 * remove arbitrary nodes from the frontier. For them, an indexed priority
+	 * queue is returned which supports this in O(log n) instead of O(n).
+	 */
+	protected Queue<Node> createFrontier(Comparator<Node> comparator) {
+		if (search instanceof GraphSearch
+				&& ((GraphSearch) search)
+						.getReplaceFrontierNodeAtStateCostFunction() != null)
+			return new IndexedPriorityQueue<Node>(5, comparator);
+		return new PriorityQueue<Node>(5, comparator);
+	}
 }
\ No newline at end of file
@@ -1,5 +1,7 @@
 package aima.core.search.framework;
 
+import aima.core.agent.Action;
+
 /**
  * Artificial Intelligence A Modern Approach (3rd Edition): page 66.<br>
  * <br>
@@ -36,6 +38,8 @@ public class Problem {
 
 	protected StepCostFunction stepCostFunction;
 
+	protected SuccessorFunction successorFunction;
+
 	/**
 	 * Constructs a problem with the specified components, and a default step
 	 * cost function (i.e. 1 per step).
@@ -133,6 +137,32 @@ public class Problem {
 		return resultFunction;
 	}
 
+	/**
+	 * Returns a function which generates the successors of a state in one
+	 * pass. If no successor function was specified, an adapter is returned
+	 * which combines the actions function with the result function.
+	 * 
+	 * @return a function which generates the successors of a state.
+	 */
+	public SuccessorFunction getSuccessorFunction() {
+		if (successorFunction == null)
+			successorFunction = new DefaultSuccessorFunction();
+		return successorFunction;
+	}
+
+	/**
+	 * Sets a successor function which generates the same successors as the
+	 * actions function together with the result function, but without
+	 * intermediate collections.
+	 * 
+	 * @param successorFunction
+	 *            a successor function consistent with the actions and result
+	 *            function of this problem.
+	 */
+	public void setSuccessorFunction(SuccessorFunction successorFunction) {
+		this.successorFunction = successorFunction;
+	}
+
 	/**
 	 * Returns the path cost function.
 	 * 
@@ -147,4 +177,23 @@ public class Problem {
 	//
 	protected Problem() {
 	}
+
+	//
+	// PRIVATE CLASSES
+	//
+
+	/**
+	 * Generates successors by means of the actions and the result function.
+	 * The functions are requested on each call, so that subclasses which
+	 * override the getters are supported.
+	 */
+	private class DefaultSuccessorFunction implements SuccessorFunction {
+		public void generateSuccessors(Object s, SuccessorVisitor visitor) {
+			ResultFunction rf = getResultFunction();
+			for (Action a : getActionsFunction().actions(s)) {
+				if (!visitor.visit(a, rf.result(s, a)))
+					break;
+			}
+		}
+	}
 }
\ No newline at end of file
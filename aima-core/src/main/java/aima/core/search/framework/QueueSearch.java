@@ -22,7 +22,25 @@ public abstract class QueueSearch extends NodeExpander {
 	//
 	//
 	private Queue<Node> frontier = null;
+	private Problem problem = null;
+	// goal found by the frontier inserter if goals are checked early
+	private Node goalNode = null;
+	private final NodeVisitor frontierInserter = new NodeVisitor() {
+		public boolean visit(Node node) {
+			if (isCheckGoalBeforeAddingToFrontier()
+					&& SearchUtils.isGoalState(problem, node)) {
+				goalNode = node;
+				return false;
+			}
+			frontier.insert(node);
+			return true;
+		}
+	};
 	private boolean checkGoalBeforeAddingToFrontier = false;
+	private final Metrics.Gauge queueSize = metrics.gauge(METRIC_QUEUE_SIZE);
+	private final Metrics.Gauge maxQueueSize = metrics
+			.gauge(METRIC_MAX_QUEUE_SIZE);
+	private SearchBudget budget = null;
 
 	public boolean isFailure(List<Action> result) {
 		return 0 == result.size();
@@ -31,7 +49,9 @@ public abstract class QueueSearch extends NodeExpander {
 	/**
 	 * Returns a list of actions to the goal if the goal was found, a list
 	 * containing a single NoOp Action if already at the goal, or an empty list
-	 * if the goal could not be found.
+	 * if the goal could not be found. If a budget is set and exhausted, the
+	 * actions leading to the best node expanded so far are returned (see
+	 * {@link #setBudget(SearchBudget)}).
 	 * 
 	 * @param problem
 	 *            the search problem
@@ -44,8 +64,11 @@ public abstract class QueueSearch extends NodeExpander {
 	 */
 	public List<Action> search(Problem problem, Queue<Node> frontier) {
 		this.frontier = frontier;
+		this.problem = problem;
 
 		clearInstrumentation();
+		if (budget != null)
+			budget.start();
 		// initialize the frontier using the initial state of the problem
 		Node root = new Node(problem.getInitialState());
 		if (isCheckGoalBeforeAddingToFrontier()) {
@@ -55,6 +78,7 @@ public abstract class QueueSearch extends NodeExpander {
 		}
 		frontier.insert(root);
 		setQueueSize(frontier.size());
+		Node bestNode = null;
 		while (!(frontier.isEmpty()) && !CancelableThread.currIsCanceled()) {
 			// choose a leaf node and remove it from the frontier
 			Node nodeToExpand = popNodeFromFrontier();
@@ -70,18 +94,19 @@ public abstract class QueueSearch extends NodeExpander {
 							.getPathFromRoot());
 				}
 			}
+			if (budget != null) {
+				if (isBetterPartialSolution(nodeToExpand, bestNode))
+					bestNode = nodeToExpand;
+				if (budget.isExhausted())
+					return partialSolution(bestNode);
+			}
 			// expand the chosen node, adding the resulting nodes to the
 			// frontier
-			for (Node fn : getResultingNodesToAddToFrontier(nodeToExpand,
-					problem)) {
-				if (isCheckGoalBeforeAddingToFrontier()) {
-					if (SearchUtils.isGoalState(problem, fn)) {
-						setPathCost(fn.getPathCost());
-						return SearchUtils.actionsFromNodes(fn
-								.getPathFromRoot());
-					}
-				}
-				frontier.insert(fn);
+			goalNode = null;
+			addResultingNodesToFrontier(nodeToExpand, problem, frontierInserter);
+			if (goalNode != null) {
+				setPathCost(goalNode.getPathCost());
+				return SearchUtils.actionsFromNodes(goalNode.getPathFromRoot());
 			}
 			setQueueSize(frontier.size());
 		}
@@ -89,6 +114,25 @@ public abstract class QueueSearch extends NodeExpander {
 		return failure();
 	}
 
+	/**
+	 * Limits the number of node expansions and the run time of subsequent
+	 * searches. If the budget is exhausted, the search returns the actions
+	 * leading to the expanded node with the lowest heuristic value, or to the
+	 * most recently expanded node if the evaluation function did not compute
+	 * heuristic values (see {@link Node#getHeuristicValue()}). The status of
+	 * the budget tells whether the result is a solution or a partial path.
+	 * 
+	 * @param budget
+	 *            a budget, or null for unlimited search.
+	 */
+	public void setBudget(SearchBudget budget) {
+		this.budget = budget;
+	}
+
+	public SearchBudget getBudget() {
+		return budget;
+	}
+
 	public boolean isCheckGoalBeforeAddingToFrontier() {
 		return checkGoalBeforeAddingToFrontier;
 	}
@@ -114,25 +158,43 @@ public abstract class QueueSearch extends NodeExpander {
 	public abstract List<Node> getResultingNodesToAddToFrontier(
 			Node nodeToExpand, Problem p);
 
+	/**
+	 * Expands the specified node and passes the resulting nodes which shall
+	 * be added to the frontier to the frontier inserter. This implementation
+	 * collects the nodes by {@link #getResultingNodesToAddToFrontier(Node,
+	 * Problem)}. Subclasses should override it and stream the nodes directly
+	 * into the inserter.
+	 * 
+	 * @param nodeToExpand
+	 *            the node to expand
+	 * @param p
+	 *            the problem the specified node is within.
+	 * @param frontierInserter
+	 *            adds nodes to the frontier and returns false if no more nodes
+	 *            are needed (because a goal was found).
+	 */
+	protected void addResultingNodesToFrontier(Node nodeToExpand, Problem p,
+			NodeVisitor frontierInserter) {
+		for (Node fn : getResultingNodesToAddToFrontier(nodeToExpand, p))
+			if (!frontierInserter.visit(fn))
+				break;
+	}
+
 	@Override
 	public void clearInstrumentation() {
 		super.clearInstrumentation();
-		metrics.set(METRIC_QUEUE_SIZE, 0);
-		metrics.set(METRIC_MAX_QUEUE_SIZE, 0);
+		queueSize.set(0);
+		maxQueueSize.set(0);
 		metrics.set(METRIC_PATH_COST, 0);
 	}
 
 	public int getQueueSize() {
-		return metrics.getInt("queueSize");
+		return metrics.getInt(METRIC_QUEUE_SIZE);
 	}
 
 	public void setQueueSize(int queueSize) {
-
-		metrics.set(METRIC_QUEUE_SIZE, queueSize);
-		int maxQSize = metrics.getInt(METRIC_MAX_QUEUE_SIZE);
-		if (queueSize > maxQSize) {
-			metrics.set(METRIC_MAX_QUEUE_SIZE, queueSize);
-		}
+		this.queueSize.set(queueSize);
+		maxQueueSize.setMax(queueSize);
 	}
 
 	public int getMaxQueueSize() {
@@ -153,4 +215,17 @@ public abstract class QueueSearch extends NodeExpander {
 	private List<Action> failure() {
 		return Collections.emptyList();
 	}
+
+	private boolean isBetterPartialSolution(Node node, Node bestNode) {
+		if (bestNode == null || Double.isNaN(node.getHeuristicValue()))
+			return true;
+		return Double.isNaN(bestNode.getHeuristicValue())
+				|| node.getHeuristicValue() < bestNode.getHeuristicValue();
+	}
+
+	private List<Action> partialSolution(Node bestNode) {
+		if (bestNode == null || bestNode.isRootNode())
+			return failure();
+		return SearchUtils.actionsFromNodes(bestNode.getPathFromRoot());
+	}
 }
\ No newline at end of file
@@ -0,0 +1,143 @@
+package aima.core.search.framework;
+
+/**
+ * Limits the resources of a search run by a maximal number of node expansions
+ * and a maximal wall-clock time. Searches which accept a budget call
+ * {@link #start()} once at the beginning and {@link #isExhausted()} before each
+ * node expansion. When the budget is exhausted, they stop and return the best
+ * partial path found so far instead of a solution. The reason is reported by
+ * {@link #getStatus()}.<br>
+ * <br>
+ * Budget checks are cheap: the node limit is checked on each call, but the
+ * system clock is only read once per check interval (a power of two, 256 by
+ * default). A budget can be reused for many search runs, but must not be
+ * shared by concurrent searches.
+ */
+public class SearchBudget {
+
+	/** Value which disables a limit. */
+	public static final long UNLIMITED = Long.MAX_VALUE;
+
+	public enum Status {
+		/** The search finished (successfully or not) within the budget. */
+		WITHIN_BUDGET,
+		/** The search was stopped because of the node limit. */
+		NODE_LIMIT_REACHED,
+		/** The search was stopped because of the time limit. */
+		TIME_LIMIT_REACHED
+	}
+
+	private final long maxNodes;
+	private final long maxTimeMillis;
+	private final int checkMask;
+
+	private long nodes;
+	private long deadline;
+	private Status status = Status.WITHIN_BUDGET;
+
+	/**
+	 * Constructs a budget which checks the time every 256 nodes.
+	 * 
+	 * @param maxNodes
+	 *            the maximal number of node expansions or
+	 *            {@link #UNLIMITED}.
+	 * @param maxTimeMillis
+	 *            the maximal run time in milliseconds or {@link #UNLIMITED}.
+	 */
+	public SearchBudget(long maxNodes, long maxTimeMillis) {
+		this(maxNodes, maxTimeMillis, 256);
+	}
+
+	/**
+	 * Constructs a budget.
+	 * 
+	 * @param maxNodes
+	 *            the maximal number of node expansions or
+	 *            {@link #UNLIMITED}.
+	 * @param maxTimeMillis
+	 *            the maximal run time in milliseconds or {@link #UNLIMITED}.
+	 * @param checkInterval
+	 *            number of node expansions between two clock readings. It is
+	 *            rounded up to the next power of two.
+	 */
+	public SearchBudget(long maxNodes, long maxTimeMillis, int checkInterval) {
+		if (maxNodes < 0 || maxTimeMillis < 0 || checkInterval < 1)
+			throw new IllegalArgumentException("Negative budget values.");
+		this.maxNodes = maxNodes;
+		this.maxTimeMillis = maxTimeMillis;
+		int interval = Integer.highestOneBit(checkInterval);
+		if (interval < checkInterval)
+			interval <<= 1;
+		checkMask = interval - 1;
+	}
+
+	/** Returns a budget which limits the number of node expansions only. */
+	public static SearchBudget nodeLimit(long maxNodes) {
+		return new SearchBudget(maxNodes, UNLIMITED);
+	}
+
+	/** Returns a budget which limits the run time only. */
+	public static SearchBudget timeLimit(long maxTimeMillis) {
+		return new SearchBudget(UNLIMITED, maxTimeMillis);
+	}
+
+	public long getMaxNodes() {
+		return maxNodes;
+	}
+
+	public long getMaxTimeMillis() {
+		return maxTimeMillis;
+	}
+
+	/** Resets the node counter and the status and starts the clock. */
+	public void start() {
+		nodes = 0;
+		status = Status.WITHIN_BUDGET;
+		if (maxTimeMillis == UNLIMITED)
+			deadline = UNLIMITED;
+		else {
+			long now = System.currentTimeMillis();
+			deadline = (now > UNLIMITED - maxTimeMillis) ? UNLIMITED : now
+					+ maxTimeMillis;
+		}
+	}
+
+	/**
+	 * Charges one node expansion and returns true if the budget does not
+	 * allow it. Once exhausted, the budget stays exhausted until the next
+	 * start.
+	 */
+	public boolean isExhausted() {
+		if (status != Status.WITHIN_BUDGET)
+			return true;
+		if (nodes == maxNodes) {
+			status = Status.NODE_LIMIT_REACHED;
+			return true;
+		}
+		nodes++;
+		if ((nodes & checkMask) == 0 && deadline != UNLIMITED
+				&& System.currentTimeMillis() >= deadline) {
+			status = Status.TIME_LIMIT_REACHED;
+			return true;
+		}
+		return false;
+	}
+
+	/** Returns the number of node expansions charged since start. */
+	public long getNodesCharged() {
+		return nodes;
+	}
+
+	/**
+	 * Returns the status of the last search run. If it differs from
+	 * {@link Status#WITHIN_BUDGET}, the search result is a partial path.
+	 */
+	public Status getStatus() {
+		return status;
+	}
+
+	/** Returns true if the last search run was stopped by the budget. */
+	public boolean wasExhausted() {
+		return status != Status.WITHIN_BUDGET;
+	}
+}
@@ -0,0 +1,26 @@
+package aima.core.search.framework;
+
+/**
+ * Maps states to primitive long codes and back. Encoders enable searches to
+ * store states in compact form (see {@link CompactGraphSearch}). Two states
+ * must be mapped to the same code if and only if they are equal.
+ */
+public interface StateEncoder {
+	/**
+	 * Returns a code which uniquely identifies the specified state.
+	 * 
+	 * @param state
+	 *            a particular state.
+	 * @return a code which uniquely identifies the specified state.
+	 */
+	long encode(Object state);
+
+	/**
+	 * Returns the state which is identified by the specified code.
+	 * 
+	 * @param code
+	 *            a code obtained by {@link #encode(Object)}.
+	 * @return the state which is identified by the specified code.
+	 */
+	Object decode(long code);
+}
@@ -0,0 +1,29 @@
+package aima.core.search.framework;
+
+/**
+ * Streaming alternative to the combination of {@link ActionsFunction} and
+ * {@link ResultFunction}. Instead of returning a set of applicable actions
+ * whose results are computed afterwards, a successor function passes each
+ * applicable action together with the resulting state directly to a visitor.
+ * Searches can thereby push successors into their frontier without
+ * intermediate collections.<br>
+ * <br>
+ * A successor function must be consistent with the actions and result
+ * function of its problem: it generates exactly the pairs (a, RESULT(s, a))
+ * for all a in ACTIONS(s) and should generate them in the same order. Problems
+ * which do not provide an own implementation are adapted by
+ * {@link Problem#getSuccessorFunction()}.
+ */
+public interface SuccessorFunction {
+	/**
+	 * Passes all actions which are applicable in state s together with the
+	 * resulting states to the visitor. Generation stops as soon as the
+	 * visitor returns false.
+	 * 
+	 * @param s
+	 *            a particular state.
+	 * @param visitor
+	 *            the receiver of the successors.
+	 */
+	void generateSuccessors(Object s, SuccessorVisitor visitor);
+}
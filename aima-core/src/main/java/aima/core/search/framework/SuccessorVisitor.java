@@ -0,0 +1,20 @@
+package aima.core.search.framework;
+
+import aima.core.agent.Action;
+
+/**
+ * Receives the successors generated by a {@link SuccessorFunction}.
+ */
+public interface SuccessorVisitor {
+	/**
+	 * Is called for each action which is applicable in the expanded state.
+	 * 
+	 * @param action
+	 *            an applicable action.
+	 * @param successor
+	 *            the state which results from doing the action.
+	 * @return true if more successors are requested, false if generation
+	 *         should stop.
+	 */
+	boolean visit(Action action, Object successor);
+}
@@ -29,4 +29,10 @@ public class TreeSearch extends QueueSearch {
 		// expand the chosen node, adding the resulting nodes to the frontier
 		return expandNode(nodeToExpand, problem);
 	}
+
+	@Override
+	protected void addResultingNodesToFrontier(Node nodeToExpand,
+			Problem problem, NodeVisitor frontierInserter) {
+		expandNode(nodeToExpand, problem, frontierInserter);
+	}
 }
\ No newline at end of file
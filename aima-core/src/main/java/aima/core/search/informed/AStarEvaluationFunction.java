@@ -30,7 +30,8 @@ public class AStarEvaluationFunction implements EvaluationFunction {
 
 	/**
 	 * Returns <em>g(n)</em> the cost to reach the node, plus <em>h(n)</em> the
-	 * heuristic cost to get from the specified node to the goal.
+	 * heuristic cost to get from the specified node to the goal. The heuristic
+	 * value is cached in the node.
 	 * 
 	 * @param n
 	 *            a node
@@ -38,6 +39,11 @@ public class AStarEvaluationFunction implements EvaluationFunction {
 	 */
 	public double f(Node n) {
 		// f(n) = g(n) + h(n)
-		return gf.g(n) + hf.h(n.getState());
+		double h = n.getHeuristicValue();
+		if (Double.isNaN(h)) {
+			h = hf.h(n.getState());
+			n.setHeuristicValue(h);
+		}
+		return gf.g(n) + h;
 	}
 }
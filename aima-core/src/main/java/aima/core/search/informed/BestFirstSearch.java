@@ -48,10 +48,10 @@ public class BestFirstSearch extends PrioritySearch {
 	protected Comparator<Node> getComparator() {
 		Comparator<Node> f = new Comparator<Node>() {
 			public int compare(Node n1, Node n2) {
-				Double f1 = evaluationFunction.f(n1);
-				Double f2 = evaluationFunction.f(n2);
+				double f1 = evaluationFunction.f(n1);
+				double f2 = evaluationFunction.f(n2);
 
-				return f1.compareTo(f2);
+				return Double.compare(f1, f2);
 			}
 		};
 
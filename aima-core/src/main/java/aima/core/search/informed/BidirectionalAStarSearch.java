@@ -0,0 +1,304 @@
+package aima.core.search.informed;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+import aima.core.agent.Action;
+import aima.core.agent.impl.NoOpAction;
+import aima.core.search.framework.BidirectionalProblem;
+import aima.core.search.framework.HeuristicFunction;
+import aima.core.search.framework.Metrics;
+import aima.core.search.framework.Node;
+import aima.core.search.framework.NodeExpander;
+import aima.core.search.framework.Problem;
+import aima.core.search.framework.QueueSearch;
+import aima.core.search.framework.ResultFunction;
+import aima.core.search.framework.Search;
+import aima.core.search.framework.SuccessorVisitor;
+import aima.core.util.CancelableThread;
+
+/**
+ * Bidirectional A* search based on the New Bidirectional A* algorithm (NBA*,
+ * see Pijls, Post: Yet another bidirectional algorithm for shortest paths,
+ * Econometric Institute Report EI 2009-10).<br>
+ * <br>
+ * A forward search starts at the initial state of the original problem and a
+ * backward search at the initial state of the reverse problem (the goal).
+ * Both are guided by front-to-end heuristics: the forward heuristic estimates
+ * the cost to the goal, the backward heuristic the cost to the initial state.
+ * Whenever a state is reached from both sides, the length of the connecting
+ * path is compared with the best path found so far (L). A node is expanded
+ * only if neither its f-value nor the estimate g(n) + F' - h'(n) reaches L,
+ * where F' is the lowest f-value in the opposite frontier and h' the opposite
+ * heuristic. States are shared between both searches: once a state has been
+ * selected by one side, it is never expanded again. The search stops as soon
+ * as one frontier becomes empty. For consistent heuristics, the returned
+ * solution is optimal.<br>
+ * <br>
+ * The search is applicable to problems implementing
+ * {@link BidirectionalProblem} with a single goal state. The reverse problem
+ * must contain the reversed edges of the original problem with the same step
+ * costs. The solution is expressed by actions of the original problem.
+ */
+public class BidirectionalAStarSearch implements Search {
+
+	public static final String METRIC_NODES_EXPANDED = NodeExpander.METRIC_NODES_EXPANDED;
+	public static final String METRIC_NODES_EXPANDED_FORWARD = "nodesExpandedForward";
+	public static final String METRIC_NODES_EXPANDED_BACKWARD = "nodesExpandedBackward";
+	public static final String METRIC_MAX_QUEUE_SIZE_FORWARD = "maxQueueSizeForward";
+	public static final String METRIC_MAX_QUEUE_SIZE_BACKWARD = "maxQueueSizeBackward";
+	public static final String METRIC_PATH_COST = QueueSearch.METRIC_PATH_COST;
+
+	private static final double INFINITY = Double.POSITIVE_INFINITY;
+
+	private final HeuristicFunction forwardHf;
+	private final HeuristicFunction backwardHf;
+	private final Metrics metrics = new Metrics();
+	private Metrics.Counter nodesExpanded;
+
+	// search state, valid during one search
+	private Set<Object> settled;
+	private double bestPathCost;
+	private Object meetingState;
+
+	/**
+	 * Constructs a bidirectional A* search.
+	 *
+	 * @param forwardHf
+	 *            a consistent heuristic which estimates the cost from a state
+	 *            to the goal state.
+	 * @param backwardHf
+	 *            a consistent heuristic which estimates the cost from the
+	 *            initial state to a state.
+	 */
+	public BidirectionalAStarSearch(HeuristicFunction forwardHf,
+			HeuristicFunction backwardHf) {
+		this.forwardHf = forwardHf;
+		this.backwardHf = backwardHf;
+	}
+
+	public List<Action> search(Problem p) throws Exception {
+		if (!(p instanceof BidirectionalProblem))
+			throw new IllegalArgumentException(
+					"Bidirectional problem expected.");
+		clearInstrumentation();
+		Problem op = ((BidirectionalProblem) p).getOriginalProblem();
+		Problem rp = ((BidirectionalProblem) p).getReverseProblem();
+		settled = new HashSet<Object>();
+		bestPathCost = INFINITY;
+		meetingState = null;
+
+		Side forward = new Side(op, forwardHf, backwardHf,
+				metrics.counter(METRIC_NODES_EXPANDED_FORWARD), metrics
+						.gauge(METRIC_MAX_QUEUE_SIZE_FORWARD));
+		Side backward = new Side(rp, backwardHf, forwardHf,
+				metrics.counter(METRIC_NODES_EXPANDED_BACKWARD), metrics
+						.gauge(METRIC_MAX_QUEUE_SIZE_BACKWARD));
+		forward.opposite = backward;
+		backward.opposite = forward;
+		forward.init();
+		backward.init();
+
+		while (forward.hasNext() && backward.hasNext()
+				&& !CancelableThread.currIsCanceled()) {
+			// expand on the side with the smaller frontier
+			if (forward.frontier.size() <= backward.frontier.size())
+				forward.step();
+			else
+				backward.step();
+		}
+
+		List<Action> result = new ArrayList<Action>();
+		if (meetingState != null && !CancelableThread.currIsCanceled()) {
+			result = retrieveActions(op, forward.bestNodes.get(meetingState),
+					backward.bestNodes.get(meetingState));
+			metrics.set(METRIC_PATH_COST, bestPathCost);
+		}
+		settled = null;
+		return result;
+	}
+
+	public Metrics getMetrics() {
+		return metrics;
+	}
+
+	/**
+	 * Sets all metrics to zero.
+	 */
+	public void clearInstrumentation() {
+		nodesExpanded = metrics.counter(METRIC_NODES_EXPANDED);
+		nodesExpanded.reset();
+		metrics.counter(METRIC_NODES_EXPANDED_FORWARD).reset();
+		metrics.counter(METRIC_NODES_EXPANDED_BACKWARD).reset();
+		metrics.gauge(METRIC_MAX_QUEUE_SIZE_FORWARD).set(0);
+		metrics.gauge(METRIC_MAX_QUEUE_SIZE_BACKWARD).set(0);
+		metrics.set(METRIC_PATH_COST, 0.0);
+	}
+
+	//
+	// PRIVATE METHODS
+	//
+
+	/**
+	 * Combines the forward path to the meeting state with the reversed
+	 * backward path. Actions of the backward path are translated into actions
+	 * of the original problem.
+	 */
+	private List<Action> retrieveActions(Problem op, Node forwardNode,
+			Node backwardNode) {
+		List<Action> result = new ArrayList<Action>();
+		for (Node n = forwardNode; !n.isRootNode(); n = n.getParent())
+			result.add(n.getAction());
+		Collections.reverse(result);
+		ResultFunction rf = op.getResultFunction();
+		for (Node n = backwardNode; !n.isRootNode(); n = n.getParent()) {
+			Object from = n.getState();
+			Object to = n.getParent().getState();
+			Action bestAction = null;
+			double bestCost = INFINITY;
+			for (Action a : op.getActionsFunction().actions(from)) {
+				if (to.equals(rf.result(from, a))) {
+					double c = op.getStepCostFunction().c(from, a, to);
+					if (c < bestCost) {
+						bestAction = a;
+						bestCost = c;
+					}
+				}
+			}
+			if (bestAction == null)
+				throw new IllegalStateException("Original problem contains no "
+						+ "edge from " + from + " to " + to + ".");
+			result.add(bestAction);
+		}
+		if (result.isEmpty())
+			result.add(NoOpAction.NO_OP);
+		return result;
+	}
+
+	/** A frontier entry, caching the f-value of its node. */
+	private static class Entry {
+		final Node node;
+		final double f;
+
+		Entry(Node node, double f) {
+			this.node = node;
+			this.f = f;
+		}
+	}
+
+	private static final Comparator<Entry> BY_F = new Comparator<Entry>() {
+		public int compare(Entry e1, Entry e2) {
+			return Double.compare(e1.f, e2.f);
+		}
+	};
+
+	/**
+	 * State of the search in one direction. Successors of the expanded node
+	 * are received from the successor function of the problem.
+	 */
+	private class Side implements SuccessorVisitor {
+		final Problem problem;
+		final HeuristicFunction hf;
+		final HeuristicFunction oppositeHf;
+		final Metrics.Counter expanded;
+		final Metrics.Gauge maxQueueSize;
+		final PriorityQueue<Entry> frontier = new PriorityQueue<Entry>(64, BY_F);
+		final Map<Object, Node> bestNodes = new HashMap<Object, Node>();
+		Side opposite;
+		// lowest f-value in the frontier
+		double minF;
+		// node which is currently expanded
+		Node expanding;
+
+		Side(Problem problem, HeuristicFunction hf,
+				HeuristicFunction oppositeHf, Metrics.Counter expanded,
+				Metrics.Gauge maxQueueSize) {
+			this.problem = problem;
+			this.hf = hf;
+			this.oppositeHf = oppositeHf;
+			this.expanded = expanded;
+			this.maxQueueSize = maxQueueSize;
+		}
+
+		void init() {
+			Node root = new Node(problem.getInitialState());
+			bestNodes.put(root.getState(), root);
+			double f = hf.h(root.getState());
+			frontier.add(new Entry(root, f));
+			minF = f;
+			checkMeeting(root);
+		}
+
+		/**
+		 * Removes stale entries from the frontier and returns true if a
+		 * selectable entry is left.
+		 */
+		boolean hasNext() {
+			while (!frontier.isEmpty()) {
+				Entry e = frontier.peek();
+				Object state = e.node.getState();
+				if (!settled.contains(state) && bestNodes.get(state) == e.node) {
+					minF = e.f;
+					return true;
+				}
+				frontier.poll();
+			}
+			return false;
+		}
+
+		/** Selects the best frontier node and expands it if promising. */
+		void step() {
+			Entry entry = frontier.poll();
+			Node x = entry.node;
+			Object state = x.getState();
+			settled.add(state);
+			if (entry.f < bestPathCost
+					&& x.getPathCost() + opposite.minF - oppositeHf.h(state) < bestPathCost) {
+				expand(x);
+			}
+			maxQueueSize.setMax(frontier.size());
+		}
+
+		void expand(Node x) {
+			expanding = x;
+			problem.getSuccessorFunction().generateSuccessors(x.getState(),
+					this);
+			expanding = null;
+			expanded.increment();
+			nodesExpanded.increment();
+		}
+
+		public boolean visit(Action action, Object succ) {
+			if (settled.contains(succ))
+				return true;
+			double stepCost = problem.getStepCostFunction().c(
+					expanding.getState(), action, succ);
+			double g = expanding.getPathCost() + stepCost;
+			Node best = bestNodes.get(succ);
+			if (best == null || g < best.getPathCost()) {
+				Node child = new Node(succ, expanding, action, stepCost);
+				bestNodes.put(succ, child);
+				frontier.add(new Entry(child, g + hf.h(succ)));
+				checkMeeting(child);
+			}
+			return true;
+		}
+
+		/** Updates the best path if the node meets the opposite search. */
+		void checkMeeting(Node n) {
+			Node other = opposite.bestNodes.get(n.getState());
+			if (other != null
+					&& n.getPathCost() + other.getPathCost() < bestPathCost) {
+				bestPathCost = n.getPathCost() + other.getPathCost();
+				meetingState = n.getState();
+			}
+		}
+	}
+}
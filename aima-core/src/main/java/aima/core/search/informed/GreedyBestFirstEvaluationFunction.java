@@ -23,7 +23,12 @@ public class GreedyBestFirstEvaluationFunction implements EvaluationFunction {
 	}
 
 	public double f(Node n) {
-		// f(n) = h(n)
-		return hf.h(n.getState());
+		// f(n) = h(n), cached in the node
+		double h = n.getHeuristicValue();
+		if (Double.isNaN(h)) {
+			h = hf.h(n.getState());
+			n.setHeuristicValue(h);
+		}
+		return h;
 	}
 }
@@ -0,0 +1,293 @@
+package aima.core.search.informed;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import aima.core.agent.Action;
+import aima.core.search.framework.ActionsFunction;
+import aima.core.search.framework.HeuristicFunction;
+import aima.core.search.framework.Metrics;
+import aima.core.search.framework.Node;
+import aima.core.search.framework.NodeExpander;
+import aima.core.search.framework.Problem;
+import aima.core.search.framework.QueueSearch;
+import aima.core.search.framework.ResultFunction;
+import aima.core.search.framework.Search;
+import aima.core.search.framework.SearchUtils;
+import aima.core.search.framework.StepCostFunction;
+import aima.core.util.CancelableThread;
+
+/**
+ * Parallel A* search based on hash distribution of states (HDA*, see Kishimoto,
+ * Fukunaga, Botea: Scalable, Parallel Best-First Search for Optimal Sequential
+ * Planning, ICAPS 2009).<br>
+ * <br>
+ * Each state is owned by exactly one worker thread, determined by the hash
+ * code of the state. Every worker maintains its own frontier and its own table
+ * of best path costs found so far for the states it owns. Generated nodes are
+ * sent to the owner of their state by means of lock-free message queues. As
+ * workers cannot know whether the first goal found is optimal, a goal only
+ * defines an upper bound (the incumbent). Nodes whose f-value reaches that
+ * bound are pruned, and the search terminates when no unprocessed nodes are
+ * left. With an admissible heuristic, the returned solution therefore has the
+ * same (optimal) path cost as the solution of {@link AStarSearch}, although
+ * the path itself may differ if several optimal solutions exist.<br>
+ * <br>
+ * Note: The functions of the problem as well as the heuristic function are
+ * called concurrently and must therefore be thread-safe. States must provide
+ * consistent implementations of <code>equals</code> and <code>hashCode</code>.
+ */
+public class HashDistributedAStarSearch implements Search {
+
+	public static final String METRIC_NODES_EXPANDED = NodeExpander.METRIC_NODES_EXPANDED;
+	public static final String METRIC_PATH_COST = QueueSearch.METRIC_PATH_COST;
+	/**
+	 * Prefix of the per-worker expansion metrics. The metric of worker
+	 * <code>i</code> is named <code>nodesExpandedByWorker[i]</code>.
+	 */
+	public static final String METRIC_WORKER_NODES_EXPANDED = "nodesExpandedByWorker";
+
+	/** Maximal time in nanoseconds an idle worker sleeps between polls. */
+	private static final long MAX_IDLE_NANOS = 1000000;
+
+	private final HeuristicFunction hf;
+	private final int numWorkers;
+	private Metrics metrics = new Metrics();
+
+	// shared search state, valid during one search
+	private Worker[] workers;
+	private Problem problem;
+	private AtomicLong pendingNodes;
+	private volatile boolean stopped;
+	private volatile double incumbentCost;
+	private Node incumbent;
+	private Throwable workerException;
+
+	/**
+	 * Constructs a search which uses one worker per available processor.
+	 *
+	 * @param hf
+	 *            an admissible heuristic function.
+	 */
+	public HashDistributedAStarSearch(HeuristicFunction hf) {
+		this(hf, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Constructs a search with the specified number of workers.
+	 *
+	 * @param hf
+	 *            an admissible heuristic function.
+	 * @param numWorkers
+	 *            the number of worker threads to be used.
+	 */
+	public HashDistributedAStarSearch(HeuristicFunction hf, int numWorkers) {
+		if (numWorkers < 1)
+			throw new IllegalArgumentException(
+					"At least one worker is needed.");
+		this.hf = hf;
+		this.numWorkers = numWorkers;
+	}
+
+	public int getNumWorkers() {
+		return numWorkers;
+	}
+
+	public List<Action> search(Problem p) throws Exception {
+		problem = p;
+		pendingNodes = new AtomicLong();
+		stopped = false;
+		incumbentCost = Double.POSITIVE_INFINITY;
+		incumbent = null;
+		workerException = null;
+		workers = new Worker[numWorkers];
+		for (int i = 0; i < numWorkers; i++)
+			workers[i] = new Worker(i);
+
+		Node root = new Node(p.getInitialState());
+		pendingNodes.incrementAndGet();
+		workers[ownerOf(root.getState())].inbox.add(root);
+
+		Thread[] threads = new Thread[numWorkers];
+		for (int i = 0; i < numWorkers; i++) {
+			threads[i] = new Thread(workers[i], "HDA*-worker-" + i);
+			threads[i].setDaemon(true);
+			threads[i].start();
+		}
+		// the calling thread watches for cancellation while waiting
+		for (Thread thread : threads) {
+			while (thread.isAlive()) {
+				if (CancelableThread.currIsCanceled())
+					stopped = true;
+				thread.join(50);
+			}
+		}
+		updateMetrics();
+		problem = null;
+		workers = null;
+		if (workerException instanceof Error)
+			throw (Error) workerException;
+		else if (workerException != null)
+			throw (RuntimeException) workerException;
+
+		if (incumbent == null || CancelableThread.currIsCanceled())
+			return Collections.emptyList();
+		return SearchUtils.actionsFromNodes(incumbent.getPathFromRoot());
+	}
+
+	public Metrics getMetrics() {
+		return metrics;
+	}
+
+	//
+	// PRIVATE METHODS
+	//
+
+	private int ownerOf(Object state) {
+		return (state.hashCode() & 0x7fffffff) % numWorkers;
+	}
+
+	private synchronized void offerSolution(Node goal) {
+		if (goal.getPathCost() < incumbentCost) {
+			incumbent = goal;
+			incumbentCost = goal.getPathCost();
+		}
+	}
+
+	private synchronized void abort(Throwable e) {
+		if (workerException == null)
+			workerException = e;
+		stopped = true;
+	}
+
+	private void updateMetrics() {
+		metrics = new Metrics();
+		long total = 0;
+		for (Worker w : workers)
+			total += w.nodesExpanded;
+		metrics.set(METRIC_NODES_EXPANDED, total);
+		for (Worker w : workers)
+			metrics.set(METRIC_WORKER_NODES_EXPANDED + "[" + w.id + "]",
+					w.nodesExpanded);
+		metrics.set(METRIC_PATH_COST, incumbent != null ? incumbent
+				.getPathCost() : 0.0);
+	}
+
+	/** A frontier entry, caching the f-value of its node. */
+	private static class Entry {
+		final Node node;
+		final double f;
+
+		Entry(Node node, double f) {
+			this.node = node;
+			this.f = f;
+		}
+	}
+
+	private static final Comparator<Entry> BY_F = new Comparator<Entry>() {
+		public int compare(Entry e1, Entry e2) {
+			int result = Double.compare(e1.f, e2.f);
+			if (result == 0)
+				// prefer deeper nodes on ties, they are closer to a goal
+				result = Double.compare(e2.node.getPathCost(), e1.node
+						.getPathCost());
+			return result;
+		}
+	};
+
+	/**
+	 * Expands the nodes of the states it owns. All fields are confined to the
+	 * worker thread except the inbox.
+	 */
+	private class Worker implements Runnable {
+		final int id;
+		final ConcurrentLinkedQueue<Node> inbox = new ConcurrentLinkedQueue<Node>();
+		final PriorityQueue<Entry> frontier = new PriorityQueue<Entry>(64, BY_F);
+		final Map<Object, Double> bestPathCosts = new HashMap<Object, Double>();
+		long nodesExpanded;
+
+		Worker(int id) {
+			this.id = id;
+		}
+
+		/**
+		 * Processes nodes until no node is left or the search is stopped.
+		 * Idle workers sleep with exponential backoff. Any failure, including
+		 * errors, stops all workers.
+		 */
+		public void run() {
+			try {
+				long idleNanos = 0;
+				while (!stopped) {
+					Node received;
+					while ((received = inbox.poll()) != null)
+						receive(received);
+					Entry entry = frontier.poll();
+					if (entry != null) {
+						process(entry);
+						pendingNodes.decrementAndGet();
+						idleNanos = 0;
+					} else if (pendingNodes.get() == 0) {
+						break; // no node left anywhere
+					} else if (idleNanos == 0) {
+						Thread.yield();
+						idleNanos = 1000;
+					} else {
+						LockSupport.parkNanos(idleNanos);
+						idleNanos = Math.min(2 * idleNanos, MAX_IDLE_NANOS);
+					}
+				}
+			} catch (Throwable e) {
+				abort(e);
+			}
+		}
+
+		private void receive(Node node) {
+			Object state = node.getState();
+			Double best = bestPathCosts.get(state);
+			double f = node.getPathCost() + hf.h(state);
+			if ((best != null && best <= node.getPathCost())
+					|| f >= incumbentCost) {
+				pendingNodes.decrementAndGet(); // discard
+			} else {
+				bestPathCosts.put(state, node.getPathCost());
+				frontier.add(new Entry(node, f));
+			}
+		}
+
+		private void process(Entry entry) {
+			Node node = entry.node;
+			// skip entries which were superseded by cheaper paths or which
+			// cannot improve the incumbent solution anymore
+			if (node.getPathCost() > bestPathCosts.get(node.getState())
+					|| entry.f >= incumbentCost)
+				return;
+			if (SearchUtils.isGoalState(problem, node)) {
+				offerSolution(node);
+				return;
+			}
+			ActionsFunction af = problem.getActionsFunction();
+			ResultFunction rf = problem.getResultFunction();
+			StepCostFunction sf = problem.getStepCostFunction();
+			for (Action action : af.actions(node.getState())) {
+				Object succ = rf.result(node.getState(), action);
+				Node child = new Node(succ, node, action, sf.c(
+						node.getState(), action, succ));
+				pendingNodes.incrementAndGet();
+				int owner = ownerOf(succ);
+				if (owner == id)
+					receive(child);
+				else
+					workers[owner].inbox.add(child);
+			}
+			nodesExpanded++;
+		}
+	}
+}
@@ -0,0 +1,257 @@
+package aima.core.search.informed;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import aima.core.agent.Action;
+import aima.core.agent.impl.NoOpAction;
+import aima.core.search.framework.GoalTest;
+import aima.core.search.framework.HeuristicFunction;
+import aima.core.search.framework.Metrics;
+import aima.core.search.framework.NodeExpander;
+import aima.core.search.framework.Problem;
+import aima.core.search.framework.QueueSearch;
+import aima.core.search.framework.Search;
+import aima.core.search.framework.SearchBudget;
+import aima.core.search.framework.SolutionChecker;
+import aima.core.search.framework.StepCostFunction;
+import aima.core.search.framework.SuccessorFunction;
+import aima.core.search.framework.SuccessorVisitor;
+import aima.core.util.CancelableThread;
+
+/**
+ * Artificial Intelligence A Modern Approach (3rd Edition): page 99.<br>
+ * <br>
+ * Iterative-deepening A* (IDA*) performs a sequence of depth-first searches,
+ * each bounded by an f-cost limit. Nodes with f(n) = g(n) + h(n) above the
+ * limit are cut off, and the next iteration uses the smallest f-cost which
+ * exceeded the limit in the previous iteration. With an admissible
+ * heuristic, the first solution found is optimal.<br>
+ * <br>
+ * Memory consumption is linear in the solution depth. Instead of creating
+ * nodes and successor lists, the current path is kept in two arrays (states
+ * and actions) which are reused across iterations. Successors are streamed
+ * from the successor function of the problem into one visitor per depth.
+ * Successors which return to the parent state are skipped. Other cycles are
+ * not detected, so state spaces with short cycles may cause much
+ * regeneration. A {@link SearchBudget} can be used to bound the effort.
+ */
+public class IterativeDeepeningAStarSearch implements Search {
+
+	public static final String METRIC_NODES_EXPANDED = NodeExpander.METRIC_NODES_EXPANDED;
+	public static final String METRIC_PATH_COST = QueueSearch.METRIC_PATH_COST;
+	public static final String METRIC_ITERATIONS = "iterations";
+
+	private static final double INFINITY = Double.POSITIVE_INFINITY;
+
+	private final HeuristicFunction hf;
+	private SearchBudget budget;
+	private final Metrics metrics = new Metrics();
+	private Metrics.Counter nodesExpanded;
+	private Metrics.Counter iterations;
+
+	// search state, valid during one search
+	private SuccessorFunction successorFunction;
+	private StepCostFunction sf;
+	private GoalTest goalTest;
+	private Object[] pathStates = new Object[32];
+	private Action[] pathActions = new Action[32];
+	private Expansion[] expansions = new Expansion[32];
+	private double nextLimit;
+	private int solutionDepth;
+	// best partial path, only maintained if a budget is set
+	private List<Action> bestPath;
+	private double bestH;
+
+	/**
+	 * Constructs an IDA* search.
+	 *
+	 * @param hf
+	 *            an admissible heuristic function.
+	 */
+	public IterativeDeepeningAStarSearch(HeuristicFunction hf) {
+		this.hf = hf;
+	}
+
+	/**
+	 * Limits the number of node expansions and the run time of subsequent
+	 * searches. If the budget is exhausted, the search returns the actions
+	 * leading to the state with the lowest heuristic value found so far. The
+	 * status of the budget tells whether the result is a solution or a
+	 * partial path.
+	 * 
+	 * @param budget
+	 *            a budget, or null for unlimited search.
+	 */
+	public void setBudget(SearchBudget budget) {
+		this.budget = budget;
+	}
+
+	public SearchBudget getBudget() {
+		return budget;
+	}
+
+	public List<Action> search(Problem p) throws Exception {
+		clearInstrumentation();
+		if (budget != null) {
+			budget.start();
+			bestPath = new ArrayList<Action>();
+			bestH = INFINITY;
+		}
+		successorFunction = p.getSuccessorFunction();
+		sf = p.getStepCostFunction();
+		goalTest = p.getGoalTest();
+		List<Action> result = new ArrayList<Action>();
+		pathStates[0] = p.getInitialState();
+		double limit = hf.h(p.getInitialState());
+		while (!CancelableThread.currIsCanceled()) {
+			iterations.increment();
+			nextLimit = INFINITY;
+			if (depthFirstSearch(0, 0.0, limit)) {
+				if (solutionDepth == 0)
+					result.add(NoOpAction.NO_OP);
+				for (int i = 1; i <= solutionDepth; i++)
+					result.add(pathActions[i]);
+				break;
+			}
+			if (budget != null && budget.wasExhausted()) {
+				result = bestPath;
+				break;
+			}
+			if (nextLimit == INFINITY)
+				break; // no solution
+			limit = nextLimit;
+		}
+		// release references to states of the problem
+		Arrays.fill(pathStates, null);
+		Arrays.fill(pathActions, null);
+		bestPath = null;
+		return result;
+	}
+
+	public Metrics getMetrics() {
+		return metrics;
+	}
+
+	/**
+	 * Sets all metrics to zero.
+	 */
+	public void clearInstrumentation() {
+		nodesExpanded = metrics.counter(METRIC_NODES_EXPANDED);
+		nodesExpanded.reset();
+		iterations = metrics.counter(METRIC_ITERATIONS);
+		iterations.reset();
+		metrics.set(METRIC_PATH_COST, 0.0);
+	}
+
+	//
+	// PRIVATE METHODS
+	//
+
+	/**
+	 * Searches below the path state at the specified depth and returns true if
+	 * a goal was found. In that case, the solution is stored in the path
+	 * arrays.
+	 */
+	private boolean depthFirstSearch(int depth, double g, double limit) {
+		// no goal is accepted after the budget ran out, otherwise the result
+		// would contradict the status of the budget
+		if (budget != null && budget.wasExhausted())
+			return false;
+		Object state = pathStates[depth];
+		double h = hf.h(state);
+		double f = g + h;
+		if (f > limit) {
+			if (f < nextLimit)
+				nextLimit = f;
+			return false;
+		}
+		if (isGoal(state, depth)) {
+			solutionDepth = depth;
+			metrics.set(METRIC_PATH_COST, g);
+			return true;
+		}
+		if (CancelableThread.currIsCanceled())
+			return false;
+		if (budget != null) {
+			if (h < bestH) {
+				bestH = h;
+				bestPath.clear();
+				for (int i = 1; i <= depth; i++)
+					bestPath.add(pathActions[i]);
+			}
+			if (budget.isExhausted())
+				return false;
+		}
+		nodesExpanded.increment();
+		if (depth + 1 == pathStates.length)
+			growPath();
+		Expansion expansion = expansions[depth];
+		if (expansion == null) {
+			expansion = new Expansion(depth);
+			expansions[depth] = expansion;
+		}
+		expansion.g = g;
+		expansion.limit = limit;
+		expansion.found = false;
+		successorFunction.generateSuccessors(state, expansion);
+		return expansion.found;
+	}
+
+	private boolean isGoal(Object state, int depth) {
+		if (!goalTest.isGoalState(state))
+			return false;
+		if (goalTest instanceof SolutionChecker) {
+			List<Action> actions = new ArrayList<Action>(depth);
+			for (int i = 1; i <= depth; i++)
+				actions.add(pathActions[i]);
+			if (depth == 0)
+				actions.add(NoOpAction.NO_OP);
+			return ((SolutionChecker) goalTest).isAcceptableSolution(actions,
+					state);
+		}
+		return true;
+	}
+
+	private void growPath() {
+		Object[] newStates = new Object[2 * pathStates.length];
+		Action[] newActions = new Action[2 * pathActions.length];
+		Expansion[] newExpansions = new Expansion[2 * expansions.length];
+		System.arraycopy(pathStates, 0, newStates, 0, pathStates.length);
+		System.arraycopy(pathActions, 0, newActions, 0, pathActions.length);
+		System.arraycopy(expansions, 0, newExpansions, 0, expansions.length);
+		pathStates = newStates;
+		pathActions = newActions;
+		expansions = newExpansions;
+	}
+
+	/**
+	 * Continues the depth-first search with each successor of the path state
+	 * at a certain depth.
+	 */
+	private class Expansion implements SuccessorVisitor {
+		final int depth;
+		double g;
+		double limit;
+		boolean found;
+
+		Expansion(int depth) {
+			this.depth = depth;
+		}
+
+		public boolean visit(Action action, Object succ) {
+			Object state = pathStates[depth];
+			if (depth > 0 && pathStates[depth - 1].equals(succ))
+				return true;
+			pathStates[depth + 1] = succ;
+			pathActions[depth + 1] = action;
+			if (depthFirstSearch(depth + 1, g + sf.c(state, action, succ),
+					limit)) {
+				found = true;
+				return false;
+			}
+			return budget == null || !budget.wasExhausted();
+		}
+	}
+}
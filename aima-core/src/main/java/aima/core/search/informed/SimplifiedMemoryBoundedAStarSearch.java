@@ -0,0 +1,336 @@
+package aima.core.search.informed;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.TreeSet;
+
+import aima.core.agent.Action;
+import aima.core.agent.impl.NoOpAction;
+import aima.core.search.framework.GoalTest;
+import aima.core.search.framework.HeuristicFunction;
+import aima.core.search.framework.Metrics;
+import aima.core.search.framework.NodeExpander;
+import aima.core.search.framework.Problem;
+import aima.core.search.framework.QueueSearch;
+import aima.core.search.framework.Search;
+import aima.core.search.framework.SolutionChecker;
+import aima.core.util.CancelableThread;
+
+/**
+ * Artificial Intelligence A Modern Approach (3rd Edition): page 101.<br>
+ * <br>
+ * Simplified memory-bounded A* (SMA*) proceeds just like A*, expanding the
+ * best leaf until memory is full. Then, it drops the worst leaf node, the one
+ * with the highest f-value (the shallowest one if there are ties). The value
+ * of the forgotten node is backed up to its parent, so the parent knows the
+ * quality of the best path in that subtree and the subtree is only regenerated
+ * if all other paths look worse (see Russell: Efficient Memory-Bounded Search
+ * Methods, ECAI 1992).<br>
+ * <br>
+ * The memory is measured by the number of nodes in the search tree and is
+ * specified by a node budget. Successors are generated one at a time. The
+ * actions of a node are computed once and kept together with the backed-up
+ * f-values of forgotten children in arrays, so regeneration needs no
+ * further collections. SMA* is complete if the budget exceeds the depth of
+ * the shallowest solution and optimal if this holds for an optimal solution.
+ * With an admissible heuristic, it returns the best solution reachable within
+ * the budget.
+ */
+public class SimplifiedMemoryBoundedAStarSearch implements Search {
+
+	public static final String METRIC_NODES_EXPANDED = NodeExpander.METRIC_NODES_EXPANDED;
+	public static final String METRIC_PATH_COST = QueueSearch.METRIC_PATH_COST;
+	/** Number of nodes which were dropped because the budget was exhausted. */
+	public static final String METRIC_NODES_FORGOTTEN = "nodesForgotten";
+	public static final String METRIC_MAX_NODES_IN_MEMORY = "maxNodesInMemory";
+
+	private static final double INFINITY = Double.POSITIVE_INFINITY;
+
+	private final HeuristicFunction hf;
+	private final int maxNodes;
+	private final Metrics metrics = new Metrics();
+	private Metrics.Counter nodesExpanded;
+	private Metrics.Counter nodesForgotten;
+	private Metrics.Gauge maxNodesInMemory;
+
+	// search state, valid during one search
+	private Problem problem;
+	private TreeSet<SMANode> queue;
+	private int nodesInMemory;
+	private long nextId;
+
+	/**
+	 * Constructs an SMA* search.
+	 *
+	 * @param hf
+	 *            an admissible heuristic function.
+	 * @param maxNodes
+	 *            the maximal number of nodes kept in memory (at least 2).
+	 */
+	public SimplifiedMemoryBoundedAStarSearch(HeuristicFunction hf,
+			int maxNodes) {
+		if (maxNodes < 2)
+			throw new IllegalArgumentException(
+					"Node budget must be at least 2.");
+		this.hf = hf;
+		this.maxNodes = maxNodes;
+	}
+
+	public int getMaxNodes() {
+		return maxNodes;
+	}
+
+	public List<Action> search(Problem p) throws Exception {
+		clearInstrumentation();
+		problem = p;
+		queue = new TreeSet<SMANode>(BEST_FIRST);
+		nextId = 0;
+		SMANode root = new SMANode(p.getInitialState(), null, -1, null, 0.0);
+		root.f = hf.h(root.state);
+		nodesInMemory = 1;
+		enqueue(root);
+		SMANode goal = null;
+		while (!queue.isEmpty() && !CancelableThread.currIsCanceled()) {
+			SMANode n = queue.first();
+			if (n.f == INFINITY)
+				break; // no solution within the budget
+			if (isGoal(n)) {
+				goal = n;
+				break;
+			}
+			expand(n);
+		}
+		problem = null;
+		queue = null;
+		if (goal == null || CancelableThread.currIsCanceled())
+			return new ArrayList<Action>();
+		metrics.set(METRIC_PATH_COST, goal.g);
+		return getActionsFromRoot(goal);
+	}
+
+	public Metrics getMetrics() {
+		return metrics;
+	}
+
+	/**
+	 * Sets all metrics to zero.
+	 */
+	public void clearInstrumentation() {
+		nodesExpanded = metrics.counter(METRIC_NODES_EXPANDED);
+		nodesExpanded.reset();
+		nodesForgotten = metrics.counter(METRIC_NODES_FORGOTTEN);
+		nodesForgotten.reset();
+		maxNodesInMemory = metrics.gauge(METRIC_MAX_NODES_IN_MEMORY);
+		maxNodesInMemory.set(0);
+		metrics.set(METRIC_PATH_COST, 0.0);
+	}
+
+	//
+	// PRIVATE METHODS
+	//
+
+	/** Generates the next successor of the specified node. */
+	private void expand(SMANode n) {
+		if (n.actions == null) {
+			n.actions = problem.getActionsFunction().actions(n.state).toArray(
+					new Action[0]);
+			n.children = new SMANode[n.actions.length];
+			n.forgottenF = new double[n.actions.length];
+			for (int i = 0; i < n.actions.length; i++)
+				n.forgottenF[i] = Double.NaN; // not generated yet
+			nodesExpanded.increment();
+			if (n.actions.length == 0) {
+				// dead end: cannot contribute to a solution
+				setF(n, INFINITY);
+				if (n.parent != null)
+					forget(n);
+				return;
+			}
+		}
+		// prefer successors which have never been generated, then the
+		// forgotten successor with lowest backed-up value
+		int slot = -1;
+		for (int i = 0; i < n.children.length; i++) {
+			if (n.children[i] != null)
+				continue;
+			if (Double.isNaN(n.forgottenF[i])) {
+				slot = i;
+				break;
+			}
+			if (slot == -1 || n.forgottenF[i] < n.forgottenF[slot])
+				slot = i;
+		}
+		Action action = n.actions[slot];
+		Object succState = problem.getResultFunction().result(n.state, action);
+		double g = n.g
+				+ problem.getStepCostFunction().c(n.state, action, succState);
+		SMANode s = new SMANode(succState, n, slot, action, g);
+		if (s.depth >= maxNodes - 1
+				&& !problem.getGoalTest().isGoalState(succState))
+			s.f = INFINITY; // no memory left to go deeper
+		else
+			s.f = Math.max(n.f, g + hf.h(succState));
+		n.children[slot] = s;
+		n.childrenInMemory++;
+		nodesInMemory++;
+
+		boolean allGenerated = true;
+		boolean allInMemory = true;
+		for (int i = 0; i < n.children.length; i++) {
+			if (n.children[i] == null) {
+				allInMemory = false;
+				if (Double.isNaN(n.forgottenF[i]))
+					allGenerated = false;
+			}
+		}
+		enqueue(s);
+		if (allGenerated)
+			backup(n);
+		if (allInMemory)
+			dequeue(n);
+		while (nodesInMemory > maxNodes)
+			forget(findWorstLeaf());
+		maxNodesInMemory.setMax(nodesInMemory);
+	}
+
+	/**
+	 * Updates the f-value of a fully generated node to the minimum value of
+	 * its children (in memory or forgotten) and propagates changes to the
+	 * ancestors.
+	 */
+	private void backup(SMANode n) {
+		while (n != null) {
+			double minF = INFINITY;
+			for (int i = 0; i < n.children.length; i++) {
+				double childF = (n.children[i] != null) ? n.children[i].f
+						: n.forgottenF[i];
+				if (Double.isNaN(childF))
+					return; // not all successors known
+				if (childF < minF)
+					minF = childF;
+			}
+			if (minF == n.f)
+				return;
+			setF(n, minF);
+			n = n.parent;
+		}
+	}
+
+	/** Returns the shallowest leaf with highest f-value. */
+	private SMANode findWorstLeaf() {
+		Iterator<SMANode> iter = queue.descendingIterator();
+		while (iter.hasNext()) {
+			SMANode n = iter.next();
+			if (n.childrenInMemory == 0 && n.parent != null)
+				return n;
+		}
+		throw new IllegalStateException("No leaf found in queue.");
+	}
+
+	/**
+	 * Removes a leaf from memory and remembers its f-value in the parent.
+	 */
+	private void forget(SMANode leaf) {
+		SMANode parent = leaf.parent;
+		dequeue(leaf);
+		parent.children[leaf.slot] = null;
+		parent.forgottenF[leaf.slot] = leaf.f;
+		parent.childrenInMemory--;
+		nodesInMemory--;
+		nodesForgotten.increment();
+		enqueue(parent);
+		backup(parent);
+	}
+
+	private void setF(SMANode n, double f) {
+		if (n.inQueue) {
+			queue.remove(n);
+			n.f = f;
+			queue.add(n);
+		} else {
+			n.f = f;
+		}
+	}
+
+	private void enqueue(SMANode n) {
+		if (!n.inQueue) {
+			queue.add(n);
+			n.inQueue = true;
+		}
+	}
+
+	private void dequeue(SMANode n) {
+		if (n.inQueue) {
+			queue.remove(n);
+			n.inQueue = false;
+		}
+	}
+
+	private boolean isGoal(SMANode n) {
+		GoalTest gt = problem.getGoalTest();
+		if (!gt.isGoalState(n.state))
+			return false;
+		if (gt instanceof SolutionChecker)
+			return ((SolutionChecker) gt).isAcceptableSolution(
+					getActionsFromRoot(n), n.state);
+		return true;
+	}
+
+	private List<Action> getActionsFromRoot(SMANode n) {
+		List<Action> result = new ArrayList<Action>();
+		if (n.parent == null) {
+			result.add(NoOpAction.NO_OP);
+		} else {
+			for (; n.parent != null; n = n.parent)
+				result.add(0, n.action);
+		}
+		return result;
+	}
+
+	/**
+	 * Orders nodes by f-value, deeper nodes first if f-values are equal, and
+	 * finally by creation order.
+	 */
+	private static final Comparator<SMANode> BEST_FIRST = new Comparator<SMANode>() {
+		public int compare(SMANode n1, SMANode n2) {
+			int result = Double.compare(n1.f, n2.f);
+			if (result == 0)
+				result = n2.depth - n1.depth;
+			if (result == 0)
+				result = n1.id < n2.id ? -1 : (n1.id > n2.id ? 1 : 0);
+			return result;
+		}
+	};
+
+	/** Search tree node with bookkeeping for forgotten successors. */
+	private class SMANode {
+		final long id;
+		final Object state;
+		final SMANode parent;
+		// index of this node in the children array of the parent
+		final int slot;
+		final Action action;
+		final double g;
+		final int depth;
+		double f;
+		boolean inQueue;
+		// initialized on first expansion
+		Action[] actions;
+		SMANode[] children;
+		// f-values of forgotten children, NaN for children not generated yet
+		double[] forgottenF;
+		int childrenInMemory;
+
+		SMANode(Object state, SMANode parent, int slot, Action action, double g) {
+			this.id = nextId++;
+			this.state = state;
+			this.parent = parent;
+			this.slot = slot;
+			this.action = action;
+			this.g = g;
+			this.depth = (parent != null) ? parent.depth + 1 : 0;
+		}
+	}
+}
@@ -148,23 +148,14 @@ public class DepthLimitedSearch extends NodeExpander implements Search {
 		} else {
 			// else
 			// cutoff_occurred? <- false
-			boolean cutoff_occurred = false;
 			// for each action in problem.ACTIONS(node.STATE) do
-			for (Node child : this.expandNode(node, problem)) {
-				// child <- CHILD-NODE(problem, node, action)
-				// result <- RECURSIVE-DLS(child, problem, limit - 1)
-				List<Action> result = recursiveDLS(child, problem, limit - 1);
-				// if result = cutoff then cutoff_occurred? <- true
-				if (isCutOff(result)) {
-					cutoff_occurred = true;
-				} else if (!isFailure(result)) {
-					// else if result != failure then return result
-					return result;
-				}
-			}
+			ChildSearch childSearch = new ChildSearch(problem, limit - 1);
+			expandNode(node, problem, childSearch);
+			if (childSearch.result != null)
+				return childSearch.result;
 
 			// if cutoff_occurred? then return cutoff else return failure
-			if (cutoff_occurred) {
+			if (childSearch.cutoffOccurred) {
 				return cutoff();
 			} else {
 				return failure();
@@ -186,4 +177,35 @@ public class DepthLimitedSearch extends NodeExpander implements Search {
 	private List<Action> failure() {
 		return Collections.emptyList();
 	}
+
+	/**
+	 * Searches below each child of an expanded node until a solution is
+	 * found.
+	 */
+	private class ChildSearch implements NodeVisitor {
+		private final Problem problem;
+		private final int limit;
+		boolean cutoffOccurred;
+		List<Action> result;
+
+		ChildSearch(Problem problem, int limit) {
+			this.problem = problem;
+			this.limit = limit;
+		}
+
+		public boolean visit(Node child) {
+			// child <- CHILD-NODE(problem, node, action)
+			// result <- RECURSIVE-DLS(child, problem, limit - 1)
+			List<Action> r = recursiveDLS(child, problem, limit);
+			// if result = cutoff then cutoff_occurred? <- true
+			if (isCutOff(r)) {
+				cutoffOccurred = true;
+			} else if (!isFailure(r)) {
+				// else if result != failure then return result
+				result = r;
+				return false;
+			}
+			return true;
+		}
+	}
 }
\ No newline at end of file
@@ -0,0 +1,42 @@
+package aima.core.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Thread factory for executor services, which creates daemon threads of type
+ * {@link CancelableThread}. Tasks can check for cancellation with
+ * {@link CancelableThread#currIsCanceled()}, and all threads created so far
+ * can be canceled at once. Since the cancel flag of a thread cannot be
+ * reset, a factory should be used for one executor service only.
+ */
+public class CancelableThreadFactory implements ThreadFactory {
+
+	private final List<CancelableThread> threads = new ArrayList<CancelableThread>();
+	private boolean isCanceled;
+
+	public synchronized Thread newThread(final Runnable r) {
+		CancelableThread result = new CancelableThread() {
+			@Override
+			public void run() {
+				r.run();
+			}
+		};
+		result.setDaemon(true);
+		if (isCanceled)
+			result.cancel();
+		threads.add(result);
+		return result;
+	}
+
+	/**
+	 * Cancels all threads which have been created by this factory, and all
+	 * threads which will be created later on.
+	 */
+	public synchronized void cancelAll() {
+		isCanceled = true;
+		for (CancelableThread thread : threads)
+			thread.cancel();
+	}
+}
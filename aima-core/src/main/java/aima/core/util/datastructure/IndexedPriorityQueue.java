@@ -0,0 +1,226 @@
+package aima.core.util.datastructure;
+
+import java.util.AbstractQueue;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * A binary heap based priority queue which additionally maintains an index
+ * from each element to its position in the heap. This allows membership
+ * testing in O(1) and removal of arbitrary elements in O(log n) (in contrast
+ * to the linear scan performed by java.util.PriorityQueue.remove(Object)).
+ * Together with insertion, the latter provides the decrease-key operation
+ * needed by search algorithms which replace frontier nodes by cheaper ones
+ * (see uniform-cost search, AIMA3e Figure 3.14: <i>"The data structure for
+ * frontier needs to support efficient membership testing, so it should
+ * combine the capabilities of a priority queue and a hash table."</i>).<br>
+ * <br>
+ * The sift operations are identical to those of java.util.PriorityQueue, so
+ * elements with equal priority are popped in the same order. Elements are
+ * identified by <code>equals</code>; inserting an element which is already
+ * contained in the queue fails.
+ */
+public class IndexedPriorityQueue<E> extends AbstractQueue<E> implements
+		Queue<E> {
+
+	private final Comparator<? super E> comparator;
+	private HeapEntry<E>[] heap;
+	private int size = 0;
+	private final Map<Object, HeapEntry<E>> index;
+
+	public IndexedPriorityQueue(Comparator<? super E> comparator) {
+		this(11, comparator);
+	}
+
+	public IndexedPriorityQueue(int initialCapacity,
+			Comparator<? super E> comparator) {
+		if (initialCapacity < 1)
+			throw new IllegalArgumentException(
+					"Initial capacity must be positive.");
+		this.comparator = comparator;
+		heap = newHeap(initialCapacity);
+		index = new HashMap<Object, HeapEntry<E>>(initialCapacity);
+	}
+
+	//
+	// START-Queue
+	@Override
+	public boolean isEmpty() {
+		return 0 == size;
+	}
+
+	public E pop() {
+		return poll();
+	}
+
+	public Queue<E> insert(E element) {
+		if (offer(element)) {
+			return this;
+		}
+		return null;
+	}
+
+	// END-Queue
+	//
+
+	/**
+	 * Inserts the specified element into this queue in O(log n).
+	 *
+	 * @return <code>false</code> if an equal element is already contained in
+	 *         the queue.
+	 */
+	public boolean offer(E element) {
+		if (element == null)
+			throw new NullPointerException();
+		if (index.containsKey(element))
+			return false;
+		if (size == heap.length)
+			heap = Arrays.copyOf(heap, size < 64 ? 2 * size + 2
+					: size + (size >> 1));
+		HeapEntry<E> entry = new HeapEntry<E>(element);
+		index.put(element, entry);
+		siftUp(size++, entry);
+		return true;
+	}
+
+	public E peek() {
+		return size == 0 ? null : heap[0].element;
+	}
+
+	public E poll() {
+		if (size == 0)
+			return null;
+		HeapEntry<E> result = heap[0];
+		removeAt(0);
+		return result.element;
+	}
+
+	/** Checks membership in O(1). */
+	@Override
+	public boolean contains(Object o) {
+		return index.containsKey(o);
+	}
+
+	/** Removes the specified element in O(log n). */
+	@Override
+	public boolean remove(Object o) {
+		HeapEntry<E> entry = index.get(o);
+		if (entry == null)
+			return false;
+		removeAt(entry.pos);
+		return true;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public void clear() {
+		Arrays.fill(heap, 0, size, null);
+		size = 0;
+		index.clear();
+	}
+
+	/**
+	 * Returns an iterator over the elements in heap order. Removal via the
+	 * iterator is not supported.
+	 */
+	@Override
+	public Iterator<E> iterator() {
+		List<E> elements = new ArrayList<E>(size);
+		for (int i = 0; i < size; i++)
+			elements.add(heap[i].element);
+		final Iterator<E> it = elements.iterator();
+		return new Iterator<E>() {
+			public boolean hasNext() {
+				return it.hasNext();
+			}
+
+			public E next() {
+				if (!it.hasNext())
+					throw new NoSuchElementException();
+				return it.next();
+			}
+
+			public void remove() {
+				throw new UnsupportedOperationException();
+			}
+		};
+	}
+
+	//
+	// PRIVATE METHODS
+	//
+
+	@SuppressWarnings("unchecked")
+	private static <E> HeapEntry<E>[] newHeap(int capacity) {
+		return (HeapEntry<E>[]) new HeapEntry<?>[capacity];
+	}
+
+	private void removeAt(int i) {
+		HeapEntry<E> removed = heap[i];
+		index.remove(removed.element);
+		int s = --size;
+		if (s == i) {
+			heap[i] = null;
+		} else {
+			HeapEntry<E> moved = heap[s];
+			heap[s] = null;
+			siftDown(i, moved);
+			if (heap[i] == moved)
+				siftUp(i, moved);
+		}
+	}
+
+	private void siftUp(int k, HeapEntry<E> entry) {
+		while (k > 0) {
+			int parent = (k - 1) >>> 1;
+			HeapEntry<E> e = heap[parent];
+			if (comparator.compare(entry.element, e.element) >= 0)
+				break;
+			place(k, e);
+			k = parent;
+		}
+		place(k, entry);
+	}
+
+	private void siftDown(int k, HeapEntry<E> entry) {
+		int half = size >>> 1;
+		while (k < half) {
+			int child = (k << 1) + 1;
+			HeapEntry<E> c = heap[child];
+			int right = child + 1;
+			if (right < size
+					&& comparator.compare(c.element, heap[right].element) > 0)
+				c = heap[child = right];
+			if (comparator.compare(entry.element, c.element) <= 0)
+				break;
+			place(k, c);
+			k = child;
+		}
+		place(k, entry);
+	}
+
+	private void place(int pos, HeapEntry<E> entry) {
+		heap[pos] = entry;
+		entry.pos = pos;
+	}
+
+	/** Associates an element with its current position in the heap. */
+	private static class HeapEntry<E> {
+		final E element;
+		int pos;
+
+		HeapEntry(E element) {
+			this.element = element;
+		}
+	}
+}
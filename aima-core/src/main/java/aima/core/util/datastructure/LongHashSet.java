@@ -0,0 +1,117 @@
+package aima.core.util.datastructure;
+
+import java.util.Arrays;
+
+/**
+ * A set of primitive long values based on open addressing with linear
+ * probing. In contrast to java.util.HashSet&lt;Long&gt;, no objects are
+ * allocated per element, which reduces the memory needed per entry from
+ * roughly 50 bytes to 8-16 bytes.
+ */
+public class LongHashSet {
+	/** Marks empty slots. The value itself is tracked separately. */
+	private static final long FREE = 0L;
+	private static final float LOAD_FACTOR = 0.6f;
+
+	private long[] table;
+	private int size;
+	private boolean containsFree;
+	private int resizeThreshold;
+
+	public LongHashSet() {
+		this(16);
+	}
+
+	public LongHashSet(int expectedSize) {
+		int capacity = 16;
+		while (capacity * LOAD_FACTOR < expectedSize)
+			capacity <<= 1;
+		allocate(capacity);
+	}
+
+	/**
+	 * Adds the specified value to the set.
+	 *
+	 * @return <code>true</code> if the set did not already contain the value.
+	 */
+	public boolean add(long value) {
+		if (value == FREE) {
+			if (containsFree)
+				return false;
+			containsFree = true;
+			size++;
+			return true;
+		}
+		int mask = table.length - 1;
+		int pos = hash(value) & mask;
+		while (table[pos] != FREE) {
+			if (table[pos] == value)
+				return false;
+			pos = (pos + 1) & mask;
+		}
+		table[pos] = value;
+		if (++size >= resizeThreshold)
+			rehash(table.length << 1);
+		return true;
+	}
+
+	public boolean contains(long value) {
+		if (value == FREE)
+			return containsFree;
+		int mask = table.length - 1;
+		int pos = hash(value) & mask;
+		while (table[pos] != FREE) {
+			if (table[pos] == value)
+				return true;
+			pos = (pos + 1) & mask;
+		}
+		return false;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	public void clear() {
+		Arrays.fill(table, FREE);
+		containsFree = false;
+		size = 0;
+	}
+
+	//
+	// PRIVATE METHODS
+	//
+
+	private void allocate(int capacity) {
+		table = new long[capacity];
+		resizeThreshold = (int) (capacity * LOAD_FACTOR);
+	}
+
+	private void rehash(int newCapacity) {
+		long[] oldTable = table;
+		allocate(newCapacity);
+		int mask = newCapacity - 1;
+		for (long value : oldTable) {
+			if (value != FREE) {
+				int pos = hash(value) & mask;
+				while (table[pos] != FREE)
+					pos = (pos + 1) & mask;
+				table[pos] = value;
+			}
+		}
+	}
+
+	/** Spreads the bits of the value (finalizer of MurmurHash3). */
+	private static int hash(long value) {
+		value ^= value >>> 33;
+		value *= 0xff51afd7ed558ccdL;
+		value ^= value >>> 33;
+		value *= 0xc4ceb9fe1a85ec53L;
+		value ^= value >>> 33;
+		return (int) value;
+	}
+}
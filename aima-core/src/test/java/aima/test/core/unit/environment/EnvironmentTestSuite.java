@@ -4,6 +4,7 @@ import org.junit.runner.RunWith;
 import org.junit.runners.Suite;
 
 import aima.test.core.unit.environment.cellworld.CellWorldTest;
+import aima.test.core.unit.environment.connectfour.BitboardConnectFourStateTest;
 import aima.test.core.unit.environment.eightpuzzle.EightPuzzleBoardMoveTest;
 import aima.test.core.unit.environment.eightpuzzle.EightPuzzleBoardTest;
 import aima.test.core.unit.environment.eightpuzzle.EightPuzzleFunctionFactoryTest;
@@ -26,8 +27,9 @@ import aima.test.core.unit.environment.vacuum.VacuumEnvironmentTest;
 import aima.test.core.unit.environment.xyenv.XYEnvironmentTest;
 
 @RunWith(Suite.class)
-@Suite.SuiteClasses({ CellWorldTest.class, EightPuzzleBoardMoveTest.class,
-		EightPuzzleBoardTest.class, EightPuzzleFunctionFactoryTest.class,
+@Suite.SuiteClasses({ BitboardConnectFourStateTest.class, CellWorldTest.class,
+		EightPuzzleBoardMoveTest.class, EightPuzzleBoardTest.class,
+		EightPuzzleFunctionFactoryTest.class,
 		MisplacedTileHeuristicFunctionTest.class, TicTacToeTest.class,
 		MapAgentTest.class, MapEnvironmentTest.class,
 		MapStepCostFunctionTest.class, MapFunctionFactoryTest.class,
@@ -0,0 +1,210 @@
+package aima.test.core.unit.environment.connectfour;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import aima.core.environment.connectfour.BitboardConnectFourGame;
+import aima.core.environment.connectfour.BitboardConnectFourState;
+import aima.core.environment.connectfour.ConnectFourAIPlayer;
+import aima.core.environment.connectfour.ConnectFourGame;
+import aima.core.environment.connectfour.ConnectFourState;
+import aima.core.search.adversarial.AlphaBetaSearch;
+
+public class BitboardConnectFourStateTest {
+
+	private BitboardConnectFourGame game;
+	private BitboardConnectFourState state;
+
+	@Before
+	public void setUp() {
+		game = new BitboardConnectFourGame();
+		state = game.getInitialState();
+	}
+
+	@Test
+	public void testLines() {
+		// horizontal, red wins with the fourth disk in row 5
+		state = play(state, 0, 0, 1, 1, 2, 2);
+		Assert.assertTrue(state.isWinPositionFor(5, 3, 1));
+		Assert.assertTrue(state.isWinMoveFor(3, 1));
+		Assert.assertFalse(state.isWinMoveFor(3, 2));
+		Assert.assertEquals(1.0, play(state, 3).getUtility(), 0.0);
+
+		// vertical, yellow wins in column 1
+		state = play(game.getInitialState(), 0, 1, 2, 1, 3, 1, 5, 1);
+		Assert.assertEquals(0.0, state.getUtility(), 0.0);
+
+		// both diagonals
+		state = play(game.getInitialState(), 0, 1, 1, 2, 2, 3, 2, 3, 3, 6);
+		Assert.assertTrue(state.isWinPositionFor(2, 3, 1));
+		Assert.assertEquals(1.0, play(state, 3).getUtility(), 0.0);
+		state = play(game.getInitialState(), 6, 5, 5, 4, 4, 3, 4, 3, 3, 0);
+		Assert.assertEquals(1.0, play(state, 3).getUtility(), 0.0);
+	}
+
+	@Test
+	public void testNoWrapAround() {
+		// red disks in the two top spaces of column 0 and the two bottom
+		// spaces of column 1 are adjacent in bit order but form no line
+		state = play(state, 0, 0, 0, 0, 1, 2, 1, 2, 0, 3, 0);
+		Assert.assertEquals(1, state.getPlayerNum(0, 0));
+		Assert.assertEquals(1, state.getPlayerNum(5, 1));
+		Assert.assertEquals(-1.0, state.getUtility(), 0.0);
+		Assert.assertFalse(state.isWinPositionFor(3, 1, 1));
+	}
+
+	@Test
+	public void testRandomGames() {
+		ConnectFourGame refGame = new ConnectFourGame();
+		Random random = new Random(42);
+		for (int i = 0; i < 200; i++) {
+			BitboardConnectFourState s = game.getInitialState();
+			ConnectFourState ref = refGame.getInitialState();
+			while (true) {
+				assertSamePosition(ref, s);
+				List<Integer> actions = game.getActions(s);
+				Assert.assertEquals(refGame.getActions(ref), actions);
+				Assert.assertEquals(refGame.isTerminal(ref), game.isTerminal(s));
+				if (game.isTerminal(s))
+					break;
+				for (int col : actions) {
+					Assert.assertEquals(ref.analyzePotentialWinPositions(col),
+							s.analyzePotentialWinPositions(col));
+					for (int p = 1; p <= 2; p++)
+						Assert.assertEquals(ref.isWinMoveFor(col, p), s
+								.isWinMoveFor(col, p));
+				}
+				int action = actions.get(random.nextInt(actions.size()));
+				s = game.getResult(s, action);
+				ref = refGame.getResult(ref, action);
+			}
+			Assert.assertEquals(ref.getUtility(), s.getUtility(), 0.0);
+		}
+	}
+
+	@Test
+	public void testUndo() {
+		Random random = new Random(7);
+		BitboardConnectFourState s = state.clone();
+		int[] moves = new int[42];
+		int moveCount = 0;
+		while (!game.isTerminal(s)) {
+			List<Integer> actions = game.getActions(s);
+			moves[moveCount++] = actions.get(random.nextInt(actions.size()));
+			BitboardConnectFourState copy = s.clone();
+			game.applyMove(s, moves[moveCount - 1]);
+			Assert.assertFalse(copy.equals(s));
+			game.undoMove(s, moves[moveCount - 1]);
+			Assert.assertEquals(copy, s);
+			Assert.assertEquals(copy.getHashKey(), s.getHashKey());
+			game.applyMove(s, moves[moveCount - 1]);
+		}
+		while (moveCount > 0)
+			game.undoMove(s, moves[--moveCount]);
+		Assert.assertEquals(state, s);
+		Assert.assertEquals(0, s.getMoves());
+		Assert.assertEquals(-1.0, s.getUtility(), 0.0);
+		Assert.assertEquals(state.getHashKey(), s.getHashKey());
+	}
+
+	@Test
+	public void testHashKeys() {
+		Assert.assertEquals(play(state, 3, 2, 4, 3).getHashKey(), play(state,
+				4, 2, 3, 3).getHashKey());
+		Assert.assertFalse(play(state, 3, 2, 4, 3).getHashKey() == play(
+				state, 3, 4, 2, 3).getHashKey());
+		// keys are unique: different positions never share a key
+		Map<Long, BitboardConnectFourState> positions = new HashMap<Long, BitboardConnectFourState>();
+		Random random = new Random(3);
+		for (int i = 0; i < 500; i++) {
+			BitboardConnectFourState s = state;
+			while (!game.isTerminal(s)) {
+				BitboardConnectFourState other = positions.put(s.getHashKey(),
+						s);
+				if (other != null)
+					Assert.assertEquals(other, s);
+				List<Integer> actions = game.getActions(s);
+				s = game.getResult(s, actions.get(random.nextInt(actions
+						.size())));
+			}
+		}
+	}
+
+	@Test
+	public void testSameSearchResults() {
+		ConnectFourGame refGame = new ConnectFourGame();
+		Random random = new Random(11);
+		for (int i = 0; i < 5; i++) {
+			BitboardConnectFourState s = game.getInitialState();
+			ConnectFourState ref = refGame.getInitialState();
+			while (s.getMoves() < 32 && !game.isTerminal(s)) {
+				List<Integer> actions = game.getActions(s);
+				int action = actions.get(random.nextInt(actions.size()));
+				s = game.getResult(s, action);
+				ref = refGame.getResult(ref, action);
+			}
+			if (game.isTerminal(s))
+				continue;
+			AlphaBetaSearch<BitboardConnectFourState, Integer, String> search = AlphaBetaSearch
+					.createFor(game);
+			AlphaBetaSearch<ConnectFourState, Integer, String> refSearch = AlphaBetaSearch
+					.createFor(refGame);
+			Assert.assertEquals(refSearch.makeDecision(ref), search
+					.makeDecision(s));
+			Assert.assertEquals(refSearch.getMetrics().getInt("expandedNodes"),
+					search.getMetrics().getInt("expandedNodes"));
+		}
+	}
+
+	@Test
+	public void testAIPlayer() {
+		// yellow has to block column 3
+		state = play(state, 3, 0, 3, 1, 3);
+		ConnectFourAIPlayer<BitboardConnectFourState> player = new ConnectFourAIPlayer<BitboardConnectFourState>(
+				game, 1);
+		Assert.assertEquals(Integer.valueOf(3), player.makeDecision(state));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testUnsupportedSize() {
+		new BitboardConnectFourState(8, 8);
+	}
+
+	//
+	// PRIVATE METHODS
+	//
+
+	private BitboardConnectFourState play(BitboardConnectFourState s,
+			int... cols) {
+		for (int col : cols)
+			s = game.getResult(s, col);
+		return s;
+	}
+
+	private void assertSamePosition(ConnectFourState expected,
+			BitboardConnectFourState actual) {
+		Assert.assertEquals(expected.getMoves(), actual.getMoves());
+		Assert.assertEquals(expected.getPlayerToMove(), actual
+				.getPlayerToMove());
+		Assert.assertEquals(expected.getUtility(), actual.getUtility(), 0.0);
+		for (int row = 0; row < expected.getRows(); row++) {
+			for (int col = 0; col < expected.getCols(); col++) {
+				Assert.assertEquals(expected.getPlayerNum(row, col), actual
+						.getPlayerNum(row, col));
+				// the reference state keeps win marks of occupied spaces and
+				// stops updating them when the game is over
+				if (expected.getPlayerNum(row, col) == 0
+						&& expected.getUtility() == -1)
+					for (int p = 1; p <= 2; p++)
+						Assert.assertEquals(expected.isWinPositionFor(row, col,
+								p), actual.isWinPositionFor(row, col, p));
+			}
+		}
+	}
+}
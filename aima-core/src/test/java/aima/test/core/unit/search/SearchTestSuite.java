@@ -3,14 +3,37 @@ package aima.test.core.unit.search;
 import org.junit.runner.RunWith;
 import org.junit.runners.Suite;
 
+import aima.test.core.unit.search.adversarial.MonteCarloTreeSearchTest;
+import aima.test.core.unit.search.adversarial.MutableGameTest;
+import aima.test.core.unit.search.adversarial.ParallelAlphaBetaSearchTest;
+import aima.test.core.unit.search.adversarial.TranspositionTableTest;
+import aima.test.core.unit.search.csp.AC2001StrategyTest;
 import aima.test.core.unit.search.csp.AssignmentTest;
+import aima.test.core.unit.search.csp.BackjumpingTest;
+import aima.test.core.unit.search.csp.BitSetDomainTest;
 import aima.test.core.unit.search.csp.CSPTest;
+import aima.test.core.unit.search.csp.ConstraintTableTest;
+import aima.test.core.unit.search.csp.GlobalConstraintTest;
+import aima.test.core.unit.search.csp.IndexedAssignmentTest;
 import aima.test.core.unit.search.csp.MapCSPTest;
+import aima.test.core.unit.search.csp.MinConflictsStrategyTest;
+import aima.test.core.unit.search.csp.ParallelBacktrackingStrategyTest;
+import aima.test.core.unit.search.csp.PortfolioStrategyTest;
+import aima.test.core.unit.search.csp.VariableOrderingTest;
+import aima.test.core.unit.search.framework.CachingHeuristicFunctionTest;
+import aima.test.core.unit.search.framework.CompactGraphSearchTest;
+import aima.test.core.unit.search.framework.MetricsTest;
 import aima.test.core.unit.search.framework.NodeTest;
+import aima.test.core.unit.search.framework.SearchBudgetTest;
 import aima.test.core.unit.search.framework.SolutionCheckerTest;
+import aima.test.core.unit.search.framework.SuccessorFunctionTest;
 import aima.test.core.unit.search.informed.AStarSearchTest;
+import aima.test.core.unit.search.informed.BidirectionalAStarSearchTest;
 import aima.test.core.unit.search.informed.GreedyBestFirstSearchTest;
+import aima.test.core.unit.search.informed.HashDistributedAStarSearchTest;
+import aima.test.core.unit.search.informed.IterativeDeepeningAStarSearchTest;
 import aima.test.core.unit.search.informed.RecursiveBestFirstSearchTest;
+import aima.test.core.unit.search.informed.SimplifiedMemoryBoundedAStarSearchTest;
 import aima.test.core.unit.search.local.SimulatedAnnealingSearchTest;
 import aima.test.core.unit.search.online.LRTAStarAgentTest;
 import aima.test.core.unit.search.online.OnlineDFSAgentTest;
@@ -22,13 +45,29 @@ import aima.test.core.unit.search.uninformed.IterativeDeepeningSearchTest;
 import aima.test.core.unit.search.uninformed.UniformCostSearchTest;
 
 @RunWith(Suite.class)
-@Suite.SuiteClasses({ AssignmentTest.class, CSPTest.class, MapCSPTest.class,
-		AStarSearchTest.class, GreedyBestFirstSearchTest.class,
-		RecursiveBestFirstSearchTest.class, SimulatedAnnealingSearchTest.class,
+@Suite.SuiteClasses({ MonteCarloTreeSearchTest.class, MutableGameTest.class,
+		ParallelAlphaBetaSearchTest.class,
+		TranspositionTableTest.class,
+		AC2001StrategyTest.class, AssignmentTest.class,
+		BackjumpingTest.class, BitSetDomainTest.class, CSPTest.class,
+		ConstraintTableTest.class, GlobalConstraintTest.class,
+		IndexedAssignmentTest.class, MapCSPTest.class,
+		MinConflictsStrategyTest.class,
+		ParallelBacktrackingStrategyTest.class, PortfolioStrategyTest.class,
+		VariableOrderingTest.class,
+		AStarSearchTest.class, BidirectionalAStarSearchTest.class,
+		GreedyBestFirstSearchTest.class,
+		HashDistributedAStarSearchTest.class,
+		IterativeDeepeningAStarSearchTest.class,
+		RecursiveBestFirstSearchTest.class,
+		SimplifiedMemoryBoundedAStarSearchTest.class,
+		SimulatedAnnealingSearchTest.class,
 		LRTAStarAgentTest.class, OnlineDFSAgentTest.class,
 		BidirectionalSearchTest.class, BreadthFirstSearchTest.class,
 		DepthFirstSearchTest.class, DepthLimitedSearchTest.class,
 		IterativeDeepeningSearchTest.class, UniformCostSearchTest.class,
-		NodeTest.class, SolutionCheckerTest.class })
+		CachingHeuristicFunctionTest.class, CompactGraphSearchTest.class,
+		MetricsTest.class, NodeTest.class, SearchBudgetTest.class,
+		SolutionCheckerTest.class, SuccessorFunctionTest.class })
 public class SearchTestSuite {
 }
@@ -0,0 +1,117 @@
+package aima.test.core.unit.search.adversarial;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import aima.core.environment.connectfour.ConnectFourGame;
+import aima.core.environment.connectfour.ConnectFourState;
+import aima.core.environment.tictactoe.TicTacToeGame;
+import aima.core.environment.tictactoe.TicTacToeState;
+import aima.core.search.adversarial.MonteCarloTreeSearch;
+import aima.core.util.datastructure.XYLocation;
+
+public class MonteCarloTreeSearchTest {
+
+	@Test
+	public void testWinningMove() {
+		TicTacToeGame game = new TicTacToeGame();
+		// x o x
+		// o o x
+		// - - -
+		TicTacToeState state = play(game, new XYLocation(0, 0),
+				new XYLocation(1, 0), new XYLocation(2, 0),
+				new XYLocation(0, 1), new XYLocation(2, 1),
+				new XYLocation(1, 1));
+		MonteCarloTreeSearch<TicTacToeState, XYLocation, String> search = createSearch(
+				game, 1000);
+		Assert.assertEquals(new XYLocation(2, 2), search.makeDecision(state));
+		Assert.assertEquals(1000, search.getMetrics().getInt("iterations"));
+		// the complete game tree has been built
+		Assert.assertEquals(10, search.getMetrics().getInt("expandedNodes"));
+	}
+
+	@Test
+	public void testBlockingMove() {
+		TicTacToeGame game = new TicTacToeGame();
+		// x - x
+		// - o -
+		// - - -
+		TicTacToeState state = play(game, new XYLocation(0, 0),
+				new XYLocation(1, 1), new XYLocation(2, 0));
+		MonteCarloTreeSearch<TicTacToeState, XYLocation, String> search = createSearch(
+				game, 5000);
+		Assert.assertEquals(new XYLocation(1, 0), search.makeDecision(state));
+	}
+
+	@Test
+	public void testTreeReuse() {
+		TicTacToeGame game = new TicTacToeGame();
+		TicTacToeState state = game.getInitialState();
+		MonteCarloTreeSearch<TicTacToeState, XYLocation, String> search = createSearch(
+				game, 5000);
+		XYLocation action = search.makeDecision(state);
+		Assert.assertEquals(0, search.getMetrics().getInt("reusedVisits"));
+		state = game.getResult(state, action);
+		state = game.getResult(state, game.getActions(state).get(0));
+		search.makeDecision(state);
+		Assert.assertTrue(search.getMetrics().getInt("reusedVisits") > 0);
+		// unrelated states are searched from scratch
+		search.makeDecision(play(game, new XYLocation(2, 2)));
+		Assert.assertEquals(0, search.getMetrics().getInt("reusedVisits"));
+	}
+
+	@Test
+	public void testTreeParallelization() {
+		TicTacToeGame game = new TicTacToeGame();
+		TicTacToeState state = play(game, new XYLocation(0, 0),
+				new XYLocation(1, 1), new XYLocation(2, 0));
+		MonteCarloTreeSearch<TicTacToeState, XYLocation, String> search = createSearch(
+				game, 8000);
+		search.setThreadCount(4);
+		Assert.assertEquals(new XYLocation(1, 0), search.makeDecision(state));
+		Assert.assertEquals(8000, search.getMetrics().getInt("iterations"));
+		Assert.assertTrue(search.getMetrics().getDouble("playoutsPerSecond") > 0);
+	}
+
+	@Test
+	public void testConnectFour() {
+		ConnectFourGame game = new ConnectFourGame();
+		ConnectFourState state = game.getInitialState();
+		// yellow has to block column 3
+		for (int col : new int[] { 3, 0, 3, 1, 3 })
+			state = game.getResult(state, col);
+		MonteCarloTreeSearch<ConnectFourState, Integer, String> search = MonteCarloTreeSearch
+				.createFor(game, 0.0, 1.0, 0);
+		search.setIterationLimit(5000);
+		search.setRandomSeed(1);
+		Assert.assertEquals(Integer.valueOf(3), search.makeDecision(state));
+		// connect four states are compared by equals, so the tree is reused
+		state = game.getResult(state, 3);
+		state = game.getResult(state, 0);
+		search.makeDecision(state);
+		Assert.assertTrue(search.getMetrics().getInt("reusedVisits") > 0);
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testMissingLimit() {
+		TicTacToeGame game = new TicTacToeGame();
+		MonteCarloTreeSearch.createFor(game, 0.0, 1.0, 0).makeDecision(
+				game.getInitialState());
+	}
+
+	private MonteCarloTreeSearch<TicTacToeState, XYLocation, String> createSearch(
+			TicTacToeGame game, int iterations) {
+		MonteCarloTreeSearch<TicTacToeState, XYLocation, String> result = MonteCarloTreeSearch
+				.createFor(game, 0.0, 1.0, 0);
+		result.setIterationLimit(iterations);
+		result.setRandomSeed(1);
+		return result;
+	}
+
+	private TicTacToeState play(TicTacToeGame game, XYLocation... actions) {
+		TicTacToeState result = game.getInitialState();
+		for (XYLocation action : actions)
+			result = game.getResult(result, action);
+		return result;
+	}
+}
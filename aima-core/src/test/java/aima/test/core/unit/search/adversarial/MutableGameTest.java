@@ -0,0 +1,159 @@
+package aima.test.core.unit.search.adversarial;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import aima.core.environment.connectfour.ConnectFourGame;
+import aima.core.environment.connectfour.ConnectFourState;
+import aima.core.environment.tictactoe.TicTacToeGame;
+import aima.core.environment.tictactoe.TicTacToeState;
+import aima.core.search.adversarial.AlphaBetaSearch;
+import aima.core.search.adversarial.Game;
+import aima.core.search.adversarial.IterativeDeepeningAlphaBetaSearch;
+import aima.core.search.adversarial.MinimaxSearch;
+import aima.core.util.datastructure.XYLocation;
+
+public class MutableGameTest {
+
+	@Test
+	public void testConnectFourUndo() {
+		ConnectFourGame game = new ConnectFourGame();
+		Random random = new Random(5);
+		for (int i = 0; i < 50; i++) {
+			ConnectFourState state = game.getInitialState().clone();
+			List<ConnectFourState> copies = new ArrayList<ConnectFourState>();
+			List<Integer> moves = new ArrayList<Integer>();
+			ConnectFourState copy = state.clone();
+			while (!game.isTerminal(state)) {
+				copies.add(copy);
+				List<Integer> actions = game.getActions(state);
+				Integer action = actions.get(random.nextInt(actions.size()));
+				moves.add(action);
+				game.applyMove(state, action);
+				copy = game.getResult(copy, action);
+				assertSameState(copy, state);
+			}
+			for (int j = moves.size() - 1; j >= 0; j--) {
+				game.undoMove(state, moves.get(j));
+				assertSameState(copies.get(j), state);
+			}
+		}
+	}
+
+	@Test
+	public void testTicTacToeUndo() {
+		TicTacToeGame game = new TicTacToeGame();
+		TicTacToeState state = game.getInitialState().clone();
+		XYLocation[] moves = new XYLocation[] { new XYLocation(0, 0),
+				new XYLocation(1, 1), new XYLocation(1, 0),
+				new XYLocation(2, 2), new XYLocation(2, 0) };
+		TicTacToeState[] copies = new TicTacToeState[moves.length];
+		for (int i = 0; i < moves.length; i++) {
+			copies[i] = state.clone();
+			game.applyMove(state, moves[i]);
+		}
+		Assert.assertTrue(game.isTerminal(state));
+		Assert.assertEquals(1.0, game.getUtility(state, TicTacToeState.X), 0.0);
+		for (int i = moves.length - 1; i >= 0; i--) {
+			game.undoMove(state, moves[i]);
+			Assert.assertEquals(copies[i], state);
+			Assert.assertEquals(copies[i].getHashKey(), state.getHashKey());
+			Assert.assertEquals(copies[i].getPlayerToMove(), state
+					.getPlayerToMove());
+			Assert.assertEquals(-1, state.getUtility(), 0.0);
+		}
+	}
+
+	@Test
+	public void testSameSearchAsWithCopies() {
+		TicTacToeGame game = new TicTacToeGame();
+		Game<TicTacToeState, XYLocation, String> copyingGame = new CopyingGame(
+				game);
+		TicTacToeState state = game.getInitialState();
+		state = game.getResult(state, new XYLocation(1, 1));
+		String before = state.toString();
+
+		MinimaxSearch<TicTacToeState, XYLocation, String> minimax1 = MinimaxSearch
+				.createFor(game);
+		MinimaxSearch<TicTacToeState, XYLocation, String> minimax2 = MinimaxSearch
+				.createFor(copyingGame);
+		Assert.assertEquals(minimax2.makeDecision(state), minimax1
+				.makeDecision(state));
+		Assert.assertEquals(minimax2.getMetrics().getInt("expandedNodes"),
+				minimax1.getMetrics().getInt("expandedNodes"));
+
+		AlphaBetaSearch<TicTacToeState, XYLocation, String> alphaBeta1 = AlphaBetaSearch
+				.createFor(game);
+		AlphaBetaSearch<TicTacToeState, XYLocation, String> alphaBeta2 = AlphaBetaSearch
+				.createFor(copyingGame);
+		Assert.assertEquals(alphaBeta2.makeDecision(state), alphaBeta1
+				.makeDecision(state));
+		Assert.assertEquals(alphaBeta2.getMetrics().getInt("expandedNodes"),
+				alphaBeta1.getMetrics().getInt("expandedNodes"));
+		// states passed to the value functions are restored
+		Assert.assertEquals(0.5, alphaBeta1.maxValue(state, TicTacToeState.O,
+				Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY), 0.0);
+
+		IterativeDeepeningAlphaBetaSearch<TicTacToeState, XYLocation, String> id1 = IterativeDeepeningAlphaBetaSearch
+				.createFor(game, 0.0, 1.0, 100);
+		IterativeDeepeningAlphaBetaSearch<TicTacToeState, XYLocation, String> id2 = IterativeDeepeningAlphaBetaSearch
+				.createFor(copyingGame, 0.0, 1.0, 100);
+		Assert.assertEquals(id2.makeDecision(state), id1.makeDecision(state));
+		Assert.assertEquals(id2.getMetrics().getInt("expandedNodes"), id1
+				.getMetrics().getInt("expandedNodes"));
+		Assert.assertEquals(before, state.toString());
+	}
+
+	private void assertSameState(ConnectFourState expected,
+			ConnectFourState actual) {
+		Assert.assertEquals(expected, actual);
+		Assert.assertEquals(expected.getHashKey(), actual.getHashKey());
+		Assert.assertEquals(expected.getMoves(), actual.getMoves());
+		Assert.assertEquals(expected.getUtility(), actual.getUtility(), 0.0);
+		Assert.assertEquals(expected.winPositions1, actual.winPositions1);
+		Assert.assertEquals(expected.winPositions2, actual.winPositions2);
+	}
+
+	/** Hides the make/unmake move support of the decorated game. */
+	private static class CopyingGame implements
+			Game<TicTacToeState, XYLocation, String> {
+		final TicTacToeGame game;
+
+		CopyingGame(TicTacToeGame game) {
+			this.game = game;
+		}
+
+		public TicTacToeState getInitialState() {
+			return game.getInitialState();
+		}
+
+		public String[] getPlayers() {
+			return game.getPlayers();
+		}
+
+		public String getPlayer(TicTacToeState state) {
+			return game.getPlayer(state);
+		}
+
+		public List<XYLocation> getActions(TicTacToeState state) {
+			return game.getActions(state);
+		}
+
+		public TicTacToeState getResult(TicTacToeState state,
+				XYLocation action) {
+			return game.getResult(state, action);
+		}
+
+		public boolean isTerminal(TicTacToeState state) {
+			return game.isTerminal(state);
+		}
+
+		public double getUtility(TicTacToeState state, String player) {
+			return game.getUtility(state, player);
+		}
+	}
+}
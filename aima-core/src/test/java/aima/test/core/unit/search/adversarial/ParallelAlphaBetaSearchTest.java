@@ -0,0 +1,109 @@
+package aima.test.core.unit.search.adversarial;
+
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import aima.core.environment.connectfour.BitboardConnectFourGame;
+import aima.core.environment.connectfour.BitboardConnectFourState;
+import aima.core.environment.connectfour.ConnectFourAIPlayer;
+import aima.core.environment.connectfour.ConnectFourGame;
+import aima.core.environment.connectfour.ConnectFourState;
+import aima.core.environment.tictactoe.TicTacToeGame;
+import aima.core.environment.tictactoe.TicTacToeState;
+import aima.core.search.adversarial.AlphaBetaSearch;
+import aima.core.search.adversarial.IterativeDeepeningAlphaBetaSearch;
+import aima.core.search.adversarial.ParallelAlphaBetaSearch;
+import aima.core.search.adversarial.TranspositionTable;
+import aima.core.util.datastructure.XYLocation;
+
+public class ParallelAlphaBetaSearchTest {
+
+	@Test
+	public void testTicTacToeDecisions() {
+		TicTacToeGame game = new TicTacToeGame();
+		Random random = new Random(3);
+		for (int i = 0; i < 20; i++) {
+			TicTacToeState state = game.getInitialState();
+			int moves = random.nextInt(6);
+			for (int j = 0; j < moves && !game.isTerminal(state); j++) {
+				List<XYLocation> actions = game.getActions(state);
+				state = game.getResult(state, actions.get(random
+						.nextInt(actions.size())));
+			}
+			if (game.isTerminal(state))
+				continue;
+			ParallelAlphaBetaSearch<TicTacToeState, XYLocation, String> search = ParallelAlphaBetaSearch
+					.createFor(game, 0.0, 1.0, 100);
+			search.setThreadCount(1 + i % 4);
+			XYLocation action = search.makeDecision(state);
+			// the action must have the minimax value of the state
+			AlphaBetaSearch<TicTacToeState, XYLocation, String> reference = AlphaBetaSearch
+					.createFor(game);
+			String player = game.getPlayer(state);
+			Assert.assertEquals(reference.maxValue(state, player,
+					Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY),
+					reference.minValue(game.getResult(state, action), player,
+							Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY),
+					0.0);
+			Assert.assertTrue(search.getMetrics().getInt("expandedNodes") > 0);
+		}
+	}
+
+	@Test
+	public void testWinningMove() {
+		TicTacToeGame game = new TicTacToeGame();
+		TicTacToeState state = game.getInitialState();
+		// x o x
+		// o o x
+		// - - -
+		for (XYLocation loc : new XYLocation[] { new XYLocation(0, 0),
+				new XYLocation(1, 0), new XYLocation(2, 0),
+				new XYLocation(0, 1), new XYLocation(2, 1),
+				new XYLocation(1, 1) })
+			state = game.getResult(state, loc);
+		ParallelAlphaBetaSearch<TicTacToeState, XYLocation, String> search = ParallelAlphaBetaSearch
+				.createFor(game, 0.0, 1.0, 100);
+		Assert.assertEquals(new XYLocation(2, 2), search.makeDecision(state));
+		Assert.assertEquals(1, search.getMetrics().getInt("depthLimit"));
+	}
+
+	@Test
+	public void testConnectFourTemplate() {
+		ConnectFourGame game = new ConnectFourGame();
+		ConnectFourState state = game.getInitialState();
+		// yellow has to block column 3
+		for (int col : new int[] { 3, 0, 3, 1, 3 })
+			state = game.getResult(state, col);
+		ConnectFourAIPlayer<ConnectFourState> template = new ConnectFourAIPlayer<ConnectFourState>(
+				game, 1);
+		template.setTranspositionTable(null);
+		ParallelAlphaBetaSearch<ConnectFourState, Integer, String> search = new ParallelAlphaBetaSearch<ConnectFourState, Integer, String>(
+				template);
+		search.setThreadCount(4);
+		Assert.assertEquals(Integer.valueOf(3), search.makeDecision(state));
+		Assert.assertTrue(search.getMetrics().getInt("depthLimit") > 1);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testTranspositionTableRejected() {
+		// the Connect Four player uses a table for hashable games
+		new ParallelAlphaBetaSearch<BitboardConnectFourState, Integer, String>(
+				new ConnectFourAIPlayer<BitboardConnectFourState>(
+						new BitboardConnectFourGame(), 1));
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testTranspositionTableSetLater() {
+		TicTacToeGame game = new TicTacToeGame();
+		IterativeDeepeningAlphaBetaSearch<TicTacToeState, XYLocation, String> template = IterativeDeepeningAlphaBetaSearch
+				.createFor(game, 0.0, 1.0, 1);
+		ParallelAlphaBetaSearch<TicTacToeState, XYLocation, String> search = new ParallelAlphaBetaSearch<TicTacToeState, XYLocation, String>(
+				template);
+		template.setTranspositionTable(new TranspositionTable<XYLocation>(
+				1 << 10));
+		search.makeDecision(game.getInitialState());
+	}
+}
@@ -0,0 +1,217 @@
+package aima.test.core.unit.search.adversarial;
+
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import aima.core.environment.connectfour.ConnectFourAIPlayer;
+import aima.core.environment.connectfour.ConnectFourGame;
+import aima.core.environment.connectfour.ConnectFourState;
+import aima.core.environment.tictactoe.TicTacToeGame;
+import aima.core.environment.tictactoe.TicTacToeState;
+import aima.core.search.adversarial.AlphaBetaSearch;
+import aima.core.search.adversarial.Game;
+import aima.core.search.adversarial.IterativeDeepeningAlphaBetaSearch;
+import aima.core.search.adversarial.TranspositionTable;
+import aima.core.search.adversarial.TranspositionTable.Bound;
+import aima.core.util.datastructure.XYLocation;
+
+public class TranspositionTableTest {
+
+	@Test
+	public void testStoreAndFind() {
+		TranspositionTable<String> table = new TranspositionTable<String>(5);
+		Assert.assertEquals(8, table.getCapacity());
+		table.startSearch("X");
+		Assert.assertEquals(-1, table.find(42L));
+		Assert.assertTrue(table.store(42L, 0.5, Bound.LOWER, 3, "a"));
+		int slot = table.find(42L);
+		Assert.assertTrue(slot != -1);
+		Assert.assertEquals(0.5, table.getValue(slot), 0.0);
+		Assert.assertEquals(Bound.LOWER, table.getBound(slot));
+		Assert.assertEquals(3, table.getDraft(slot));
+		Assert.assertEquals("a", table.getAction(slot));
+		// lower bound 0.5 suffices for a cutoff if beta <= 0.5 only
+		Assert.assertTrue(table.isSufficient(slot, 3, 0.0, 0.5));
+		Assert.assertFalse(table.isSufficient(slot, 3, 0.0, 0.6));
+		Assert.assertFalse(table.isSufficient(slot, 4, 0.0, 0.5));
+
+		// same slot, other key: depth-preferred replacement
+		Assert.assertFalse(table.store(42L + 8, 1.0, Bound.EXACT, 2, "b"));
+		Assert.assertTrue(table.store(42L + 8, 1.0, Bound.EXACT, 3, "b"));
+		Assert.assertEquals(-1, table.find(42L));
+		Assert.assertEquals(1, table.size());
+		// entries of earlier searches are always replaced
+		table.startSearch("X");
+		Assert.assertTrue(table.find(42L + 8) != -1);
+		Assert.assertTrue(table.store(42L, 0.0, Bound.UPPER, 1, "c"));
+		// values are relative to the root player
+		table.startSearch("O");
+		Assert.assertEquals(0, table.size());
+		Assert.assertEquals(-1, table.find(42L));
+
+		Assert.assertEquals(Bound.UPPER, TranspositionTable.getBoundFor(0.2,
+				0.2, 0.8));
+		Assert.assertEquals(Bound.EXACT, TranspositionTable.getBoundFor(0.5,
+				0.2, 0.8));
+		Assert.assertEquals(Bound.LOWER, TranspositionTable.getBoundFor(0.8,
+				0.2, 0.8));
+	}
+
+	@Test
+	public void testTicTacToeHashKeys() {
+		TicTacToeGame game = new TicTacToeGame();
+		TicTacToeState s1 = game.getInitialState();
+		TicTacToeState s2 = s1;
+		s1 = game.getResult(s1, new XYLocation(0, 0));
+		s1 = game.getResult(s1, new XYLocation(1, 1));
+		s1 = game.getResult(s1, new XYLocation(2, 2));
+		s2 = game.getResult(s2, new XYLocation(2, 2));
+		s2 = game.getResult(s2, new XYLocation(1, 1));
+		Assert.assertTrue(game.getHashKey(s1) != game.getHashKey(s2));
+		s2 = game.getResult(s2, new XYLocation(0, 0));
+		Assert.assertEquals(s1, s2);
+		Assert.assertEquals(game.getHashKey(s1), game.getHashKey(s2));
+		// same squares, other owners
+		TicTacToeState s3 = game.getInitialState();
+		s3 = game.getResult(s3, new XYLocation(1, 1));
+		s3 = game.getResult(s3, new XYLocation(0, 0));
+		s3 = game.getResult(s3, new XYLocation(2, 2));
+		Assert.assertTrue(game.getHashKey(s1) != game.getHashKey(s3));
+		Assert.assertEquals(0L, game.getHashKey(game.getInitialState()));
+	}
+
+	@Test
+	public void testConnectFourHashKeys() {
+		ConnectFourGame game = new ConnectFourGame();
+		ConnectFourState s1 = game.getInitialState();
+		ConnectFourState s2 = s1;
+		for (int col : new int[] { 3, 2, 4, 3 })
+			s1 = game.getResult(s1, col);
+		for (int col : new int[] { 4, 2, 3, 3 })
+			s2 = game.getResult(s2, col);
+		Assert.assertEquals(s1, s2);
+		Assert.assertEquals(game.getHashKey(s1), game.getHashKey(s2));
+		ConnectFourState s3 = new ConnectFourState(6, 7);
+		for (int col : new int[] { 3, 4, 2, 3 })
+			s3 = game.getResult(s3, col);
+		Assert.assertFalse(s1.equals(s3));
+		Assert.assertTrue(game.getHashKey(s1) != game.getHashKey(s3));
+	}
+
+	@Test
+	public void testAlphaBetaWithTable() {
+		TicTacToeGame game = new TicTacToeGame();
+		TicTacToeState state = game.getInitialState();
+		AlphaBetaSearch<TicTacToeState, XYLocation, String> search = AlphaBetaSearch
+				.createFor(game);
+		TranspositionTable<XYLocation> table = new TranspositionTable<XYLocation>(
+				1 << 12);
+		search.setTranspositionTable(table);
+		XYLocation action = search.makeDecision(state);
+		int expandedNodes = search.getMetrics().getInt("expandedNodes");
+		Assert.assertTrue(expandedNodes < 30709 / 2);
+		Assert.assertTrue(search.getMetrics().getInt("tableCutoffs") > 0);
+		Assert.assertEquals(0.5, valueOf(game, state, action), 0.0);
+
+		// x o x
+		// o o x
+		// - - -
+		for (XYLocation loc : new XYLocation[] { new XYLocation(0, 0),
+				new XYLocation(1, 0), new XYLocation(2, 0),
+				new XYLocation(0, 1), new XYLocation(2, 1),
+				new XYLocation(1, 1) })
+			state = game.getResult(state, loc);
+		// table is reused
+		Assert.assertEquals(new XYLocation(2, 2), search.makeDecision(state));
+	}
+
+	@Test
+	public void testIterativeDeepeningWithTable() {
+		TicTacToeGame game = new TicTacToeGame();
+		TicTacToeState state = game.getInitialState();
+		state = game.getResult(state, new XYLocation(1, 0));
+		IterativeDeepeningAlphaBetaSearch<TicTacToeState, XYLocation, String> reference = IterativeDeepeningAlphaBetaSearch
+				.createFor(game, 0.0, 1.0, 100);
+		IterativeDeepeningAlphaBetaSearch<TicTacToeState, XYLocation, String> search = IterativeDeepeningAlphaBetaSearch
+				.createFor(game, 0.0, 1.0, 100);
+		search.setTranspositionTable(new TranspositionTable<XYLocation>(
+				1 << 12));
+		reference.makeDecision(state);
+		XYLocation action = search.makeDecision(state);
+		Assert.assertEquals(reference.getMetrics().getInt("maxDepth"), search
+				.getMetrics().getInt("maxDepth"));
+		Assert.assertTrue(search.getMetrics().getInt("expandedNodes") < reference
+				.getMetrics().getInt("expandedNodes"));
+		Assert.assertEquals(valueOf(game, state, null), valueOf(game, state,
+				action), 0.0);
+	}
+
+	@Test
+	public void testConnectFourPlayer() {
+		ConnectFourGame game = new ConnectFourGame();
+		ConnectFourState state = game.getInitialState();
+		// yellow has to block column 3
+		for (int col : new int[] { 3, 0, 3, 1, 3 })
+			state = game.getResult(state, col);
+		ConnectFourAIPlayer<ConnectFourState> player = new ConnectFourAIPlayer<ConnectFourState>(
+				game, 1);
+		Assert.assertEquals(Integer.valueOf(3), player.makeDecision(state));
+		Assert.assertTrue(player.getMetrics().get("tableCutoffs") != null);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testUnhashableGame() {
+		final TicTacToeGame game = new TicTacToeGame();
+		// hides the hash key support
+		Game<TicTacToeState, XYLocation, String> plain = new Game<TicTacToeState, XYLocation, String>() {
+			public TicTacToeState getInitialState() {
+				return game.getInitialState();
+			}
+
+			public String[] getPlayers() {
+				return game.getPlayers();
+			}
+
+			public String getPlayer(TicTacToeState state) {
+				return game.getPlayer(state);
+			}
+
+			public List<XYLocation> getActions(TicTacToeState state) {
+				return game.getActions(state);
+			}
+
+			public TicTacToeState getResult(TicTacToeState state,
+					XYLocation action) {
+				return game.getResult(state, action);
+			}
+
+			public boolean isTerminal(TicTacToeState state) {
+				return game.isTerminal(state);
+			}
+
+			public double getUtility(TicTacToeState state, String player) {
+				return game.getUtility(state, player);
+			}
+		};
+		AlphaBetaSearch.createFor(plain).setTranspositionTable(
+				new TranspositionTable<XYLocation>(16));
+	}
+
+	/**
+	 * Returns the minimax value of the action (or of the state if the action
+	 * is null) for the player to move.
+	 */
+	private double valueOf(TicTacToeGame game, TicTacToeState state,
+			XYLocation action) {
+		AlphaBetaSearch<TicTacToeState, XYLocation, String> search = AlphaBetaSearch
+				.createFor(game);
+		String player = game.getPlayer(state);
+		if (action == null)
+			return search.maxValue(state, player, Double.NEGATIVE_INFINITY,
+					Double.POSITIVE_INFINITY);
+		return search.minValue(game.getResult(state, action), player,
+				Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY);
+	}
+}
@@ -0,0 +1,97 @@
+package aima.test.core.unit.search.csp;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import aima.core.search.csp.AC2001Strategy;
+import aima.core.search.csp.AC3Strategy;
+import aima.core.search.csp.Assignment;
+import aima.core.search.csp.CSP;
+import aima.core.search.csp.Domain;
+import aima.core.search.csp.DomainRestoreInfo;
+import aima.core.search.csp.ImprovedBacktrackingStrategy;
+import aima.core.search.csp.MapCSP;
+import aima.core.search.csp.NQueensCSP;
+import aima.core.search.csp.Variable;
+
+public class AC2001StrategyTest {
+
+	@Test
+	public void testReduceDomains() {
+		CSP csp1 = new MapCSP();
+		CSP csp2 = new MapCSP();
+		for (CSP csp : new CSP[] { csp1, csp2 }) {
+			csp.setDomain(MapCSP.WA, new Domain(new Object[] { MapCSP.RED }));
+			csp.setDomain(MapCSP.NT, new Domain(new Object[] { MapCSP.RED,
+					MapCSP.GREEN }));
+		}
+		DomainRestoreInfo info1 = new AC3Strategy().reduceDomains(csp1);
+		DomainRestoreInfo info2 = new AC2001Strategy().reduceDomains(csp2);
+		Assert.assertFalse(info2.isEmpty());
+		Assert.assertEquals(info1.isEmptyDomainFound(), info2
+				.isEmptyDomainFound());
+		assertSameDomains(csp1, csp2);
+		Assert.assertEquals("{GREEN}", csp2.getDomain(MapCSP.NT).toString());
+		info2.restoreDomains(csp2);
+		Assert.assertEquals(3, csp2.getDomain(MapCSP.SA).size());
+		Assert.assertEquals(2, csp2.getDomain(MapCSP.NT).size());
+	}
+
+	@Test
+	public void testReduceDomainsWithTrailing() {
+		CSP csp1 = new NQueensCSP(6);
+		CSP csp2 = new NQueensCSP(6);
+		csp2.startTrailing();
+		AC2001Strategy strategy = new AC2001Strategy();
+		Variable var = csp2.getVariables().get(1);
+		DomainRestoreInfo info1 = new AC3Strategy().reduceDomains(csp1
+				.getVariables().get(1), 3, csp1);
+		DomainRestoreInfo info2 = strategy.reduceDomains(var, 3, csp2);
+		Assert.assertEquals(info1.isEmptyDomainFound(), info2
+				.isEmptyDomainFound());
+		assertSameDomains(csp1, csp2);
+		info2.restoreDomains(csp2);
+		for (Variable v : csp2.getVariables())
+			Assert.assertEquals(6, csp2.getDomain(v).size());
+		// residues of the first call must not affect the result
+		info2 = strategy.reduceDomains(var, 3, csp2);
+		assertSameDomains(csp1, csp2);
+		csp2.stopTrailing();
+	}
+
+	@Test
+	public void testEmptyDomainFound() {
+		CSP csp = new MapCSP();
+		csp.setDomain(MapCSP.WA, new Domain(new Object[] { MapCSP.RED }));
+		csp.setDomain(MapCSP.NT, new Domain(new Object[] { MapCSP.RED }));
+		DomainRestoreInfo info = new AC2001Strategy().reduceDomains(csp);
+		Assert.assertTrue(info.isEmptyDomainFound());
+		Assert.assertFalse(csp.isTrailing());
+	}
+
+	@Test
+	public void testSameSolutionsAsAC3() {
+		for (int i = 0; i < 3; i++) {
+			CSP csp1 = (i == 0) ? new MapCSP() : new NQueensCSP(4 + 4 * i);
+			CSP csp2 = (i == 0) ? new MapCSP() : new NQueensCSP(4 + 4 * i);
+			ImprovedBacktrackingStrategy strategy = new ImprovedBacktrackingStrategy(
+					true, true, true, false);
+			Assignment expected = strategy.solve(csp1);
+			strategy.setInference(ImprovedBacktrackingStrategy.Inference.AC2001);
+			Assignment result = strategy.solve(csp2);
+			Assert.assertNotNull(result);
+			Assert.assertTrue(result.isSolution(csp2));
+			Assert.assertEquals(expected.toString(), result.toString());
+			strategy.enableTrailing(false);
+			CSP csp3 = (i == 0) ? new MapCSP() : new NQueensCSP(4 + 4 * i);
+			Assert.assertEquals(expected.toString(), strategy.solve(csp3)
+					.toString());
+		}
+	}
+
+	private void assertSameDomains(CSP csp1, CSP csp2) {
+		for (int i = 0; i < csp1.getVariables().size(); i++)
+			Assert.assertEquals(csp1.getDomain(csp1.getVariables().get(i)),
+					csp2.getDomain(csp2.getVariables().get(i)));
+	}
+}
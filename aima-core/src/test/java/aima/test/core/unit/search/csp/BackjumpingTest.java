@@ -0,0 +1,141 @@
+package aima.test.core.unit.search.csp;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import aima.core.search.csp.Assignment;
+import aima.core.search.csp.CSP;
+import aima.core.search.csp.CSPStateListener;
+import aima.core.search.csp.Domain;
+import aima.core.search.csp.ImprovedBacktrackingStrategy;
+import aima.core.search.csp.MapCSP;
+import aima.core.search.csp.NQueensCSP;
+import aima.core.search.csp.NotEqualConstraint;
+import aima.core.search.csp.Variable;
+
+public class BackjumpingTest {
+
+	@Test
+	public void testSolve() {
+		for (ImprovedBacktrackingStrategy.Inference inference : ImprovedBacktrackingStrategy.Inference
+				.values()) {
+			ImprovedBacktrackingStrategy strategy = new ImprovedBacktrackingStrategy(
+					true, true, false, true);
+			strategy.setInference(inference);
+			strategy.enableBackjumping(true);
+			strategy.setMaxNogoods(1000);
+			CSP csp = new NQueensCSP(8);
+			Assignment result = strategy.solve(csp);
+			Assert.assertNotNull(result);
+			Assert.assertTrue(result.isSolution(csp));
+			Assert.assertFalse(csp.isTrailing());
+			csp = new MapCSP();
+			result = strategy.solve(csp);
+			Assert.assertNotNull(result);
+			Assert.assertTrue(result.isSolution(csp));
+			Assert.assertNull(strategy.solve(new NQueensCSP(3)));
+		}
+	}
+
+	@Test
+	public void testAllSolutionsFound() {
+		for (ImprovedBacktrackingStrategy.Inference inference : ImprovedBacktrackingStrategy.Inference
+				.values()) {
+			for (int maxNogoods = 0; maxNogoods <= 1000; maxNogoods += 1000) {
+				CountingStrategy strategy = new CountingStrategy();
+				strategy.setInference(inference);
+				strategy.enableBackjumping(true);
+				strategy.setMaxNogoods(maxNogoods);
+				Assert.assertNull(strategy.solve(new NQueensCSP(8)));
+				Assert.assertEquals(92, strategy.count);
+			}
+		}
+	}
+
+	@Test
+	public void testBackjumpingSavesAssignments() {
+		ImprovedBacktrackingStrategy strategy = new ImprovedBacktrackingStrategy();
+		AssignmentCounter counter = new AssignmentCounter();
+		strategy.addCSPStateListener(counter);
+		Assert.assertNull(strategy.solve(createUnsolvableCSP(10)));
+		int chronological = counter.count;
+		strategy.enableBackjumping(true);
+		counter.count = 0;
+		Assert.assertNull(strategy.solve(createUnsolvableCSP(10)));
+		Assert.assertTrue(chronological > 4000);
+		Assert.assertTrue(counter.count < 50);
+	}
+
+	@Test
+	public void testRestarts() {
+		ImprovedBacktrackingStrategy strategy = new ImprovedBacktrackingStrategy(
+				true, true, false, true);
+		strategy.setInference(ImprovedBacktrackingStrategy.Inference.FORWARD_CHECKING);
+		strategy.enableBackjumping(true);
+		strategy.setMaxNogoods(10000);
+		strategy.enableRestarts(10, 1.5);
+		strategy.setRandom(new Random(1));
+		CSP csp = new NQueensCSP(20);
+		Assignment result = strategy.solve(csp);
+		Assert.assertNotNull(result);
+		Assert.assertTrue(result.isSolution(csp));
+		Assert.assertNull(strategy.solve(new NQueensCSP(3)));
+		Assert.assertNull(strategy.solve(createUnsolvableCSP(5)));
+	}
+
+	/**
+	 * Creates a CSP with binary domains in which the first variable A and the
+	 * last two variables C and D must be pairwise different. The variables in
+	 * between are not constrained.
+	 */
+	private CSP createUnsolvableCSP(int freeVars) {
+		List<Variable> vars = new ArrayList<Variable>();
+		Variable a = new Variable("A");
+		vars.add(a);
+		for (int i = 0; i < freeVars; i++)
+			vars.add(new Variable("B" + i));
+		Variable c = new Variable("C");
+		Variable d = new Variable("D");
+		vars.add(c);
+		vars.add(d);
+		CSP csp = new CSP(vars);
+		Domain domain = new Domain(new Object[] { 0, 1 });
+		for (Variable var : vars)
+			csp.setDomain(var, domain);
+		csp.addConstraint(new NotEqualConstraint(a, c));
+		csp.addConstraint(new NotEqualConstraint(a, d));
+		csp.addConstraint(new NotEqualConstraint(c, d));
+		return csp;
+	}
+
+	/** Counts all solutions instead of returning the first one. */
+	private static class CountingStrategy extends ImprovedBacktrackingStrategy {
+		int count;
+
+		CountingStrategy() {
+			super(true, true, false, false);
+		}
+
+		@Override
+		protected boolean acceptSolution(Assignment assignment, CSP csp) {
+			Assert.assertTrue(assignment.isSolution(csp));
+			count++;
+			return false;
+		}
+	}
+
+	private static class AssignmentCounter implements CSPStateListener {
+		int count;
+
+		public void stateChanged(Assignment assignment, CSP csp) {
+			count++;
+		}
+
+		public void stateChanged(CSP csp) {
+		}
+	}
+}
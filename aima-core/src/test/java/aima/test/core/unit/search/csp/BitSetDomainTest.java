@@ -0,0 +1,123 @@
+package aima.test.core.unit.search.csp;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import aima.core.search.csp.Assignment;
+import aima.core.search.csp.BitSetDomain;
+import aima.core.search.csp.CSP;
+import aima.core.search.csp.Domain;
+import aima.core.search.csp.DomainRestoreInfo;
+import aima.core.search.csp.ImprovedBacktrackingStrategy;
+import aima.core.search.csp.MapCSP;
+import aima.core.search.csp.NQueensCSP;
+import aima.core.search.csp.Variable;
+
+public class BitSetDomainTest {
+
+	@Test
+	public void testBitSetDomain() {
+		List<Object> values = new ArrayList<Object>();
+		for (int i = 0; i < 70; i++)
+			values.add(i);
+		BitSetDomain domain = new BitSetDomain(new Domain(values));
+		Assert.assertEquals(70, domain.size());
+		Assert.assertEquals(64, domain.indexOf(64));
+		Assert.assertEquals(-1, domain.indexOf(70));
+		for (int i = 0; i < 66; i++)
+			Assert.assertTrue(domain.remove(i));
+		Assert.assertFalse(domain.remove(3));
+		Assert.assertEquals(4, domain.size());
+		Assert.assertEquals(66, domain.nextIndex(0));
+		Assert.assertEquals(69, domain.nextIndex(69));
+		Assert.assertEquals(-1, domain.nextIndex(70));
+		Assert.assertTrue(domain.restore(63));
+		Assert.assertFalse(domain.restore(63));
+		Assert.assertEquals(63, domain.nextIndex(0));
+		Assert.assertEquals("{63, 66, 67, 68, 69}", domain.toDomain()
+				.toString());
+		BitSetDomain copy = new BitSetDomain(domain);
+		copy.remove(63);
+		Assert.assertTrue(domain.contains(63));
+		Assert.assertFalse(copy.contains(63));
+	}
+
+	@Test
+	public void testTrailing() {
+		CSP csp = new MapCSP();
+		csp.startTrailing();
+		Assert.assertTrue(csp.isTrailing());
+		int mark = csp.getTrailMark();
+		csp.removeValueFromDomain(MapCSP.WA, MapCSP.GREEN);
+		csp.removeValueFromDomain(MapCSP.WA, MapCSP.GREEN);
+		csp.removeValueFromDomain(MapCSP.NT, MapCSP.RED);
+		Assert.assertEquals(mark + 2, csp.getTrailMark());
+		Assert.assertEquals("{RED, BLUE}", csp.getDomain(MapCSP.WA)
+				.toString());
+		CSP copy = csp.copyDomains();
+		Assert.assertFalse(copy.isTrailing());
+		int mark2 = csp.getTrailMark();
+		csp.setDomain(MapCSP.SA, new Domain(new Object[] { MapCSP.BLUE,
+				MapCSP.RED }));
+		Assert.assertEquals("{RED, BLUE}", csp.getDomain(MapCSP.SA)
+				.toString());
+		csp.undoTrail(mark2);
+		Assert.assertEquals(3, csp.getDomain(MapCSP.SA).size());
+		csp.undoTrail(mark);
+		Assert.assertEquals(3, csp.getDomain(MapCSP.WA).size());
+		Assert.assertEquals(2, copy.getDomain(MapCSP.WA).size());
+		try {
+			csp.setDomain(MapCSP.SA, new Domain(new Object[] { "YELLOW" }));
+			Assert.fail("IllegalArgumentException expected.");
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+		csp.stopTrailing();
+		Assert.assertFalse(csp.isTrailing());
+	}
+
+	@Test
+	public void testRestoreInfoWithTrail() {
+		CSP csp = new MapCSP();
+		csp.startTrailing();
+		DomainRestoreInfo info = new DomainRestoreInfo();
+		int mark = csp.getTrailMark();
+		info.setTrailSegment(mark, csp.getTrailMark());
+		Assert.assertTrue(info.isEmpty());
+		int varIndex = csp.indexOf(MapCSP.Q);
+		csp.removeValueFromDomain(varIndex, 0);
+		info.setTrailSegment(mark, csp.getTrailMark());
+		Assert.assertFalse(info.isEmpty());
+		info.restoreDomains(csp);
+		Assert.assertEquals(3, csp.getBitSetDomain(varIndex).size());
+	}
+
+	@Test
+	public void testSameSolutionsWithTrailing() {
+		for (ImprovedBacktrackingStrategy.Inference inference : new ImprovedBacktrackingStrategy.Inference[] {
+				ImprovedBacktrackingStrategy.Inference.FORWARD_CHECKING,
+				ImprovedBacktrackingStrategy.Inference.AC3 }) {
+			for (int i = 0; i < 2; i++) {
+				CSP csp1 = (i == 0) ? new MapCSP() : new NQueensCSP(8);
+				CSP csp2 = (i == 0) ? new MapCSP() : new NQueensCSP(8);
+				ImprovedBacktrackingStrategy strategy = new ImprovedBacktrackingStrategy(
+						true, true, false, true);
+				strategy.setInference(inference);
+				strategy.enableTrailing(false);
+				Assignment expected = strategy.solve(csp1);
+				strategy.enableTrailing(true);
+				Assignment result = strategy.solve(csp2);
+				Assert.assertNotNull(result);
+				Assert.assertTrue(result.isSolution(csp2));
+				Assert.assertEquals(expected.toString(), result.toString());
+				Assert.assertFalse(csp2.isTrailing());
+				for (Variable var : csp1.getVariables())
+					Assert.assertEquals(csp1.getDomain(var), csp2
+							.getDomain(var));
+			}
+		}
+	}
+}
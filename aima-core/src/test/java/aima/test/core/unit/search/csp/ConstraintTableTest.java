@@ -0,0 +1,86 @@
+package aima.test.core.unit.search.csp;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import aima.core.search.csp.Assignment;
+import aima.core.search.csp.BitSetDomain;
+import aima.core.search.csp.CSP;
+import aima.core.search.csp.Constraint;
+import aima.core.search.csp.ConstraintTable;
+import aima.core.search.csp.Domain;
+import aima.core.search.csp.MapCSP;
+import aima.core.search.csp.MinConflictsStrategy;
+import aima.core.search.csp.NQueensCSP;
+import aima.core.search.csp.NotEqualConstraint;
+import aima.core.search.csp.Variable;
+
+public class ConstraintTableTest {
+
+	@Test
+	public void testCompile() {
+		Variable x = new Variable("x");
+		Variable y = new Variable("y");
+		BitSetDomain dx = new BitSetDomain(new Domain(new Object[] { 1, 2, 3 }));
+		BitSetDomain dy = new BitSetDomain(new Domain(new Object[] { 3, 2 }));
+		ConstraintTable table = ConstraintTable.compile(
+				new NotEqualConstraint(x, y), dx, dy);
+		Assert.assertTrue(table.isAllowed(0, 0));
+		Assert.assertFalse(table.isAllowed(1, 1));
+		Assert.assertFalse(table.isAllowed(2, 0));
+		Assert.assertEquals(2L, table.getSupports(x, 2)[0]);
+		Assert.assertEquals(3L, table.getSupports(y, 0)[0]);
+		dy.remove(0);
+		Assert.assertTrue(table.hasSupport(x, 2, dy));
+		Assert.assertFalse(table.hasSupport(x, 1, dy));
+		Assert.assertEquals(-1, dy.nextIndex(0, table.getSupports(x, 1)));
+		Assert.assertEquals(1, dy.nextIndex(0, table.getSupports(x, 0)));
+	}
+
+	@Test
+	public void testNonBinaryConstraint() {
+		final List<Variable> scope = new ArrayList<Variable>();
+		scope.add(new Variable("x"));
+		Constraint unary = new Constraint() {
+			public List<Variable> getScope() {
+				return scope;
+			}
+
+			public boolean isSatisfiedWith(Assignment assignment) {
+				return true;
+			}
+		};
+		BitSetDomain d = new BitSetDomain(new Domain(new Object[] { 1 }));
+		Assert.assertNull(ConstraintTable.compile(unary, d, d));
+	}
+
+	@Test
+	public void testTablesOfTrailingCSP() {
+		CSP csp = new MapCSP();
+		csp.startTrailing();
+		Constraint constraint = csp.getConstraints().get(0);
+		ConstraintTable table = csp.getConstraintTable(constraint);
+		Assert.assertNotNull(table);
+		Assert.assertSame(table, csp.getConstraintTable(constraint));
+		Assert.assertSame(constraint, table.getConstraint());
+		csp.stopTrailing();
+		csp.startTrailing();
+		Assert.assertNotSame(table, csp.getConstraintTable(constraint));
+		csp.stopTrailing();
+	}
+
+	@Test
+	public void testMinConflicts() {
+		CSP csp = new NQueensCSP(8);
+		Assignment result = new MinConflictsStrategy(1000).solve(csp);
+		if (result != null)
+			Assert.assertTrue(result.isSolution(csp));
+		csp = new MapCSP();
+		result = new MinConflictsStrategy(1000).solve(csp);
+		Assert.assertNotNull(result);
+		Assert.assertTrue(result.isSolution(csp));
+	}
+}
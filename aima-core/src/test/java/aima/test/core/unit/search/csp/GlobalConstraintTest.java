@@ -0,0 +1,259 @@
+package aima.test.core.unit.search.csp;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import aima.core.search.csp.AC2001Strategy;
+import aima.core.search.csp.AC3Strategy;
+import aima.core.search.csp.AllDifferentConstraint;
+import aima.core.search.csp.Assignment;
+import aima.core.search.csp.CSP;
+import aima.core.search.csp.CSPStateListener;
+import aima.core.search.csp.Domain;
+import aima.core.search.csp.DomainRestoreInfo;
+import aima.core.search.csp.ImprovedBacktrackingStrategy;
+import aima.core.search.csp.ImprovedBacktrackingStrategy.Inference;
+import aima.core.search.csp.ImprovedBacktrackingStrategy.Selection;
+import aima.core.search.csp.NotEqualConstraint;
+import aima.core.search.csp.SumConstraint;
+import aima.core.search.csp.TableConstraint;
+import aima.core.search.csp.Variable;
+
+public class GlobalConstraintTest {
+
+	@Test
+	public void testAllDifferentHallSet() {
+		for (int mode = 0; mode < 3; mode++) {
+			CSP csp = createCSP(4, 1, 2);
+			List<Variable> vars = csp.getVariables();
+			csp.setDomain(vars.get(2), domain(1, 3));
+			csp.setDomain(vars.get(3), domain(2, 4));
+			csp.addConstraint(new AllDifferentConstraint(vars));
+			DomainRestoreInfo info = reduceDomains(csp, mode);
+			Assert.assertFalse(info.isEmptyDomainFound());
+			Assert.assertEquals(domain(1, 2), csp.getDomain(vars.get(0)));
+			Assert.assertEquals(domain(3, 3), csp.getDomain(vars.get(2)));
+			Assert.assertEquals(domain(4, 4), csp.getDomain(vars.get(3)));
+			info.restoreDomains(csp);
+			Assert.assertEquals(domain(2, 4), csp.getDomain(vars.get(3)));
+		}
+	}
+
+	@Test
+	public void testAllDifferentPigeonhole() {
+		for (int mode = 0; mode < 3; mode++) {
+			CSP csp = createCSP(3, 1, 2);
+			csp.addConstraint(new AllDifferentConstraint(csp.getVariables()));
+			Assert.assertTrue(reduceDomains(csp, mode).isEmptyDomainFound());
+		}
+		Assignment assignment = new Assignment();
+		CSP csp = createCSP(3, 1, 2);
+		AllDifferentConstraint constraint = new AllDifferentConstraint(csp
+				.getVariables());
+		assignment.setAssignment(csp.getVariables().get(0), 1);
+		assignment.setAssignment(csp.getVariables().get(2), 2);
+		Assert.assertTrue(constraint.isSatisfiedWith(assignment));
+		assignment.setAssignment(csp.getVariables().get(1), 2);
+		Assert.assertFalse(constraint.isSatisfiedWith(assignment));
+	}
+
+	@Test
+	public void testSumBounds() {
+		for (int mode = 0; mode < 3; mode++) {
+			CSP csp = createCSP(3, 0, 5);
+			List<Variable> vars = csp.getVariables();
+			csp.addConstraint(new SumConstraint(vars, 14));
+			Assert.assertFalse(reduceDomains(csp, mode).isEmptyDomainFound());
+			for (Variable var : vars)
+				Assert.assertEquals(domain(4, 5), csp.getDomain(var));
+
+			csp = createCSP(3, 0, 9);
+			vars = csp.getVariables();
+			// 2x - y + z = 13
+			csp.setDomain(vars.get(2), domain(0, 1));
+			csp.addConstraint(new SumConstraint(vars, new int[] { 2, -1, 1 },
+					13, 13));
+			Assert.assertFalse(reduceDomains(csp, mode).isEmptyDomainFound());
+			Assert.assertEquals(domain(6, 9), csp.getDomain(vars.get(0)));
+			Assert.assertEquals(domain(0, 6), csp.getDomain(vars.get(1)));
+
+			// binary sum constraints are revised like other arcs
+			csp = createCSP(2, 0, 9);
+			vars = csp.getVariables();
+			csp.addConstraint(new SumConstraint(vars, new int[] { 2, -1 }, 13,
+					13));
+			Assert.assertFalse(reduceDomains(csp, mode).isEmptyDomainFound());
+			Assert.assertEquals(domain(7, 9), csp.getDomain(vars.get(0)));
+			Assert.assertEquals(new Domain(new Object[] { 1, 3, 5 }), csp
+					.getDomain(vars.get(1)));
+
+			csp = createCSP(3, 0, 2);
+			csp.addConstraint(new SumConstraint(csp.getVariables(), 7));
+			Assert.assertTrue(reduceDomains(csp, mode).isEmptyDomainFound());
+		}
+	}
+
+	@Test
+	public void testTable() {
+		for (int mode = 0; mode < 3; mode++) {
+			CSP csp = createCSP(3, 0, 3);
+			List<Variable> vars = csp.getVariables();
+			List<Object[]> tuples = new ArrayList<Object[]>();
+			tuples.add(new Object[] { 0, 1, 2 });
+			tuples.add(new Object[] { 1, 2, 0 });
+			tuples.add(new Object[] { 2, 0, 1 });
+			tuples.add(new Object[] { 0, 2, 1 });
+			csp.addConstraint(new TableConstraint(vars, tuples));
+			Assert.assertFalse(reduceDomains(csp, mode).isEmptyDomainFound());
+			Assert.assertEquals(domain(0, 2), csp.getDomain(vars.get(0)));
+			csp.setDomain(vars.get(0), domain(0, 0));
+			csp.setDomain(vars.get(1), domain(1, 1));
+			Assert.assertFalse(reduceDomains(csp, mode).isEmptyDomainFound());
+			Assert.assertEquals(domain(2, 2), csp.getDomain(vars.get(2)));
+			csp.setDomain(vars.get(2), domain(0, 0));
+			Assert.assertTrue(reduceDomains(csp, mode).isEmptyDomainFound());
+		}
+	}
+
+	@Test
+	public void testSendMoreMoney() {
+		for (Inference inference : new Inference[] {
+				Inference.FORWARD_CHECKING, Inference.AC3, Inference.AC2001 }) {
+			for (int trailing = 0; trailing < 2; trailing++) {
+				for (int backjumping = 0; backjumping < 2; backjumping++) {
+					CSP csp = createSendMoreMoney();
+					ImprovedBacktrackingStrategy strategy = new ImprovedBacktrackingStrategy(
+							true, true, false, false);
+					strategy.setInference(inference);
+					strategy.enableTrailing(trailing == 1);
+					strategy.enableBackjumping(backjumping == 1);
+					Assignment result = strategy.solve(csp);
+					Assert.assertNotNull(result);
+					Assert.assertTrue(result.isSolution(csp));
+					StringBuffer digits = new StringBuffer();
+					for (Variable var : csp.getVariables())
+						digits.append(result.getAssignment(var));
+					// SENDMORY
+					Assert.assertEquals("95671082", digits.toString());
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testForwardCheckingPrunes() {
+		for (int trailing = 0; trailing < 2; trailing++) {
+			CSP csp = createCSP(3, 1, 3);
+			List<Variable> vars = csp.getVariables();
+			csp.setDomain(vars.get(1), domain(1, 2));
+			csp.setDomain(vars.get(2), domain(1, 2));
+			csp.addConstraint(new AllDifferentConstraint(vars));
+			ImprovedBacktrackingStrategy strategy = new ImprovedBacktrackingStrategy();
+			strategy.setInference(Inference.FORWARD_CHECKING);
+			strategy.enableTrailing(trailing == 1);
+			final int[] assignmentEvents = new int[1];
+			strategy.addCSPStateListener(new CSPStateListener() {
+				public void stateChanged(Assignment assignment, CSP csp) {
+					assignmentEvents[0]++;
+				}
+
+				public void stateChanged(CSP csp) {
+				}
+			});
+			Assignment result = strategy.solve(csp);
+			Assert.assertTrue(result.isSolution(csp));
+			Assert.assertEquals(3, result.getAssignment(vars.get(0)));
+			// X0=1 and X0=2 fail by propagation, X1 and X2 need no retries
+			Assert.assertEquals(5, assignmentEvents[0]);
+		}
+	}
+
+	@Test
+	public void testHeuristics() {
+		CSP csp = createCSP(4, 1, 3);
+		List<Variable> vars = csp.getVariables();
+		csp.setDomain(vars.get(1), domain(1, 2));
+		csp.setDomain(vars.get(2), domain(1, 2));
+		csp.addConstraint(new AllDifferentConstraint(vars.subList(0, 3)));
+		csp.addConstraint(new NotEqualConstraint(vars.get(3), vars.get(0)));
+		HeuristicsProbe strategy = new HeuristicsProbe();
+		strategy.setVariableSelection(Selection.MRV_DEG);
+		strategy.enableLCV(true);
+		Assignment assignment = new Assignment();
+		assignment.setAssignment(vars.get(1), 1);
+		// X1 assigned, X2 has the smallest domain
+		Assert.assertEquals(vars.get(2), strategy.select(assignment, csp));
+		assignment.setAssignment(vars.get(2), 2);
+		// X0 and X3 tie, X0 has an unassigned binary neighbor
+		Assert.assertEquals(vars.get(0), strategy.select(assignment, csp));
+		// value 3 rules out nothing in the all-different constraint
+		List<Object> values = new ArrayList<Object>();
+		for (Object value : strategy.order(vars.get(0), assignment, csp))
+			values.add(value);
+		Assert.assertEquals(Arrays.asList(3, 1, 2), values);
+		strategy = new HeuristicsProbe();
+		strategy.setVariableSelection(Selection.MRV_DEG);
+		strategy.setInference(Inference.FORWARD_CHECKING);
+		strategy.enableLCV(true);
+		Assert.assertNotNull(strategy.solve(createSendMoreMoney()));
+	}
+
+	/**
+	 * SEND + MORE = MONEY, with variables in the order S, E, N, D, M, O, R,
+	 * Y.
+	 */
+	private CSP createSendMoreMoney() {
+		CSP csp = createCSP(8, 0, 9);
+		List<Variable> vars = csp.getVariables();
+		csp.setDomain(vars.get(0), domain(1, 9));
+		csp.setDomain(vars.get(4), domain(1, 9));
+		csp.addConstraint(new AllDifferentConstraint(vars));
+		csp.addConstraint(new SumConstraint(vars, new int[] { 1000, 91, -90,
+				1, -9000, -900, 10, -1 }, 0, 0));
+		return csp;
+	}
+
+	/**
+	 * Applies AC-3 without (mode 0) and with trailing (mode 1), or AC-2001
+	 * (mode 2).
+	 */
+	private DomainRestoreInfo reduceDomains(CSP csp, int mode) {
+		if (mode == 2)
+			return new AC2001Strategy().reduceDomains(csp);
+		if (mode == 1)
+			csp.startTrailing();
+		return new AC3Strategy().reduceDomains(csp);
+	}
+
+	private CSP createCSP(int size, int min, int max) {
+		List<Variable> vars = new ArrayList<Variable>();
+		for (int i = 0; i < size; i++)
+			vars.add(new Variable("X" + i));
+		CSP csp = new CSP(vars);
+		for (Variable var : vars)
+			csp.setDomain(var, domain(min, max));
+		return csp;
+	}
+
+	/** Provides access to the heuristics without solving the CSP. */
+	private static class HeuristicsProbe extends ImprovedBacktrackingStrategy {
+		Variable select(Assignment assignment, CSP csp) {
+			return selectUnassignedVariable(assignment, csp);
+		}
+
+		Iterable<?> order(Variable var, Assignment assignment, CSP csp) {
+			return orderDomainValues(var, assignment, csp);
+		}
+	}
+
+	private Domain domain(int min, int max) {
+		Integer[] values = new Integer[max - min + 1];
+		for (int i = 0; i < values.length; i++)
+			values[i] = min + i;
+		return new Domain(Arrays.asList(values));
+	}
+}
@@ -0,0 +1,102 @@
+package aima.test.core.unit.search.csp;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import aima.core.search.csp.Assignment;
+import aima.core.search.csp.CSP;
+import aima.core.search.csp.IndexedAssignment;
+import aima.core.search.csp.MapCSP;
+import aima.core.search.csp.Variable;
+
+public class IndexedAssignmentTest {
+	private static final Variable X = new Variable("x");
+	private static final Variable Y = new Variable("y");
+	private static final Variable Z = new Variable("z");
+
+	private List<Variable> variables;
+	private IndexedAssignment assignment;
+
+	@Before
+	public void setUp() {
+		variables = new ArrayList<Variable>();
+		variables.add(X);
+		variables.add(Y);
+		variables.add(Z);
+		assignment = new IndexedAssignment(new CSP(variables));
+	}
+
+	@Test
+	public void testAssignmentCompletion() {
+		Assert.assertFalse(assignment.isComplete(variables));
+		assignment.setAssignment(X, "a");
+		assignment.setAssignment(Y, "b");
+		Assert.assertFalse(assignment.isComplete(variables));
+		Assert.assertTrue(assignment.isComplete(variables.subList(0, 2)));
+		assignment.setAssignment(2, "c");
+		Assert.assertTrue(assignment.isComplete(variables));
+		assignment.removeAssignment(X);
+		Assert.assertFalse(assignment.isComplete(variables));
+		Assert.assertEquals(2, assignment.size());
+	}
+
+	@Test
+	public void testIndexAndVariableAccess() {
+		assignment.setAssignment(1, "b");
+		Assert.assertEquals("b", assignment.getAssignment(Y));
+		Assert.assertTrue(assignment.hasAssignmentFor(Y));
+		Assert.assertFalse(assignment.hasAssignmentFor(0));
+		Assert.assertNull(assignment.getAssignment(new Variable("unknown")));
+		Assert.assertFalse(assignment.hasAssignmentFor(new Variable("unknown")));
+		assignment.removeAssignment(1);
+		Assert.assertNull(assignment.getAssignment(Y));
+		Assert.assertEquals(0, assignment.size());
+	}
+
+	@Test
+	public void testAssignmentOrder() {
+		assignment.setAssignment(Z, "c");
+		assignment.setAssignment(X, "a");
+		assignment.setAssignment(Y, "b");
+		assignment.setAssignment(X, "d");
+		Assert.assertEquals("{z=c, x=d, y=b}", assignment.toString());
+		assignment.removeAssignment(X);
+		Assert.assertEquals("{z=c, y=b}", assignment.toString());
+		Assert.assertEquals(2, assignment.getVariables().size());
+		Assert.assertEquals(Y, assignment.getVariables().get(1));
+		assignment.setAssignment(X, "a");
+		Assert.assertEquals(X, assignment.getVariables().get(2));
+	}
+
+	@Test
+	public void testCopy() {
+		assignment.setAssignment(X, "a");
+		Assignment copy = assignment.copy();
+		assignment.setAssignment(Y, "b");
+		Assert.assertEquals("{x=a}", copy.toString());
+		Assert.assertFalse(copy.hasAssignmentFor(Y));
+		copy.setAssignment(Z, "c");
+		Assert.assertFalse(assignment.hasAssignmentFor(Z));
+	}
+
+	@Test
+	public void testSolution() {
+		CSP csp = new MapCSP();
+		IndexedAssignment a = new IndexedAssignment(csp);
+		a.setAssignment(MapCSP.WA, MapCSP.RED);
+		a.setAssignment(MapCSP.NT, MapCSP.GREEN);
+		a.setAssignment(MapCSP.SA, MapCSP.BLUE);
+		a.setAssignment(MapCSP.Q, MapCSP.RED);
+		a.setAssignment(MapCSP.NSW, MapCSP.GREEN);
+		a.setAssignment(MapCSP.V, MapCSP.RED);
+		Assert.assertFalse(a.isSolution(csp));
+		a.setAssignment(csp.indexOf(MapCSP.T), MapCSP.RED);
+		Assert.assertTrue(a.isSolution(csp));
+		a.setAssignment(MapCSP.NT, MapCSP.RED);
+		Assert.assertFalse(a.isSolution(csp));
+	}
+}
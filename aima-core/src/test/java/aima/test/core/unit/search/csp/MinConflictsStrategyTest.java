@@ -0,0 +1,74 @@
+package aima.test.core.unit.search.csp;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import aima.core.search.csp.Assignment;
+import aima.core.search.csp.CSP;
+import aima.core.search.csp.Domain;
+import aima.core.search.csp.MapCSP;
+import aima.core.search.csp.MinConflictsStrategy;
+import aima.core.search.csp.NQueensCSP;
+import aima.core.search.csp.NotEqualConstraint;
+import aima.core.search.csp.Variable;
+
+public class MinConflictsStrategyTest {
+
+	@Test
+	public void testNQueens() {
+		MinConflictsStrategy strategy = new MinConflictsStrategy(10000);
+		strategy.setRandom(new Random(1));
+		CSP csp = new NQueensCSP(50);
+		Assignment result = strategy.solve(csp);
+		Assert.assertNotNull(result);
+		Assert.assertTrue(result.isSolution(csp));
+	}
+
+	@Test
+	public void testTabuAndRandomWalk() {
+		MinConflictsStrategy strategy = new MinConflictsStrategy(10000);
+		strategy.setRandom(new Random(2));
+		strategy.setTabuTenure(3);
+		strategy.setRandomWalkProbability(0.05);
+		CSP csp = new NQueensCSP(30);
+		Assignment result = strategy.solve(csp);
+		Assert.assertNotNull(result);
+		Assert.assertTrue(result.isSolution(csp));
+		csp = new MapCSP();
+		result = strategy.solve(csp);
+		Assert.assertNotNull(result);
+		Assert.assertTrue(result.isSolution(csp));
+	}
+
+	@Test
+	public void testLargeChain() {
+		// coloring of a chain with 100000 variables
+		int n = 100000;
+		List<Variable> vars = new ArrayList<Variable>(n);
+		for (int i = 0; i < n; i++)
+			vars.add(new Variable("X" + i));
+		CSP csp = new CSP(vars);
+		Domain colors = new Domain(new Object[] { "R", "G", "B" });
+		for (int i = 0; i < n; i++) {
+			csp.setDomain(vars.get(i), colors);
+			if (i > 0)
+				csp.addConstraint(new NotEqualConstraint(vars.get(i - 1), vars
+						.get(i)));
+		}
+		MinConflictsStrategy strategy = new MinConflictsStrategy(10 * n);
+		strategy.setRandom(new Random(3));
+		Assignment result = strategy.solve(csp);
+		Assert.assertNotNull(result);
+		Assert.assertTrue(result.isSolution(csp));
+	}
+
+	@Test
+	public void testMaxSteps() {
+		MinConflictsStrategy strategy = new MinConflictsStrategy(100);
+		Assert.assertNull(strategy.solve(new NQueensCSP(3)));
+	}
+}
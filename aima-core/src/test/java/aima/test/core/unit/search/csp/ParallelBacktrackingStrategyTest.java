@@ -0,0 +1,58 @@
+package aima.test.core.unit.search.csp;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import aima.core.search.csp.Assignment;
+import aima.core.search.csp.CSP;
+import aima.core.search.csp.ImprovedBacktrackingStrategy;
+import aima.core.search.csp.MapCSP;
+import aima.core.search.csp.NQueensCSP;
+import aima.core.search.csp.ParallelBacktrackingStrategy;
+
+public class ParallelBacktrackingStrategyTest {
+
+	@Test
+	public void testFirstSolution() {
+		for (ImprovedBacktrackingStrategy.Inference inference : ImprovedBacktrackingStrategy.Inference
+				.values()) {
+			ParallelBacktrackingStrategy strategy = new ParallelBacktrackingStrategy();
+			strategy.setThreadCount(4);
+			strategy.setInference(inference);
+			CSP csp = new NQueensCSP(8);
+			Assignment result = strategy.solve(csp);
+			Assert.assertNotNull(result);
+			Assert.assertTrue(result.isSolution(csp));
+			csp = new MapCSP();
+			result = strategy.solve(csp);
+			Assert.assertNotNull(result);
+			Assert.assertTrue(result.isSolution(csp));
+		}
+	}
+
+	@Test
+	public void testCountSolutions() {
+		for (ImprovedBacktrackingStrategy.Inference inference : ImprovedBacktrackingStrategy.Inference
+				.values()) {
+			ParallelBacktrackingStrategy strategy = new ParallelBacktrackingStrategy();
+			strategy.setInference(inference);
+			strategy.enableLCV(true);
+			for (int threads = 1; threads <= 4; threads += 3) {
+				strategy.setThreadCount(threads);
+				Assert.assertEquals(92, strategy.countSolutions(new NQueensCSP(
+						8)));
+				Assert.assertEquals(4, strategy.countSolutions(new NQueensCSP(
+						6)));
+				Assert.assertEquals(18, strategy.countSolutions(new MapCSP()));
+			}
+		}
+	}
+
+	@Test
+	public void testNoSolution() {
+		ParallelBacktrackingStrategy strategy = new ParallelBacktrackingStrategy();
+		strategy.setThreadCount(2);
+		Assert.assertNull(strategy.solve(new NQueensCSP(3)));
+		Assert.assertEquals(0, strategy.countSolutions(new NQueensCSP(3)));
+	}
+}
@@ -0,0 +1,92 @@
+package aima.test.core.unit.search.csp;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import aima.core.search.csp.Assignment;
+import aima.core.search.csp.BacktrackingStrategy;
+import aima.core.search.csp.CSP;
+import aima.core.search.csp.ImprovedBacktrackingStrategy;
+import aima.core.search.csp.MapCSP;
+import aima.core.search.csp.MinConflictsStrategy;
+import aima.core.search.csp.NQueensCSP;
+import aima.core.search.csp.PortfolioStrategy;
+import aima.core.search.csp.SolutionStrategy;
+import aima.core.search.csp.Variable;
+import aima.core.util.CancelableThread;
+
+public class PortfolioStrategyTest {
+
+	@Test
+	public void testFirstSolutionWins() {
+		ImprovedBacktrackingStrategy fc = new ImprovedBacktrackingStrategy(
+				true, true, false, false);
+		fc.setInference(ImprovedBacktrackingStrategy.Inference.FORWARD_CHECKING);
+		PortfolioStrategy portfolio = new PortfolioStrategy(
+				new BacktrackingStrategy(), fc, new MinConflictsStrategy(100));
+		WinnerListener listener = new WinnerListener();
+		portfolio.addCSPStateListener(listener);
+		CSP csp = new NQueensCSP(8);
+		Assignment result = portfolio.solve(csp);
+		Assert.assertNotNull(result);
+		Assert.assertTrue(result.isSolution(csp));
+		Assert.assertTrue(portfolio.getStrategies().contains(
+				portfolio.getWinner()));
+		Assert.assertEquals(1, listener.winners.size());
+		Assert.assertSame(portfolio.getWinner(), listener.winners.get(0));
+		Assert.assertEquals(1, listener.states);
+		for (Variable var : csp.getVariables())
+			Assert.assertEquals(8, csp.getDomain(var).size());
+	}
+
+	@Test
+	public void testLosersAreCanceled() {
+		WaitingStrategy waiting = new WaitingStrategy();
+		PortfolioStrategy portfolio = new PortfolioStrategy(waiting,
+				new ImprovedBacktrackingStrategy(true, true, true, false));
+		Assignment result = portfolio.solve(new MapCSP());
+		Assert.assertNotNull(result);
+		Assert.assertNotSame(waiting, portfolio.getWinner());
+	}
+
+	@Test
+	public void testNoSolution() {
+		PortfolioStrategy portfolio = new PortfolioStrategy(
+				new BacktrackingStrategy(), new ImprovedBacktrackingStrategy(
+						true, true, true, true));
+		portfolio.setThreadCount(1);
+		Assert.assertNull(portfolio.solve(new NQueensCSP(3)));
+		Assert.assertNull(portfolio.getWinner());
+	}
+
+	/** Records the reported winners. */
+	private static class WinnerListener implements PortfolioStrategy.Listener {
+		List<SolutionStrategy> winners = new ArrayList<SolutionStrategy>();
+		int states;
+
+		public void strategyWon(SolutionStrategy strategy, Assignment solution) {
+			winners.add(strategy);
+		}
+
+		public void stateChanged(Assignment assignment, CSP csp) {
+			states++;
+		}
+
+		public void stateChanged(CSP csp) {
+			states++;
+		}
+	}
+
+	/** Never finds a solution and waits until it is canceled. */
+	private static class WaitingStrategy extends SolutionStrategy {
+		@Override
+		public Assignment solve(CSP csp) {
+			while (!CancelableThread.currIsCanceled())
+				Thread.yield();
+			return null;
+		}
+	}
+}
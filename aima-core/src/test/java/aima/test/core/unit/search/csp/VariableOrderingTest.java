@@ -0,0 +1,143 @@
+package aima.test.core.unit.search.csp;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import aima.core.search.csp.Assignment;
+import aima.core.search.csp.CSP;
+import aima.core.search.csp.CSPStateListener;
+import aima.core.search.csp.Domain;
+import aima.core.search.csp.ImprovedBacktrackingStrategy;
+import aima.core.search.csp.ImprovedBacktrackingStrategy.Inference;
+import aima.core.search.csp.ImprovedBacktrackingStrategy.Selection;
+import aima.core.search.csp.MapCSP;
+import aima.core.search.csp.NQueensCSP;
+import aima.core.search.csp.NotEqualConstraint;
+import aima.core.search.csp.Variable;
+
+public class VariableOrderingTest {
+
+	@Test
+	public void testSameSearchAsScanning() {
+		for (Selection selection : new Selection[] { Selection.MRV,
+				Selection.MRV_DEG }) {
+			for (Inference inference : Inference.values()) {
+				for (int trailing = 0; trailing < 2; trailing++) {
+					for (int i = 0; i < 3; i++) {
+						ImprovedBacktrackingStrategy strategy = new ImprovedBacktrackingStrategy();
+						ImprovedBacktrackingStrategy reference = new ScanningStrategy();
+						AssignmentCounter counter = new AssignmentCounter();
+						AssignmentCounter refCounter = new AssignmentCounter();
+						for (ImprovedBacktrackingStrategy s : new ImprovedBacktrackingStrategy[] {
+								strategy, reference }) {
+							s.setVariableSelection(selection);
+							s.setInference(inference);
+							s.enableTrailing(trailing == 1);
+						}
+						strategy.addCSPStateListener(counter);
+						reference.addCSPStateListener(refCounter);
+						Assignment expected = reference.solve(createCSP(i));
+						CSP csp = createCSP(i);
+						Assignment result = strategy.solve(csp);
+						Assert.assertTrue(result.isSolution(csp));
+						Assert.assertEquals(expected.toString(), result
+								.toString());
+						Assert.assertEquals(refCounter.count, counter.count);
+					}
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testBackjumping() {
+		ImprovedBacktrackingStrategy strategy = new ImprovedBacktrackingStrategy();
+		ImprovedBacktrackingStrategy reference = new ScanningStrategy();
+		for (ImprovedBacktrackingStrategy s : new ImprovedBacktrackingStrategy[] {
+				strategy, reference }) {
+			s.setVariableSelection(Selection.MRV_DEG);
+			s.setInference(Inference.FORWARD_CHECKING);
+			s.enableBackjumping(true);
+		}
+		Assignment expected = reference.solve(new NQueensCSP(12));
+		Assert.assertEquals(expected.toString(), strategy.solve(
+				new NQueensCSP(12)).toString());
+	}
+
+	@Test
+	public void testLargeRing() throws InterruptedException {
+		// backtracking recurses once per variable
+		final Assignment[] result = new Assignment[1];
+		final CSP csp = createRing(20000);
+		Thread thread = new Thread(null, new Runnable() {
+			public void run() {
+				ImprovedBacktrackingStrategy strategy = new ImprovedBacktrackingStrategy();
+				strategy.setVariableSelection(Selection.MRV_DEG);
+				strategy.setInference(Inference.FORWARD_CHECKING);
+				result[0] = strategy.solve(csp);
+			}
+		}, "solver", 1L << 28);
+		thread.start();
+		thread.join();
+		Assert.assertNotNull(result[0]);
+		Assert.assertTrue(result[0].isSolution(csp));
+	}
+
+	/**
+	 * Coloring of a ring, which is slow if every decision scans all
+	 * variables.
+	 */
+	private CSP createRing(int n) {
+		List<Variable> vars = new ArrayList<Variable>(n);
+		for (int i = 0; i < n; i++)
+			vars.add(new Variable("X" + i));
+		CSP csp = new CSP(vars);
+		Domain colors = new Domain(new Object[] { "R", "G", "B" });
+		for (int i = 0; i < n; i++) {
+			csp.setDomain(vars.get(i), colors);
+			csp.addConstraint(new NotEqualConstraint(vars.get(i), vars
+					.get((i + 1) % n)));
+		}
+		return csp;
+	}
+
+	private CSP createCSP(int i) {
+		switch (i) {
+		case 0:
+			return new MapCSP();
+		case 1:
+			return new NQueensCSP(8);
+		default:
+			return new NQueensCSP(13);
+		}
+	}
+
+	/**
+	 * Hides the indexed assignment from the heuristics, which therefore scan
+	 * all variables.
+	 */
+	private static class ScanningStrategy extends ImprovedBacktrackingStrategy {
+		@Override
+		protected Variable selectUnassignedVariable(Assignment assignment,
+				CSP csp) {
+			Assignment plain = new Assignment();
+			for (Variable var : assignment.getVariables())
+				plain.setAssignment(var, assignment.getAssignment(var));
+			return super.selectUnassignedVariable(plain, csp);
+		}
+	}
+
+	private static class AssignmentCounter implements CSPStateListener {
+		int count;
+
+		public void stateChanged(Assignment assignment, CSP csp) {
+			count++;
+		}
+
+		public void stateChanged(CSP csp) {
+		}
+	}
+}
@@ -0,0 +1,69 @@
+package aima.test.core.unit.search.framework;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import aima.core.search.framework.CachingHeuristicFunction;
+import aima.core.search.framework.HeuristicFunction;
+import aima.core.search.framework.Node;
+import aima.core.search.informed.AStarEvaluationFunction;
+
+public class CachingHeuristicFunctionTest {
+
+	@Test
+	public void testUnboundedCache() {
+		CountingHeuristicFunction counter = new CountingHeuristicFunction();
+		CachingHeuristicFunction hf = new CachingHeuristicFunction(counter);
+		Assert.assertEquals(5.0, hf.h("abcde"), 0.0);
+		Assert.assertEquals(5.0, hf.h("abcde"), 0.0);
+		Assert.assertEquals(2.0, hf.h("ab"), 0.0);
+		Assert.assertEquals(2, counter.calls);
+		Assert.assertEquals(1, hf.getHits());
+		Assert.assertEquals(2, hf.getMisses());
+		Assert.assertEquals(2, hf.size());
+		hf.clear();
+		Assert.assertEquals(0, hf.size());
+		hf.h("abcde");
+		Assert.assertEquals(3, counter.calls);
+	}
+
+	@Test
+	public void testLRUCache() {
+		CountingHeuristicFunction counter = new CountingHeuristicFunction();
+		CachingHeuristicFunction hf = new CachingHeuristicFunction(counter, 2);
+		hf.h("a");
+		hf.h("bb");
+		hf.h("a"); // now "bb" is the least recently used entry
+		hf.h("ccc");
+		Assert.assertEquals(2, hf.size());
+		Assert.assertEquals(3, counter.calls);
+		hf.h("a");
+		Assert.assertEquals(3, counter.calls);
+		hf.h("bb");
+		Assert.assertEquals(4, counter.calls);
+	}
+
+	@Test
+	public void testHeuristicValueCachedInNode() {
+		CountingHeuristicFunction counter = new CountingHeuristicFunction();
+		AStarEvaluationFunction ef = new AStarEvaluationFunction(counter);
+		Node root = new Node("abc");
+		Node node = new Node("abcd", root, null, 2.0);
+		Assert.assertTrue(Double.isNaN(node.getHeuristicValue()));
+		Assert.assertEquals(6.0, ef.f(node), 0.0);
+		Assert.assertEquals(6.0, ef.f(node), 0.0);
+		Assert.assertEquals(4.0, node.getHeuristicValue(), 0.0);
+		Assert.assertEquals(1, counter.calls);
+	}
+
+	/** Returns the length of string states and counts the calls. */
+	private static class CountingHeuristicFunction implements
+			HeuristicFunction {
+		int calls;
+
+		public double h(Object state) {
+			calls++;
+			return ((String) state).length();
+		}
+	}
+}
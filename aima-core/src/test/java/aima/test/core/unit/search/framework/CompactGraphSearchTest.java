@@ -0,0 +1,73 @@
+package aima.test.core.unit.search.framework;
+
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import aima.core.agent.Action;
+import aima.core.agent.impl.NoOpAction;
+import aima.core.environment.eightpuzzle.EightPuzzleBoard;
+import aima.core.environment.eightpuzzle.EightPuzzleFunctionFactory;
+import aima.core.environment.eightpuzzle.EightPuzzleGoalTest;
+import aima.core.environment.eightpuzzle.ManhattanHeuristicFunction;
+import aima.core.search.framework.CompactGraphSearch;
+import aima.core.search.framework.Problem;
+import aima.core.search.framework.QueueSearch;
+import aima.core.search.framework.StateEncoder;
+import aima.core.search.uninformed.BreadthFirstSearch;
+
+public class CompactGraphSearchTest {
+
+	private Problem createProblem(int[] tiles) {
+		return new Problem(new EightPuzzleBoard(tiles),
+				EightPuzzleFunctionFactory.getActionsFunction(),
+				EightPuzzleFunctionFactory.getResultFunction(),
+				new EightPuzzleGoalTest());
+	}
+
+	@Test
+	public void testStateEncoder() {
+		StateEncoder encoder = EightPuzzleFunctionFactory.getStateEncoder();
+		EightPuzzleBoard board = new EightPuzzleBoard(new int[] { 7, 1, 8,
+				0, 4, 6, 2, 3, 5 });
+		Assert.assertEquals(board, encoder.decode(encoder.encode(board)));
+		Assert.assertFalse(encoder.encode(board) == encoder
+				.encode(new EightPuzzleBoard()));
+	}
+
+	@Test
+	public void testBreadthFirstSameAsBreadthFirstSearch() throws Exception {
+		Problem problem = createProblem(new int[] { 1, 4, 2, 7, 5, 8, 3, 0, 6 });
+		CompactGraphSearch search = new CompactGraphSearch(
+				EightPuzzleFunctionFactory.getStateEncoder());
+		List<Action> actions = search.search(problem);
+		List<Action> expected = new BreadthFirstSearch().search(problem);
+		Assert.assertEquals(expected.size(), actions.size());
+		Assert.assertEquals((double) expected.size(), search.getMetrics()
+				.getDouble(QueueSearch.METRIC_PATH_COST), 0.0);
+	}
+
+	@Test
+	public void testAStar() throws Exception {
+		Problem problem = createProblem(new int[] { 7, 1, 8, 0, 4, 6, 2, 3, 5 });
+		CompactGraphSearch search = new CompactGraphSearch(
+				EightPuzzleFunctionFactory.getStateEncoder(),
+				new ManhattanHeuristicFunction());
+		List<Action> actions = search.search(problem);
+		Assert.assertEquals(23, actions.size());
+		Assert.assertEquals("23.0",
+				search.getMetrics().get(QueueSearch.METRIC_PATH_COST));
+		Assert.assertTrue(search.getMetrics().getInt(
+				QueueSearch.METRIC_MAX_QUEUE_SIZE) > 0);
+	}
+
+	@Test
+	public void testStartingAtGoal() throws Exception {
+		Problem problem = createProblem(new int[] { 0, 1, 2, 3, 4, 5, 6, 7, 8 });
+		List<Action> actions = new CompactGraphSearch(
+				EightPuzzleFunctionFactory.getStateEncoder()).search(problem);
+		Assert.assertEquals(1, actions.size());
+		Assert.assertEquals(NoOpAction.NO_OP, actions.get(0));
+	}
+}
@@ -0,0 +1,54 @@
+package aima.test.core.unit.search.framework;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import aima.core.search.framework.Metrics;
+
+public class MetricsTest {
+
+	@Test
+	public void testGenericAccess() {
+		Metrics metrics = new Metrics();
+		Assert.assertNull(metrics.get("cost"));
+		Assert.assertEquals(0, metrics.getInt("cost"));
+
+		metrics.set("cost", 3);
+		Assert.assertEquals("3", metrics.get("cost"));
+		Assert.assertEquals(3.0, metrics.getDouble("cost"), 0.0);
+
+		metrics.set("cost", 3.5);
+		Assert.assertEquals("3.5", metrics.get("cost"));
+		Assert.assertEquals(3, metrics.getInt("cost"));
+		Assert.assertEquals(1, metrics.keySet().size());
+	}
+
+	@Test
+	public void testTypedAccess() {
+		Metrics metrics = new Metrics();
+		metrics.set("nodes", 5);
+		Metrics.Counter counter = metrics.counter("nodes");
+		Assert.assertEquals(5, counter.longValue());
+		counter.increment();
+		counter.add(4);
+		Assert.assertEquals("10", metrics.get("nodes"));
+		// generic setters update the typed handle in place
+		metrics.set("nodes", 2);
+		Assert.assertEquals(2, counter.longValue());
+		Assert.assertSame(counter, metrics.counter("nodes"));
+
+		Metrics.Gauge gauge = metrics.gauge("maxQueueSize");
+		gauge.setMax(7);
+		gauge.setMax(3);
+		Assert.assertEquals(7, metrics.getInt("maxQueueSize"));
+
+		Metrics.Timer timer = metrics.timer("time");
+		timer.stop();
+		Assert.assertEquals(0, timer.getNanos());
+		timer.start();
+		timer.stop();
+		Assert.assertTrue(timer.getNanos() >= 0);
+		timer.reset();
+		Assert.assertEquals("0", metrics.get("time"));
+	}
+}
@@ -0,0 +1,191 @@
+package aima.test.core.unit.search.framework;
+
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import aima.core.agent.Action;
+import aima.core.agent.impl.NoOpAction;
+import aima.core.environment.eightpuzzle.EightPuzzleBoard;
+import aima.core.environment.eightpuzzle.EightPuzzleFunctionFactory;
+import aima.core.environment.eightpuzzle.EightPuzzleGoalTest;
+import aima.core.environment.eightpuzzle.ManhattanHeuristicFunction;
+import aima.core.environment.map.ExtendableMap;
+import aima.core.environment.map.MapFunctionFactory;
+import aima.core.environment.map.MapStepCostFunction;
+import aima.core.search.framework.DefaultGoalTest;
+import aima.core.search.framework.GraphSearch;
+import aima.core.search.framework.HeuristicFunction;
+import aima.core.search.framework.Problem;
+import aima.core.search.framework.ResultFunction;
+import aima.core.search.framework.SearchBudget;
+import aima.core.search.informed.AStarSearch;
+import aima.core.search.informed.IterativeDeepeningAStarSearch;
+import aima.core.search.uninformed.BreadthFirstSearch;
+
+public class SearchBudgetTest {
+
+	private final ManhattanHeuristicFunction hf = new ManhattanHeuristicFunction();
+
+	private Problem createProblem() {
+		return new Problem(new EightPuzzleBoard(new int[] { 7, 1, 8, 0, 4,
+				6, 2, 3, 5 }), EightPuzzleFunctionFactory.getActionsFunction(),
+				EightPuzzleFunctionFactory.getResultFunction(),
+				new EightPuzzleGoalTest());
+	}
+
+	@Test
+	public void testWithinBudget() throws Exception {
+		GraphSearch gs = new GraphSearch();
+		SearchBudget budget = SearchBudget.nodeLimit(10000);
+		gs.setBudget(budget);
+		List<Action> actions = new AStarSearch(gs, hf).search(createProblem());
+		Assert.assertEquals(23, actions.size());
+		Assert.assertEquals(SearchBudget.Status.WITHIN_BUDGET,
+				budget.getStatus());
+		Assert.assertEquals(926, budget.getNodesCharged());
+	}
+
+	@Test
+	public void testNodeLimit() throws Exception {
+		GraphSearch gs = new GraphSearch();
+		SearchBudget budget = SearchBudget.nodeLimit(100);
+		gs.setBudget(budget);
+		Problem problem = createProblem();
+		List<Action> actions = new AStarSearch(gs, hf).search(problem);
+		Assert.assertEquals(SearchBudget.Status.NODE_LIMIT_REACHED,
+				budget.getStatus());
+		Assert.assertEquals(100, gs.getNodesExpanded());
+		Assert.assertFalse(actions.isEmpty());
+		Assert.assertTrue(hf.h(execute(problem, actions)) < hf.h(problem
+				.getInitialState()));
+		// the budget is reset on each start
+		gs.setBudget(SearchBudget.nodeLimit(10000));
+		Assert.assertEquals(23, new AStarSearch(gs, hf).search(problem)
+				.size());
+	}
+
+	@Test
+	public void testTimeLimit() throws Exception {
+		GraphSearch gs = new GraphSearch();
+		SearchBudget budget = new SearchBudget(SearchBudget.UNLIMITED, 0, 1);
+		gs.setBudget(budget);
+		List<Action> actions = new AStarSearch(gs, hf).search(createProblem());
+		Assert.assertEquals(SearchBudget.Status.TIME_LIMIT_REACHED,
+				budget.getStatus());
+		Assert.assertTrue(actions.isEmpty());
+		Assert.assertEquals(0, gs.getNodesExpanded());
+	}
+
+	@Test
+	public void testClockReadOncePerInterval() throws Exception {
+		GraphSearch gs = new GraphSearch();
+		SearchBudget budget = SearchBudget.timeLimit(0);
+		gs.setBudget(budget);
+		new AStarSearch(gs, hf).search(createProblem());
+		Assert.assertEquals(SearchBudget.Status.TIME_LIMIT_REACHED,
+				budget.getStatus());
+		Assert.assertEquals(256, budget.getNodesCharged());
+		Assert.assertEquals(255, gs.getNodesExpanded());
+	}
+
+	@Test
+	public void testUninformedSearch() throws Exception {
+		GraphSearch gs = new GraphSearch();
+		SearchBudget budget = SearchBudget.nodeLimit(20);
+		gs.setBudget(budget);
+		List<Action> actions = new BreadthFirstSearch(gs)
+				.search(createProblem());
+		Assert.assertTrue(budget.wasExhausted());
+		// path to the most recently expanded node
+		Assert.assertTrue(actions.size() > 1);
+	}
+
+	@Test
+	public void testReuseWithGoalAtRoot() throws Exception {
+		GraphSearch gs = new GraphSearch();
+		SearchBudget budget = SearchBudget.nodeLimit(20);
+		gs.setBudget(budget);
+		BreadthFirstSearch search = new BreadthFirstSearch(gs);
+		search.search(createProblem());
+		Assert.assertTrue(budget.wasExhausted());
+		// the root is tested before it is added to the frontier
+		List<Action> actions = search.search(new Problem(new EightPuzzleBoard(
+				new int[] { 0, 1, 2, 3, 4, 5, 6, 7, 8 }),
+				EightPuzzleFunctionFactory.getActionsFunction(),
+				EightPuzzleFunctionFactory.getResultFunction(),
+				new EightPuzzleGoalTest()));
+		Assert.assertEquals(SearchBudget.Status.WITHIN_BUDGET, budget
+				.getStatus());
+		Assert.assertEquals(1, actions.size());
+		Assert.assertEquals(NoOpAction.NO_OP, actions.get(0));
+	}
+
+	@Test
+	public void testIterativeDeepeningAStarSearch() throws Exception {
+		IterativeDeepeningAStarSearch search = new IterativeDeepeningAStarSearch(
+				hf);
+		SearchBudget budget = SearchBudget.nodeLimit(50);
+		search.setBudget(budget);
+		Problem problem = createProblem();
+		List<Action> actions = search.search(problem);
+		Assert.assertEquals(SearchBudget.Status.NODE_LIMIT_REACHED,
+				budget.getStatus());
+		Assert.assertEquals(50, search.getMetrics().getInt(
+				IterativeDeepeningAStarSearch.METRIC_NODES_EXPANDED));
+		Assert.assertFalse(actions.isEmpty());
+		Assert.assertTrue(hf.h(execute(problem, actions)) < hf.h(problem
+				.getInitialState()));
+	}
+
+	@Test
+	public void testIterativeDeepeningAStarSearchAtNodeLimit() throws Exception {
+		// A is expanded in both iterations, then B is expanded before the goal
+		// G is tested
+		ExtendableMap map = new ExtendableMap();
+		map.addBidirectionalLink("A", "B", 1.0);
+		map.addBidirectionalLink("A", "G", 1.0);
+		map.addBidirectionalLink("B", "C", 1.0);
+		Problem problem = new Problem("A", MapFunctionFactory
+				.getActionsFunction(map), MapFunctionFactory
+				.getResultFunction(), new DefaultGoalTest("G"),
+				new MapStepCostFunction(map));
+		HeuristicFunction zero = new HeuristicFunction() {
+			public double h(Object state) {
+				return 0;
+			}
+		};
+		IterativeDeepeningAStarSearch search = new IterativeDeepeningAStarSearch(
+				zero);
+		SearchBudget budget = SearchBudget.nodeLimit(3);
+		search.setBudget(budget);
+		List<Action> actions = search.search(problem);
+		Assert.assertEquals(SearchBudget.Status.WITHIN_BUDGET, budget
+				.getStatus());
+		Assert.assertEquals("G", execute(problem, actions));
+
+		// B cannot be expanded, so its sibling G must not be accepted
+		budget = SearchBudget.nodeLimit(2);
+		search.setBudget(budget);
+		actions = search.search(problem);
+		Assert.assertEquals(SearchBudget.Status.NODE_LIMIT_REACHED, budget
+				.getStatus());
+		Assert.assertEquals(2, search.getMetrics().getInt(
+				IterativeDeepeningAStarSearch.METRIC_NODES_EXPANDED));
+		// all heuristic values are equal, so the best partial path is empty
+		Assert.assertTrue(actions.isEmpty());
+	}
+
+	//
+	// PRIVATE METHODS
+	//
+
+	private Object execute(Problem problem, List<Action> actions) {
+		ResultFunction rf = problem.getResultFunction();
+		Object state = problem.getInitialState();
+		for (Action a : actions)
+			state = rf.result(state, a);
+		return state;
+	}
+}
@@ -0,0 +1,162 @@
+package aima.test.core.unit.search.framework;
+
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import aima.core.agent.Action;
+import aima.core.environment.eightpuzzle.EightPuzzleBoard;
+import aima.core.environment.eightpuzzle.EightPuzzleFunctionFactory;
+import aima.core.environment.eightpuzzle.EightPuzzleGoalTest;
+import aima.core.environment.eightpuzzle.ManhattanHeuristicFunction;
+import aima.core.search.framework.ActionsFunction;
+import aima.core.search.framework.GraphSearch;
+import aima.core.search.framework.Node;
+import aima.core.search.framework.NodeExpander;
+import aima.core.search.framework.Problem;
+import aima.core.search.framework.ResultFunction;
+import aima.core.search.framework.Search;
+import aima.core.search.framework.SuccessorFunction;
+import aima.core.search.framework.SuccessorVisitor;
+import aima.core.search.framework.TreeSearch;
+import aima.core.search.informed.AStarSearch;
+import aima.core.search.informed.IterativeDeepeningAStarSearch;
+import aima.core.search.uninformed.BreadthFirstSearch;
+import aima.core.search.uninformed.DepthLimitedSearch;
+import aima.core.search.uninformed.UniformCostSearch;
+
+public class SuccessorFunctionTest {
+
+	private static final int[] TILES = { 1, 4, 2, 7, 5, 8, 3, 0, 6 };
+
+	private Problem createProblem() {
+		return new Problem(new EightPuzzleBoard(TILES),
+				EightPuzzleFunctionFactory.getActionsFunction(),
+				EightPuzzleFunctionFactory.getResultFunction(),
+				new EightPuzzleGoalTest());
+	}
+
+	private Problem createStreamingProblem(CountingSuccessorFunction sf) {
+		Problem result = createProblem();
+		result.setSuccessorFunction(sf);
+		return result;
+	}
+
+	@Test
+	public void testDefaultSuccessorFunction() {
+		Problem problem = createProblem();
+		final StringBuffer visited = new StringBuffer();
+		problem.getSuccessorFunction().generateSuccessors(
+				problem.getInitialState(), new SuccessorVisitor() {
+					public boolean visit(Action action, Object successor) {
+						visited.append(action).append(" ");
+						return true;
+					}
+				});
+		StringBuffer expected = new StringBuffer();
+		for (Action a : problem.getActionsFunction().actions(
+				problem.getInitialState()))
+			expected.append(a).append(" ");
+		Assert.assertEquals(expected.toString(), visited.toString());
+	}
+
+	@Test
+	public void testStopGeneration() {
+		CountingSuccessorFunction sf = new CountingSuccessorFunction(
+				EightPuzzleFunctionFactory.getActionsFunction(),
+				EightPuzzleFunctionFactory.getResultFunction());
+		Problem problem = createStreamingProblem(sf);
+		// three actions are applicable, but only the first child is needed
+		List<Node> children = new NodeExpander().expandNode(
+				new Node(problem.getInitialState()),
+				problem);
+		Assert.assertEquals(3, children.size());
+		Assert.assertEquals(3, sf.successors);
+		final int[] count = new int[1];
+		new NodeExpander().expandNode(new Node(
+				problem.getInitialState()), problem,
+				new NodeExpander.NodeVisitor() {
+					public boolean visit(Node child) {
+						count[0]++;
+						return false;
+					}
+				});
+		Assert.assertEquals(1, count[0]);
+		Assert.assertEquals(4, sf.successors);
+	}
+
+	@Test
+	public void testBreadthFirstSearch() throws Exception {
+		assertSameResults(new BreadthFirstSearch(new GraphSearch()),
+				new BreadthFirstSearch(new GraphSearch()));
+		assertSameResults(new BreadthFirstSearch(new TreeSearch()),
+				new BreadthFirstSearch(new TreeSearch()));
+	}
+
+	@Test
+	public void testUniformCostSearch() throws Exception {
+		assertSameResults(new UniformCostSearch(new GraphSearch()),
+				new UniformCostSearch(new GraphSearch()));
+	}
+
+	@Test
+	public void testAStarSearch() throws Exception {
+		assertSameResults(new AStarSearch(new GraphSearch(),
+				new ManhattanHeuristicFunction()), new AStarSearch(
+				new GraphSearch(), new ManhattanHeuristicFunction()));
+	}
+
+	@Test
+	public void testDepthLimitedSearch() throws Exception {
+		assertSameResults(new DepthLimitedSearch(9),
+				new DepthLimitedSearch(9));
+	}
+
+	@Test
+	public void testIterativeDeepeningAStarSearch() throws Exception {
+		assertSameResults(new IterativeDeepeningAStarSearch(
+				new ManhattanHeuristicFunction()),
+				new IterativeDeepeningAStarSearch(
+						new ManhattanHeuristicFunction()));
+	}
+
+	//
+	// PRIVATE METHODS
+	//
+
+	private void assertSameResults(Search search, Search streamingSearch)
+			throws Exception {
+		CountingSuccessorFunction sf = new CountingSuccessorFunction(
+				EightPuzzleFunctionFactory.getActionsFunction(),
+				EightPuzzleFunctionFactory.getResultFunction());
+		List<Action> expected = search.search(createProblem());
+		List<Action> actions = streamingSearch
+				.search(createStreamingProblem(sf));
+		Assert.assertEquals(expected, actions);
+		Assert.assertEquals(search.getMetrics().toString(), streamingSearch
+				.getMetrics().toString());
+		Assert.assertTrue(sf.successors > 0);
+	}
+
+	/** Generates successors by means of the 8-puzzle functions. */
+	private static class CountingSuccessorFunction implements
+			SuccessorFunction {
+		final ActionsFunction af;
+		final ResultFunction rf;
+		int successors;
+
+		CountingSuccessorFunction(ActionsFunction af, ResultFunction rf) {
+			this.af = af;
+			this.rf = rf;
+		}
+
+		public void generateSuccessors(Object s, SuccessorVisitor visitor) {
+			for (Action a : af.actions(s)) {
+				successors++;
+				if (!visitor.visit(a, rf.result(s, a)))
+					break;
+			}
+		}
+	}
+}
@@ -0,0 +1,108 @@
+package aima.test.core.unit.search.informed;
+
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import aima.core.agent.Action;
+import aima.core.agent.impl.NoOpAction;
+import aima.core.environment.map.BidirectionalMapProblem;
+import aima.core.environment.map.ExtendableMap;
+import aima.core.environment.map.Map;
+import aima.core.environment.map.MoveToAction;
+import aima.core.environment.map.SimplifiedRoadMapOfPartOfRomania;
+import aima.core.environment.map.StraightLineDistanceHeuristicFunction;
+import aima.core.search.framework.GraphSearch;
+import aima.core.search.framework.HeuristicFunction;
+import aima.core.search.framework.QueueSearch;
+import aima.core.search.informed.AStarSearch;
+import aima.core.search.informed.BidirectionalAStarSearch;
+
+public class BidirectionalAStarSearchTest {
+
+	@Test
+	public void testRomaniaSameCostAsAStar() throws Exception {
+		Map romaniaMap = new SimplifiedRoadMapOfPartOfRomania();
+		for (String start : romaniaMap.getLocations()) {
+			for (String goal : romaniaMap.getLocations()) {
+				BidirectionalMapProblem problem = new BidirectionalMapProblem(
+						romaniaMap, start, goal);
+				StraightLineDistanceHeuristicFunction toGoal = new StraightLineDistanceHeuristicFunction(
+						goal, romaniaMap);
+				StraightLineDistanceHeuristicFunction toStart = new StraightLineDistanceHeuristicFunction(
+						start, romaniaMap);
+				AStarSearch aStar = new AStarSearch(new GraphSearch(), toGoal);
+				aStar.search(problem);
+				BidirectionalAStarSearch biAStar = new BidirectionalAStarSearch(
+						toGoal, toStart);
+				List<Action> actions = biAStar.search(problem);
+				Assert.assertEquals(aStar.getMetrics().getDouble(
+						QueueSearch.METRIC_PATH_COST), biAStar.getMetrics()
+						.getDouble(BidirectionalAStarSearch.METRIC_PATH_COST),
+						0.0);
+				// the actions lead from start to goal
+				String location = start;
+				for (Action a : actions)
+					if (a instanceof MoveToAction)
+						location = ((MoveToAction) a).getToLocation();
+				Assert.assertEquals(goal, location);
+				Assert.assertEquals(biAStar.getMetrics().getInt(
+						BidirectionalAStarSearch.METRIC_NODES_EXPANDED),
+						biAStar.getMetrics().getInt(
+								BidirectionalAStarSearch.METRIC_NODES_EXPANDED_FORWARD)
+								+ biAStar.getMetrics().getInt(
+										BidirectionalAStarSearch.METRIC_NODES_EXPANDED_BACKWARD));
+			}
+		}
+	}
+
+	@Test
+	public void testLineMap() throws Exception {
+		ExtendableMap map = new ExtendableMap();
+		map.addBidirectionalLink("A", "B", 5.0);
+		map.addBidirectionalLink("B", "C", 5.0);
+		map.addBidirectionalLink("C", "D", 5.0);
+		map.addBidirectionalLink("A", "D", 20.0);
+		BidirectionalAStarSearch search = new BidirectionalAStarSearch(
+				new ZeroHeuristicFunction(), new ZeroHeuristicFunction());
+		List<Action> actions = search.search(new BidirectionalMapProblem(map,
+				"A", "D"));
+		Assert.assertEquals(
+				"[Action[name==moveTo, location==B], Action[name==moveTo, location==C], Action[name==moveTo, location==D]]",
+				actions.toString());
+		Assert.assertEquals(15.0, search.getMetrics().getDouble(
+				BidirectionalAStarSearch.METRIC_PATH_COST), 0.0);
+	}
+
+	@Test
+	public void testStartingAtGoal() throws Exception {
+		ExtendableMap map = new ExtendableMap();
+		map.addBidirectionalLink("A", "B", 5.0);
+		BidirectionalAStarSearch search = new BidirectionalAStarSearch(
+				new ZeroHeuristicFunction(), new ZeroHeuristicFunction());
+		List<Action> actions = search.search(new BidirectionalMapProblem(map,
+				"A", "A"));
+		Assert.assertEquals(1, actions.size());
+		Assert.assertEquals(NoOpAction.NO_OP, actions.get(0));
+	}
+
+	@Test
+	public void testUnreachableGoal() throws Exception {
+		ExtendableMap map = new ExtendableMap();
+		map.addBidirectionalLink("A", "B", 5.0);
+		map.addBidirectionalLink("C", "D", 5.0);
+		BidirectionalAStarSearch search = new BidirectionalAStarSearch(
+				new ZeroHeuristicFunction(), new ZeroHeuristicFunction());
+		List<Action> actions = search.search(new BidirectionalMapProblem(map,
+				"A", "D"));
+		Assert.assertTrue(actions.isEmpty());
+	}
+
+	private static class ZeroHeuristicFunction implements
+			HeuristicFunction {
+		public double h(Object state) {
+			return 0;
+		}
+	}
+}
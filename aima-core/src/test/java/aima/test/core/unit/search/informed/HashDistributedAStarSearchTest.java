@@ -0,0 +1,118 @@
+package aima.test.core.unit.search.informed;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import aima.core.agent.Action;
+import aima.core.agent.impl.NoOpAction;
+import aima.core.environment.eightpuzzle.EightPuzzleBoard;
+import aima.core.environment.eightpuzzle.EightPuzzleFunctionFactory;
+import aima.core.environment.eightpuzzle.EightPuzzleGoalTest;
+import aima.core.environment.eightpuzzle.ManhattanHeuristicFunction;
+import aima.core.environment.map.Map;
+import aima.core.environment.map.MapFunctionFactory;
+import aima.core.environment.map.MapStepCostFunction;
+import aima.core.environment.map.SimplifiedRoadMapOfPartOfRomania;
+import aima.core.environment.map.StraightLineDistanceHeuristicFunction;
+import aima.core.search.framework.DefaultGoalTest;
+import aima.core.search.framework.GraphSearch;
+import aima.core.search.framework.HeuristicFunction;
+import aima.core.search.framework.Problem;
+import aima.core.search.framework.QueueSearch;
+import aima.core.search.informed.AStarSearch;
+import aima.core.search.informed.HashDistributedAStarSearch;
+
+public class HashDistributedAStarSearchTest {
+
+	@Test
+	public void testEightPuzzleSameCostAsAStar() throws Exception {
+		EightPuzzleBoard board = new EightPuzzleBoard(new int[] { 7, 1, 8, 0,
+				4, 6, 2, 3, 5 });
+		Problem problem = new Problem(board,
+				EightPuzzleFunctionFactory.getActionsFunction(),
+				EightPuzzleFunctionFactory.getResultFunction(),
+				new EightPuzzleGoalTest());
+		for (int numWorkers = 1; numWorkers <= 4; numWorkers++) {
+			HashDistributedAStarSearch search = new HashDistributedAStarSearch(
+					new ManhattanHeuristicFunction(), numWorkers);
+			List<Action> actions = search.search(problem);
+			Assert.assertEquals(23, actions.size());
+			Assert.assertEquals(23.0, search.getMetrics().getDouble(
+					HashDistributedAStarSearch.METRIC_PATH_COST), 0.0);
+
+			int sum = 0;
+			for (int i = 0; i < numWorkers; i++)
+				sum += search.getMetrics().getInt(
+						HashDistributedAStarSearch.METRIC_WORKER_NODES_EXPANDED
+								+ "[" + i + "]");
+			Assert.assertEquals(search.getMetrics().getInt(
+					HashDistributedAStarSearch.METRIC_NODES_EXPANDED), sum);
+		}
+	}
+
+	@Test
+	public void testRomaniaSameCostAsAStar() throws Exception {
+		Map romaniaMap = new SimplifiedRoadMapOfPartOfRomania();
+		StraightLineDistanceHeuristicFunction hf = new StraightLineDistanceHeuristicFunction(
+				SimplifiedRoadMapOfPartOfRomania.BUCHAREST, romaniaMap);
+		for (String start : romaniaMap.getLocations()) {
+			Problem problem = new Problem(start,
+					MapFunctionFactory.getActionsFunction(romaniaMap),
+					MapFunctionFactory.getResultFunction(),
+					new DefaultGoalTest(
+							SimplifiedRoadMapOfPartOfRomania.BUCHAREST),
+					new MapStepCostFunction(romaniaMap));
+			AStarSearch aStar = new AStarSearch(new GraphSearch(), hf);
+			aStar.search(problem);
+			HashDistributedAStarSearch hdaStar = new HashDistributedAStarSearch(
+					hf, 3);
+			hdaStar.search(problem);
+			Assert.assertEquals(aStar.getMetrics().getDouble(
+					QueueSearch.METRIC_PATH_COST), hdaStar.getMetrics()
+					.getDouble(HashDistributedAStarSearch.METRIC_PATH_COST),
+					0.0);
+		}
+	}
+
+	@Test
+	public void testStartingAtGoal() throws Exception {
+		Map romaniaMap = new SimplifiedRoadMapOfPartOfRomania();
+		Problem problem = new Problem(
+				SimplifiedRoadMapOfPartOfRomania.BUCHAREST,
+				MapFunctionFactory.getActionsFunction(romaniaMap),
+				MapFunctionFactory.getResultFunction(), new DefaultGoalTest(
+						SimplifiedRoadMapOfPartOfRomania.BUCHAREST),
+				new MapStepCostFunction(romaniaMap));
+		HashDistributedAStarSearch search = new HashDistributedAStarSearch(
+				new StraightLineDistanceHeuristicFunction(
+						SimplifiedRoadMapOfPartOfRomania.BUCHAREST, romaniaMap),
+				2);
+		List<Action> actions = search.search(problem);
+		Assert.assertEquals(1, actions.size());
+		Assert.assertEquals(NoOpAction.NO_OP, actions.get(0));
+	}
+
+	@Test(timeout = 10000, expected = StackOverflowError.class)
+	public void testErrorInWorker() throws Exception {
+		EightPuzzleBoard board = new EightPuzzleBoard(new int[] { 7, 1, 8, 0,
+				4, 6, 2, 3, 5 });
+		Problem problem = new Problem(board,
+				EightPuzzleFunctionFactory.getActionsFunction(),
+				EightPuzzleFunctionFactory.getResultFunction(),
+				new EightPuzzleGoalTest());
+		final HeuristicFunction manhattan = new ManhattanHeuristicFunction();
+		final AtomicInteger calls = new AtomicInteger();
+		// one worker dies, the others must not wait for its nodes forever
+		HeuristicFunction hf = new HeuristicFunction() {
+			public double h(Object state) {
+				if (calls.incrementAndGet() == 100)
+					throw new StackOverflowError();
+				return manhattan.h(state);
+			}
+		};
+		new HashDistributedAStarSearch(hf, 4).search(problem);
+	}
+}
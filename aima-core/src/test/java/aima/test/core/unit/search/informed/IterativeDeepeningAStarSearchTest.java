@@ -0,0 +1,86 @@
+package aima.test.core.unit.search.informed;
+
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import aima.core.agent.Action;
+import aima.core.agent.impl.NoOpAction;
+import aima.core.environment.eightpuzzle.EightPuzzleBoard;
+import aima.core.environment.eightpuzzle.EightPuzzleFunctionFactory;
+import aima.core.environment.eightpuzzle.EightPuzzleGoalTest;
+import aima.core.environment.eightpuzzle.ManhattanHeuristicFunction;
+import aima.core.environment.map.Map;
+import aima.core.environment.map.MapFunctionFactory;
+import aima.core.environment.map.MapStepCostFunction;
+import aima.core.environment.map.SimplifiedRoadMapOfPartOfRomania;
+import aima.core.environment.map.StraightLineDistanceHeuristicFunction;
+import aima.core.search.framework.DefaultGoalTest;
+import aima.core.search.framework.GraphSearch;
+import aima.core.search.framework.Problem;
+import aima.core.search.framework.QueueSearch;
+import aima.core.search.informed.AStarSearch;
+import aima.core.search.informed.IterativeDeepeningAStarSearch;
+
+public class IterativeDeepeningAStarSearchTest {
+
+	@Test
+	public void testEightPuzzle() throws Exception {
+		EightPuzzleBoard board = new EightPuzzleBoard(new int[] { 7, 1, 8, 0,
+				4, 6, 2, 3, 5 });
+		Problem problem = new Problem(board,
+				EightPuzzleFunctionFactory.getActionsFunction(),
+				EightPuzzleFunctionFactory.getResultFunction(),
+				new EightPuzzleGoalTest());
+		IterativeDeepeningAStarSearch search = new IterativeDeepeningAStarSearch(
+				new ManhattanHeuristicFunction());
+		List<Action> actions = search.search(problem);
+		Assert.assertEquals(23, actions.size());
+		Assert.assertEquals(23.0, search.getMetrics().getDouble(
+				IterativeDeepeningAStarSearch.METRIC_PATH_COST), 0.0);
+		Assert.assertTrue(search.getMetrics().getInt(
+				IterativeDeepeningAStarSearch.METRIC_ITERATIONS) > 1);
+	}
+
+	@Test
+	public void testRomaniaSameCostAsAStar() throws Exception {
+		Map romaniaMap = new SimplifiedRoadMapOfPartOfRomania();
+		StraightLineDistanceHeuristicFunction hf = new StraightLineDistanceHeuristicFunction(
+				SimplifiedRoadMapOfPartOfRomania.BUCHAREST, romaniaMap);
+		for (String start : romaniaMap.getLocations()) {
+			Problem problem = new Problem(start,
+					MapFunctionFactory.getActionsFunction(romaniaMap),
+					MapFunctionFactory.getResultFunction(),
+					new DefaultGoalTest(
+							SimplifiedRoadMapOfPartOfRomania.BUCHAREST),
+					new MapStepCostFunction(romaniaMap));
+			AStarSearch aStar = new AStarSearch(new GraphSearch(), hf);
+			aStar.search(problem);
+			IterativeDeepeningAStarSearch idaStar = new IterativeDeepeningAStarSearch(
+					hf);
+			idaStar.search(problem);
+			Assert.assertEquals(aStar.getMetrics().getDouble(
+					QueueSearch.METRIC_PATH_COST), idaStar.getMetrics()
+					.getDouble(IterativeDeepeningAStarSearch.METRIC_PATH_COST),
+					0.0);
+		}
+	}
+
+	@Test
+	public void testStartingAtGoal() throws Exception {
+		Map romaniaMap = new SimplifiedRoadMapOfPartOfRomania();
+		Problem problem = new Problem(
+				SimplifiedRoadMapOfPartOfRomania.BUCHAREST,
+				MapFunctionFactory.getActionsFunction(romaniaMap),
+				MapFunctionFactory.getResultFunction(), new DefaultGoalTest(
+						SimplifiedRoadMapOfPartOfRomania.BUCHAREST),
+				new MapStepCostFunction(romaniaMap));
+		IterativeDeepeningAStarSearch search = new IterativeDeepeningAStarSearch(
+				new StraightLineDistanceHeuristicFunction(
+						SimplifiedRoadMapOfPartOfRomania.BUCHAREST, romaniaMap));
+		List<Action> actions = search.search(problem);
+		Assert.assertEquals(1, actions.size());
+		Assert.assertEquals(NoOpAction.NO_OP, actions.get(0));
+	}
+}
@@ -0,0 +1,96 @@
+package aima.test.core.unit.search.informed;
+
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import aima.core.agent.Action;
+import aima.core.agent.impl.NoOpAction;
+import aima.core.environment.eightpuzzle.EightPuzzleBoard;
+import aima.core.environment.eightpuzzle.EightPuzzleFunctionFactory;
+import aima.core.environment.eightpuzzle.EightPuzzleGoalTest;
+import aima.core.environment.eightpuzzle.ManhattanHeuristicFunction;
+import aima.core.environment.map.Map;
+import aima.core.environment.map.MapFunctionFactory;
+import aima.core.environment.map.MapStepCostFunction;
+import aima.core.environment.map.SimplifiedRoadMapOfPartOfRomania;
+import aima.core.environment.map.StraightLineDistanceHeuristicFunction;
+import aima.core.search.framework.DefaultGoalTest;
+import aima.core.search.framework.Problem;
+import aima.core.search.informed.SimplifiedMemoryBoundedAStarSearch;
+
+public class SimplifiedMemoryBoundedAStarSearchTest {
+
+	@Test
+	public void testEightPuzzle() throws Exception {
+		EightPuzzleBoard board = new EightPuzzleBoard(new int[] { 7, 1, 8, 0,
+				4, 6, 2, 3, 5 });
+		Problem problem = new Problem(board,
+				EightPuzzleFunctionFactory.getActionsFunction(),
+				EightPuzzleFunctionFactory.getResultFunction(),
+				new EightPuzzleGoalTest());
+		for (int maxNodes : new int[] { 500, 5000 }) {
+			SimplifiedMemoryBoundedAStarSearch search = new SimplifiedMemoryBoundedAStarSearch(
+					new ManhattanHeuristicFunction(), maxNodes);
+			List<Action> actions = search.search(problem);
+			Assert.assertEquals(23, actions.size());
+			Assert.assertEquals(23.0, search.getMetrics().getDouble(
+					SimplifiedMemoryBoundedAStarSearch.METRIC_PATH_COST), 0.0);
+			Assert.assertTrue(search.getMetrics().getInt(
+					SimplifiedMemoryBoundedAStarSearch.METRIC_MAX_NODES_IN_MEMORY) <= maxNodes);
+		}
+	}
+
+	@Test
+	public void testRomaniaWithSmallBudget() throws Exception {
+		Map romaniaMap = new SimplifiedRoadMapOfPartOfRomania();
+		Problem problem = createRomaniaProblem(romaniaMap,
+				SimplifiedRoadMapOfPartOfRomania.ARAD);
+		StraightLineDistanceHeuristicFunction hf = new StraightLineDistanceHeuristicFunction(
+				SimplifiedRoadMapOfPartOfRomania.BUCHAREST, romaniaMap);
+		// the optimal path Arad, Sibiu, Rimnicu Vilcea, Pitesti, Bucharest
+		// needs 5 nodes
+		SimplifiedMemoryBoundedAStarSearch search = new SimplifiedMemoryBoundedAStarSearch(
+				hf, 5);
+		List<Action> actions = search.search(problem);
+		Assert.assertEquals(4, actions.size());
+		Assert.assertEquals(418.0, search.getMetrics().getDouble(
+				SimplifiedMemoryBoundedAStarSearch.METRIC_PATH_COST), 0.0);
+		Assert.assertTrue(search.getMetrics().getInt(
+				SimplifiedMemoryBoundedAStarSearch.METRIC_NODES_FORGOTTEN) > 0);
+
+		// with 4 nodes, only the path via Fagaras fits into memory
+		search = new SimplifiedMemoryBoundedAStarSearch(hf, 4);
+		actions = search.search(problem);
+		Assert.assertEquals(3, actions.size());
+		Assert.assertEquals(450.0, search.getMetrics().getDouble(
+				SimplifiedMemoryBoundedAStarSearch.METRIC_PATH_COST), 0.0);
+
+		search = new SimplifiedMemoryBoundedAStarSearch(hf, 3);
+		actions = search.search(problem);
+		Assert.assertTrue(actions.isEmpty());
+	}
+
+	@Test
+	public void testStartingAtGoal() throws Exception {
+		Map romaniaMap = new SimplifiedRoadMapOfPartOfRomania();
+		Problem problem = createRomaniaProblem(romaniaMap,
+				SimplifiedRoadMapOfPartOfRomania.BUCHAREST);
+		SimplifiedMemoryBoundedAStarSearch search = new SimplifiedMemoryBoundedAStarSearch(
+				new StraightLineDistanceHeuristicFunction(
+						SimplifiedRoadMapOfPartOfRomania.BUCHAREST, romaniaMap),
+				10);
+		List<Action> actions = search.search(problem);
+		Assert.assertEquals(1, actions.size());
+		Assert.assertEquals(NoOpAction.NO_OP, actions.get(0));
+	}
+
+	private Problem createRomaniaProblem(Map romaniaMap, String start) {
+		return new Problem(start,
+				MapFunctionFactory.getActionsFunction(romaniaMap),
+				MapFunctionFactory.getResultFunction(), new DefaultGoalTest(
+						SimplifiedRoadMapOfPartOfRomania.BUCHAREST),
+				new MapStepCostFunction(romaniaMap));
+	}
+}
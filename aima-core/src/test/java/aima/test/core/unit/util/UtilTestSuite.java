@@ -4,15 +4,18 @@ import org.junit.runner.RunWith;
 import org.junit.runners.Suite;
 
 import aima.test.core.unit.util.datastructure.FIFOQueueTest;
+import aima.test.core.unit.util.datastructure.IndexedPriorityQueueTest;
 import aima.test.core.unit.util.datastructure.LIFOQueueTest;
+import aima.test.core.unit.util.datastructure.LongHashSetTest;
 import aima.test.core.unit.util.datastructure.TableTest;
 import aima.test.core.unit.util.datastructure.XYLocationTest;
 import aima.test.core.unit.util.math.MixedRadixNumberTest;
 
 @RunWith(Suite.class)
-@Suite.SuiteClasses({ FIFOQueueTest.class, LIFOQueueTest.class,
-		TableTest.class, XYLocationTest.class, MixedRadixNumberTest.class,
-		SetOpsTest.class, UtilTest.class })
+@Suite.SuiteClasses({ FIFOQueueTest.class, IndexedPriorityQueueTest.class,
+		LIFOQueueTest.class, LongHashSetTest.class, TableTest.class,
+		XYLocationTest.class, MixedRadixNumberTest.class, SetOpsTest.class,
+		UtilTest.class })
 public class UtilTestSuite {
 
 }
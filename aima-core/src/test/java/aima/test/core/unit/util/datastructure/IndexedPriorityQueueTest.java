@@ -0,0 +1,77 @@
+package aima.test.core.unit.util.datastructure;
+
+import java.util.Comparator;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import aima.core.util.datastructure.IndexedPriorityQueue;
+import aima.core.util.datastructure.PriorityQueue;
+
+public class IndexedPriorityQueueTest {
+
+	private static final Comparator<String> BY_LENGTH = new Comparator<String>() {
+		public int compare(String s1, String s2) {
+			return s1.length() - s2.length();
+		}
+	};
+
+	@Test
+	public void testInsertPopRemove() {
+		IndexedPriorityQueue<String> queue = new IndexedPriorityQueue<String>(
+				2, BY_LENGTH);
+		Assert.assertTrue(queue.isEmpty());
+
+		queue.insert("ccc");
+		queue.insert("a");
+		queue.insert("dddd");
+		queue.insert("bb");
+		Assert.assertEquals(4, queue.size());
+		Assert.assertNull(queue.insert("bb"));
+		Assert.assertEquals(4, queue.size());
+
+		Assert.assertTrue(queue.contains("ccc"));
+		Assert.assertTrue(queue.remove("ccc"));
+		Assert.assertFalse(queue.contains("ccc"));
+		Assert.assertFalse(queue.remove("ccc"));
+
+		Assert.assertEquals("a", queue.peek());
+		Assert.assertEquals("a", queue.pop());
+		Assert.assertEquals("bb", queue.pop());
+		Assert.assertEquals("dddd", queue.pop());
+		Assert.assertTrue(queue.isEmpty());
+		Assert.assertNull(queue.pop());
+	}
+
+	@Test
+	public void testSameOrderAsPriorityQueue() {
+		// elements with equal priority must leave both queues in the same
+		// order, otherwise search metrics would change.
+		Comparator<Integer> byTens = new Comparator<Integer>() {
+			public int compare(Integer i1, Integer i2) {
+				return i1 / 10 - i2 / 10;
+			}
+		};
+		IndexedPriorityQueue<Integer> indexed = new IndexedPriorityQueue<Integer>(
+				5, byTens);
+		PriorityQueue<Integer> plain = new PriorityQueue<Integer>(5, byTens);
+		Random r = new Random(42);
+		for (int i = 0; i < 2000; i++) {
+			Integer e = r.nextInt(500);
+			int op = r.nextInt(3);
+			if (op == 0 && !plain.isEmpty()) {
+				Assert.assertEquals(plain.pop(), indexed.pop());
+			} else if (op == 1) {
+				Assert.assertEquals(plain.remove(e), indexed.remove(e));
+			} else if (!plain.contains(e)) {
+				plain.insert(e);
+				indexed.insert(e);
+			}
+			Assert.assertEquals(plain.size(), indexed.size());
+		}
+		while (!plain.isEmpty())
+			Assert.assertEquals(plain.pop(), indexed.pop());
+		Assert.assertTrue(indexed.isEmpty());
+	}
+}
@@ -0,0 +1,43 @@
+package aima.test.core.unit.util.datastructure;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import aima.core.util.datastructure.LongHashSet;
+
+public class LongHashSetTest {
+
+	@Test
+	public void testAddContains() {
+		LongHashSet set = new LongHashSet();
+		Assert.assertTrue(set.isEmpty());
+		Assert.assertTrue(set.add(0L));
+		Assert.assertFalse(set.add(0L));
+		Assert.assertTrue(set.add(-1L));
+		Assert.assertTrue(set.contains(0L));
+		Assert.assertTrue(set.contains(-1L));
+		Assert.assertFalse(set.contains(1L));
+		Assert.assertEquals(2, set.size());
+		set.clear();
+		Assert.assertFalse(set.contains(0L));
+		Assert.assertEquals(0, set.size());
+	}
+
+	@Test
+	public void testAgainstHashSet() {
+		LongHashSet set = new LongHashSet(4);
+		Set<Long> expected = new HashSet<Long>();
+		Random r = new Random(7);
+		for (int i = 0; i < 10000; i++) {
+			long value = r.nextInt(5000) * 0x100000000L;
+			Assert.assertEquals(expected.add(value), set.add(value));
+		}
+		Assert.assertEquals(expected.size(), set.size());
+		for (long value : expected)
+			Assert.assertTrue(set.contains(value));
+	}
+}
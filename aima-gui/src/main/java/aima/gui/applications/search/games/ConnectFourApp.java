@@ -16,20 +16,24 @@ import javax.swing.JLabel;
 import javax.swing.JPanel;
 import javax.swing.JToolBar;
 
+import aima.core.environment.connectfour.BitboardConnectFourGame;
+import aima.core.environment.connectfour.BitboardConnectFourState;
 import aima.core.environment.connectfour.ConnectFourAIPlayer;
-import aima.core.environment.connectfour.ConnectFourGame;
-import aima.core.environment.connectfour.ConnectFourState;
 import aima.core.search.adversarial.AdversarialSearch;
 import aima.core.search.adversarial.AlphaBetaSearch;
 import aima.core.search.adversarial.IterativeDeepeningAlphaBetaSearch;
 import aima.core.search.adversarial.MinimaxSearch;
+import aima.core.search.adversarial.MonteCarloTreeSearch;
+import aima.core.search.adversarial.ParallelAlphaBetaSearch;
 import aima.core.search.framework.Metrics;
 
 /**
  * Simple graphical Connect Four game application. It demonstrates the Minimax
  * algorithm with alpha-beta pruning, iterative deepening, and action ordering.
  * The implemented action ordering strategy tries to maximize the impact of the
- * chosen action for later game phases.
+ * chosen action for later game phases. Monte Carlo tree search is offered as
+ * an alternative which needs no evaluation function. The game is played on a
+ * bitboard representation, which makes search fast.
  * 
  * @author Ruediger Lunde
  */
@@ -61,13 +65,19 @@ public class ConnectFourApp {
 		JButton proposeButton;
 		JLabel statusBar;
 
-		ConnectFourGame game;
-		ConnectFourState currState;
+		BitboardConnectFourGame game;
+		BitboardConnectFourState currState;
 		Metrics searchMetrics;
+		/**
+		 * Kept between moves, so that the search can reuse its tree. It is
+		 * replaced when the time setting changes.
+		 */
+		MonteCarloTreeSearch<BitboardConnectFourState, Integer, String> mcts;
+		int mctsTime;
 
 		/** Standard constructor. */
 		ConnectFourPanel() {
-			game = new ConnectFourGame();
+			game = new BitboardConnectFourGame();
 			currState = game.getInitialState();
 			setLayout(new BorderLayout());
 			setBackground(Color.BLUE);
@@ -78,7 +88,8 @@ public class ConnectFourApp {
 					"Minimax (not recommended)",
 					"Alpha-Beta (not recommended)",
 					"Iterative Deepening Alpha-Beta", "Advanced Alpha-Beta",
-					"Advanced Alpha-Beta (log)" });
+					"Advanced Alpha-Beta (log)",
+					"Parallel Advanced Alpha-Beta", "Monte Carlo Tree Search" });
 			strategyCombo.setSelectedIndex(3);
 			toolBar.add(strategyCombo);
 			timeCombo = new JComboBox(new String[] { "5sec", "10sec", "15sec",
@@ -137,7 +148,7 @@ public class ConnectFourApp {
 		private void proposeMove() {
 			Integer action;
 			int time = (timeCombo.getSelectedIndex() + 1) * 5;
-			AdversarialSearch<ConnectFourState, Integer> search;
+			AdversarialSearch<BitboardConnectFourState, Integer> search;
 			switch (strategyCombo.getSelectedIndex()) {
 			case 0:
 				search = MinimaxSearch.createFor(game);
@@ -150,11 +161,30 @@ public class ConnectFourApp {
 						1.0, time);
 				break;
 			case 3:
-				search = new ConnectFourAIPlayer(game, time);
+				search = new ConnectFourAIPlayer<BitboardConnectFourState>(
+						game, time);
+				break;
+			case 4:
+				search = new ConnectFourAIPlayer<BitboardConnectFourState>(
+						game, time);
+				((ConnectFourAIPlayer<?>) search).setLogEnabled(true);
+				break;
+			case 5:
+				ConnectFourAIPlayer<BitboardConnectFourState> template = new ConnectFourAIPlayer<BitboardConnectFourState>(
+						game, time);
+				// the table cannot be shared by the search threads
+				template.setTranspositionTable(null);
+				search = new ParallelAlphaBetaSearch<BitboardConnectFourState, Integer, String>(
+						template);
 				break;
 			default:
-				search = new ConnectFourAIPlayer(game, time);
-				((ConnectFourAIPlayer) search).setLogEnabled(true);
+				if (mcts == null || mctsTime != time) {
+					mcts = MonteCarloTreeSearch.createFor(game, 0.0, 1.0, time);
+					mcts.setThreadCount(Runtime.getRuntime()
+							.availableProcessors());
+					mctsTime = time;
+				}
+				search = mcts;
 			}
 			action = search.makeDecision(currState);
 			searchMetrics = search.getMetrics();
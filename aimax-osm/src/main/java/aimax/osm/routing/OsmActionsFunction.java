@@ -6,6 +6,8 @@ import java.util.Set;
 
 import aima.core.agent.Action;
 import aima.core.search.framework.ActionsFunction;
+import aima.core.search.framework.SuccessorFunction;
+import aima.core.search.framework.SuccessorVisitor;
 import aimax.osm.data.MapWayFilter;
 import aimax.osm.data.entities.MapNode;
 import aimax.osm.data.entities.MapWay;
@@ -16,9 +18,12 @@ import aimax.osm.data.entities.WayRef;
  * assumed to be of class {@link aimax.osm.data.entities.MapNode}. If a goal is
  * specified, all generated actions lead to road crossings, road ends, or the
  * specified goal. Otherwise, they lead to directly linked neighbor nodes.
+ * As successor function, it streams the actions together with their target
+ * nodes to the search without building action sets.
  * @author Ruediger Lunde
  */
-public class OsmActionsFunction implements ActionsFunction {
+public class OsmActionsFunction implements ActionsFunction,
+		SuccessorFunction {
 
 	protected MapWayFilter filter;
 	private boolean ignoreOneWays;
@@ -38,7 +43,23 @@ public class OsmActionsFunction implements ActionsFunction {
 	/** Expects a <code>MapNode</code> as argument. */
 	@Override
 	public Set<Action> actions(Object s) {
-		Set<Action> result = new LinkedHashSet<Action>();
+		final Set<Action> result = new LinkedHashSet<Action>();
+		generateSuccessors(s, new SuccessorVisitor() {
+			public boolean visit(Action action, Object successor) {
+				result.add(action);
+				return true;
+			}
+		});
+		return result;
+	}
+
+	/**
+	 * Expects a <code>MapNode</code> as argument and passes the actions
+	 * together with their target nodes to the visitor without collecting
+	 * them.
+	 */
+	@Override
+	public void generateSuccessors(Object s, SuccessorVisitor visitor) {
 		MapNode from = (MapNode) s;
 		for (WayRef wref : from.getWayRefs()) {
 			if (filter == null || filter.isAccepted(wref.getWay())) {
@@ -51,7 +72,8 @@ public class OsmActionsFunction implements ActionsFunction {
 					if (goal == null || goal == to
 							|| to.getWayRefs().size() > 1
 							|| idx == wayNodes.size() - 1) {
-						result.add(new OsmMoveAction(way, from, to));
+						if (!visitor.visit(new OsmMoveAction(way, from, to), to))
+							return;
 						break;
 					}
 				}
@@ -60,13 +82,14 @@ public class OsmActionsFunction implements ActionsFunction {
 						to = wayNodes.get(idx);
 						if (goal == null || goal == to
 								|| to.getWayRefs().size() > 1 || idx == 0) {
-							result.add(new OsmMoveAction(way, from, to));
+							if (!visitor.visit(new OsmMoveAction(way, from, to),
+									to))
+								return;
 							break;
 						}
 					}
 				}
 			}
 		}
-		return result;
 	}
 }
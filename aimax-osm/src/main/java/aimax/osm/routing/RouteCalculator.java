@@ -4,6 +4,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 import aima.core.agent.Action;
+import aima.core.search.framework.CachingHeuristicFunction;
 import aima.core.search.framework.GraphSearch;
 import aima.core.search.framework.HeuristicFunction;
 import aima.core.search.framework.Problem;
@@ -92,10 +93,15 @@ public class RouteCalculator {
 			return MapWayAttFilter.createAnyWayFilter();
 	}
 
-	/** Factory method, responsible for heuristic function creation. */
+	/**
+	 * Factory method, responsible for heuristic function creation. The
+	 * straight-line distance is cached per map node because its computation
+	 * is based on trigonometric functions.
+	 */
 	protected HeuristicFunction createHeuristicFunction(MapNode toRNode,
 			int waySelection) {
-		return new OsmSldHeuristicFunction(toRNode);
+		return new CachingHeuristicFunction(new OsmSldHeuristicFunction(
+				toRNode));
 	}
 
 	/** Factory method, responsible for problem creation. */
@@ -28,8 +28,11 @@ public class RouteFindingProblem extends Problem {
 	public RouteFindingProblem(MapNode from, MapNode to, MapWayFilter filter,
 			boolean ignoreOneWays) {
 		initialState = from;
-		actionsFunction = new OsmActionsFunction(filter, ignoreOneWays, to);
+		OsmActionsFunction af = new OsmActionsFunction(filter,
+				ignoreOneWays, to);
+		actionsFunction = af;
 		resultFunction = new OsmResultFunction();
+		successorFunction = af;
 		goalTest = new DefaultGoalTest(to);
 		stepCostFunction = new OsmDistanceStepCostFunction();
 	}
@@ -49,8 +52,11 @@ public class RouteFindingProblem extends Problem {
 	public RouteFindingProblem(MapNode from, MapNode to, MapWayFilter filter,
 			boolean ignoreOneWays, StepCostFunction costs) {
 		initialState = from;
-		actionsFunction = new OsmActionsFunction(filter, ignoreOneWays, to);
+		OsmActionsFunction af = new OsmActionsFunction(filter,
+				ignoreOneWays, to);
+		actionsFunction = af;
 		resultFunction = new OsmResultFunction();
+		successorFunction = af;
 		goalTest = new DefaultGoalTest(to);
 		stepCostFunction = costs;
 	}